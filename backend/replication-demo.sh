@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Runs a primary and a hot standby as two local processes, plays a few actions on the primary,
+# kills it and checks that the standby takes over the match.
+#
+#   ./mvnw -DskipTests package
+#   ./replication-demo.sh
+#
+# Each process runs in its own scratch directory (gamestate.json, stats and archive are per node).
+# Both share a token secret, so the player tokens handed out by the primary still work on the standby.
+# The "demo" token secret and the missing replication secret are for this script only: a real
+# deployment gives both nodes the same private ultma.players.token-secret (anyone who knows it can
+# forge any player's token) and an ultma.replication.secret of its own.
+set -euo pipefail
+
+PRIMARY_PORT=${PRIMARY_PORT:-18080}
+STANDBY_PORT=${STANDBY_PORT:-18081}
+cd "$(dirname "$0")"
+JAR=$(realpath "${JAR:-target/backend-0.0.1-SNAPSHOT.jar}")
+PRIMARY=http://localhost:$PRIMARY_PORT
+STANDBY=http://localhost:$STANDBY_PORT
+
+start() {
+    local work
+    work=$(mktemp -d)
+    (cd "$work" && exec java -jar "$JAR" --ultma.bot.enabled=false --ultma.players.token-secret=demo "$@" >node.log 2>&1) &
+    echo $!
+}
+
+wait_healthy() {
+    until curl -sf "$1/actuator/health" 2>/dev/null | grep -q UP; do sleep 0.2; done
+}
+
+json() { python3 -c "import json, sys; print(eval(sys.argv[1], {}, {'m': json.load(sys.stdin)}))" "$1"; }
+
+standby_pid=$(start --server.port="$STANDBY_PORT" --ultma.replication.role=standby)
+primary_pid=$(start --server.port="$PRIMARY_PORT" --ultma.replication.role=primary \
+    --ultma.replication.standby-url="$STANDBY")
+trap 'kill $primary_pid $standby_pid 2>/dev/null || true' EXIT
+wait_healthy "$STANDBY"
+wait_healthy "$PRIMARY"
+
+# Only a join hands out a seat's token; seats follow the join order
+tokens=("$(curl -sf -XPOST "$PRIMARY/api/game/join?playerName=Ana" | json "m['playerToken']")")
+match=$(curl -sf -XPOST "$PRIMARY/api/game/join?playerName=Bia")
+tokens+=("$(echo "$match" | json "m['playerToken']")")
+turn=${tokens[$(echo "$match" | json "m['currentTurnPlayerIndex']")]}
+curl -sf -XPOST "$PRIMARY/api/game/meditate?playerToken=$turn" >/dev/null
+sleep 0.5
+
+echo "primary: $(curl -sf "$PRIMARY/api/replication/status")"
+echo "standby: $(curl -sf "$STANDBY/api/replication/status")"
+echo "primary version $(curl -sf "$PRIMARY/api/game" | json "m['version']"), standby version $(curl -sf "$STANDBY/api/game" | json "m['version']")"
+
+kill "$primary_pid"
+start_ms=$(date +%s%3N)
+until curl -sf "$STANDBY/api/replication/status" | grep -q '"role":"primary"'; do sleep 0.1; done
+echo "standby promoted $(( $(date +%s%3N) - start_ms )) ms after the primary died"
+
+next=$(curl -sf -XPOST "$STANDBY/api/game/end-turn?playerToken=$turn" | json "m['players'][m['currentTurnPlayerIndex']]['name']")
+echo "turn passed on the new primary, now playing: $next"
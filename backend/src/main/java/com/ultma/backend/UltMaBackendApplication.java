@@ -2,8 +2,12 @@ package com.ultma.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(UltMaRuntimeHints.class)
 public class UltMaBackendApplication {
 
 	public static void main(String[] args) {
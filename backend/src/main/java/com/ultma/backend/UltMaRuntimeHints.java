@@ -0,0 +1,47 @@
+package com.ultma.backend;
+
+import com.ultma.backend.model.ActionProfile;
+import com.ultma.backend.model.ActionResult;
+import com.ultma.backend.model.AnalyticsGroup;
+import com.ultma.backend.model.AnalyticsProgress;
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.ExportedMatch;
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.ImportSummary;
+import com.ultma.backend.model.JoinResult;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.model.MatchTimelineInfo;
+import com.ultma.backend.model.NewTournament;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.PlayerStats;
+import com.ultma.backend.model.ProfileReport;
+import com.ultma.backend.model.ReplicationAck;
+import com.ultma.backend.model.ReplicationBatch;
+import com.ultma.backend.model.SpellResult;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Reflection metadata for the native image. Controllers are covered by Spring, but the models are
+// also read and written with plain ObjectMappers (game state, archive, stats), so register them all.
+public class UltMaRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            GameMatch.class, Player.class, SpellResult.class, DuelResult.class, ActionResult.class,
+            MatchAction.class, ArchivedMatch.class, PlayerStats.class,
+            AnalyticsGroup.class, AnalyticsProgress.class,
+            ReplicationBatch.class, ReplicationAck.class,
+            ProfileReport.class, ActionProfile.class, MatchTimelineInfo.class,
+            ExportedMatch.class, ImportSummary.class, JoinResult.class, NewTournament.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        bindings.registerReflectionHints(hints.reflection(), JSON_TYPES);
+        // Enums are also used as map keys, which Jackson resolves by name
+        bindings.registerReflectionHints(hints.reflection(), GameEnums.class.getDeclaredClasses());
+    }
+}
@@ -0,0 +1,34 @@
+package com.ultma.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Binary encodings for clients that ask for them with Accept: application/x-jackson-smile or
+// application/cbor. JSON stays the default: these converters sit after the JSON one, so
+// Accept: */* still gets JSON.
+@Configuration
+public class ContentNegotiationConfig {
+
+    // Smile can back-reference repeated short string values (spell names, potion colors, ids)
+    // instead of writing them again; Jackson leaves that off by default.
+    public static ObjectMapper smileObjectMapper() {
+        return new ObjectMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter();
+    }
+}
@@ -0,0 +1,21 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.service.AdmissionRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Actions turned away by admission control: 429 when their match is busy, 503 when the whole
+// server is, both with a Retry-After hint
+@RestControllerAdvice
+public class AdmissionExceptionHandler {
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> rejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(e.isMatchBusy() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,58 @@
+package com.ultma.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.service.analytics.AnalyticsService;
+import com.ultma.backend.service.analytics.ArchiveQuery;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final AnalyticsService analyticsService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @GetMapping("/queries")
+    public Map<String, String> getQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (ArchiveQuery<?> query : analyticsService.getQueries()) {
+            queries.put(query.getName(), query.getDescription());
+        }
+        return queries;
+    }
+
+    // One JSON line per scanned batch, e.g. curl -N localhost:8080/api/analytics/queries/void-curse-starvation
+    @GetMapping("/queries/{name}")
+    public ResponseEntity<StreamingResponseBody> runQuery(@PathVariable String name) {
+        ArchiveQuery<?> query = analyticsService.getQuery(name);
+        if (query == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> analyticsService.run(query, progress -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+}
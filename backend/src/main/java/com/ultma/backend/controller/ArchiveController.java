@@ -0,0 +1,32 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.service.ArchiveService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/archive")
+@CrossOrigin(origins = "*")
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    public ArchiveController(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping("/matches/{matchId}")
+    public ResponseEntity<ArchivedMatch> getArchivedMatch(@PathVariable String matchId) {
+        ArchivedMatch archived = archiveService.getArchivedMatch(matchId);
+        return archived != null ? ResponseEntity.ok(archived) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/players/{playerId}/matches")
+    public List<String> getArchivedMatchIds(@PathVariable String playerId) {
+        return archiveService.getArchivedMatchIds(playerId);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.service.BotService;
+import com.ultma.backend.service.MatchViews;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/game")
+@CrossOrigin(origins = "*")
+public class BotController {
+
+    private final BotService botService;
+    private final MatchViews views;
+
+    public BotController(BotService botService, MatchViews views) {
+        this.botService = botService;
+        this.views = views;
+    }
+
+    // Nobody plays the bot's seat from a client: the answer is the spectator view
+    @PostMapping("/add-bot")
+    public GameMatch addBot() {
+        return views.view(botService.addBot(), null);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.ProfileReport;
+import com.ultma.backend.service.ActionProfiler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Local diagnostics: only answered on the loopback address, and not open to other origins
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    private final ActionProfiler actionProfiler;
+
+    public DiagnosticsController(ActionProfiler actionProfiler) {
+        this.actionProfiler = actionProfiler;
+    }
+
+    @GetMapping("/profile")
+    public ResponseEntity<ProfileReport> getProfile(HttpServletRequest request) {
+        if (!LocalRequests.isLocal(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(actionProfiler.report());
+    }
+}
@@ -1,74 +1,139 @@
 package com.ultma.backend.controller;
 
+import com.ultma.backend.model.ActionResult;
 import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.JoinResult;
 import com.ultma.backend.service.GameService;
+import com.ultma.backend.service.IdempotencyService;
+import com.ultma.backend.service.MatchViews;
+import com.ultma.backend.service.PlayerTokens;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.ultma.backend.model.SpellResult;
 import com.ultma.backend.model.DuelResult;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/game")
 @CrossOrigin(origins = "*")
 public class GameController {
 
+    // Optional on every mutating endpoint: a retried request with the same key gets the stored
+    // result instead of being applied again
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    // Every match in a response is the view of the player playerToken was issued to (see
+    // MatchViews and PlayerTokens): required for player actions, which act as that player, and
+    // optional elsewhere, the spectator view without one
     private final GameService gameService;
+    private final IdempotencyService idempotency;
+    private final MatchViews views;
+    private final PlayerTokens tokens;
 
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, IdempotencyService idempotency, MatchViews views, PlayerTokens tokens) {
         this.gameService = gameService;
+        this.idempotency = idempotency;
+        this.views = views;
+        this.tokens = tokens;
+    }
+
+    // A join answers with the view of the player who joined, the last one added, and their token
+    static JoinResult joined(MatchViews views, PlayerTokens tokens, GameMatch match) {
+        String playerId = match.getPlayers().get(match.getPlayers().size() - 1).getId();
+        return new JoinResult(tokens.issue(playerId), views.view(match, playerId));
+    }
+
+    // An action's result with the acting player's view of the state the action left
+    static <R> ActionResult<R> projected(MatchViews views, ActionResult<R> outcome, String playerId) {
+        return new ActionResult<>(outcome.getResult(), views.view(outcome.getMatch(), playerId));
     }
 
     @PostMapping("/new")
-    public GameMatch startNewGame() {
-        return gameService.createNewGame();
+    public GameMatch startNewGame(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return idempotency.execute(idempotencyKey, "new-game", playerId, List.of(), () -> views.view(gameService.createNewGame(), playerId));
     }
 
     @PostMapping("/join")
-    public GameMatch joinGame(@RequestParam String playerName) {
-        return gameService.addPlayer(playerName);
+    public JoinResult joinGame(
+            @RequestParam String playerName,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "join", null, List.of(playerName), () -> joined(views, tokens, gameService.addPlayer(playerName)));
     }
 
     @GetMapping
-    public GameMatch getGame() {
-        return gameService.getGameState();
+    public GameMatch getGame(@RequestParam(required = false) String playerToken) {
+        String playerId = tokens.playerId(playerToken);
+        return views.view(gameService.readGameState(), playerId);
+    }
+
+    // A side match (tournament); player actions are routed to it by the player the token names
+    @GetMapping("/matches/{matchId}")
+    public ResponseEntity<GameMatch> getMatch(@PathVariable String matchId,
+                                              @RequestParam(required = false) String playerToken) {
+        String playerId = tokens.playerId(playerToken);
+        GameMatch match = views.view(gameService.getMatch(matchId), playerId);
+        return match != null ? ResponseEntity.ok(match) : ResponseEntity.notFound().build();
     }
 
     @PostMapping("/cast")
-    public SpellResult castMagic(
-            @RequestParam String playerId, 
+    public ActionResult<SpellResult> castMagic(
+            @RequestParam String playerToken,
             @RequestParam String w1, 
-            @RequestParam String w2) {
-        return gameService.castSpell(playerId, w1, w2);
+            @RequestParam String w2,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "cast", playerId, List.of(w1, w2), () ->
+                projected(views, gameService.castSpellWithMatch(playerId, w1, w2), playerId));
     }
 
     @PostMapping("/meditate")
-    public GameMatch meditate(@RequestParam String playerId) {
-        return gameService.meditate(playerId);
+    public GameMatch meditate(
+            @RequestParam String playerToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "meditate", playerId, List.of(), () -> views.view(gameService.meditate(playerId), playerId));
     }
 
     @PostMapping("/attack")
-    public DuelResult attackPlayer(
-            @RequestParam String attackerId,
+    public ActionResult<DuelResult> attackPlayer(
+            @RequestParam String playerToken,
             @RequestParam String targetId,
-            @RequestParam String spellName) {
-        return gameService.attackPlayer(attackerId, targetId, spellName);
+            @RequestParam String spellName,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String attackerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "attack", attackerId, List.of(targetId, spellName), () ->
+                projected(views, gameService.attackPlayerWithMatch(attackerId, targetId, spellName), attackerId));
     }
 
     @PostMapping("/activate-defense")
-    public SpellResult activateDefense(
-            @RequestParam String playerId,
-            @RequestParam String spellName) {
-        return gameService.activateDefense(playerId, spellName);
+    public ActionResult<SpellResult> activateDefense(
+            @RequestParam String playerToken,
+            @RequestParam String spellName,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "defense", playerId, List.of(spellName), () ->
+                projected(views, gameService.activateDefenseWithMatch(playerId, spellName), playerId));
     }
 
     @PostMapping("/start-arena")
-    public GameMatch startArenaPhase() {
-        return gameService.startArenaPhase();
+    public GameMatch startArenaPhase(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return idempotency.execute(idempotencyKey, "start-arena", playerId, List.of(), () -> views.view(gameService.startArenaPhase(), playerId));
     }
 
     @PostMapping("/end-turn")
-    public GameMatch endArenaTurn(@RequestParam String playerId) {
-        return gameService.endArenaTurn(playerId);
+    public GameMatch endArenaTurn(
+            @RequestParam String playerToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "end-turn", playerId, List.of(), () -> views.view(gameService.endArenaTurn(playerId), playerId));
     }
 
     @DeleteMapping("/reset")
@@ -78,33 +143,45 @@ public class GameController {
 
     @PostMapping("/use-potion")
     public GameMatch usePotion(
-            @RequestParam String playerId,
-            @RequestParam String potionColor) {
-        return gameService.usePotion(playerId, potionColor);
+            @RequestParam String playerToken,
+            @RequestParam String potionColor,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "use-potion", playerId, List.of(potionColor), () -> views.view(gameService.usePotion(playerId, potionColor), playerId));
     }
 
     @PostMapping("/give-potion")
     public GameMatch givePotion(
-            @RequestParam String playerId,
-            @RequestParam String potionColor) {
-        return gameService.givePotion(playerId, potionColor);
+            @RequestParam String playerToken,
+            @RequestParam String potionColor,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "give-potion", playerId, List.of(potionColor), () -> views.view(gameService.givePotion(playerId, potionColor), playerId));
     }
 
     @PostMapping("/distribute-glyphs")
-    public GameMatch distributeGlyphs() {
-        return gameService.distributeGlyphs();
+    public GameMatch distributeGlyphs(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return idempotency.execute(idempotencyKey, "distribute-glyphs", playerId, List.of(), () -> views.view(gameService.distributeGlyphs(), playerId));
     }
 
     @PostMapping("/use-glyph")
     public GameMatch useGlyph(
-            @RequestParam String playerId,
-            @RequestParam String glifo) {
-        return gameService.useGlyph(playerId, glifo);
+            @RequestParam String playerToken,
+            @RequestParam String glifo,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return idempotency.execute(idempotencyKey, "use-glyph", playerId, List.of(glifo), () -> views.view(gameService.useGlyph(playerId, glifo), playerId));
     }
 
     @PostMapping("/end-arena")
-    public GameMatch endArenaPhase() {
-        return gameService.endArenaPhase();
+    public GameMatch endArenaPhase(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return idempotency.execute(idempotencyKey, "end-arena", playerId, List.of(), () -> views.view(gameService.endArenaPhase(), playerId));
     }
 
 }
@@ -0,0 +1,17 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.service.IdempotencyKeyReusedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// A key reused for a different request: 422, nothing is run or replayed
+@RestControllerAdvice
+public class IdempotencyExceptionHandler {
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> reused(IdempotencyKeyReusedException e) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+    }
+}
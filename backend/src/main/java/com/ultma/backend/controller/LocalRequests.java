@@ -0,0 +1,21 @@
+package com.ultma.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// Endpoints for operators (diagnostics, data transfer) only answer requests from this machine
+final class LocalRequests {
+
+    private LocalRequests() {
+    }
+
+    static boolean isLocal(HttpServletRequest request) {
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.service.InvalidPlayerTokenException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Player actions with a missing or forged token: 403
+@RestControllerAdvice
+public class PlayerTokenExceptionHandler {
+
+    @ExceptionHandler(InvalidPlayerTokenException.class)
+    public ResponseEntity<String> invalid(InvalidPlayerTokenException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    }
+}
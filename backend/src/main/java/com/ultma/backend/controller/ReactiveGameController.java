@@ -0,0 +1,229 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.ActionResult;
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.JoinResult;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.service.GameService;
+import com.ultma.backend.service.IdempotencyService;
+import com.ultma.backend.service.MatchUpdateStream;
+import com.ultma.backend.service.MatchViews;
+import com.ultma.backend.service.PlayerTokens;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// The game API with Reactor return types: the request thread is released as soon as the action
+// is handed off, and clients can follow a match over one server-sent event stream instead of
+// polling GET /api/game. Game state is still a file behind a lock, so actions run on the
+// bounded elastic scheduler rather than on the servlet threads.
+@RestController
+@RequestMapping("/api/reactive/game")
+@CrossOrigin(origins = "*")
+public class ReactiveGameController {
+
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(15);
+
+    private final GameService gameService;
+    private final MatchUpdateStream matchUpdateStream;
+    private final IdempotencyService idempotency;
+    private final MatchViews views;
+    private final PlayerTokens tokens;
+    private final Scheduler actions = Schedulers.boundedElastic();
+
+    public ReactiveGameController(GameService gameService, MatchUpdateStream matchUpdateStream,
+                                  IdempotencyService idempotency, MatchViews views, PlayerTokens tokens) {
+        this.gameService = gameService;
+        this.matchUpdateStream = matchUpdateStream;
+        this.idempotency = idempotency;
+        this.views = views;
+        this.tokens = tokens;
+    }
+
+    private <T> Mono<T> offload(Supplier<T> action) {
+        return Mono.fromSupplier(action).subscribeOn(actions);
+    }
+
+    private <T> Mono<T> offload(String idempotencyKey, String name, String caller, List<String> parameters, Supplier<T> action) {
+        return offload(() -> idempotency.execute(idempotencyKey, name, caller, parameters, action));
+    }
+
+    // Current state, then every saved state of the main game (or of matchId): "match" events, a
+    // "reset" event when it is reset or closed, and a keep-alive comment every 15 s. States are
+    // the view of the player playerToken was issued to, the spectator view without one.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GameMatch>> stream(@RequestParam(required = false) String matchId,
+                                                   @RequestParam(required = false) String playerToken) {
+        String playerId = tokens.playerId(playerToken);
+        return Flux.defer(() -> {
+            // The first state is loaded after subscribing to updates, so it may arrive late: keep
+            // only states newer than the last one sent
+            String[] lastMatchId = {null};
+            long[] lastVersion = {-1};
+            Mono<MatchUpdateStream.Update> current = offload(() -> matchId != null
+                    ? gameService.getMatch(matchId) : gameService.readGameState())
+                    .map(match -> new MatchUpdateStream.Update(match, false));
+            Flux<ServerSentEvent<GameMatch>> states = matchUpdateStream.updates(matchId)
+                    .mergeWith(current)
+                    .filter(update -> {
+                        GameMatch match = update.getMatch();
+                        if (update.isReset()) {
+                            lastMatchId[0] = null;
+                            return true;
+                        }
+                        if (match.getMatchId().equals(lastMatchId[0]) && match.getVersion() <= lastVersion[0]) {
+                            return false;
+                        }
+                        lastMatchId[0] = match.getMatchId();
+                        lastVersion[0] = match.getVersion();
+                        return true;
+                    })
+                    .map(update -> ServerSentEvent.builder(update.isReset()
+                                    ? views.uncachedView(update.getMatch(), playerId)
+                                    : views.view(update.getMatch(), playerId))
+                            .event(update.isReset() ? "reset" : "match")
+                            .build());
+            Flux<ServerSentEvent<GameMatch>> keepAlive = Flux.interval(KEEP_ALIVE)
+                    .map(tick -> ServerSentEvent.<GameMatch>builder().comment("keep-alive").build());
+            return states.mergeWith(keepAlive);
+        });
+    }
+
+    @GetMapping
+    public Mono<GameMatch> getGame(@RequestParam(required = false) String playerToken) {
+        String playerId = tokens.playerId(playerToken);
+        return offload(() -> views.view(gameService.readGameState(), playerId));
+    }
+
+    @PostMapping("/new")
+    public Mono<GameMatch> startNewGame(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return offload(idempotencyKey, "new-game", playerId, List.of(), () -> views.view(gameService.createNewGame(), playerId));
+    }
+
+    @PostMapping("/join")
+    public Mono<JoinResult> joinGame(
+            @RequestParam String playerName,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return offload(idempotencyKey, "join", null, List.of(playerName), () -> GameController.joined(views, tokens, gameService.addPlayer(playerName)));
+    }
+
+    @PostMapping("/cast")
+    public Mono<ActionResult<SpellResult>> castMagic(
+            @RequestParam String playerToken,
+            @RequestParam String w1,
+            @RequestParam String w2,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "cast", playerId, List.of(w1, w2), () ->
+                GameController.projected(views, gameService.castSpellWithMatch(playerId, w1, w2), playerId));
+    }
+
+    @PostMapping("/meditate")
+    public Mono<GameMatch> meditate(
+            @RequestParam String playerToken,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "meditate", playerId, List.of(), () -> views.view(gameService.meditate(playerId), playerId));
+    }
+
+    @PostMapping("/attack")
+    public Mono<ActionResult<DuelResult>> attackPlayer(
+            @RequestParam String playerToken,
+            @RequestParam String targetId,
+            @RequestParam String spellName,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String attackerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "attack", attackerId, List.of(targetId, spellName), () ->
+                GameController.projected(views, gameService.attackPlayerWithMatch(attackerId, targetId, spellName), attackerId));
+    }
+
+    @PostMapping("/activate-defense")
+    public Mono<ActionResult<SpellResult>> activateDefense(
+            @RequestParam String playerToken,
+            @RequestParam String spellName,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "defense", playerId, List.of(spellName), () ->
+                GameController.projected(views, gameService.activateDefenseWithMatch(playerId, spellName), playerId));
+    }
+
+    @PostMapping("/start-arena")
+    public Mono<GameMatch> startArenaPhase(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return offload(idempotencyKey, "start-arena", playerId, List.of(), () -> views.view(gameService.startArenaPhase(), playerId));
+    }
+
+    @PostMapping("/end-turn")
+    public Mono<GameMatch> endArenaTurn(
+            @RequestParam String playerToken,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "end-turn", playerId, List.of(), () -> views.view(gameService.endArenaTurn(playerId), playerId));
+    }
+
+    @DeleteMapping("/reset")
+    public Mono<Void> resetGame() {
+        return offload(() -> {
+            gameService.resetGame();
+            return null;
+        }).then();
+    }
+
+    @PostMapping("/use-potion")
+    public Mono<GameMatch> usePotion(
+            @RequestParam String playerToken,
+            @RequestParam String potionColor,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "use-potion", playerId, List.of(potionColor), () -> views.view(gameService.usePotion(playerId, potionColor), playerId));
+    }
+
+    @PostMapping("/give-potion")
+    public Mono<GameMatch> givePotion(
+            @RequestParam String playerToken,
+            @RequestParam String potionColor,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "give-potion", playerId, List.of(potionColor), () -> views.view(gameService.givePotion(playerId, potionColor), playerId));
+    }
+
+    @PostMapping("/distribute-glyphs")
+    public Mono<GameMatch> distributeGlyphs(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return offload(idempotencyKey, "distribute-glyphs", playerId, List.of(), () -> views.view(gameService.distributeGlyphs(), playerId));
+    }
+
+    @PostMapping("/use-glyph")
+    public Mono<GameMatch> useGlyph(
+            @RequestParam String playerToken,
+            @RequestParam String glifo,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.requirePlayerId(playerToken);
+        return offload(idempotencyKey, "use-glyph", playerId, List.of(glifo), () -> views.view(gameService.useGlyph(playerId, glifo), playerId));
+    }
+
+    @PostMapping("/end-arena")
+    public Mono<GameMatch> endArenaPhase(
+            @RequestParam(required = false) String playerToken,
+            @RequestHeader(value = GameController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String playerId = tokens.playerId(playerToken);
+        return offload(idempotencyKey, "end-arena", playerId, List.of(), () -> views.view(gameService.endArenaPhase(), playerId));
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.MatchTimelineInfo;
+import com.ultma.backend.service.MatchTimeline;
+import com.ultma.backend.service.MatchViews;
+import com.ultma.backend.service.PlayerTokens;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+// Past states of a match by version (each action is one version). Like the live endpoints, a
+// state is the view of the player playerToken was issued to, the spectator view without one.
+@RestController
+@RequestMapping("/api/replay")
+@CrossOrigin(origins = "*")
+public class ReplayController {
+
+    // A replay never waits longer than this between two states, whatever the speed
+    private static final Duration MAX_PAUSE = Duration.ofSeconds(5);
+
+    private final MatchTimeline matchTimeline;
+    private final MatchViews views;
+    private final PlayerTokens tokens;
+
+    public ReplayController(MatchTimeline matchTimeline, MatchViews views, PlayerTokens tokens) {
+        this.matchTimeline = matchTimeline;
+        this.views = views;
+        this.tokens = tokens;
+    }
+
+    @GetMapping("/matches/{matchId}")
+    public ResponseEntity<MatchTimelineInfo> getTimeline(@PathVariable String matchId) {
+        MatchTimelineInfo info = matchTimeline.getInfo(matchId);
+        return info != null ? ResponseEntity.ok(info) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/matches/{matchId}/versions/{version}")
+    public ResponseEntity<GameMatch> getVersion(@PathVariable String matchId, @PathVariable long version,
+                                                @RequestParam(required = false) String playerToken) {
+        String playerId = tokens.playerId(playerToken);
+        GameMatch match = matchTimeline.stateAt(matchId, version);
+        return match != null ? ResponseEntity.ok(views.uncachedView(match, playerId)) : ResponseEntity.notFound().build();
+    }
+
+    // Versions from..to as "match" events, paced as they were played divided by speed (0 = no
+    // pauses), then the stream ends
+    @GetMapping(value = "/matches/{matchId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GameMatch>> stream(@PathVariable String matchId,
+                                                   @RequestParam(defaultValue = "0") long from,
+                                                   @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+                                                   @RequestParam(defaultValue = "1") double speed,
+                                                   @RequestParam(required = false) String playerToken) {
+        String playerId = tokens.playerId(playerToken);
+        long[] previous = {-1};
+        return Flux.fromIterable(() -> matchTimeline.replay(matchId, from, to))
+                .subscribeOn(Schedulers.boundedElastic())
+                .concatMap(frame -> {
+                    ServerSentEvent<GameMatch> event = ServerSentEvent.builder(views.uncachedView(frame.getMatch(), playerId))
+                            .event("match")
+                            .id(Long.toString(frame.getMatch().getVersion()))
+                            .build();
+                    Duration pause = pause(previous[0], frame.getTimestamp(), speed);
+                    previous[0] = frame.getTimestamp();
+                    return pause.isZero() ? Mono.just(event) : Mono.just(event).delayElement(pause);
+                });
+    }
+
+    private static Duration pause(long previous, long timestamp, double speed) {
+        if (previous < 0 || speed <= 0) {
+            return Duration.ZERO;
+        }
+        long millis = Math.min((long) ((timestamp - previous) / speed), MAX_PAUSE.toMillis());
+        return millis > 0 ? Duration.ofMillis(millis) : Duration.ZERO;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.ReplicationAck;
+import com.ultma.backend.model.ReplicationBatch;
+import com.ultma.backend.model.ReplicationStatus;
+import com.ultma.backend.service.ReplicationService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Server to server and operators only: no CORS, and batches and promotion need the shared
+// ultma.replication.secret in the X-Replication-Secret header unless they come from this machine
+@RestController
+@RequestMapping("/api/replication")
+public class ReplicationController {
+
+    private final ReplicationService replicationService;
+
+    public ReplicationController(ReplicationService replicationService) {
+        this.replicationService = replicationService;
+    }
+
+    // Called by the primary on its standby
+    @PostMapping("/batches")
+    public ResponseEntity<ReplicationAck> applyBatch(@RequestBody ReplicationBatch batch, HttpServletRequest request) {
+        if (!authorized(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (replicationService.getRole() != ReplicationService.Role.STANDBY) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(replicationService.apply(batch));
+    }
+
+    @GetMapping("/status")
+    public ReplicationStatus getStatus() {
+        return replicationService.getStatus();
+    }
+
+    // Manual failover: the standby starts accepting actions
+    @PostMapping("/promote")
+    public ResponseEntity<ReplicationStatus> promote(HttpServletRequest request) {
+        if (!authorized(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        replicationService.promote();
+        return ResponseEntity.ok(replicationService.getStatus());
+    }
+
+    private boolean authorized(HttpServletRequest request) {
+        return LocalRequests.isLocal(request)
+                || replicationService.acceptsSecret(request.getHeader(ReplicationService.SECRET_HEADER));
+    }
+
+}
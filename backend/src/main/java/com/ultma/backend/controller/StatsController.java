@@ -0,0 +1,32 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.PlayerStats;
+import com.ultma.backend.service.StatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping("/leaderboard")
+    public List<PlayerStats> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        return statsService.getLeaderboard(limit);
+    }
+
+    @GetMapping("/players/{playerName}")
+    public ResponseEntity<PlayerStats> getPlayerStats(@PathVariable String playerName) {
+        PlayerStats stats = statsService.getPlayerStats(playerName);
+        return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.notFound().build();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.JoinResult;
+import com.ultma.backend.model.NewTournament;
+import com.ultma.backend.model.Tournament;
+import com.ultma.backend.model.TournamentEntrant;
+import com.ultma.backend.model.TournamentRequest;
+import com.ultma.backend.service.GameService;
+import com.ultma.backend.service.InvalidPlayerTokenException;
+import com.ultma.backend.service.MatchViews;
+import com.ultma.backend.service.PlayerTokens;
+import com.ultma.backend.service.TournamentService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tournaments")
+@CrossOrigin(origins = "*")
+public class TournamentController {
+
+    private final TournamentService tournamentService;
+    private final GameService gameService;
+    private final MatchViews views;
+    private final PlayerTokens tokens;
+
+    public TournamentController(TournamentService tournamentService, GameService gameService, MatchViews views, PlayerTokens tokens) {
+        this.tournamentService = tournamentService;
+        this.gameService = gameService;
+        this.views = views;
+        this.tokens = tokens;
+    }
+
+    // Starts right away; the bracket is filled in as rounds are created. Each human entrant gets
+    // an entrant token, traded for their seat in every round they play (see seat)
+    @PostMapping
+    public ResponseEntity<?> createTournament(@RequestBody TournamentRequest request) {
+        try {
+            Tournament tournament = tournamentService.createTournament(request);
+            Map<String, String> entrantTokens = new LinkedHashMap<>();
+            for (TournamentEntrant entrant : tournament.getEntrants()) {
+                if (!entrant.isBot()) {
+                    entrantTokens.put(entrant.getName(), tokens.issueEntrant(tournament.getId(), entrant.getName()));
+                }
+            }
+            return ResponseEntity.ok(new NewTournament(tournament, entrantTokens));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public List<Tournament> getTournaments() {
+        return tournamentService.getTournaments();
+    }
+
+    @GetMapping("/{tournamentId}")
+    public ResponseEntity<Tournament> getTournament(@PathVariable String tournamentId) {
+        Tournament tournament = tournamentService.getTournament(tournamentId);
+        return tournament != null ? ResponseEntity.ok(tournament) : ResponseEntity.notFound().build();
+    }
+
+    // The entrant's seat in the match they play now: the player token to act with and their view
+    // of the match, like a join. 404 while they have no match (a bye, between rounds, knocked out)
+    @GetMapping("/{tournamentId}/seat")
+    public ResponseEntity<JoinResult> seat(@PathVariable String tournamentId, @RequestParam String entrantToken) {
+        String name = tokens.entrantName(tournamentId, entrantToken);
+        if (name == null) {
+            throw new InvalidPlayerTokenException();
+        }
+        TournamentEntrant seat = tournamentService.currentSeat(tournamentId, name);
+        if (seat == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String playerId = seat.getPlayerId();
+        return ResponseEntity.ok(new JoinResult(tokens.issue(playerId), views.view(gameService.readMatchForPlayer(playerId), playerId)));
+    }
+
+}
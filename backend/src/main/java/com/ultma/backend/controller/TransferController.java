@@ -0,0 +1,46 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.ImportSummary;
+import com.ultma.backend.service.MatchTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+// Bulk copy of every match between servers as NDJSON (see MatchTransferService), local only:
+//   curl localhost:8080/api/transfer/export > matches.ndjson
+//   curl -H 'Content-Type: application/x-ndjson' --data-binary @matches.ndjson localhost:8080/api/transfer/import
+@RestController
+@RequestMapping("/api/transfer")
+public class TransferController {
+
+    private final MatchTransferService matchTransferService;
+
+    public TransferController(MatchTransferService matchTransferService) {
+        this.matchTransferService = matchTransferService;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMatches(HttpServletRequest request) {
+        if (!LocalRequests.isLocal(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ultma-matches.ndjson\"")
+                .body(matchTransferService::exportTo);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportSummary> importMatches(HttpServletRequest request) throws IOException {
+        if (!LocalRequests.isLocal(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(matchTransferService.importFrom(request.getInputStream()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// CPU time and allocation of one kind of game action, per call
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActionProfile {
+    private String action;
+    private long count;
+    private long meanCpuMicros;
+    private long maxCpuMicros;
+    private long meanAllocatedBytes;
+    private long maxAllocatedBytes;
+}
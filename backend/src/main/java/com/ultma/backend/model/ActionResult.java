@@ -0,0 +1,17 @@
+package com.ultma.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A spell or duel result with the match state after the action, so the client needs no refetch.
+// The result's own fields stay at the top level.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActionResult<R> {
+    @JsonUnwrapped
+    private R result;
+    private GameMatch match;
+}
@@ -0,0 +1,17 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One group of an analytics result; for 0/1 values the mean is a rate
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsGroup {
+    private String group;
+    private long count;
+    private double mean;
+    private double min;
+    private double max;
+}
@@ -0,0 +1,19 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Partial (or, when done, final) result of an analytics query over the archive
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsProgress {
+    private String query;
+    private int matchesScanned;
+    private int totalMatches;
+    private boolean done;
+    private List<AnalyticsGroup> groups;
+}
@@ -0,0 +1,18 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A finished match as stored in the archive: last state plus everything that happened
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedMatch {
+    private GameMatch match;
+    private List<MatchAction> history;
+    private long archivedAt;
+    private String reason; // finished, reset
+}
@@ -0,0 +1,20 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One line of a match export: a match with its history, and for archived matches when and why
+// they were archived
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportedMatch {
+    private String kind; // main, side, archived
+    private GameMatch match;
+    private List<MatchAction> history;
+    private Long archivedAt;
+    private String reason;
+}
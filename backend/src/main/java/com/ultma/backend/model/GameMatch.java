@@ -1,7 +1,9 @@
 package com.ultma.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -9,12 +11,19 @@ import java.util.UUID;
 @Data
 public class GameMatch {
     private String matchId;
+    private long version; // incremented on every save
     private List<Player> players;
     private boolean isArenaPhase;
     private Integer currentTurnPlayerIndex;
     private Integer arenaRound;
+    // Set on the side matches of a tournament bracket, null elsewhere
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String tournamentId;
 
+    // Left out of the players' views (see MatchViews)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Map<GameEnums.PowerWord, GameEnums.Meaning> wordDictionary;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Map<GameEnums.PotionColor, GameEnums.PotionEffect> potionDictionary;
     
     // Sistema de glifos
@@ -29,4 +38,23 @@ public class GameMatch {
         this.arenaRound = 0;
         this.glifosUsadosNoTabuleiro = new ArrayList<>();
     }
+
+    // The dictionaries cover whole enums, so keep them as EnumMaps (one array each) whatever
+    // map they are given
+    public void setWordDictionary(Map<GameEnums.PowerWord, GameEnums.Meaning> wordDictionary) {
+        this.wordDictionary = toEnumMap(GameEnums.PowerWord.class, wordDictionary);
+    }
+
+    public void setPotionDictionary(Map<GameEnums.PotionColor, GameEnums.PotionEffect> potionDictionary) {
+        this.potionDictionary = toEnumMap(GameEnums.PotionColor.class, potionDictionary);
+    }
+
+    private static <K extends Enum<K>, V> Map<K, V> toEnumMap(Class<K> keyType, Map<K, V> map) {
+        if (map == null || map instanceof EnumMap) {
+            return map;
+        }
+        EnumMap<K, V> enumMap = new EnumMap<>(keyType);
+        enumMap.putAll(map);
+        return enumMap;
+    }
 }
@@ -0,0 +1,17 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How many matches of each kind an import stored; skipped are unknown kinds and archived matches
+// already in the archive
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportSummary {
+    private long main;
+    private long side;
+    private long archived;
+    private long skipped;
+}
@@ -0,0 +1,17 @@
+package com.ultma.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The joining player's view of the match with their token, the only response that carries it.
+// The match's own fields stay at the top level.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JoinResult {
+    private String playerToken;
+    @JsonUnwrapped
+    private GameMatch match;
+}
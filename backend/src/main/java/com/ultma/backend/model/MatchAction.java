@@ -0,0 +1,22 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One resolved action in a match history
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchAction {
+    private long sequence; // 1-based position in the match history
+    private long timestamp;
+    private int arenaRound;
+    private String type; // cast, defense, attack, or the name of any other action (meditate, end-turn, ...)
+    private String playerId;
+    private String playerName;
+    private String targetId;
+    private Integer targetManaAfter; // attacks only
+    private SpellResult spell; // cast, defense
+    private DuelResult duel; // attack
+}
@@ -0,0 +1,19 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The versions of a match that can be replayed, and when the first and last were saved
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchTimelineInfo {
+    private String matchId;
+    private long firstVersion;
+    private long lastVersion;
+    private long firstSavedAt;
+    private long lastSavedAt;
+    private int checkpointInterval;
+    private boolean finished; // reset or closed; kept for a while after
+}
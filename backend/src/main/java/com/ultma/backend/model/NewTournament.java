@@ -0,0 +1,19 @@
+package com.ultma.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// The answer to creating a tournament: the bracket with an entrant token for each human entrant
+// by name, the only response that carries them. The tournament's own fields stay at the top level.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewTournament {
+    @JsonUnwrapped
+    private Tournament tournament;
+    private Map<String, String> entrantTokens;
+}
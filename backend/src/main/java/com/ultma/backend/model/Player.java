@@ -1,5 +1,6 @@
 package com.ultma.backend.model;
 
+import com.ultma.backend.service.sim.SpellCatalog;
 import lombok.Data;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +16,7 @@ public class Player {
     private int magicShield;
     private int mana;
     private boolean isEliminated;
+    private boolean bot; // Controlled by the server-side AI
 
     // inventory
     private List<String> knownSpells;
@@ -48,4 +50,46 @@ public class Player {
         this.knownSpells.add("Teletransporte");
         this.knownSpells.add("Portal");
     }
+
+    // Spell names come from a small fixed set: loaded lists point at one shared instance of each
+    // name instead of a copy per player and per load
+    public void setKnownSpells(List<String> knownSpells) {
+        this.knownSpells = sharedNames(knownSpells);
+    }
+
+    public void setActiveDefenses(List<String> activeDefenses) {
+        this.activeDefenses = sharedNames(activeDefenses);
+    }
+
+    public void setPotions(List<GameEnums.PotionColor> potions) {
+        this.potions = trimmed(potions);
+    }
+
+    public void setGlifos(List<GameEnums.Glifo> glifos) {
+        this.glifos = trimmed(glifos);
+    }
+
+    private static List<String> sharedNames(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+        List<String> shared = new ArrayList<>(names.size());
+        for (String name : names) {
+            shared.add(sharedName(name));
+        }
+        return shared;
+    }
+
+    // The catalog's own instance of a spell name; anything it does not know is kept as is
+    private static String sharedName(String name) {
+        int spell = name != null ? SpellCatalog.indexOf(name) : SpellCatalog.NONE;
+        return spell != SpellCatalog.NONE ? SpellCatalog.name(spell) : name;
+    }
+
+    private static <T> List<T> trimmed(List<T> list) {
+        if (list instanceof ArrayList<T> arrayList) {
+            arrayList.trimToSize();
+        }
+        return list;
+    }
 }
@@ -0,0 +1,36 @@
+package com.ultma.backend.model;
+
+import lombok.Data;
+
+// Lifetime totals for one player name, across every match played on this server
+@Data
+public class PlayerStats {
+    private String playerName;
+
+    private long attacks;
+    private long damageDealt;
+    private long eliminations;
+    private long timesEliminated;
+    private long attacksBlocked; // attacks this player blocked with a defense
+    private long spellsCast;
+    private long spellsDiscovered;
+
+    public PlayerStats() {
+        // empty constructor for Jackson (JSON)
+    }
+
+    public PlayerStats(String playerName) {
+        this.playerName = playerName;
+    }
+
+    public PlayerStats(PlayerStats other) {
+        this.playerName = other.playerName;
+        this.attacks = other.attacks;
+        this.damageDealt = other.damageDealt;
+        this.eliminations = other.eliminations;
+        this.timesEliminated = other.timesEliminated;
+        this.attacksBlocked = other.attacksBlocked;
+        this.spellsCast = other.spellsCast;
+        this.spellsDiscovered = other.spellsDiscovered;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// What the JFR stream has seen since startedAt: game actions, most frequent first, and the types
+// the partition workers allocate most (estimated bytes, from allocation samples)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileReport {
+    private boolean enabled;
+    private long startedAt;
+    private List<ActionProfile> actions;
+    private Map<String, Long> allocatedByType;
+}
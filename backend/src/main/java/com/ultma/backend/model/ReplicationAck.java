@@ -0,0 +1,13 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationAck {
+    private boolean applied;
+    private boolean snapshotNeeded; // the standby missed changes (restart, new primary) and needs everything
+}
@@ -0,0 +1,19 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Changes shipped from the primary in one request. A snapshot batch carries every match, so the
+// standby drops whatever it holds that is not in it. An empty batch is a heartbeat.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationBatch {
+    private String epoch; // random per primary process
+    private boolean snapshot;
+    private long sentAt;
+    private List<ReplicationEntry> entries;
+}
@@ -0,0 +1,15 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Current state of one match as shipped to the standby; match is null when it was removed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationEntry {
+    private String matchId;
+    private boolean sideMatch;
+    private GameMatch match;
+}
@@ -0,0 +1,17 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationStatus {
+    private String role; // none, primary, standby
+    private String epoch;
+    private int pendingMatches;
+    private long lagMillis; // primary: age of the oldest change the standby has not acknowledged
+    private long lastContactAgeMillis; // standby: time since the last batch from the primary
+    private long batches;
+}
@@ -0,0 +1,21 @@
+package com.ultma.backend.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Single-elimination bracket: every round splits the remaining entrants into matches of
+// matchSize players and the last one standing in each match advances
+@Data
+public class Tournament {
+    private String id = UUID.randomUUID().toString();
+    private String name;
+    private int matchSize;
+    private List<TournamentEntrant> entrants = new ArrayList<>();
+    private List<TournamentRound> rounds = new ArrayList<>();
+    private String status; // running, finished
+    private String champion;
+    private long createdAt;
+}
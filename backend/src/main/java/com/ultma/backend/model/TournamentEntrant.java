@@ -0,0 +1,15 @@
+package com.ultma.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A tournament participant; playerId is the id of their player in the current match
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentEntrant {
+    private String name;
+    private boolean bot;
+    private String playerId;
+}
@@ -0,0 +1,14 @@
+package com.ultma.backend.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TournamentMatch {
+    private String matchId; // null for a bye
+    private List<TournamentEntrant> entrants = new ArrayList<>();
+    private String status; // playing, finished, bye
+    private String winner; // entrant name
+}
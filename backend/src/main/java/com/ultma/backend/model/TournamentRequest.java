@@ -0,0 +1,13 @@
+package com.ultma.backend.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TournamentRequest {
+    private String name;
+    private int matchSize = 2;
+    private List<TournamentEntrant> entrants = new ArrayList<>();
+}
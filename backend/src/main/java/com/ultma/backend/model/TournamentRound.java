@@ -0,0 +1,12 @@
+package com.ultma.backend.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TournamentRound {
+    private int number; // 1-based
+    private List<TournamentMatch> matches = new ArrayList<>();
+}
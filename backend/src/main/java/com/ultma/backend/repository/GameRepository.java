@@ -1,29 +1,140 @@
 package com.ultma.backend.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.config.ContentNegotiationConfig;
 import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Repository
 public class GameRepository {
 
-    private final String FILE_PATH = "gamestate.json";
+    private final String filePath;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper residentMapper = ContentNegotiationConfig.smileObjectMapper();
+
+    // Bumped after every write to the file, so a shared load never predates a finished save
+    private final AtomicLong generation = new AtomicLong();
+    // Version of the main game in the file, so a save from an older copy still gets a new version
+    private volatile long savedVersion;
+    private final SingleFlight<Long, GameMatch> sharedLoads = new SingleFlight<>();
+
+    // Matches besides the main game (tournaments), kept serialized in memory so every load is a
+    // private copy, like a load from the file. A closed match leaves CLOSED behind, so a late save
+    // is dropped instead of overwriting the main game. Stored as Smile with shared string values:
+    // spell names, enum names and player ids repeat within a match and are written once.
+    private static final byte[] CLOSED = new byte[0];
+    private final Map<String, byte[]> sideMatches = new ConcurrentHashMap<>();
+    private final Map<String, String> sideMatchByPlayer = new ConcurrentHashMap<>();
+
+    // CLOSED entries are dropped once their grace period is over, oldest first, on a later close
+    private static final class Tombstone {
+        final String matchId;
+        final long expiresAt;
+
+        Tombstone(String matchId, long expiresAt) {
+            this.matchId = matchId;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long closedGraceMillis;
+    private final Queue<Tombstone> tombstones = new ConcurrentLinkedQueue<>();
+
+    // Side matches survive restarts in matchesDirectory: one <matchId>.smile file per match and an
+    // index ("matchId playerId,playerId,...") of the open ones, written by flush at shutdown. A
+    // start reads only the index; each match stays ON_DISK until its first load. Null when side
+    // matches live in memory only.
+    private static final String INDEX_FILE = "index";
+    private static final byte[] ON_DISK = new byte[0];
+    private final Path matchesDirectory;
+    // Side matches changed since the start, to write (or delete) at the next flush
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    // Set on a hot standby, and on a primary without a replication lease: only replicated state
+    // is written
+    private volatile boolean readOnly;
+    // Set when the server is shutting down: nothing may change after the final flush
+    private volatile boolean stopped;
+
+    // Side matches in memory only
+    public GameRepository(MeterRegistry meterRegistry) {
+        this(meterRegistry, null);
+    }
+
+    public GameRepository(MeterRegistry meterRegistry, String matchesDirectory) {
+        this(meterRegistry, matchesDirectory, "gamestate.json");
+    }
+
+    public GameRepository(MeterRegistry meterRegistry, String matchesDirectory, String gameFile) {
+        this(meterRegistry, matchesDirectory, gameFile, 60);
+    }
+
+    @Autowired
+    public GameRepository(MeterRegistry meterRegistry, @Value("${ultma.matches.directory:matches}") String matchesDirectory,
+                          @Value("${ultma.game.file:gamestate.json}") String gameFile,
+                          @Value("${ultma.matches.closed-grace-seconds:60}") long closedGraceSeconds) {
+        this.filePath = gameFile;
+        this.closedGraceMillis = closedGraceSeconds * 1000L;
+        this.matchesDirectory = matchesDirectory != null ? Path.of(matchesDirectory) : null;
+        if (this.matchesDirectory != null) {
+            try {
+                readIndex();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao abrir as partidas salvas", e);
+            }
+        }
+        FunctionCounter.builder("ultma.game.loads", sharedLoads, SingleFlight::executionCount)
+                .description("Shared game state loads that read the file")
+                .register(meterRegistry);
+        FunctionCounter.builder("ultma.game.loads.coalesced", sharedLoads, SingleFlight::coalescedCount)
+                .description("Shared game state loads answered by another in-flight load")
+                .register(meterRegistry);
+    }
 
     public void saveGame(GameMatch gameMatch) {
+        checkWritable();
+        if (sideMatches.containsKey(gameMatch.getMatchId())) {
+            saveSideMatch(gameMatch);
+            return;
+        }
+        long version = gameMatch.getVersion();
+        gameMatch.setVersion(Math.max(version, savedVersion) + 1);
         try {
-            objectMapper.writeValue(new File(FILE_PATH), gameMatch);
+            writeFile(gameMatch);
         } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Erro ao salvar o jogo");
+            // Nothing was saved: the caller keeps its version
+            gameMatch.setVersion(version);
+            throw new UncheckedIOException("Erro ao salvar o jogo", e);
         }
+        savedVersion = gameMatch.getVersion();
+        generation.incrementAndGet();
     }
 
     public GameMatch loadGame() {
-        File file = new File(FILE_PATH);
+        File file = new File(filePath);
         if (!file.exists()) {
             return null;
         }
@@ -35,10 +146,299 @@ public class GameRepository {
         }
     }
 
+    // The main game or a side match, by id
+    public GameMatch loadGame(String matchId) {
+        byte[] bytes = resident(matchId);
+        if (bytes != null) {
+            return bytes == CLOSED ? null : read(bytes);
+        }
+        GameMatch main = loadGame();
+        return main != null && main.getMatchId().equals(matchId) ? main : null;
+    }
+
+    // Like loadGame, but concurrent callers for the same file version share one read and one parse.
+    // The returned match may be handed to several threads: callers must not modify it.
+    public GameMatch loadGameShared() {
+        return sharedLoads.execute(generation.get(), this::loadGame);
+    }
+
+    public long coalescedLoads() {
+        return sharedLoads.coalescedCount();
+    }
+
     public void resetGame() {
-        File file = new File(FILE_PATH);
+        checkWritable();
+        File file = new File(filePath);
         if (file.exists()) {
             file.delete();
         }
+        savedVersion = 0;
+        generation.incrementAndGet();
+    }
+
+    // Registers and saves a match that runs next to the main game
+    public void createSideMatch(GameMatch match) {
+        checkWritable();
+        sideMatches.put(match.getMatchId(), write(match));
+        for (Player player : match.getPlayers()) {
+            sideMatchByPlayer.put(player.getId(), match.getMatchId());
+        }
+        dirty.add(match.getMatchId());
+    }
+
+    private void saveSideMatch(GameMatch match) {
+        sideMatches.computeIfPresent(match.getMatchId(), (id, current) -> {
+            if (current == CLOSED) {
+                return CLOSED;
+            }
+            long version = match.getVersion();
+            match.setVersion(version + 1);
+            try {
+                return write(match);
+            } catch (UncheckedIOException e) {
+                match.setVersion(version);
+                throw e;
+            }
+        });
+        dirty.add(match.getMatchId());
+    }
+
+    // True for side matches, including closed ones
+    public boolean isSideMatch(String matchId) {
+        return sideMatches.containsKey(matchId);
+    }
+
+    // Side match the player is seated in, or null for players of the main game
+    public String findSideMatchId(String playerId) {
+        return sideMatchByPlayer.get(playerId);
+    }
+
+    public List<String> getSideMatchIds() {
+        List<String> matchIds = new ArrayList<>();
+        sideMatches.forEach((id, bytes) -> {
+            if (bytes != CLOSED) {
+                matchIds.add(id);
+            }
+        });
+        return matchIds;
+    }
+
+    public void closeSideMatch(String matchId) {
+        checkWritable();
+        resident(matchId);
+        byte[] bytes = sideMatches.replace(matchId, CLOSED);
+        if (bytes != null && bytes != CLOSED) {
+            for (Player player : read(bytes).getPlayers()) {
+                sideMatchByPlayer.remove(player.getId());
+            }
+            tombstones.add(new Tombstone(matchId, System.currentTimeMillis() + closedGraceMillis));
+        }
+        dirty.add(matchId);
+        dropExpiredTombstones();
+    }
+
+    // Any action still queued for a closed match has long run by now; the id is forgotten
+    private void dropExpiredTombstones() {
+        long now = System.currentTimeMillis();
+        for (Tombstone oldest = tombstones.peek(); oldest != null && oldest.expiresAt <= now; oldest = tombstones.peek()) {
+            if (tombstones.remove(oldest)) {
+                sideMatches.remove(oldest.matchId, CLOSED);
+            }
+        }
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    private void checkWritable() {
+        if (stopped) {
+            throw new IllegalStateException("O servidor está reiniciando. Tente novamente em instantes.");
+        }
+        if (readOnly) {
+            throw new IllegalStateException("Este servidor não é o primário no momento; as jogadas devem ir para o primário");
+        }
+    }
+
+    // Stores a match received from the primary as is (version included), bypassing readOnly
+    public void applyReplica(GameMatch match, boolean sideMatch) {
+        if (sideMatch) {
+            sideMatches.put(match.getMatchId(), write(match));
+            for (Player player : match.getPlayers()) {
+                sideMatchByPlayer.put(player.getId(), match.getMatchId());
+            }
+            dirty.add(match.getMatchId());
+            return;
+        }
+        try {
+            writeFile(match);
+            savedVersion = match.getVersion();
+            generation.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao salvar o jogo", e);
+        }
+    }
+
+    // Stores an imported match as is (version included)
+    public void importMatch(GameMatch match, boolean sideMatch) {
+        checkWritable();
+        applyReplica(match, sideMatch);
+    }
+
+    // Every open side match as stored (Smile); those still in the directory are read from it
+    // without being kept in memory
+    public void forEachSideMatch(Consumer<byte[]> consumer) {
+        sideMatches.forEach((matchId, bytes) -> {
+            if (bytes == CLOSED) {
+                return;
+            }
+            if (bytes == ON_DISK) {
+                try {
+                    bytes = Files.readAllBytes(matchFile(matchId));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Erro ao carregar o jogo", e);
+                }
+            }
+            consumer.accept(bytes);
+        });
+    }
+
+    // Drops a replicated match; the main game only if it is still the one with this id
+    public void removeReplica(String matchId) {
+        if (sideMatches.containsKey(matchId)) {
+            resident(matchId);
+            byte[] bytes = sideMatches.remove(matchId);
+            if (bytes != null && bytes != CLOSED) {
+                for (Player player : read(bytes).getPlayers()) {
+                    sideMatchByPlayer.remove(player.getId(), matchId);
+                }
+            }
+            dirty.add(matchId);
+            return;
+        }
+        GameMatch main = loadGame();
+        if (main != null && main.getMatchId().equals(matchId)) {
+            new File(filePath).delete();
+            savedVersion = 0;
+            generation.incrementAndGet();
+        }
+    }
+
+    // Written next to the file and renamed over it, so unlocked readers never see a partial file
+    private void writeFile(GameMatch match) throws IOException {
+        Path target = Path.of(filePath);
+        Path temp = Path.of(filePath + ".tmp");
+        objectMapper.writeValue(temp.toFile(), match);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The stored bytes of a side match, reading it from the directory on first access
+    private byte[] resident(String matchId) {
+        byte[] bytes = sideMatches.get(matchId);
+        if (bytes != ON_DISK) {
+            return bytes;
+        }
+        return sideMatches.computeIfPresent(matchId, (id, current) -> {
+            if (current != ON_DISK) {
+                return current;
+            }
+            try {
+                return Files.readAllBytes(matchFile(id));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao carregar o jogo", e);
+            }
+        });
+    }
+
+    private Path matchFile(String matchId) {
+        return matchesDirectory.resolve(matchId + ".smile");
+    }
+
+    private void readIndex() throws IOException {
+        Path index = matchesDirectory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return;
+        }
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ", -1);
+            if (fields[0].isEmpty()) {
+                continue;
+            }
+            sideMatches.put(fields[0], ON_DISK);
+            if (fields.length > 1 && !fields[1].isEmpty()) {
+                for (String playerId : fields[1].split(",")) {
+                    sideMatchByPlayer.put(playerId, fields[0]);
+                }
+            }
+        }
+    }
+
+    // Refuses every later write; the state from here on is what flush persists
+    public void stopWrites() {
+        stopped = true;
+    }
+
+    // Writes the side matches changed since the start, in parallel, then the index of the open
+    // ones. Returns how many match files were written.
+    public int flush() throws IOException {
+        if (matchesDirectory == null) {
+            return 0;
+        }
+        Files.createDirectories(matchesDirectory);
+        List<String> changed = new ArrayList<>(dirty);
+        int written = (int) changed.parallelStream().filter(this::flushMatch).count();
+        dirty.removeAll(changed);
+
+        Map<String, List<String>> players = new HashMap<>();
+        sideMatchByPlayer.forEach((playerId, matchId) -> players.computeIfAbsent(matchId, id -> new ArrayList<>()).add(playerId));
+        StringBuilder index = new StringBuilder();
+        sideMatches.forEach((matchId, bytes) -> {
+            if (bytes != CLOSED) {
+                index.append(matchId).append(' ').append(String.join(",", players.getOrDefault(matchId, List.of()))).append('\n');
+            }
+        });
+        Path temp = matchesDirectory.resolve(INDEX_FILE + ".tmp");
+        Files.writeString(temp, index, StandardCharsets.UTF_8);
+        Files.move(temp, matchesDirectory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    private boolean flushMatch(String matchId) {
+        byte[] bytes = sideMatches.get(matchId);
+        try {
+            if (bytes == null || bytes == CLOSED) {
+                Files.deleteIfExists(matchFile(matchId));
+                return false;
+            }
+            if (bytes == ON_DISK) {
+                return false;
+            }
+            Path temp = matchesDirectory.resolve(matchId + ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, matchFile(matchId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao salvar o jogo " + matchId, e);
+        }
+    }
+
+    private byte[] write(GameMatch match) {
+        try {
+            return residentMapper.writeValueAsBytes(match);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao salvar o jogo", e);
+        }
+    }
+
+    private GameMatch read(byte[] bytes) {
+        try {
+            return residentMapper.readValue(bytes, GameMatch.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao carregar o jogo", e);
+        }
     }
-}
\ No newline at end of file
+}
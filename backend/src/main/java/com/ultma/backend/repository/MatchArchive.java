@@ -0,0 +1,395 @@
+package com.ultma.backend.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.Player;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Append-only archive of finished matches.
+//
+// Matches are appended to numbered segment files; a segment is sealed (never written again) once
+// it passes the size limit. Each record is self-contained:
+//
+//   int   recordLength        bytes that follow this field
+//   short headerLength
+//   bytes header              UTF-8 "matchId\nplayerId,playerId,..."
+//   byte  codec               1 = deflate with PRESET_DICTIONARY_V1
+//   int   rawLength
+//   bytes payload             compressed ArchivedMatch JSON
+//
+// index.log holds one line per record ("matchId segment offset length playerIds"), so reading a
+// match is one positional read plus one inflate. Records missing from the index after a crash
+// are recovered by scanning the record headers of the last segment.
+@Repository
+public class MatchArchive {
+
+    private static final byte CODEC_DEFLATE_V1 = 1;
+
+    // Frequent JSON keys and values; small records compress much better with them preloaded.
+    // Never change it: bump the codec and add a new dictionary instead.
+    private static final byte[] PRESET_DICTIONARY_V1 = (
+            "\"reason\":\"finished\",\"reset\",\"archivedAt\":\"history\":[{\"sequence\":\"timestamp\":"
+            + "\"arenaRound\":\"type\":\"cast\",\"defense\",\"attack\",\"playerId\":\"playerName\":\"targetId\":"
+            + "\"targetManaAfter\":\"spell\":{\"spellName\":\"manaCost\":\"description\":\"success\":true,false,"
+            + "\"duel\":{\"attackerId\":\"damageDealt\":\"targetShieldBefore\":\"targetShieldAfter\":"
+            + "\"targetLifeBefore\":\"targetLifeAfter\":\"wasBlocked\":\"blockingSpell\":null,"
+            + "\"Ataque\",\"Defesa\",\"Utilidade\",\"Dano (Evitada por \"Defesa ativada!\","
+            + "\"Disparo Arcano\",\"Proteção Arcana\",\"Teletransporte\",\"Portal\",\"Bola de Fogo\","
+            + "\"Lança de Gelo\",\"Vento Cortante\",\"Fúria da Terra\",\"Maldição do Vazio\",\"Barreira de Fogo\","
+            + "\"Muro de Água\",\"Armadura de Pedra\",\"Levitação\",\"Escudo de Vácuo\",\"Dissipação\","
+            + "\"Ocultar Presença\",\"Visão Mental\",\"Transferência de Mana\",\"Clarividência\","
+            + "\"match\":{\"matchId\":\"version\":\"players\":[{\"id\":\"name\":\"lifeEnergy\":\"magicShield\":"
+            + "\"mana\":\"bot\":\"knownSpells\":[\"potions\":[\"activeDefenses\":[\"glifos\":[\"GLIFO_1\",\"GLIFO_2\","
+            + "\"GLIFO_3\",\"GLIFO_4\"],\"arenaPosition\":\"actionsRemaining\":\"eliminated\":\"arenaPhase\":"
+            + "\"currentTurnPlayerIndex\":\"arenaRound\":\"wordDictionary\":{\"YNGVY\":\"VORLAG\":\"HARKON\":"
+            + "\"AELITH\":\"PHAETON\":\"SARTHEL\":\"AETHER\",\"RUNA\",\"NEXUS\",\"SOMBRA\",\"FORJA\",\"VAZIO\","
+            + "\"potionDictionary\":{\"ROSA\":\"VERDE\":\"AZUL\":\"VERMELHA\":\"BRANCA\":\"ROXA\":\"CURA\",\"MANA\","
+            + "\"ESCUDO\",\"DEBILITANTE\",\"CORRUPCAO\",\"ANTI_MAGIA\",\"glifosUsadosNoTabuleiro\":[")
+            .getBytes(StandardCharsets.UTF_8);
+
+    // Where a record lives
+    @lombok.Value
+    public static class Location {
+        int segment;
+        long offset;
+        int length;
+    }
+
+    private final Path directory;
+    private final long segmentLimitBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Location> byMatch = new ConcurrentHashMap<>();
+    private final List<Location> inOrder = new ArrayList<>();
+    private final Map<String, List<String>> matchesByPlayer = new ConcurrentHashMap<>();
+    private final Map<Integer, FileChannel> readers = new ConcurrentHashMap<>();
+
+    private int currentSegment;
+    private FileChannel writer;
+    private BufferedWriter indexWriter;
+
+    public MatchArchive(@Value("${ultma.archive.directory:archive}") String directory,
+                        @Value("${ultma.archive.segment-size-mb:64}") long segmentSizeMb) {
+        this.directory = Path.of(directory);
+        this.segmentLimitBytes = segmentSizeMb * 1024 * 1024;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao abrir o arquivo de partidas", e);
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path indexPath = directory.resolve("index.log");
+        Map<Integer, Long> indexedEnds = new HashMap<>();
+        String indexText = Files.exists(indexPath) ? Files.readString(indexPath, StandardCharsets.UTF_8) : "";
+        boolean tornLine = !indexText.isEmpty() && !indexText.endsWith("\n");
+        if (!indexText.isEmpty()) {
+            List<String> lines = indexText.lines().toList();
+            // A torn last line may still parse (a cut length), so it is never trusted: its record
+            // is recovered from the segment below
+            int complete = tornLine ? lines.size() - 1 : lines.size();
+            for (String line : lines.subList(0, complete)) {
+                String[] fields = line.split(" ", -1);
+                Location location;
+                try {
+                    location = new Location(Integer.parseInt(fields[1]), Long.parseLong(fields[2]), Integer.parseInt(fields[3]));
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                addToIndex(fields[0], location, fields.length > 4 ? fields[4] : "");
+                indexedEnds.merge(location.getSegment(), location.getOffset() + location.getLength(), Math::max);
+            }
+        }
+        for (int segment : indexedEnds.keySet()) {
+            currentSegment = Math.max(currentSegment, segment);
+        }
+        currentSegment = Math.max(Math.max(currentSegment, lastSegmentOnDisk()), 1);
+        long indexedEnd = indexedEnds.getOrDefault(currentSegment, 0L);
+
+        if (tornLine) {
+            // Cut it off, or the next start would read it as a complete line
+            String complete = indexText.substring(0, indexText.lastIndexOf('\n') + 1);
+            try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                index.truncate(complete.getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+        indexWriter = Files.newBufferedWriter(indexPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        writer = FileChannel.open(segmentPath(currentSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        recoverTail(indexedEnd);
+        writer.position(writer.size());
+    }
+
+    private int lastSegmentOnDisk() throws IOException {
+        int last = 0;
+        try (var files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (name.startsWith("segment-") && name.endsWith(".seg")) {
+                    last = Math.max(last, Integer.parseInt(name.substring(8, name.length() - 4)));
+                }
+            }
+        }
+        return last;
+    }
+
+    // Re-index complete records written after the last index line; drop a torn last record
+    private void recoverTail(long position) throws IOException {
+        long size = writer.size();
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        while (position + 4 <= size) {
+            lengthBuffer.clear();
+            writer.read(lengthBuffer, position);
+            int recordLength = lengthBuffer.flip().getInt();
+            if (recordLength <= 0 || position + 4 + recordLength > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordLength);
+            writer.read(record, position + 4);
+            record.flip();
+            byte[] header = new byte[record.getShort()];
+            record.get(header);
+            String[] parts = new String(header, StandardCharsets.UTF_8).split("\n", -1);
+            Location location = new Location(currentSegment, position, 4 + recordLength);
+            addToIndex(parts[0], location, parts[1]);
+            writeIndexLine(parts[0], location, parts[1]);
+            position += 4 + recordLength;
+        }
+        if (position < size) {
+            writer.truncate(position);
+        }
+        indexWriter.flush();
+    }
+
+    public synchronized Location append(ArchivedMatch archived) {
+        return append(List.of(archived)).get(0);
+    }
+
+    // Appends the matches in order with one sync to disk for all of them (bulk imports)
+    public synchronized List<Location> append(List<ArchivedMatch> batch) {
+        try {
+            List<String[]> written = new ArrayList<>(batch.size());
+            List<Location> locations = new ArrayList<>(batch.size());
+            for (ArchivedMatch archived : batch) {
+                byte[] raw = objectMapper.writeValueAsBytes(archived);
+                byte[] compressed = deflate(raw);
+                String matchId = archived.getMatch().getMatchId();
+                StringBuilder playerIds = new StringBuilder();
+                for (Player player : archived.getMatch().getPlayers()) {
+                    if (playerIds.length() > 0) {
+                        playerIds.append(',');
+                    }
+                    playerIds.append(player.getId());
+                }
+                byte[] header = (matchId + "\n" + playerIds).getBytes(StandardCharsets.UTF_8);
+
+                int recordLength = 2 + header.length + 1 + 4 + compressed.length;
+                ByteBuffer record = ByteBuffer.allocate(4 + recordLength);
+                record.putInt(recordLength).putShort((short) header.length).put(header)
+                        .put(CODEC_DEFLATE_V1).putInt(raw.length).put(compressed).flip();
+
+                if (writer.size() > 0 && writer.size() + record.remaining() > segmentLimitBytes) {
+                    rollSegment();
+                }
+                long offset = writer.size();
+                while (record.hasRemaining()) {
+                    writer.write(record, offset + record.position());
+                }
+                locations.add(new Location(currentSegment, offset, 4 + recordLength));
+                written.add(new String[] { matchId, playerIds.toString() });
+            }
+            writer.force(false);
+
+            // Index lines only once their records are on disk
+            for (int i = 0; i < locations.size(); i++) {
+                writeIndexLine(written.get(i)[0], locations.get(i), written.get(i)[1]);
+            }
+            indexWriter.flush();
+            for (int i = 0; i < locations.size(); i++) {
+                addToIndex(written.get(i)[0], locations.get(i), written.get(i)[1]);
+            }
+            return locations;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao arquivar a partida", e);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        writer.force(true);
+        writer.close();
+        currentSegment++;
+        writer = FileChannel.open(segmentPath(currentSegment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+
+    public ArchivedMatch find(String matchId) {
+        Location location = byMatch.get(matchId);
+        return location != null ? read(location) : null;
+    }
+
+    public boolean contains(String matchId) {
+        return byMatch.containsKey(matchId);
+    }
+
+    public List<String> findMatchIdsByPlayer(String playerId) {
+        List<String> matchIds = matchesByPlayer.get(playerId);
+        if (matchIds == null) {
+            return List.of();
+        }
+        synchronized (matchIds) {
+            return new ArrayList<>(matchIds);
+        }
+    }
+
+    public int size() {
+        return byMatch.size();
+    }
+
+    // Every record in append order; a snapshot, so scans are not affected by concurrent appends
+    public List<Location> locations() {
+        synchronized (inOrder) {
+            return new ArrayList<>(inOrder);
+        }
+    }
+
+    // Up to max records in append order starting at the from-th, for scans that go chunk by chunk
+    public List<Location> locations(int from, int max) {
+        synchronized (inOrder) {
+            return new ArrayList<>(inOrder.subList(Math.min(from, inOrder.size()), Math.min(from + max, inOrder.size())));
+        }
+    }
+
+    public ArchivedMatch read(Location location) {
+        try {
+            return objectMapper.readValue(readJson(location), ArchivedMatch.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler a partida arquivada", e);
+        }
+    }
+
+    // The record's ArchivedMatch JSON: one positional read of the whole record, then one inflate
+    public byte[] readJson(Location location) {
+        try {
+            FileChannel channel = readers.computeIfAbsent(location.getSegment(), this::openReader);
+            ByteBuffer record = ByteBuffer.allocate(location.getLength());
+            while (record.hasRemaining()) {
+                if (channel.read(record, location.getOffset() + record.position()) < 0) {
+                    throw new IOException("Registro truncado");
+                }
+            }
+            record.flip();
+            record.getInt();
+            int headerLength = record.getShort();
+            record.position(record.position() + headerLength);
+            byte codec = record.get();
+            if (codec != CODEC_DEFLATE_V1) {
+                throw new IOException("Codec desconhecido: " + codec);
+            }
+            byte[] raw = new byte[record.getInt()];
+            inflate(record, raw);
+            return raw;
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Erro ao ler a partida arquivada", e);
+        }
+    }
+
+    private FileChannel openReader(int segment) {
+        try {
+            return FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(PRESET_DICTIONARY_V1);
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflate(ByteBuffer compressed, byte[] raw) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int n = inflater.inflate(raw);
+            if (n == 0 && inflater.needsDictionary()) {
+                inflater.setDictionary(PRESET_DICTIONARY_V1);
+                n = inflater.inflate(raw);
+            }
+            while (n < raw.length && !inflater.finished()) {
+                n += inflater.inflate(raw, n, raw.length - n);
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void addToIndex(String matchId, Location location, String playerIds) {
+        byMatch.put(matchId, location);
+        synchronized (inOrder) {
+            inOrder.add(location);
+        }
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        for (String playerId : playerIds.split(",")) {
+            List<String> matchIds = matchesByPlayer.computeIfAbsent(playerId, id -> new ArrayList<>());
+            synchronized (matchIds) {
+                matchIds.add(matchId);
+            }
+        }
+    }
+
+    private void writeIndexLine(String matchId, Location location, String playerIds) throws IOException {
+        indexWriter.write(matchId + " " + location.getSegment() + " " + location.getOffset() + " " + location.getLength() + " " + playerIds);
+        indexWriter.newLine();
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%06d.seg", segment));
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        indexWriter.close();
+        writer.close();
+        for (FileChannel reader : readers.values()) {
+            reader.close();
+        }
+    }
+}
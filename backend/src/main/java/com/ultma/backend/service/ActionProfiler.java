@@ -0,0 +1,156 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.ActionProfile;
+import com.ultma.backend.model.ProfileReport;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// CPU time and allocation of every game action, measured on the partition worker that runs it
+// and committed as a JFR event ("ultma.Action"), so any flight recording of the server has them.
+// While enabled, an in-process JFR stream also sums them up per action, along with the sampled
+// allocations of the partition workers by type, for GET /api/diagnostics/profile. Without a
+// recording or stream listening, actions are not measured at all.
+@Component
+public class ActionProfiler {
+
+    @Name("ultma.Action")
+    @Label("Game Action")
+    @Category("UltMA")
+    @StackTrace(false)
+    static class ActionEvent extends Event {
+        @Label("Action")
+        String action;
+
+        @Label("Match")
+        String matchKey;
+
+        @Label("CPU Time")
+        @Timespan
+        long cpuTime;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    // Totals of one action since the stream started
+    private static final class Totals {
+        long count;
+        long cpuNanos;
+        long maxCpuNanos;
+        long allocatedBytes;
+        long maxAllocatedBytes;
+    }
+
+    private static final int TOP_ALLOCATED_TYPES = 10;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final RecordingStream stream;
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<String, Totals> totals = new HashMap<>();
+    private final Map<String, Long> allocatedByType = new HashMap<>();
+
+    public ActionProfiler(@Value("${ultma.profiling.enabled:true}") boolean enabled,
+                          @Value("${ultma.profiling.allocation-samples-per-second:100}") int allocationSamples) {
+        FlightRecorder.register(ActionEvent.class);
+        if (!enabled) {
+            this.stream = null;
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(ActionEvent.class);
+        stream.onEvent("ultma.Action", this::onAction);
+        if (allocationSamples > 0) {
+            stream.enable("jdk.ObjectAllocationSample").with("throttle", allocationSamples + "/s");
+            stream.onEvent("jdk.ObjectAllocationSample", this::onAllocationSample);
+        }
+        stream.startAsync();
+    }
+
+    // body, measured when it runs; it must run on a single thread (as on a partition worker)
+    public <T> Supplier<T> profiled(String action, String matchKey, Supplier<T> body) {
+        return () -> {
+            ActionEvent event = new ActionEvent();
+            if (!event.isEnabled()) {
+                return body.get();
+            }
+            long cpu = threads.getCurrentThreadCpuTime();
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            event.begin();
+            try {
+                return body.get();
+            } finally {
+                event.end();
+                event.cpuTime = threads.getCurrentThreadCpuTime() - cpu;
+                event.allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+                event.action = action;
+                event.matchKey = matchKey;
+                event.commit();
+            }
+        };
+    }
+
+    private synchronized void onAction(RecordedEvent event) {
+        Totals action = totals.computeIfAbsent(event.getString("action"), name -> new Totals());
+        long cpuNanos = event.getLong("cpuTime");
+        long allocated = event.getLong("allocated");
+        action.count++;
+        action.cpuNanos += cpuNanos;
+        action.maxCpuNanos = Math.max(action.maxCpuNanos, cpuNanos);
+        action.allocatedBytes += allocated;
+        action.maxAllocatedBytes = Math.max(action.maxAllocatedBytes, allocated);
+    }
+
+    // Samples are weighted by the bytes allocated since the previous one, so the sums estimate
+    // each type's share of what the workers allocate
+    private synchronized void onAllocationSample(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        if (thread == null || thread.getJavaName() == null || !thread.getJavaName().startsWith("match-partition-")) {
+            return;
+        }
+        allocatedByType.merge(event.getClass("objectClass").getName(), event.getLong("weight"), Long::sum);
+    }
+
+    public synchronized ProfileReport report() {
+        List<ActionProfile> actions = new ArrayList<>();
+        totals.forEach((name, action) -> actions.add(new ActionProfile(name, action.count,
+                action.cpuNanos / 1000 / action.count, action.maxCpuNanos / 1000,
+                action.allocatedBytes / action.count, action.maxAllocatedBytes)));
+        actions.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+
+        Map<String, Long> topTypes = new LinkedHashMap<>();
+        allocatedByType.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ALLOCATED_TYPES)
+                .forEach(entry -> topTypes.put(entry.getKey(), entry.getValue()));
+        return new ProfileReport(stream != null, startedAt, actions, topTypes);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
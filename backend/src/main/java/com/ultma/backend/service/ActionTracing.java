@@ -0,0 +1,75 @@
+package com.ultma.backend.service;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Observations around game actions and their stages (request validation, wait for the match's
+// partition, load, turn check, validation, apply, advance turn, save, publish). Each observation becomes a trace span
+// (sampled, see management.tracing.sampling.probability) and a timer (always, tagged with the
+// action or stage).
+@Component
+public class ActionTracing {
+
+    private final ObservationRegistry registry;
+
+    public ActionTracing(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T action(String action, String playerId, Supplier<T> body) {
+        return Observation.createNotStarted("ultma.action", registry)
+                .contextualName(action)
+                .lowCardinalityKeyValue("action", action)
+                .highCardinalityKeyValue("playerId", playerId != null ? playerId : "none")
+                .observe(body);
+    }
+
+    public <T> T stage(String stage, Supplier<T> body) {
+        return Observation.createNotStarted("ultma.action.stage", registry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(body);
+    }
+
+    public void stage(String stage, Runnable body) {
+        stage(stage, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    // A stage that starts now and ends when the returned callback runs, possibly on another thread
+    public Runnable startStage(String stage) {
+        Observation observation = Observation.createNotStarted("ultma.action.stage", registry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .start();
+        return observation::stop;
+    }
+
+    // body, run on another thread, still inside the current action (its stages and tags)
+    public <T> Supplier<T> inCurrentAction(Supplier<T> body) {
+        Observation current = registry.getCurrentObservation();
+        return current != null ? () -> current.scoped(body) : body;
+    }
+
+    // Tags the current action with the match it turned out to act on
+    public void tagMatch(String matchId) {
+        Observation action = currentAction();
+        if (action != null && matchId != null) {
+            action.highCardinalityKeyValue(KeyValue.of("matchId", matchId));
+        }
+    }
+
+    private Observation currentAction() {
+        Observation observation = registry.getCurrentObservation();
+        while (observation != null && !"ultma.action".equals(observation.getContext().getName())) {
+            observation = observation.getContextView().getParentObservation() instanceof Observation parent ? parent : null;
+        }
+        return observation;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ultma.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Bounds the actions the server works on: at most max-concurrent at once, and at most
+// max-queue-per-match running or waiting on one match's partition. Anything over is rejected at
+// once rather than parking another request thread behind a slow save, so one hot match cannot
+// take the whole thread pool with it.
+@Component
+public class AdmissionControl {
+
+    private final int maxQueuePerMatch;
+    private final long retryAfterSeconds;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    // Actions running or waiting on each match; entries go away when the match is idle
+    private final Map<String, AtomicInteger> queued = new ConcurrentHashMap<>();
+    private final Counter matchBusy;
+    private final Counter overloaded;
+    private volatile boolean stopped;
+
+    public AdmissionControl(MeterRegistry meterRegistry,
+                            @Value("${ultma.admission.max-concurrent:64}") int maxConcurrent,
+                            @Value("${ultma.admission.max-queue-per-match:8}") int maxQueuePerMatch,
+                            @Value("${ultma.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueuePerMatch = maxQueuePerMatch;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxConcurrent);
+        this.matchBusy = rejections(meterRegistry, "match-busy");
+        this.overloaded = rejections(meterRegistry, "overloaded");
+        Gauge.builder("ultma.admission.in-flight", this, AdmissionControl::inFlight)
+                .description("Game actions admitted and not finished")
+                .register(meterRegistry);
+        Gauge.builder("ultma.admission.queue.depth", this, AdmissionControl::maxQueueDepth)
+                .description("Actions running or waiting on the busiest match")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ultma.admission.rejections")
+                .description("Game actions turned away by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Runs body if there is room for one more action on the match
+    public <T> T admit(String matchKey, Supplier<T> body) {
+        if (stopped) {
+            overloaded.increment();
+            throw new AdmissionRejectedException(
+                    "O servidor está reiniciando. Tente novamente em instantes.", false, retryAfterSeconds);
+        }
+        AtomicInteger depth = queued.compute(matchKey, (key, count) -> {
+            AtomicInteger current = count != null ? count : new AtomicInteger();
+            current.incrementAndGet();
+            return current;
+        });
+        try {
+            if (depth.get() > maxQueuePerMatch) {
+                matchBusy.increment();
+                throw new AdmissionRejectedException(
+                        "Muitas jogadas pendentes nesta partida. Tente novamente em instantes.", true, retryAfterSeconds);
+            }
+            if (!permits.tryAcquire()) {
+                overloaded.increment();
+                throw new AdmissionRejectedException(
+                        "Servidor sobrecarregado. Tente novamente em instantes.", false, retryAfterSeconds);
+            }
+            try {
+                return body.get();
+            } finally {
+                permits.release();
+            }
+        } finally {
+            queued.computeIfPresent(matchKey, (key, count) -> count.decrementAndGet() == 0 ? null : count);
+        }
+    }
+
+    // Turns every later action away (shutdown); clients retry and land on another instance
+    public void stopAdmitting() {
+        stopped = true;
+    }
+
+    private double inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    private double maxQueueDepth() {
+        return queued.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ultma.backend.service;
+
+// An action turned away before it queued: its match already has too many actions waiting
+// (matchBusy), or the server is at its concurrency limit
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final boolean matchBusy;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, boolean matchBusy, long retryAfterSeconds) {
+        super(message);
+        this.matchBusy = matchBusy;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public boolean isMatchBusy() {
+        return matchBusy;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
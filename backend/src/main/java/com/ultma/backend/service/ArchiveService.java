@@ -0,0 +1,54 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.repository.MatchArchive;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Moves matches into the archive when they finish (one player left standing) or are reset
+@Service
+public class ArchiveService {
+
+    private final MatchArchive matchArchive;
+    private final MatchHistoryService matchHistoryService;
+
+    public ArchiveService(MatchArchive matchArchive, MatchHistoryService matchHistoryService) {
+        this.matchArchive = matchArchive;
+        this.matchHistoryService = matchHistoryService;
+    }
+
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        GameMatch match = event.getMatch();
+        if (GameRules.isMatchOver(match)) {
+            archive(match, "finished");
+        }
+    }
+
+    @EventListener
+    public void onMatchReset(MatchResetEvent event) {
+        archive(event.getMatch(), "reset");
+        matchHistoryService.forget(event.getMatch().getMatchId());
+    }
+
+    private synchronized void archive(GameMatch match, String reason) {
+        if (match.getPlayers().isEmpty() || matchArchive.contains(match.getMatchId())) {
+            return;
+        }
+        matchArchive.append(new ArchivedMatch(match, matchHistoryService.getHistory(match.getMatchId()),
+                System.currentTimeMillis(), reason));
+    }
+
+    public ArchivedMatch getArchivedMatch(String matchId) {
+        return matchArchive.find(matchId);
+    }
+
+    public List<String> getArchivedMatchIds(String playerId) {
+        return matchArchive.findMatchIdsByPlayer(playerId);
+    }
+}
@@ -0,0 +1,149 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.ai.BotAction;
+import com.ultma.backend.service.ai.MctsBot;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+@Service
+public class BotService {
+
+    // A turn has at most 3 actions plus the explicit end of turn
+    private static final int MAX_ACTIONS_PER_TURN = 4;
+    private static final String MAIN_GAME = "";
+
+    private final GameService gameService;
+    private final MctsBot mctsBot;
+    private final boolean enabled;
+    private final ExecutorService turnExecutor;
+    private final Set<String> busyMatches = ConcurrentHashMap.newKeySet();
+
+    public BotService(GameService gameService,
+                      @Value("${ultma.bot.enabled:true}") boolean enabled,
+                      @Value("${ultma.bot.concurrent-matches:4}") int concurrentMatches,
+                      @Value("${ultma.bot.threads:0}") int threads,
+                      @Value("${ultma.bot.think-time-ms:25}") long thinkTimeMillis,
+                      @Value("${ultma.bot.max-iterations:20000}") int maxIterations) {
+        this.gameService = gameService;
+        this.enabled = enabled;
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.mctsBot = new MctsBot(parallelism, thinkTimeMillis, maxIterations);
+        this.turnExecutor = Executors.newFixedThreadPool(Math.max(1, concurrentMatches), runnable -> {
+            Thread thread = new Thread(runnable, "bot-turns");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Fill an empty seat with an AI player
+    public GameMatch addBot() {
+        GameMatch match = gameService.getGameState();
+        int botNumber = 1;
+        if (match != null) {
+            botNumber += (int) match.getPlayers().stream().filter(Player::isBot).count();
+        }
+        return gameService.addPlayer("Bot " + botNumber, true);
+    }
+
+    // Play the whole turn of the current player if it is a bot, in the main game and in every side
+    // match; matches are played concurrently, at most one turn in flight per match
+    @Scheduled(fixedDelayString = "${ultma.bot.poll-interval-ms:250}")
+    public void playPendingTurns() {
+        if (!enabled || !gameService.acceptsActions()) {
+            return;
+        }
+        submitTurn(MAIN_GAME, gameService::getGameState);
+        for (String matchId : gameService.getMatchIds()) {
+            submitTurn(matchId, () -> gameService.getMatch(matchId));
+        }
+    }
+
+    private void submitTurn(String key, Supplier<GameMatch> loader) {
+        if (!busyMatches.add(key)) {
+            return;
+        }
+        try {
+            turnExecutor.execute(() -> {
+                try {
+                    playTurn(loader);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                } finally {
+                    busyMatches.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            busyMatches.remove(key);
+        }
+    }
+
+    private void playTurn(Supplier<GameMatch> loader) {
+        for (int i = 0; i < MAX_ACTIONS_PER_TURN; i++) {
+            GameMatch match = loader.get();
+            Player bot = currentBot(match);
+            if (bot == null) {
+                return;
+            }
+            BotAction action = mctsBot.decide(match, bot.getId());
+            if (action == null) {
+                return;
+            }
+            execute(match, bot, action);
+        }
+    }
+
+    private Player currentBot(GameMatch match) {
+        if (match == null || !match.isArenaPhase() || match.getPlayers().isEmpty() || GameRules.isMatchOver(match)) {
+            return null;
+        }
+        List<Player> players = match.getPlayers();
+        int turn = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
+        Player current = players.get(turn < players.size() ? turn : 0);
+        if (current.isEliminated()) {
+            current = players.stream().filter(p -> !p.isEliminated()).findFirst().orElse(null);
+        }
+        return current != null && current.isBot() ? current : null;
+    }
+
+    private void execute(GameMatch match, Player bot, BotAction action) {
+        switch (action.getType()) {
+            case CAST:
+                gameService.castSpell(bot.getId(), action.getWord1().name(), action.getWord2().name());
+                break;
+            case ATTACK:
+                String targetId = match.getPlayers().get(action.getTarget()).getId();
+                gameService.attackPlayer(bot.getId(), targetId, action.getSpellName());
+                break;
+            case DEFEND:
+                gameService.activateDefense(bot.getId(), action.getSpellName());
+                break;
+            case POTION:
+                gameService.usePotion(bot.getId(), action.getPotion().name());
+                break;
+            case MEDITATE:
+                gameService.meditate(bot.getId());
+                break;
+            case END_TURN:
+                gameService.endArenaTurn(bot.getId());
+                break;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        turnExecutor.shutdownNow();
+        mctsBot.close();
+    }
+}
@@ -0,0 +1,215 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.SpellResult;
+
+import java.util.List;
+
+// Pure spell rules shared by GameService and the arena simulations (no state, no persistence)
+public final class GameRules {
+
+    // Spells every player starts with
+    public static final List<String> STARTING_SPELLS = List.of(
+            "Disparo Arcano", "Proteção Arcana", "Teletransporte", "Portal");
+
+    private GameRules() {
+    }
+
+    // Spell for each pair of meanings, in both orders (see resolveCombination)
+    private static final SpellResult[][] COMBINATIONS = combinations();
+
+    private static SpellResult[][] combinations() {
+        SpellResult[][] table = new SpellResult[GameEnums.Meaning.values().length][GameEnums.Meaning.values().length];
+        // AETHER (Aether) Combinations
+        combine(table, GameEnums.Meaning.AETHER, GameEnums.Meaning.RUNA, new SpellResult("Bola de Fogo", "Ataque", 2, "Dano (Evitada por Muro de Água)", true));
+        combine(table, GameEnums.Meaning.AETHER, GameEnums.Meaning.NEXUS, new SpellResult("Lança de Gelo", "Ataque", 2, "Dano (Evitada por Barreira de Fogo)", true));
+        combine(table, GameEnums.Meaning.AETHER, GameEnums.Meaning.SOMBRA, new SpellResult("Vento Cortante", "Ataque", 2, "Dano (Evitada por Armadura de Pedra)", true));
+        combine(table, GameEnums.Meaning.AETHER, GameEnums.Meaning.FORJA, new SpellResult("Barreira de Fogo", "Defesa", 1, "Defesa (Dobra dano de Lança de Gelo)", true));
+        combine(table, GameEnums.Meaning.AETHER, GameEnums.Meaning.VAZIO, new SpellResult("Dissipação", "Utilidade", 3, "Remove artefato/poção ou cancela vidência", true));
+
+        // RUNA Combinations
+        combine(table, GameEnums.Meaning.NEXUS, GameEnums.Meaning.RUNA, new SpellResult("Muro de Água", "Defesa", 1, "Defesa (Dobra dano de Bola de Fogo)", true));
+        combine(table, GameEnums.Meaning.RUNA, GameEnums.Meaning.SOMBRA, new SpellResult("Ocultar Presença", "Utilidade", 1, "Impede duelos e vidência", true));
+        combine(table, GameEnums.Meaning.FORJA, GameEnums.Meaning.RUNA, new SpellResult("Armadura de Pedra", "Defesa", 1, "Defesa (Dobra dano de Fúria da Terra)", true));
+        combine(table, GameEnums.Meaning.RUNA, GameEnums.Meaning.VAZIO, new SpellResult("Maldição do Vazio", "Ataque", 2, "Remove 3 mana ou 1 vida", true));
+
+        // NEXUS Combinations
+        combine(table, GameEnums.Meaning.NEXUS, GameEnums.Meaning.SOMBRA, new SpellResult("Visão Mental", "Utilidade", 2, "Aprende Palavras de Poder do alvo", true));
+        combine(table, GameEnums.Meaning.FORJA, GameEnums.Meaning.NEXUS, new SpellResult("Fúria da Terra", "Ataque", 2, "Dano (Evitada por Levitação)", true));
+        combine(table, GameEnums.Meaning.NEXUS, GameEnums.Meaning.VAZIO, new SpellResult("Transferência de Mana", "Utilidade", 1, "Rouba 2 de Mana", true));
+
+        // SOMBRA Combinations
+        combine(table, GameEnums.Meaning.FORJA, GameEnums.Meaning.SOMBRA, new SpellResult("Clarividência", "Utilidade", 1, "Revela informações", true));
+        combine(table, GameEnums.Meaning.SOMBRA, GameEnums.Meaning.VAZIO, new SpellResult("Levitação", "Defesa", 1, "Defesa (Dobra dano de Vento Cortante)", true));
+
+        // FORJA Combinations
+        combine(table, GameEnums.Meaning.FORJA, GameEnums.Meaning.VAZIO, new SpellResult("Escudo de Vácuo", "Defesa", 3, "+1 Escudo Temporário", true));
+        return table;
+    }
+
+    private static void combine(SpellResult[][] table, GameEnums.Meaning m1, GameEnums.Meaning m2, SpellResult spell) {
+        table[m1.ordinal()][m2.ordinal()] = spell;
+        table[m2.ordinal()][m1.ordinal()] = spell;
+    }
+
+    // A new result each call, since callers may change it (e.g. the potion reward description)
+    public static SpellResult resolveCombination(GameEnums.Meaning m1, GameEnums.Meaning m2) {
+        SpellResult spell = COMBINATIONS[m1.ordinal()][m2.ordinal()];
+        if (spell == null) {
+            return new SpellResult("Falha Mágica", "Nenhum", 0, "A combinação falhou.", false);
+        }
+        return new SpellResult(spell.getSpellName(), spell.getType(), spell.getManaCost(), spell.getDescription(), true);
+    }
+
+    public static String getSpellType(String spellName) {
+        switch (spellName) {
+            case "Bola de Fogo":
+            case "Lança de Gelo":
+            case "Vento Cortante":
+            case "Fúria da Terra":
+            case "Disparo Arcano":
+            case "Maldição do Vazio":
+                return "Ataque";
+            case "Barreira de Fogo":
+            case "Muro de Água":
+            case "Armadura de Pedra":
+            case "Levitação":
+            case "Proteção Arcana":
+            case "Escudo de Vácuo":
+                return "Defesa";
+            default:
+                return "Utilidade";
+        }
+    }
+
+    public static int getSpellCost(String spellName) {
+        switch (spellName) {
+            case "Disparo Arcano":
+                return 1;
+            case "Bola de Fogo":
+            case "Lança de Gelo":
+            case "Vento Cortante":
+            case "Fúria da Terra":
+            case "Maldição do Vazio":
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    // Defense spells cost 1, except Escudo de Vácuo which costs 3
+    public static int getDefenseCost(String spellName) {
+        return "Escudo de Vácuo".equals(spellName) ? 3 : 1;
+    }
+
+    // Check if a defense can block an attack
+    public static String checkBlockingDefense(String attackSpell, List<String> activeDefenses) {
+        if (activeDefenses == null || activeDefenses.isEmpty()) {
+            return null;
+        }
+
+        // Specific blocking rules
+        switch (attackSpell) {
+            case "Bola de Fogo":
+                if (activeDefenses.contains("Muro de Água")) {
+                    return "Muro de Água";
+                }
+                break;
+            case "Lança de Gelo":
+                if (activeDefenses.contains("Barreira de Fogo")) {
+                    return "Barreira de Fogo";
+                }
+                break;
+            case "Vento Cortante":
+                if (activeDefenses.contains("Armadura de Pedra")) {
+                    return "Armadura de Pedra";
+                }
+                break;
+            case "Fúria da Terra":
+                if (activeDefenses.contains("Levitação")) {
+                    return "Levitação";
+                }
+                break;
+            case "Disparo Arcano":
+                if (activeDefenses.contains("Proteção Arcana")) {
+                    return "Proteção Arcana";
+                }
+                break;
+        }
+
+        return null;
+    }
+
+    // Calculate damage with amplification (defense on target doubles damage)
+    public static int calculateDamageWithAmplification(String attackSpell, List<String> activeDefenses, int baseDamage) {
+        if (activeDefenses == null || activeDefenses.isEmpty()) {
+            return baseDamage;
+        }
+
+        // Amplification rules: if matching defense is active on target, damage doubles
+        switch (attackSpell) {
+            case "Lança de Gelo":
+                if (activeDefenses.contains("Barreira de Fogo")) {
+                    return baseDamage * 2;
+                }
+                break;
+            case "Bola de Fogo":
+                if (activeDefenses.contains("Muro de Água")) {
+                    return baseDamage * 2;
+                }
+                break;
+            case "Fúria da Terra":
+                if (activeDefenses.contains("Levitação")) {
+                    return baseDamage * 2;
+                }
+                break;
+            case "Vento Cortante":
+                if (activeDefenses.contains("Armadura de Pedra")) {
+                    return baseDamage * 2;
+                }
+                break;
+        }
+
+        return baseDamage;
+    }
+
+    // An arena match is over once at most one player is left standing
+    public static boolean isMatchOver(GameMatch match) {
+        if (match == null || !match.isArenaPhase() || match.getPlayers().size() < 2) {
+            return false;
+        }
+        int standing = 0;
+        for (Player player : match.getPlayers()) {
+            if (isStanding(player)) {
+                standing++;
+            }
+        }
+        return standing <= 1;
+    }
+
+    // The last non-eliminated player, or null when nobody is left
+    public static Player lastStanding(GameMatch match) {
+        for (Player player : match.getPlayers()) {
+            if (isStanding(player)) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    // The match's player with this id, or null (a plain loop: this runs on every action)
+    public static Player findPlayer(GameMatch match, String playerId) {
+        for (Player player : match.getPlayers()) {
+            if (player.getId().equals(playerId)) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isStanding(Player player) {
+        return !player.isEliminated() && player.getLifeEnergy() > 0;
+    }
+}
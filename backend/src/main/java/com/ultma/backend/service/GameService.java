@@ -1,26 +1,89 @@
 package com.ultma.backend.service;
 
+import com.ultma.backend.model.ActionResult;
 import com.ultma.backend.model.GameEnums;
 import com.ultma.backend.model.GameMatch;
 import com.ultma.backend.model.Player;
 import com.ultma.backend.model.SpellResult;
 import com.ultma.backend.model.DuelResult;
 import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.command.ActivateDefenseCommand;
+import com.ultma.backend.service.command.AttackCommand;
+import com.ultma.backend.service.command.CastSpellCommand;
+import com.ultma.backend.service.command.GameCommand;
+import com.ultma.backend.service.command.MeditateCommand;
+import com.ultma.backend.service.command.UsePotionCommand;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class GameService {
 
     private final GameRepository gameRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public GameService(GameRepository gameRepository) {
+    private final ActionTracing tracing;
+    private final AdmissionControl admission;
+    private final ActionProfiler profiler;
+
+    // Every read-modify-save of a match runs on the partition worker that owns it, which gives it
+    // the match to itself: the main game is one match key, each side match another. Public
+    // methods hand the work over and delegate to their *Locked counterpart, which runs there.
+    private static final String MAIN_GAME = "main";
+    private final MatchPartitions partitions;
+
+    public GameService(GameRepository gameRepository, ApplicationEventPublisher eventPublisher, ActionTracing tracing,
+                       AdmissionControl admission, MatchPartitions partitions, ActionProfiler profiler) {
         this.gameRepository = gameRepository;
+        this.eventPublisher = eventPublisher;
+        this.tracing = tracing;
+        this.admission = admission;
+        this.partitions = partitions;
+        this.profiler = profiler;
+    }
+
+    // Persist and notify listeners (turn timers, history, ...) of the new state and of the action
+    // that produced it; playerId is null for actions nobody in particular took
+    private void saveGame(GameMatch match, String action, String playerId) {
+        tracing.stage("save", () -> gameRepository.saveGame(match));
+        tracing.stage("publish", () -> eventPublisher.publishEvent(new MatchUpdatedEvent(match, action, playerId)));
+    }
+
+    // A traced action on the match's partition, if admission control lets it queue there
+    private <T> T inMatch(String action, String playerId, String matchKey, Supplier<T> body) {
+        return tracing.action(action, playerId, () -> admitted(matchKey,
+                () -> onPartition(matchKey, profiler.profiled(action, matchKey, body))));
+    }
+
+    // An action already running on the match's partition (a nested call) was admitted before
+    private <T> T admitted(String matchKey, Supplier<T> body) {
+        return partitions.owns(matchKey) ? body.get() : admission.admit(matchKey, body);
+    }
+
+    // Runs body on the match's partition; the "dispatch" stage is the wait for its worker
+    private <T> T onPartition(String matchKey, Supplier<T> body) {
+        if (partitions.owns(matchKey)) {
+            return body.get();
+        }
+        Runnable dispatched = tracing.startStage("dispatch");
+        return partitions.run(matchKey, tracing.inCurrentAction(() -> {
+            dispatched.run();
+            return body.get();
+        }));
     }
 
     public GameMatch createNewGame() {
+        return inMatch("new-game", null, MAIN_GAME, this::createNewGameLocked);
+    }
+
+    private GameMatch createNewGameLocked() {
         GameMatch match = new GameMatch();
         
         // 1. Generate the randomness of power words
@@ -30,17 +93,26 @@ public class GameService {
         match.setPotionDictionary(generateRandomPotionMap());
         
         // Save the initial state
-        gameRepository.saveGame(match);
+        saveGame(match, "new-game", null);
         return match;
     }
 
     public GameMatch addPlayer(String playerName) {
+        return addPlayer(playerName, false);
+    }
+
+    public GameMatch addPlayer(String playerName, boolean bot) {
+        return inMatch("join", null, MAIN_GAME, () -> addPlayerLocked(playerName, bot));
+    }
+
+    private GameMatch addPlayerLocked(String playerName, boolean bot) {
         GameMatch match = gameRepository.loadGame();
         if (match == null) {
             match = createNewGame();
         }
         
         Player newPlayer = new Player(playerName);
+        newPlayer.setBot(bot);
         match.getPlayers().add(newPlayer);
         
         // Auto-start arena phase when there are at least 2 players
@@ -49,28 +121,117 @@ public class GameService {
             initializeArenaPhase(match);
         }
         
-        gameRepository.saveGame(match);
+        saveGame(match, "join", newPlayer.getId());
         return match;
     }
 
     public GameMatch getGameState() {
-        GameMatch match = gameRepository.loadGame();
+        return onPartition(MAIN_GAME, this::getGameStateLocked);
+    }
+
+    private GameMatch getGameStateLocked() {
+        GameMatch match = tracing.stage("load", () -> gameRepository.loadGame());
         if (match != null) {
+            tracing.tagMatch(match.getMatchId());
             // Auto-start arena phase if there are at least 2 players and arena is not active
             if (match.getPlayers().size() >= 2 && !match.isArenaPhase()) {
                 initializeArenaPhase(match);
-                gameRepository.saveGame(match);
+                saveGame(match, "start-arena", null);
             }
         }
         return match;
     }
 
+    private String matchKeyForPlayer(String playerId) {
+        String matchId = gameRepository.findSideMatchId(playerId);
+        return matchId != null ? matchId : MAIN_GAME;
+    }
+
+    private String matchKey(String matchId) {
+        return gameRepository.isSideMatch(matchId) ? matchId : MAIN_GAME;
+    }
+
+    // Match the player is seated in: a side match (tournament) or else the main game
+    private GameMatch getGameStateForPlayer(String playerId) {
+        String matchId = gameRepository.findSideMatchId(playerId);
+        if (matchId == null) {
+            return getGameState();
+        }
+        tracing.tagMatch(matchId);
+        return tracing.stage("load", () -> gameRepository.loadGame(matchId));
+    }
+
+    // Starts an arena match for the given players next to the main game. beforeStart sees the new
+    // match before anyone can act on it.
+    public GameMatch createMatch(List<Player> players, Consumer<GameMatch> beforeStart) {
+        GameMatch match = new GameMatch();
+        match.setWordDictionary(generateRandomWordMap());
+        match.setPotionDictionary(generateRandomPotionMap());
+        match.getPlayers().addAll(players);
+        initializeArenaPhase(match);
+        beforeStart.accept(match);
+        gameRepository.createSideMatch(match);
+        eventPublisher.publishEvent(new MatchUpdatedEvent(match));
+        return match;
+    }
+
+    // Stores a match exported from another server as is, the main game or a side match
+    public void importMatch(GameMatch match, boolean sideMatch) {
+        partitions.run(sideMatch ? match.getMatchId() : MAIN_GAME, () -> {
+            gameRepository.importMatch(match, sideMatch);
+            eventPublisher.publishEvent(new MatchUpdatedEvent(match));
+            return null;
+        });
+    }
+
+    public GameMatch getMatch(String matchId) {
+        return gameRepository.loadGame(matchId);
+    }
+
+    // False on a hot standby until it is promoted
+    public boolean acceptsActions() {
+        return !gameRepository.isReadOnly();
+    }
+
+    // Ids of the running side matches
+    public List<String> getMatchIds() {
+        return gameRepository.getSideMatchIds();
+    }
+
+    // Removes a side match; later actions on it are ignored
+    public void closeMatch(String matchId) {
+        GameMatch match = onPartition(matchKey(matchId), () -> {
+            GameMatch closed = gameRepository.loadGame(matchId);
+            gameRepository.closeSideMatch(matchId);
+            return closed;
+        });
+        if (match != null) {
+            eventPublisher.publishEvent(new MatchResetEvent(match));
+        }
+    }
+
+    // Read-only state for polling clients: concurrent callers share one load and may get the
+    // same instance, so nothing here may modify it
+    public GameMatch readGameState() {
+        GameMatch match = gameRepository.loadGameShared();
+        if (match != null && match.getPlayers().size() >= 2 && !match.isArenaPhase()) {
+            return getGameState(); // the arena auto-start writes, so take the regular path
+        }
+        return match;
+    }
+
+    // Read-only state of the match a player is in, main game or side match (see readGameState)
+    public GameMatch readMatchForPlayer(String playerId) {
+        String matchId = gameRepository.findSideMatchId(playerId);
+        return matchId != null ? gameRepository.loadGame(matchId) : readGameState();
+    }
+
     // Private logic to shuffle meanings
     private Map<GameEnums.PowerWord, GameEnums.Meaning> generateRandomWordMap() {
         List<GameEnums.Meaning> meanings = Arrays.asList(GameEnums.Meaning.values());
         Collections.shuffle(meanings); // Embaralha a lista de significados
 
-        Map<GameEnums.PowerWord, GameEnums.Meaning> map = new HashMap<>();
+        Map<GameEnums.PowerWord, GameEnums.Meaning> map = new EnumMap<>(GameEnums.PowerWord.class);
         GameEnums.PowerWord[] words = GameEnums.PowerWord.values();
 
         // Associate each word to a random meaning from the shuffled list
@@ -85,7 +246,7 @@ public class GameService {
         List<GameEnums.PotionEffect> effects = Arrays.asList(GameEnums.PotionEffect.values());
         Collections.shuffle(effects);
 
-        Map<GameEnums.PotionColor, GameEnums.PotionEffect> map = new HashMap<>();
+        Map<GameEnums.PotionColor, GameEnums.PotionEffect> map = new EnumMap<>(GameEnums.PotionColor.class);
         GameEnums.PotionColor[] colors = GameEnums.PotionColor.values();
 
         for (int i = 0; i < colors.length; i++) {
@@ -94,582 +255,147 @@ public class GameService {
         return map;
     }
 
-// cast a spell and deduct mana from player
-public SpellResult castSpell(String playerId, String word1Str, String word2Str) {
-    GameMatch match = getGameState();
-    if (match == null) return new SpellResult("Error", "N/A", 0, "game not started", false);
-
-    // find the player who is casting
-    Player player = match.getPlayers().stream()
-            .filter(p -> p.getId().equals(playerId))
-            .findFirst()
-            .orElse(null);
-
-    if (player == null) {
-        return new SpellResult("Error", "N/A", 0, "player not found", false);
-    }
-
-    try {
-        // convert strings to enums
-        GameEnums.PowerWord word1 = GameEnums.PowerWord.valueOf(word1Str.toUpperCase());
-        GameEnums.PowerWord word2 = GameEnums.PowerWord.valueOf(word2Str.toUpperCase());
-
-        // translate words using the match dictionary
-        GameEnums.Meaning m1 = match.getWordDictionary().get(word1);
-        GameEnums.Meaning m2 = match.getWordDictionary().get(word2);
-
-        // Check if in arena phase - actions are limited
-        if (match.isArenaPhase()) {
-            // Get list of active players
-            List<Player> activePlayers = match.getPlayers().stream()
-                    .filter(p -> !p.isEliminated())
-                    .collect(Collectors.toList());
-
-            // Check if it's the player's turn
-            int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-            if (currentTurnIndex >= match.getPlayers().size()) {
-                currentTurnIndex = 0;
-            }
-            Player currentTurnPlayer = match.getPlayers().get(currentTurnIndex);
-            
-            // If current turn player is eliminated, find first active player
-            if (currentTurnPlayer.isEliminated()) {
-                if (!activePlayers.isEmpty()) {
-                    currentTurnPlayer = activePlayers.get(0);
-                    // Update index to first active player
-                    for (int i = 0; i < match.getPlayers().size(); i++) {
-                        if (match.getPlayers().get(i).getId().equals(currentTurnPlayer.getId())) {
-                            match.setCurrentTurnPlayerIndex(i);
-                            break;
-                        }
-                    }
-                }
-            }
-            
-            if (!player.getId().equals(currentTurnPlayer.getId())) {
-                return new SpellResult("Error", "N/A", 0, "Não é seu turno. Aguarde o jogador atual terminar suas ações.", false);
-            }
-
-            // Check if player has actions remaining
-            if (player.getActionsRemaining() == null || player.getActionsRemaining() <= 0) {
-                return new SpellResult("Error", "N/A", 0, "Você não tem ações restantes neste turno", false);
-            }
-        }
-
-        // calculate the spell result
-        SpellResult result = resolveCombination(m1, m2);
-
-        // check if player has enough mana
-        if (player.getMana() < result.getManaCost()) {
-            return new SpellResult("Fizzle", "Failure", 0, "not enough mana to cast this spell", false);
-        }
-
-        // deduct mana and save game state
-        player.setMana(player.getMana() - result.getManaCost());
-
-        // Decrease actions remaining if in arena phase and check if turn should end
-        if (match.isArenaPhase() && player.getActionsRemaining() != null && player.getActionsRemaining() > 0) {
-            player.setActionsRemaining(player.getActionsRemaining() - 1);
-            
-            // If actions are 0, automatically advance to next player's turn
-            if (player.getActionsRemaining() == 0) {
-                advanceTurn(match);
-            }
-        }
-
-        if (result.isSuccess() && !player.getKnownSpells().contains(result.getSpellName())) {
-            player.getKnownSpells().add(result.getSpellName());
-            
-            // Reward potions for discovering new spells (100% chance for testing - can be reduced later)
-            GameEnums.PotionColor[] colors = GameEnums.PotionColor.values();
-            GameEnums.PotionColor randomPotion = colors[(int)(Math.random() * colors.length)];
-            player.getPotions().add(randomPotion);
-            result.setDescription(result.getDescription() + " | +1 Poção (" + randomPotion.name() + ")");
-        }
-
-        gameRepository.saveGame(match);
-        return result;
-
-    } catch (IllegalArgumentException e) {
-        return new SpellResult("Invalid Word", "Error", 0, "one of the words does not exist", false);
+    // cast a spell and deduct mana from player
+    public SpellResult castSpell(String playerId, String word1Str, String word2Str) {
+        return execute(new CastSpellCommand(playerId, word1Str, word2Str));
     }
-}
-
-    private SpellResult resolveCombination(GameEnums.Meaning m1, GameEnums.Meaning m2) {
-        // Trick: Sort the names to facilitate the comparison in the switch
-        List<String> sorted = Arrays.asList(m1.name(), m2.name());
-        Collections.sort(sorted);
-        String key = sorted.get(0) + "_" + sorted.get(1);
 
-        switch (key) {
-            // AETHER (Aether) Combinations
-            case "AETHER_RUNA": return new SpellResult("Bola de Fogo", "Ataque", 2, "Dano (Evitada por Muro de Água)", true);
-            case "AETHER_NEXUS": return new SpellResult("Lança de Gelo", "Ataque", 2, "Dano (Evitada por Barreira de Fogo)", true);
-            case "AETHER_SOMBRA": return new SpellResult("Vento Cortante", "Ataque", 2, "Dano (Evitada por Armadura de Pedra)", true);
-            case "AETHER_FORJA": return new SpellResult("Barreira de Fogo", "Defesa", 1, "Defesa (Dobra dano de Lança de Gelo)", true);
-            case "AETHER_VAZIO": return new SpellResult("Dissipação", "Utilidade", 3, "Remove artefato/poção ou cancela vidência", true);
-
-            // RUNA Combinations
-            case "NEXUS_RUNA": return new SpellResult("Muro de Água", "Defesa", 1, "Defesa (Dobra dano de Bola de Fogo)", true);
-            case "RUNA_SOMBRA": return new SpellResult("Ocultar Presença", "Utilidade", 1, "Impede duelos e vidência", true);
-            case "FORJA_RUNA": return new SpellResult("Armadura de Pedra", "Defesa", 1, "Defesa (Dobra dano de Fúria da Terra)", true);
-            case "RUNA_VAZIO": return new SpellResult("Maldição do Vazio", "Ataque", 2, "Remove 3 mana ou 1 vida", true);
-
-            // NEXUS Combinations
-            case "NEXUS_SOMBRA": return new SpellResult("Visão Mental", "Utilidade", 2, "Aprende Palavras de Poder do alvo", true);
-            case "FORJA_NEXUS": return new SpellResult("Fúria da Terra", "Ataque", 2, "Dano (Evitada por Levitação)", true);
-            case "NEXUS_VAZIO": return new SpellResult("Transferência de Mana", "Utilidade", 1, "Rouba 2 de Mana", true);
-
-            // SOMBRA Combinations
-            case "FORJA_SOMBRA": return new SpellResult("Clarividência", "Utilidade", 1, "Revela informações", true);
-            case "SOMBRA_VAZIO": return new SpellResult("Levitação", "Defesa", 1, "Defesa (Dobra dano de Vento Cortante)", true);
-
-            // FORJA Combinations
-            case "FORJA_VAZIO": return new SpellResult("Escudo de Vácuo", "Defesa", 3, "+1 Escudo Temporário", true);
-
-            default: return new SpellResult("Falha Mágica", "Nenhum", 0, "A combinação falhou.", false);
-        }
+    // castSpell with the match as the cast left it (see executeWithMatch)
+    public ActionResult<SpellResult> castSpellWithMatch(String playerId, String word1Str, String word2Str) {
+        return executeWithMatch(new CastSpellCommand(playerId, word1Str, word2Str));
     }
 
     // action to recover mana (end of turn mechanic)
     public GameMatch meditate(String playerId) {
-        GameMatch match = getGameState();
-        if (match == null) return null;
-        
-        Player player = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
-
-        if (player == null) {
-            return match;
-        }
-
-        // Check if in arena phase - actions are limited
-        if (match.isArenaPhase()) {
-            // Get list of active players
-            List<Player> activePlayers = match.getPlayers().stream()
-                    .filter(p -> !p.isEliminated())
-                    .collect(Collectors.toList());
-
-            // Check if it's the player's turn
-            int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-            if (currentTurnIndex >= match.getPlayers().size()) {
-                currentTurnIndex = 0;
-            }
-            Player currentTurnPlayer = match.getPlayers().get(currentTurnIndex);
-            
-            // If current turn player is eliminated, find first active player
-            if (currentTurnPlayer.isEliminated()) {
-                if (!activePlayers.isEmpty()) {
-                    currentTurnPlayer = activePlayers.get(0);
-                    // Update index to first active player
-                    for (int i = 0; i < match.getPlayers().size(); i++) {
-                        if (match.getPlayers().get(i).getId().equals(currentTurnPlayer.getId())) {
-                            match.setCurrentTurnPlayerIndex(i);
-                            break;
-                        }
-                    }
-                }
-            }
-            
-            if (!player.getId().equals(currentTurnPlayer.getId())) {
-                return match; // Not player's turn
-            }
-
-            // Check if player has actions remaining
-            if (player.getActionsRemaining() == null || player.getActionsRemaining() <= 0) {
-                return match; // No actions remaining
-            }
-        }
-
-        // recover 2 mana, capping at 5 (initial max) for balance
-        int newMana = Math.min(5, player.getMana() + 2);
-        player.setMana(newMana);
-
-        // Decrease actions remaining if in arena phase and check if turn should end
-        if (match.isArenaPhase() && player.getActionsRemaining() != null && player.getActionsRemaining() > 0) {
-            player.setActionsRemaining(player.getActionsRemaining() - 1);
-            
-            // If actions are 0, automatically advance to next player's turn
-            if (player.getActionsRemaining() == 0) {
-                advanceTurn(match);
-            }
-        }
-
-        gameRepository.saveGame(match);
-        return match;
+        return execute(new MeditateCommand(playerId));
     }
 
     // Attack another player with a spell
     public DuelResult attackPlayer(String attackerId, String targetId, String spellName) {
-        GameMatch match = getGameState();
-        if (match == null) {
-            return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, null);
-        }
-
-        Player attacker = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(attackerId))
-                .findFirst()
-                .orElse(null);
-
-        Player target = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(targetId))
-                .findFirst()
-                .orElse(null);
-
-        if (attacker == null || target == null || attacker.equals(target)) {
-            return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, null);
-        }
-
-        // Check if in arena phase - actions are limited
-        if (match.isArenaPhase()) {
-            // Get list of active players
-            List<Player> activePlayers = match.getPlayers().stream()
-                    .filter(p -> !p.isEliminated())
-                    .collect(Collectors.toList());
-
-            // Check if it's the attacker's turn
-            int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-            if (currentTurnIndex >= match.getPlayers().size()) {
-                currentTurnIndex = 0;
-            }
-            Player currentTurnPlayer = match.getPlayers().get(currentTurnIndex);
-            
-            // If current turn player is eliminated, find first active player
-            if (currentTurnPlayer.isEliminated()) {
-                if (!activePlayers.isEmpty()) {
-                    currentTurnPlayer = activePlayers.get(0);
-                    // Update index to first active player
-                    for (int i = 0; i < match.getPlayers().size(); i++) {
-                        if (match.getPlayers().get(i).getId().equals(currentTurnPlayer.getId())) {
-                            match.setCurrentTurnPlayerIndex(i);
-                            break;
-                        }
-                    }
-                }
-            }
-            
-            if (!attacker.getId().equals(currentTurnPlayer.getId())) {
-                return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, "Não é seu turno. Aguarde o jogador atual terminar suas ações.");
-            }
-
-            // Check if attacker has actions remaining
-            if (attacker.getActionsRemaining() == null || attacker.getActionsRemaining() <= 0) {
-                return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, "Você não tem ações restantes neste turno");
-            }
-        }
-
-        // Check if attacker knows the spell
-        if (!attacker.getKnownSpells().contains(spellName)) {
-            return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, "Você não conhece esta magia");
-        }
-
-        // Get spell info to check if it's an attack spell
-        String spellType = getSpellType(spellName);
-        if (!"Ataque".equals(spellType)) {
-            return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, "Esta magia não é de ataque");
-        }
-
-        // Get spell cost - attack spells cost 1-2 mana
-        int spellCost = getSpellCost(spellName);
-        if (attacker.getMana() < spellCost) {
-            return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, "Mana insuficiente para esta magia");
-        }
-
-        // Deduct mana from attacker
-        attacker.setMana(attacker.getMana() - spellCost);
-
-        // Decrease actions remaining if in arena phase and check if turn should end
-        if (match.isArenaPhase() && attacker.getActionsRemaining() != null && attacker.getActionsRemaining() > 0) {
-            attacker.setActionsRemaining(attacker.getActionsRemaining() - 1);
-            
-            // If actions are 0, automatically advance to next player's turn
-            if (attacker.getActionsRemaining() == 0) {
-                advanceTurn(match);
-            }
-        }
+        return execute(new AttackCommand(attackerId, targetId, spellName));
+    }
 
-        // Special handling for Maldição do Vazio
-        if ("Maldição do Vazio".equals(spellName)) {
-            int shieldBefore = target.getMagicShield();
-            int lifeBefore = target.getLifeEnergy();
-            
-            // Remove 3 mana from target
-            int manaBefore = target.getMana();
-            target.setMana(Math.max(0, target.getMana() - 3));
-            int manaAfter = target.getMana();
-            int manaRemoved = manaBefore - manaAfter;
-            
-            // If target mana is 0, cause 1 damage
-            int damage = (manaAfter == 0 && manaRemoved > 0) ? 1 : 0;
-            
-            if (damage > 0) {
-                if (target.getMagicShield() > 0) {
-                    target.setMagicShield(Math.max(0, target.getMagicShield() - damage));
-                } else {
-                    target.setLifeEnergy(Math.max(0, target.getLifeEnergy() - damage));
-                }
-            }
-            
-            int shieldAfter = target.getMagicShield();
-            int lifeAfter = target.getLifeEnergy();
-            
-            gameRepository.saveGame(match);
-            
-            return new DuelResult(true, attackerId, targetId, spellName, damage,
-                    shieldBefore, shieldAfter, lifeBefore, lifeAfter, false, null);
-        }
+    // attackPlayer with the match as the attack left it (see executeWithMatch)
+    public ActionResult<DuelResult> attackPlayerWithMatch(String attackerId, String targetId, String spellName) {
+        return executeWithMatch(new AttackCommand(attackerId, targetId, spellName));
+    }
 
-        // Check for blocking defenses using activeDefenses
-        String blockingSpell = checkBlockingDefense(spellName, target.getActiveDefenses());
-        boolean wasBlocked = (blockingSpell != null);
+    private <R> R execute(GameCommand<R> command) {
+        return executeWithMatch(command).getResult();
+    }
 
-        int shieldBefore = target.getMagicShield();
-        int lifeBefore = target.getLifeEnergy();
-        int damage = 1; // Base damage is 1
+    // Runs a player action through the shared stages, each timed under the action's span. Checks
+    // that need no state run before the action is handed to the match's partition. The result
+    // comes with the state the action saved, or the one it loaded when it was rejected (null when
+    // rejected before loading), so callers need no second read.
+    private <R> ActionResult<R> executeWithMatch(GameCommand<R> command) {
+        return tracing.action(command.name(), command.playerId(), () -> {
+            R invalid = tracing.stage("validate-request", command::validateRequest);
+            if (invalid != null) {
+                return new ActionResult<>(invalid, null);
+            }
+            String matchKey = matchKeyForPlayer(command.playerId());
+            return admitted(matchKey, () -> onPartition(matchKey,
+                    profiler.profiled(command.name(), matchKey, () -> executeLocked(command))));
+        });
+    }
 
-        // Check for damage amplification (defense on target doubles damage)
-        // If attacker has the matching defense active on target, damage is doubled
-        if (!wasBlocked && attacker.getActiveDefenses() != null) {
-            damage = calculateDamageWithAmplification(spellName, attacker.getActiveDefenses(), damage);
+    private <R> ActionResult<R> executeLocked(GameCommand<R> command) {
+        GameMatch match = getGameStateForPlayer(command.playerId());
+        if (match == null) {
+            return new ActionResult<>(command.rejected(null, "game not started"), null);
         }
-
-        // Apply damage
-        if (!wasBlocked) {
-            if (target.getMagicShield() > 0) {
-                target.setMagicShield(Math.max(0, target.getMagicShield() - damage));
-            } else {
-                target.setLifeEnergy(Math.max(0, target.getLifeEnergy() - damage));
-            }
+        Player player = GameRules.findPlayer(match, command.playerId());
+        if (player == null) {
+            return new ActionResult<>(command.rejected(match, "player not found"), match);
         }
 
-        // Check for elimination
-        if (target.getLifeEnergy() <= 0) {
-            target.setEliminated(true);
+        String notAllowed = tracing.stage("authorize", () -> authorizeTurn(match, player));
+        if (notAllowed != null) {
+            return new ActionResult<>(command.rejected(match, notAllowed), match);
         }
-
-        int shieldAfter = target.getMagicShield();
-        int lifeAfter = target.getLifeEnergy();
-
-        gameRepository.saveGame(match);
-
-        return new DuelResult(true, attackerId, targetId, spellName, wasBlocked ? 0 : damage,
-                shieldBefore, shieldAfter, lifeBefore, lifeAfter, wasBlocked, blockingSpell);
-    }
-
-    private String getSpellType(String spellName) {
-        switch (spellName) {
-            case "Bola de Fogo":
-            case "Lança de Gelo":
-            case "Vento Cortante":
-            case "Fúria da Terra":
-            case "Disparo Arcano":
-            case "Maldição do Vazio":
-                return "Ataque";
-            case "Barreira de Fogo":
-            case "Muro de Água":
-            case "Armadura de Pedra":
-            case "Levitação":
-            case "Proteção Arcana":
-            case "Escudo de Vácuo":
-                return "Defesa";
-            default:
-                return "Utilidade";
+        R invalid = tracing.stage("validate", () -> command.validate(match, player));
+        if (invalid != null) {
+            return new ActionResult<>(invalid, match);
         }
-    }
 
-    private int getSpellCost(String spellName) {
-        switch (spellName) {
-            case "Disparo Arcano":
-                return 1;
-            case "Bola de Fogo":
-            case "Lança de Gelo":
-            case "Vento Cortante":
-            case "Fúria da Terra":
-            case "Maldição do Vazio":
-                return 2;
-            default:
-                return 1;
-        }
+        R result = tracing.stage("apply", () -> command.apply(match, player));
+        spendArenaAction(match, player);
+        tracing.stage("save", () -> gameRepository.saveGame(match));
+        // The command's own events first, so the history already holds the action when listeners
+        // of the update (the archive of a finished match) read it
+        tracing.stage("publish", () -> command.publish(eventPublisher, match, player, result));
+        tracing.stage("publish", () -> eventPublisher.publishEvent(new MatchUpdatedEvent(match, command.name(), command.playerId())));
+        return new ActionResult<>(result, match);
     }
 
-    // Activate a defense spell for a player
-    public SpellResult activateDefense(String playerId, String spellName) {
-        GameMatch match = getGameState();
-        if (match == null) return new SpellResult("Error", "N/A", 0, "game not started", false);
-
-        Player player = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
-
-        if (player == null) {
-            return new SpellResult("Error", "N/A", 0, "player not found", false);
+    // In the arena only the player to move may act, and only while they have actions left.
+    // Returns why the player may not act, or null.
+    private String authorizeTurn(GameMatch match, Player player) {
+        if (!match.isArenaPhase()) {
+            return null;
         }
-
-        // Check if player knows the spell
-        if (!player.getKnownSpells().contains(spellName)) {
-            return new SpellResult("Error", "N/A", 0, "você não conhece esta magia", false);
+        int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
+        if (currentTurnIndex >= match.getPlayers().size()) {
+            currentTurnIndex = 0;
         }
+        Player currentTurnPlayer = match.getPlayers().get(currentTurnIndex);
 
-        // Check if in arena phase - actions are limited
-        if (match.isArenaPhase()) {
-            // Get list of active players
-            List<Player> activePlayers = match.getPlayers().stream()
-                    .filter(p -> !p.isEliminated())
-                    .collect(Collectors.toList());
-
-            // Check if it's the player's turn
-            int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-            if (currentTurnIndex >= match.getPlayers().size()) {
-                currentTurnIndex = 0;
-            }
-            Player currentTurnPlayer = match.getPlayers().get(currentTurnIndex);
-            
-            // If current turn player is eliminated, find first active player
-            if (currentTurnPlayer.isEliminated()) {
-                if (!activePlayers.isEmpty()) {
-                    currentTurnPlayer = activePlayers.get(0);
-                    // Update index to first active player
-                    for (int i = 0; i < match.getPlayers().size(); i++) {
-                        if (match.getPlayers().get(i).getId().equals(currentTurnPlayer.getId())) {
-                            match.setCurrentTurnPlayerIndex(i);
-                            break;
-                        }
-                    }
+        // If the current turn player is eliminated, the first active player moves
+        if (currentTurnPlayer.isEliminated()) {
+            for (int i = 0; i < match.getPlayers().size(); i++) {
+                if (!match.getPlayers().get(i).isEliminated()) {
+                    currentTurnPlayer = match.getPlayers().get(i);
+                    match.setCurrentTurnPlayerIndex(i);
+                    break;
                 }
             }
-            
-            if (!player.getId().equals(currentTurnPlayer.getId())) {
-                return new SpellResult("Error", "N/A", 0, "Não é seu turno. Aguarde o jogador atual terminar suas ações.", false);
-            }
-
-            // Check if player has actions remaining
-            if (player.getActionsRemaining() == null || player.getActionsRemaining() <= 0) {
-                return new SpellResult("Error", "N/A", 0, "você não tem ações restantes neste turno", false);
-            }
         }
 
-        // Check if it's a defense spell
-        String spellType = getSpellType(spellName);
-        if (!"Defesa".equals(spellType)) {
-            return new SpellResult("Error", "N/A", 0, "esta magia não é de defesa", false);
+        if (!player.getId().equals(currentTurnPlayer.getId())) {
+            return "Não é seu turno. Aguarde o jogador atual terminar suas ações.";
         }
-
-        // Get spell cost (defense spells cost 1, except Escudo de Vácuo which costs 3)
-        int cost = "Escudo de Vácuo".equals(spellName) ? 3 : 1;
-
-        // Check if player has enough mana
-        if (player.getMana() < cost) {
-            return new SpellResult("Fizzle", "Failure", 0, "mana insuficiente para ativar esta defesa", false);
+        if (player.getActionsRemaining() == null || player.getActionsRemaining() <= 0) {
+            return "Você não tem ações restantes neste turno";
         }
+        return null;
+    }
 
-        // Deduct mana
-        player.setMana(player.getMana() - cost);
-
-        // Decrease actions remaining if in arena phase and check if turn should end
+    // Uses one arena action; the turn passes on when none are left or the player is out
+    private void spendArenaAction(GameMatch match, Player player) {
         if (match.isArenaPhase() && player.getActionsRemaining() != null && player.getActionsRemaining() > 0) {
             player.setActionsRemaining(player.getActionsRemaining() - 1);
-            
-            // If actions are 0, automatically advance to next player's turn
-            if (player.getActionsRemaining() == 0) {
+            if (player.getActionsRemaining() == 0 || player.isEliminated()) {
                 advanceTurn(match);
             }
         }
-
-        // Add defense to active defenses list
-        if (player.getActiveDefenses() == null) {
-            player.setActiveDefenses(new ArrayList<>());
-        }
-        player.getActiveDefenses().add(spellName);
-
-        // Apply Escudo de Vácuo effect (adds 1 temporary shield - only during duel, cleared at end)
-        if ("Escudo de Vácuo".equals(spellName)) {
-            player.setMagicShield(player.getMagicShield() + 1);
-        }
-
-        gameRepository.saveGame(match);
-
-        return new SpellResult(spellName, "Defesa", cost, "Defesa ativada!", true);
     }
 
-    // Check if a defense can block an attack
-    private String checkBlockingDefense(String attackSpell, List<String> activeDefenses) {
-        if (activeDefenses == null || activeDefenses.isEmpty()) {
-            return null;
-        }
-
-        // Specific blocking rules
-        switch (attackSpell) {
-            case "Bola de Fogo":
-                if (activeDefenses.contains("Muro de Água")) {
-                    return "Muro de Água";
-                }
-                break;
-            case "Lança de Gelo":
-                if (activeDefenses.contains("Barreira de Fogo")) {
-                    return "Barreira de Fogo";
-                }
-                break;
-            case "Vento Cortante":
-                if (activeDefenses.contains("Armadura de Pedra")) {
-                    return "Armadura de Pedra";
-                }
-                break;
-            case "Fúria da Terra":
-                if (activeDefenses.contains("Levitação")) {
-                    return "Levitação";
-                }
-                break;
-            case "Disparo Arcano":
-                if (activeDefenses.contains("Proteção Arcana")) {
-                    return "Proteção Arcana";
-                }
-                break;
-        }
-
-        return null;
+    // Activate a defense spell for a player
+    public SpellResult activateDefense(String playerId, String spellName) {
+        return execute(new ActivateDefenseCommand(playerId, spellName));
     }
 
-    // Calculate damage with amplification (defense on target doubles damage)
-    private int calculateDamageWithAmplification(String attackSpell, List<String> activeDefenses, int baseDamage) {
-        if (activeDefenses == null || activeDefenses.isEmpty()) {
-            return baseDamage;
-        }
-
-        // Amplification rules: if matching defense is active on target, damage doubles
-        switch (attackSpell) {
-            case "Lança de Gelo":
-                if (activeDefenses.contains("Barreira de Fogo")) {
-                    return baseDamage * 2;
-                }
-                break;
-            case "Bola de Fogo":
-                if (activeDefenses.contains("Muro de Água")) {
-                    return baseDamage * 2;
-                }
-                break;
-            case "Fúria da Terra":
-                if (activeDefenses.contains("Levitação")) {
-                    return baseDamage * 2;
-                }
-                break;
-            case "Vento Cortante":
-                if (activeDefenses.contains("Armadura de Pedra")) {
-                    return baseDamage * 2;
-                }
-                break;
-        }
-
-        return baseDamage;
+    // activateDefense with the match as the defense left it (see executeWithMatch)
+    public ActionResult<SpellResult> activateDefenseWithMatch(String playerId, String spellName) {
+        return executeWithMatch(new ActivateDefenseCommand(playerId, spellName));
     }
 
     // Distribute 4 glyphs to each player at the start of exploration phase
     public GameMatch distributeGlyphs() {
+        return inMatch("distribute-glyphs", null, MAIN_GAME, this::distributeGlyphsLocked);
+    }
+
+    private GameMatch distributeGlyphsLocked() {
         GameMatch match = getGameState();
         if (match == null) return null;
 
+        dealGlyphs(match);
+        saveGame(match, "distribute-glyphs", null);
+        return match;
+    }
+
+    private void dealGlyphs(GameMatch match) {
         List<GameEnums.Glifo> allGlyphs = Arrays.asList(GameEnums.Glifo.values());
         Collections.shuffle(allGlyphs);
 
@@ -693,20 +419,18 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
             match.setGlifosUsadosNoTabuleiro(new ArrayList<>());
         }
         match.getGlifosUsadosNoTabuleiro().clear();
-
-        gameRepository.saveGame(match);
-        return match;
     }
 
     // Use a glyph to open a chamber
     public GameMatch useGlyph(String playerId, String glifoStr) {
-        GameMatch match = getGameState();
+        return inMatch("use-glyph", playerId, matchKeyForPlayer(playerId), () -> useGlyphLocked(playerId, glifoStr));
+    }
+
+    private GameMatch useGlyphLocked(String playerId, String glifoStr) {
+        GameMatch match = getGameStateForPlayer(playerId);
         if (match == null) return null;
 
-        Player player = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
+        Player player = GameRules.findPlayer(match, playerId);
 
         if (player == null || player.isEliminated()) {
             return match;
@@ -744,7 +468,7 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
                 // Arena phase can be triggered - frontend can check this and call startArenaPhase
             }
 
-            gameRepository.saveGame(match);
+            saveGame(match, "use-glyph", playerId);
             return match;
 
         } catch (IllegalArgumentException e) {
@@ -791,6 +515,10 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
 
     // Start arena phase
     public GameMatch startArenaPhase() {
+        return inMatch("start-arena", null, MAIN_GAME, this::startArenaPhaseLocked);
+    }
+
+    private GameMatch startArenaPhaseLocked() {
         GameMatch match = getGameState();
         if (match == null) return null;
 
@@ -820,113 +548,98 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
             activePlayers.get(i).setActiveDefenses(new ArrayList<>());
         }
 
-        gameRepository.saveGame(match);
+        saveGame(match, "start-arena", null);
         return match;
     }
 
-    // Helper method to advance turn to next player
+    // Helper method to advance turn to next player: the next non-eliminated seat after the current
+    // one (which may itself just have been eliminated); wrapping around starts a new round
     private void advanceTurn(GameMatch match) {
-        if (!match.isArenaPhase()) {
-            return;
-        }
-
-        List<Player> activePlayers = match.getPlayers().stream()
-                .filter(p -> !p.isEliminated())
-                .collect(Collectors.toList());
+        tracing.stage("advanceTurn", () -> advanceTurnStage(match));
+    }
 
-        if (activePlayers.isEmpty()) {
+    private void advanceTurnStage(GameMatch match) {
+        if (!match.isArenaPhase()) {
             return;
         }
 
-        // Find current player's index in active players list
+        List<Player> players = match.getPlayers();
         int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-        
-        // Get current player ID from the full list
-        if (currentTurnIndex >= match.getPlayers().size()) {
+        if (currentTurnIndex >= players.size()) {
             currentTurnIndex = 0;
         }
-        Player currentPlayerInFullList = match.getPlayers().get(currentTurnIndex);
-        
-        // Find this player's index in active players list
-        int activeListIndex = -1;
-        for (int i = 0; i < activePlayers.size(); i++) {
-            if (activePlayers.get(i).getId().equals(currentPlayerInFullList.getId())) {
-                activeListIndex = i;
-                break;
-            }
-        }
-        
-        // If current player was not found in active list (eliminated), start from first
-        if (activeListIndex == -1) {
-            activeListIndex = 0;
-        }
-        
-        // Move to next active player
-        int nextActiveIndex = (activeListIndex + 1) % activePlayers.size();
-        Player nextPlayer = activePlayers.get(nextActiveIndex);
-        
-        // Find next player's index in full list
-        int nextFullListIndex = -1;
-        for (int i = 0; i < match.getPlayers().size(); i++) {
-            if (match.getPlayers().get(i).getId().equals(nextPlayer.getId())) {
-                nextFullListIndex = i;
+
+        for (int step = 1; step <= players.size(); step++) {
+            int seat = (currentTurnIndex + step) % players.size();
+            Player nextPlayer = players.get(seat);
+            if (!nextPlayer.isEliminated()) {
+                if (seat <= currentTurnIndex) {
+                    match.setArenaRound(match.getArenaRound() + 1);
+                }
+                match.setCurrentTurnPlayerIndex(seat);
+                nextPlayer.setActionsRemaining(3);
                 break;
             }
         }
-        
-        if (nextFullListIndex != -1) {
-            match.setCurrentTurnPlayerIndex(nextFullListIndex);
-            nextPlayer.setActionsRemaining(3);
-            
-            // If we wrapped around (nextActiveIndex == 0), it's a new round
-            if (nextActiveIndex == 0 && activeListIndex > 0) {
-                match.setArenaRound(match.getArenaRound() + 1);
-            }
-        }
-        
-        gameRepository.saveGame(match);
     }
 
     // End turn in arena
     public GameMatch endArenaTurn(String playerId) {
-        GameMatch match = getGameState();
+        return inMatch("end-turn", playerId, matchKeyForPlayer(playerId), () -> endArenaTurnLocked(playerId));
+    }
+
+    private GameMatch endArenaTurnLocked(String playerId) {
+        GameMatch match = getGameStateForPlayer(playerId);
         if (match == null || !match.isArenaPhase()) return match;
 
-        List<Player> activePlayers = match.getPlayers().stream()
-                .filter(p -> !p.isEliminated())
-                .collect(Collectors.toList());
+        // Only the player to move can end the turn
+        int currentIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
+        if (currentIndex >= match.getPlayers().size()) {
+            currentIndex = 0;
+        }
+        Player currentPlayer = match.getPlayers().get(currentIndex);
+        if (!currentPlayer.getId().equals(playerId)) {
+            return match;
+        }
+
+        currentPlayer.setActionsRemaining(0);
+        advanceTurn(match);
+        saveGame(match, "end-turn", playerId);
+        return match;
+    }
 
-        Player currentPlayer = activePlayers.stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
+    // Turn deadline expired: skip the remaining actions of the current player.
+    // Ignored when the match or the turn has changed since the timer was armed. Never shed by
+    // admission control: a dropped expiry would leave the turn open.
+    public GameMatch expireTurn(String matchId, int turnIndex, int arenaRound) {
+        return tracing.action("expire-turn", null,
+                () -> onPartition(matchKey(matchId), () -> expireTurnLocked(matchId, turnIndex, arenaRound)));
+    }
 
-        if (currentPlayer != null) {
-            currentPlayer.setActionsRemaining(0);
+    private GameMatch expireTurnLocked(String matchId, int turnIndex, int arenaRound) {
+        tracing.tagMatch(matchId);
+        GameMatch match = tracing.stage("load", () -> gameRepository.loadGame(matchId));
+        if (match == null || !match.isArenaPhase() || GameRules.isMatchOver(match)) {
+            return match;
         }
-
-        int currentIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-        if (currentIndex < activePlayers.size() - 1) {
-            match.setCurrentTurnPlayerIndex(currentIndex + 1);
-            // Reset actions for next player
-            Player nextPlayer = activePlayers.get(currentIndex + 1);
-            nextPlayer.setActionsRemaining(3);
-        } else {
-            // Round complete, start new round or end arena phase
-            match.setArenaRound(match.getArenaRound() + 1);
-            match.setCurrentTurnPlayerIndex(0);
-            // Reset actions for first player
-            if (!activePlayers.isEmpty()) {
-                activePlayers.get(0).setActionsRemaining(3);
-            }
+        if (!Objects.equals(match.getCurrentTurnPlayerIndex(), turnIndex)
+                || !Objects.equals(match.getArenaRound(), arenaRound)
+                || turnIndex >= match.getPlayers().size()) {
+            return match;
         }
 
-        gameRepository.saveGame(match);
+        match.getPlayers().get(turnIndex).setActionsRemaining(0);
+        advanceTurn(match);
+        saveGame(match, "expire-turn", null);
         return match;
     }
 
     // End arena phase and return to exploration
     public GameMatch endArenaPhase() {
+        return inMatch("end-arena", null, MAIN_GAME, this::endArenaPhaseLocked);
+    }
+
+    private GameMatch endArenaPhaseLocked() {
         GameMatch match = getGameState();
         if (match == null || !match.isArenaPhase()) return match;
 
@@ -946,140 +659,43 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
         match.setArenaPhase(false);
         match.setCurrentTurnPlayerIndex(0);
 
-        // Distribute new glyphs for exploration phase
-        distributeGlyphs();
+        // Distribute new glyphs for exploration phase, on this copy: the match is saved once
+        dealGlyphs(match);
 
-        gameRepository.saveGame(match);
+        saveGame(match, "end-arena", null);
         return match;
     }
 
     public void resetGame() {
+        inMatch("reset", null, MAIN_GAME, () -> {
+            resetGameLocked();
+            return null;
+        });
+    }
+
+    private void resetGameLocked() {
+        GameMatch match = gameRepository.loadGame();
         gameRepository.resetGame();
+        if (match != null) {
+            eventPublisher.publishEvent(new MatchResetEvent(match));
+        }
     }
 
     // Use a potion from player's inventory
     public GameMatch usePotion(String playerId, String potionColorStr) {
-        GameMatch match = getGameState();
-        if (match == null) return null;
-
-        Player player = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
-
-        if (player == null) return match;
-
-        // Check if in arena phase - actions are limited
-        if (match.isArenaPhase()) {
-            // Get list of active players
-            List<Player> activePlayers = match.getPlayers().stream()
-                    .filter(p -> !p.isEliminated())
-                    .collect(Collectors.toList());
-
-            // Check if it's the player's turn
-            int currentTurnIndex = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : 0;
-            if (currentTurnIndex >= match.getPlayers().size()) {
-                currentTurnIndex = 0;
-            }
-            Player currentTurnPlayer = match.getPlayers().get(currentTurnIndex);
-            
-            // If current turn player is eliminated, find first active player
-            if (currentTurnPlayer.isEliminated()) {
-                if (!activePlayers.isEmpty()) {
-                    currentTurnPlayer = activePlayers.get(0);
-                    // Update index to first active player
-                    for (int i = 0; i < match.getPlayers().size(); i++) {
-                        if (match.getPlayers().get(i).getId().equals(currentTurnPlayer.getId())) {
-                            match.setCurrentTurnPlayerIndex(i);
-                            break;
-                        }
-                    }
-                }
-            }
-            
-            if (!player.getId().equals(currentTurnPlayer.getId())) {
-                return match; // Not player's turn
-            }
-
-            // Check if player has actions remaining
-            if (player.getActionsRemaining() == null || player.getActionsRemaining() <= 0) {
-                return match; // No actions remaining
-            }
-        }
-
-        try {
-            GameEnums.PotionColor potionColor = GameEnums.PotionColor.valueOf(potionColorStr.toUpperCase());
-            
-            // Check if player has this potion
-            if (!player.getPotions().contains(potionColor)) {
-                return match; // Player doesn't have this potion
-            }
-
-            // Get the effect for this potion color from the dictionary
-            GameEnums.PotionEffect effect = match.getPotionDictionary().get(potionColor);
-            if (effect == null) {
-                return match;
-            }
-
-            // Apply the effect
-            switch (effect) {
-                case CURA:
-                    player.setLifeEnergy(Math.min(3, player.getLifeEnergy() + 1)); // Max life is 3
-                    break;
-                case MANA:
-                    player.setMana(player.getMana() + 3); // Recupera 3 pontos de Mana (sem teto na especificação)
-                    break;
-                case ESCUDO:
-                    player.setMagicShield(player.getMagicShield() + 3); // Aumenta 3 pontos de Escudo Mágico
-                    break;
-                case DEBILITANTE:
-                    // Remove 3 pontos de Mana do alvo (por enquanto só em si mesmo)
-                    // Pode ser estendido para ter alvo no futuro
-                    player.setMana(Math.max(0, player.getMana() - 3));
-                    break;
-                case CORRUPCAO:
-                    // Remove 1 ponto de Energia Vital do alvo (por enquanto só em si mesmo)
-                    player.setLifeEnergy(Math.max(0, player.getLifeEnergy() - 1));
-                    if (player.getLifeEnergy() <= 0) {
-                        player.setEliminated(true);
-                    }
-                    break;
-                case ANTI_MAGIA:
-                    // Remove 3 pontos de Escudo Mágico do alvo (por enquanto só em si mesmo)
-                    player.setMagicShield(Math.max(0, player.getMagicShield() - 3));
-                    break;
-            }
-
-            // Remove potion from inventory
-            player.getPotions().remove(potionColor);
-
-            // Decrease actions remaining if in arena phase and check if turn should end
-            if (match.isArenaPhase() && player.getActionsRemaining() != null && player.getActionsRemaining() > 0) {
-                player.setActionsRemaining(player.getActionsRemaining() - 1);
-                
-                // If actions are 0, automatically advance to next player's turn
-                if (player.getActionsRemaining() == 0) {
-                    advanceTurn(match);
-                }
-            }
-
-            gameRepository.saveGame(match);
-            return match;
-
-        } catch (IllegalArgumentException e) {
-            return match; // Invalid potion color
-        }
+        return execute(new UsePotionCommand(playerId, potionColorStr));
     }
 
     // Create a potion by combining two power words
     public SpellResult createPotion(String playerId, String word1Str, String word2Str) {
-        GameMatch match = getGameState();
+        return inMatch("create-potion", playerId, matchKeyForPlayer(playerId), () -> createPotionLocked(playerId, word1Str, word2Str));
+    }
+
+    private SpellResult createPotionLocked(String playerId, String word1Str, String word2Str) {
+        GameMatch match = getGameStateForPlayer(playerId);
         if (match == null) return new SpellResult("Error", "N/A", 0, "game not started", false);
 
-        Player player = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
+        Player player = GameRules.findPlayer(match, playerId);
 
         if (player == null) {
             return new SpellResult("Error", "N/A", 0, "player not found", false);
@@ -1113,7 +729,7 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
                 }
             }
 
-            gameRepository.saveGame(match);
+            saveGame(match, "create-potion", playerId);
             return result;
 
         } catch (IllegalArgumentException e) {
@@ -1172,20 +788,21 @@ public SpellResult castSpell(String playerId, String word1Str, String word2Str)
 
     // Give a specific potion to a player
     public GameMatch givePotion(String playerId, String potionColorStr) {
-        GameMatch match = getGameState();
+        return inMatch("give-potion", playerId, matchKeyForPlayer(playerId), () -> givePotionLocked(playerId, potionColorStr));
+    }
+
+    private GameMatch givePotionLocked(String playerId, String potionColorStr) {
+        GameMatch match = getGameStateForPlayer(playerId);
         if (match == null) return null;
 
-        Player player = match.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
-                .orElse(null);
+        Player player = GameRules.findPlayer(match, playerId);
 
         if (player == null) return match;
 
         try {
             GameEnums.PotionColor potionColor = GameEnums.PotionColor.valueOf(potionColorStr.toUpperCase());
             player.getPotions().add(potionColor);
-            gameRepository.saveGame(match);
+            saveGame(match, "give-potion", playerId);
         } catch (IllegalArgumentException e) {
             // Invalid potion color, return match unchanged
         }
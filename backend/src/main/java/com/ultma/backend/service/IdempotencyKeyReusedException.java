@@ -0,0 +1,9 @@
+package com.ultma.backend.service;
+
+// An Idempotency-Key sent again by the same player for the same action with other parameters
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key já usada para outra requisição");
+    }
+}
@@ -0,0 +1,113 @@
+package com.ultma.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Results of recent mutating requests by their Idempotency-Key, so a retried request gets the
+// answer of the first one instead of acting twice. A retry that arrives while the first request
+// is still running waits for it. Keys are kept for ttl-seconds, at most max-keys of them (oldest
+// dropped first); a request that failed is forgotten so it can be retried.
+// A key belongs to one caller (the player its token names) and one request: another player
+// sending the same key is another request, and the same caller reusing a key with different
+// parameters is refused (IdempotencyKeyReusedException) instead of getting a stale answer.
+@Service
+public class IdempotencyService {
+
+    private static final class Entry {
+        final long createdAt;
+        final List<String> parameters;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(long createdAt, List<String> parameters) {
+            this.createdAt = createdAt;
+            this.parameters = parameters;
+        }
+    }
+
+    private final int maxKeys;
+    private final long ttlMillis;
+    private final Counter replays;
+    // Insertion order is creation order, so expired entries are always at the head
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyService(MeterRegistry meterRegistry,
+                              @Value("${ultma.idempotency.max-keys:10000}") int maxKeys,
+                              @Value("${ultma.idempotency.ttl-seconds:300}") long ttlSeconds) {
+        this.maxKeys = maxKeys;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.replays = Counter.builder("ultma.idempotency.replays")
+                .description("Requests answered with the stored result of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    // Runs action once per key; without a key it just runs. The key is scoped to the action name
+    // and the caller (a player id, null for requests made without a token), so the same key sent
+    // to two endpoints or by two players is two requests. parameters are the request's own.
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String action, String caller, List<String> parameters, Supplier<T> body) {
+        if (key == null || key.isBlank()) {
+            return body.get();
+        }
+        String scopedKey = action + ":" + (caller != null ? caller : "") + ":" + key;
+        Entry entry;
+        boolean first;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            evict(now);
+            entry = entries.get(scopedKey);
+            first = entry == null;
+            if (first) {
+                entry = new Entry(now, parameters);
+                entries.put(scopedKey, entry);
+            } else if (!entry.parameters.equals(parameters)) {
+                throw new IdempotencyKeyReusedException();
+            }
+        }
+
+        if (!first) {
+            replays.increment();
+            try {
+                return (T) entry.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            T result = body.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                entries.remove(scopedKey, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (entries.size() < maxKeys && now - eldest.getValue().createdAt < ttlMillis) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.ultma.backend.service;
+
+// A player action without a token, or with one this server did not issue
+public class InvalidPlayerTokenException extends RuntimeException {
+
+    public InvalidPlayerTokenException() {
+        super("Token de jogador inválido; entre na partida novamente");
+    }
+}
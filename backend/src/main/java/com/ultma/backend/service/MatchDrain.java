@@ -0,0 +1,43 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.repository.GameRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Graceful shutdown, run when the context closes (also from the JVM shutdown hook). By then the
+// web server has finished its in-flight requests (server.shutdown=graceful). Later actions from
+// bots and timers are turned away, the ones already running finish, and every side match changed
+// since the start is written out with the index. The next start reads only the index, so a
+// rolling deploy loses no match and does not reload them all at once.
+@Component
+public class MatchDrain {
+
+    private final GameRepository gameRepository;
+    private final AdmissionControl admission;
+    private final MatchPartitions partitions;
+    private final Duration timeout;
+
+    public MatchDrain(GameRepository gameRepository, AdmissionControl admission, MatchPartitions partitions,
+                      @Value("${ultma.matches.drain-timeout-seconds:10}") long timeoutSeconds) {
+        this.gameRepository = gameRepository;
+        this.admission = admission;
+        this.partitions = partitions;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+    }
+
+    @PreDestroy
+    public void drain() {
+        admission.stopAdmitting();
+        gameRepository.stopWrites();
+        try {
+            // An action still running after the timeout cannot save anymore; flush what is there
+            partitions.awaitIdle(timeout);
+            gameRepository.flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
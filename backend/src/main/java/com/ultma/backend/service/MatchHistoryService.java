@@ -0,0 +1,81 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.event.DuelResolvedEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import com.ultma.backend.service.event.SpellCastEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Action history of the matches in progress, recorded from game events: every action that
+// changed a match, with the spell or duel details for casts, defenses and attacks
+@Service
+public class MatchHistoryService {
+
+    // Recorded from their own, more detailed events
+    private static final Set<String> DETAILED_ACTIONS = Set.of("cast", "defense", "attack");
+
+    private final Map<String, List<MatchAction>> histories = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        String action = event.getAction();
+        if (action == null || DETAILED_ACTIONS.contains(action)) {
+            return;
+        }
+        GameMatch match = event.getMatch();
+        Player player = event.getPlayerId() != null ? GameRules.findPlayer(match, event.getPlayerId()) : null;
+        record(match.getMatchId(), new MatchAction(0, System.currentTimeMillis(),
+                match.getArenaRound() != null ? match.getArenaRound() : 0, action, event.getPlayerId(),
+                player != null ? player.getName() : null, null, null, null, null));
+    }
+
+    @EventListener
+    public void onSpellCast(SpellCastEvent event) {
+        record(event.getMatchId(), new MatchAction(0, System.currentTimeMillis(), event.getArenaRound(), event.getAction(),
+                event.getPlayerId(), event.getPlayerName(), null, null, event.getResult(), null));
+    }
+
+    @EventListener
+    public void onDuelResolved(DuelResolvedEvent event) {
+        DuelResult duel = event.getResult();
+        record(event.getMatchId(), new MatchAction(0, System.currentTimeMillis(), event.getArenaRound(), "attack",
+                duel.getAttackerId(), event.getAttackerName(), duel.getTargetId(), event.getTargetManaAfter(), null, duel));
+    }
+
+    private void record(String matchId, MatchAction action) {
+        List<MatchAction> history = histories.computeIfAbsent(matchId, id -> new ArrayList<>());
+        synchronized (history) {
+            action.setSequence(history.size() + 1);
+            history.add(action);
+        }
+    }
+
+    public List<MatchAction> getHistory(String matchId) {
+        List<MatchAction> history = histories.get(matchId);
+        if (history == null) {
+            return new ArrayList<>();
+        }
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    // Replaces the history of a match brought from another server
+    public void restore(String matchId, List<MatchAction> history) {
+        histories.put(matchId, new ArrayList<>(history));
+    }
+
+    public void forget(String matchId) {
+        histories.remove(matchId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ultma.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Matches hash-partitioned onto a fixed set of worker threads, one per core by default. Every
+// action on a match runs on the worker that owns it, one at a time, so match state needs no lock
+// and actions on matches of different partitions never touch the same queue.
+@Component
+public class MatchPartitions {
+
+    private static final class Partition {
+        final ThreadPoolExecutor executor;
+        volatile Thread worker;
+
+        Partition(int index) {
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "match-partition-" + index);
+                thread.setDaemon(true);
+                worker = thread;
+                return thread;
+            });
+            executor.prestartAllCoreThreads();
+        }
+    }
+
+    private final Partition[] partitions;
+
+    public MatchPartitions(MeterRegistry meterRegistry, @Value("${ultma.partitions.count:0}") int count) {
+        int size = count > 0 ? count : Runtime.getRuntime().availableProcessors();
+        this.partitions = new Partition[size];
+        for (int i = 0; i < size; i++) {
+            partitions[i] = new Partition(i);
+        }
+        Gauge.builder("ultma.partitions.queued", this, MatchPartitions::queued)
+                .description("Actions waiting for their partition worker")
+                .register(meterRegistry);
+    }
+
+    private Partition partitionFor(String matchKey) {
+        int hash = matchKey.hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+
+    // Runs body on the match's worker and waits for it; the worker itself runs it in place
+    public <T> T run(String matchKey, Supplier<T> body) {
+        Partition partition = partitionFor(matchKey);
+        if (Thread.currentThread() == partition.worker) {
+            return body.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(body, partition.executor).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // True on the worker that owns the match, i.e. inside one of its actions
+    public boolean owns(String matchKey) {
+        return Thread.currentThread() == partitionFor(matchKey).worker;
+    }
+
+    // Waits until every action queued so far on every partition has run. False on timeout.
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        CompletableFuture<?>[] markers = new CompletableFuture<?>[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            markers[i] = CompletableFuture.runAsync(() -> {
+            }, partitions[i].executor);
+        }
+        try {
+            CompletableFuture.allOf(markers).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    public int size() {
+        return partitions.length;
+    }
+
+    private double queued() {
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.executor.getQueue().size();
+        }
+        return queued;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Partition partition : partitions) {
+            partition.executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.ultma.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.config.ContentNegotiationConfig;
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.MatchTimelineInfo;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every saved version of a match, so its state as of any action can be rebuilt (disputes,
+// spectator rewinds). Each version is stored as a step with the match fields and only the
+// players that changed; every checkpoint-interval steps (and after a gap in versions) a step also
+// holds the whole match. A version is rebuilt from the nearest checkpoint before it plus at most
+// checkpoint-interval - 1 steps, however long the match.
+//
+// Steps are the states GameService saved, not its actions run again: the rules draw random
+// potions and dictionaries, so replaying actions would not give the same match back.
+@Service
+public class MatchTimeline {
+
+    // One saved version; players[i] is the new state of seat seats[i], in Smile
+    private static final class Step {
+        final long version;
+        final long timestamp;
+        final byte[] checkpoint; // the whole match, or null
+        final boolean arenaPhase;
+        final Integer currentTurnPlayerIndex;
+        final Integer arenaRound;
+        final List<GameEnums.Glifo> glifosUsadosNoTabuleiro;
+        final int playerCount;
+        final int[] seats;
+        final byte[][] players;
+
+        Step(GameMatch match, long timestamp, byte[] checkpoint, int[] seats, byte[][] players) {
+            this.version = match.getVersion();
+            this.timestamp = timestamp;
+            this.checkpoint = checkpoint;
+            this.arenaPhase = match.isArenaPhase();
+            this.currentTurnPlayerIndex = match.getCurrentTurnPlayerIndex();
+            this.arenaRound = match.getArenaRound();
+            this.glifosUsadosNoTabuleiro = List.copyOf(match.getGlifosUsadosNoTabuleiro());
+            this.playerCount = match.getPlayers().size();
+            this.seats = seats;
+            this.players = players;
+        }
+    }
+
+    private static final class Timeline {
+        final String matchId;
+        final List<Step> steps = new ArrayList<>();
+        byte[][] lastPlayers = new byte[0][];
+        int sinceCheckpoint;
+        boolean finished;
+
+        Timeline(String matchId) {
+            this.matchId = matchId;
+        }
+    }
+
+    // A replayed version with the time it was saved
+    public static final class Frame {
+        private final GameMatch match;
+        private final long timestamp;
+
+        Frame(GameMatch match, long timestamp) {
+            this.match = match;
+            this.timestamp = timestamp;
+        }
+
+        public GameMatch getMatch() {
+            return match;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private final ObjectMapper mapper = ContentNegotiationConfig.smileObjectMapper();
+    private final int checkpointInterval;
+    private final int retainedFinished;
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+    // Finished matches, oldest first; only the last retainedFinished keep their timeline
+    private final ArrayDeque<String> finished = new ArrayDeque<>();
+
+    public MatchTimeline(@Value("${ultma.replay.checkpoint-interval:32}") int checkpointInterval,
+                         @Value("${ultma.replay.retained-finished:100}") int retainedFinished) {
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        this.retainedFinished = retainedFinished;
+    }
+
+    // Runs on the match's partition worker, right after each save
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        GameMatch match = event.getMatch();
+        Timeline timeline = timelines.computeIfAbsent(match.getMatchId(), Timeline::new);
+        synchronized (timeline) {
+            record(timeline, match);
+        }
+    }
+
+    @EventListener
+    public void onMatchReset(MatchResetEvent event) {
+        Timeline timeline = timelines.get(event.getMatch().getMatchId());
+        if (timeline == null) {
+            return;
+        }
+        synchronized (timeline) {
+            timeline.finished = true;
+        }
+        synchronized (finished) {
+            finished.addLast(timeline.matchId);
+            while (finished.size() > retainedFinished) {
+                timelines.remove(finished.removeFirst());
+            }
+        }
+    }
+
+    private void record(Timeline timeline, GameMatch match) {
+        Step last = timeline.steps.isEmpty() ? null : timeline.steps.get(timeline.steps.size() - 1);
+        if (last != null && match.getVersion() <= last.version) {
+            return;
+        }
+
+        List<Player> players = match.getPlayers();
+        byte[][] current = new byte[players.size()][];
+        int[] seats = new int[players.size()];
+        byte[][] changed = new byte[players.size()][];
+        int count = 0;
+        for (int seat = 0; seat < players.size(); seat++) {
+            current[seat] = write(players.get(seat));
+            if (seat >= timeline.lastPlayers.length || !Arrays.equals(current[seat], timeline.lastPlayers[seat])) {
+                seats[count] = seat;
+                changed[count] = current[seat];
+                count++;
+            }
+        }
+
+        boolean checkpoint = last == null || match.getVersion() != last.version + 1
+                || timeline.sinceCheckpoint + 1 >= checkpointInterval;
+        timeline.steps.add(new Step(match, System.currentTimeMillis(), checkpoint ? write(match) : null,
+                Arrays.copyOf(seats, count), Arrays.copyOf(changed, count)));
+        timeline.lastPlayers = current;
+        timeline.sinceCheckpoint = checkpoint ? 0 : timeline.sinceCheckpoint + 1;
+    }
+
+    public MatchTimelineInfo getInfo(String matchId) {
+        Timeline timeline = timelines.get(matchId);
+        if (timeline == null) {
+            return null;
+        }
+        synchronized (timeline) {
+            if (timeline.steps.isEmpty()) {
+                return null;
+            }
+            Step first = timeline.steps.get(0);
+            Step last = timeline.steps.get(timeline.steps.size() - 1);
+            return new MatchTimelineInfo(matchId, first.version, last.version, first.timestamp, last.timestamp,
+                    checkpointInterval, timeline.finished);
+        }
+    }
+
+    // The match as saved at version, or null when that version is not in its timeline
+    public GameMatch stateAt(String matchId, long version) {
+        Iterator<Frame> frames = replay(matchId, version, version);
+        return frames.hasNext() ? frames.next().getMatch() : null;
+    }
+
+    // Versions from..to (clamped to the timeline) one after the other. Each state is a new
+    // match sharing the unchanged players with the previous one, so none may be modified.
+    public Iterator<Frame> replay(String matchId, long from, long to) {
+        Timeline timeline = timelines.get(matchId);
+        if (timeline == null) {
+            return List.<Frame>of().iterator();
+        }
+        List<Step> steps;
+        int start;
+        int end;
+        synchronized (timeline) {
+            start = indexAtOrAfter(timeline.steps, from);
+            end = indexAtOrAfter(timeline.steps, to);
+            if (end == timeline.steps.size() || timeline.steps.get(end).version > to) {
+                end--;
+            }
+            if (start > end) {
+                return List.<Frame>of().iterator();
+            }
+            int checkpoint = start;
+            while (timeline.steps.get(checkpoint).checkpoint == null) {
+                checkpoint--;
+            }
+            steps = new ArrayList<>(timeline.steps.subList(checkpoint, end + 1));
+            start -= checkpoint;
+        }
+
+        GameMatch first = read(steps.get(0).checkpoint, GameMatch.class);
+        for (int i = 1; i <= start; i++) {
+            first = apply(first, steps.get(i));
+        }
+        GameMatch initial = first;
+        int firstIndex = start;
+        return new Iterator<>() {
+            private GameMatch state = initial;
+            private int next = firstIndex;
+
+            @Override
+            public boolean hasNext() {
+                return next < steps.size();
+            }
+
+            @Override
+            public Frame next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Step step = steps.get(next);
+                if (next > firstIndex) {
+                    state = apply(state, step);
+                }
+                next++;
+                return new Frame(state, step.timestamp);
+            }
+        };
+    }
+
+    // Index of the first step at or after version (steps.size() if none)
+    private static int indexAtOrAfter(List<Step> steps, long version) {
+        int low = 0;
+        int high = steps.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (steps.get(mid).version < version) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // previous with step applied, as a new match
+    private GameMatch apply(GameMatch previous, Step step) {
+        if (step.checkpoint != null) {
+            return read(step.checkpoint, GameMatch.class);
+        }
+        GameMatch next = new GameMatch();
+        next.setMatchId(previous.getMatchId());
+        next.setVersion(step.version);
+        next.setWordDictionary(previous.getWordDictionary());
+        next.setPotionDictionary(previous.getPotionDictionary());
+        next.setArenaPhase(step.arenaPhase);
+        next.setCurrentTurnPlayerIndex(step.currentTurnPlayerIndex);
+        next.setArenaRound(step.arenaRound);
+        next.setTournamentId(previous.getTournamentId());
+        next.setGlifosUsadosNoTabuleiro(new ArrayList<>(step.glifosUsadosNoTabuleiro));
+        List<Player> players = new ArrayList<>(previous.getPlayers().subList(0,
+                Math.min(step.playerCount, previous.getPlayers().size())));
+        for (int i = 0; i < step.seats.length; i++) {
+            Player player = read(step.players[i], Player.class);
+            if (step.seats[i] < players.size()) {
+                players.set(step.seats[i], player);
+            } else {
+                players.add(player);
+            }
+        }
+        next.setPlayers(players);
+        return next;
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao registrar a partida", e);
+        }
+    }
+
+    private <T> T read(byte[] bytes, Class<T> type) {
+        try {
+            return mapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao reconstruir a partida", e);
+        }
+    }
+}
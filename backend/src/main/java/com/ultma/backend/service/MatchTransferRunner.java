@@ -0,0 +1,57 @@
+package com.ultma.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Export or import from the command line, without serving requests; the server exits when done
+// (side matches are then saved to the matches directory on the way out):
+//   java -jar backend.jar --spring.main.web-application-type=none --ultma.transfer.export=matches.ndjson
+//   java -jar backend.jar --spring.main.web-application-type=none --ultma.transfer.import=matches.ndjson
+@Component
+public class MatchTransferRunner implements ApplicationRunner {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final MatchTransferService matchTransferService;
+    private final ConfigurableApplicationContext context;
+    private final String exportFile;
+    private final String importFile;
+
+    public MatchTransferRunner(MatchTransferService matchTransferService, ConfigurableApplicationContext context,
+                               @Value("${ultma.transfer.export:}") String exportFile,
+                               @Value("${ultma.transfer.import:}") String importFile) {
+        this.matchTransferService = matchTransferService;
+        this.context = context;
+        this.exportFile = exportFile;
+        this.importFile = importFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (exportFile.isEmpty() && importFile.isEmpty()) {
+            return;
+        }
+        if (!importFile.isEmpty()) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(importFile)), BUFFER_BYTES)) {
+                matchTransferService.importFrom(in);
+            }
+        }
+        if (!exportFile.isEmpty()) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(exportFile)), BUFFER_BYTES)) {
+                matchTransferService.exportTo(out);
+            }
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,186 @@
+package com.ultma.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.config.ContentNegotiationConfig;
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.ExportedMatch;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.ImportSummary;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.repository.MatchArchive;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Every match of this server as newline-delimited JSON, one ExportedMatch per line: the main
+// game, the open side matches and the archive, each with its history. Export copies the stored
+// Smile or archive JSON token by token, and import reads one line at a time, so neither holds
+// more than a chunk of matches in memory whatever the size of the data.
+@Service
+public class MatchTransferService {
+
+    private static final int ARCHIVE_CHUNK = 1000;
+
+    private final GameService gameService;
+    private final GameRepository gameRepository;
+    private final MatchArchive matchArchive;
+    private final MatchHistoryService matchHistoryService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = ContentNegotiationConfig.smileObjectMapper();
+
+    public MatchTransferService(GameService gameService, GameRepository gameRepository, MatchArchive matchArchive,
+                                MatchHistoryService matchHistoryService) {
+        this.gameService = gameService;
+        this.gameRepository = gameRepository;
+        this.matchArchive = matchArchive;
+        this.matchHistoryService = matchHistoryService;
+    }
+
+    // Writes every match to out; returns how many
+    public long exportTo(OutputStream out) throws IOException {
+        long[] count = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+
+            GameMatch main = gameRepository.loadGame();
+            if (main != null) {
+                generator.writeStartObject();
+                generator.writeStringField("kind", "main");
+                generator.writeObjectField("match", main);
+                generator.writeObjectField("history", matchHistoryService.getHistory(main.getMatchId()));
+                endLine(generator);
+                count[0]++;
+            }
+
+            try {
+                gameRepository.forEachSideMatch(bytes -> {
+                    try (JsonParser parser = smileMapper.getFactory().createParser(bytes)) {
+                        generator.writeStartObject();
+                        generator.writeStringField("kind", "side");
+                        generator.writeFieldName("match");
+                        String matchId = copyMatch(parser, generator);
+                        generator.writeObjectField("history", matchHistoryService.getHistory(matchId));
+                        endLine(generator);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // The archive record is already {"match":...,"history":...,"archivedAt":...,"reason":...}
+            for (int from = 0; ; from += ARCHIVE_CHUNK) {
+                List<MatchArchive.Location> chunk = matchArchive.locations(from, ARCHIVE_CHUNK);
+                for (MatchArchive.Location location : chunk) {
+                    try (JsonParser parser = objectMapper.getFactory().createParser(matchArchive.readJson(location))) {
+                        parser.nextToken();
+                        generator.writeStartObject();
+                        generator.writeStringField("kind", "archived");
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            generator.writeFieldName(parser.currentName());
+                            parser.nextToken();
+                            generator.copyCurrentStructure(parser);
+                        }
+                        endLine(generator);
+                        count[0]++;
+                    }
+                }
+                if (chunk.size() < ARCHIVE_CHUNK) {
+                    break;
+                }
+            }
+        }
+        return count[0];
+    }
+
+    // Copies one match object, returning its id
+    private static String copyMatch(JsonParser parser, JsonGenerator generator) throws IOException {
+        String matchId = null;
+        parser.nextToken();
+        generator.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("matchId".equals(field)) {
+                matchId = parser.getText();
+            }
+            generator.writeFieldName(field);
+            generator.copyCurrentStructure(parser);
+        }
+        generator.writeEndObject();
+        return matchId;
+    }
+
+    private static void endLine(JsonGenerator generator) throws IOException {
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    // Stores every match read from in: the main game and side matches replace any with the same
+    // id, archived matches are appended unless already archived
+    public ImportSummary importFrom(InputStream in) throws IOException {
+        ImportSummary summary = new ImportSummary();
+        List<ArchivedMatch> archived = new ArrayList<>(ARCHIVE_CHUNK);
+        Set<String> pending = new HashSet<>();
+        try (MappingIterator<ExportedMatch> records = objectMapper.readerFor(ExportedMatch.class).readValues(in)) {
+            while (records.hasNext()) {
+                ExportedMatch record = records.next();
+                GameMatch match = record.getMatch();
+                String kind = match != null ? record.getKind() : null;
+                if ("main".equals(kind) || "side".equals(kind)) {
+                    boolean sideMatch = "side".equals(kind);
+                    gameService.importMatch(match, sideMatch);
+                    restoreHistory(match, record.getHistory());
+                    if (sideMatch) {
+                        summary.setSide(summary.getSide() + 1);
+                    } else {
+                        summary.setMain(summary.getMain() + 1);
+                    }
+                } else if ("archived".equals(kind) && !matchArchive.contains(match.getMatchId())
+                        && pending.add(match.getMatchId())) {
+                    archived.add(new ArchivedMatch(match, record.getHistory() != null ? record.getHistory() : List.of(),
+                            record.getArchivedAt() != null ? record.getArchivedAt() : System.currentTimeMillis(),
+                            record.getReason()));
+                    if (archived.size() == ARCHIVE_CHUNK) {
+                        appendArchived(archived, summary);
+                        pending.clear();
+                    }
+                } else {
+                    summary.setSkipped(summary.getSkipped() + 1);
+                }
+            }
+        }
+        appendArchived(archived, summary);
+        return summary;
+    }
+
+    private void restoreHistory(GameMatch match, List<MatchAction> history) {
+        if (history != null && !history.isEmpty()) {
+            matchHistoryService.restore(match.getMatchId(), history);
+        }
+    }
+
+    private void appendArchived(List<ArchivedMatch> archived, ImportSummary summary) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        matchArchive.append(archived);
+        summary.setArchived(summary.getArchived() + archived.size());
+        archived.clear();
+    }
+}
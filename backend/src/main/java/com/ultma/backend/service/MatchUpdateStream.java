@@ -0,0 +1,75 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import lombok.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Match states as they are saved, for clients that follow a match instead of polling it. A slow
+// subscriber only keeps the latest state of the stream, never a backlog.
+// Listeners run on the worker of the partition that saved the match, so every side match has a
+// sink of its own (and the main game one more) and an emission only ever waits on emissions of
+// the same match. A side match's sink is made by its first follower and dropped when it closes.
+@Service
+public class MatchUpdateStream {
+
+    // reset: the match was reset or closed, and match is its last state
+    @Value
+    public static class Update {
+        GameMatch match;
+        boolean reset;
+    }
+
+    private static final String MAIN_GAME = "";
+
+    private final GameRepository gameRepository;
+    private final Map<String, Sinks.Many<Update>> sinks = new ConcurrentHashMap<>();
+
+    public MatchUpdateStream(GameRepository gameRepository) {
+        this.gameRepository = gameRepository;
+    }
+
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        emit(new Update(event.getMatch(), false));
+    }
+
+    // A closed side match sends nothing more, so its sink goes with it
+    @EventListener
+    public void onMatchReset(MatchResetEvent event) {
+        String key = emit(new Update(event.getMatch(), true));
+        if (!MAIN_GAME.equals(key)) {
+            sinks.remove(key);
+        }
+    }
+
+    // Updates of one side match, or of the main game when matchId is null
+    public Flux<Update> updates(String matchId) {
+        String key = matchId != null && gameRepository.isSideMatch(matchId) ? matchId : MAIN_GAME;
+        return sinks.computeIfAbsent(key, k -> Sinks.many().multicast().directBestEffort())
+                .asFlux()
+                .filter(update -> matchId == null || matchId.equals(update.getMatch().getMatchId()))
+                .onBackpressureLatest();
+    }
+
+    // Returns the key of the match's sink; a sink takes one emission at a time
+    private String emit(Update update) {
+        String matchId = update.getMatch().getMatchId();
+        String key = gameRepository.isSideMatch(matchId) ? matchId : MAIN_GAME;
+        Sinks.Many<Update> sink = sinks.get(key);
+        if (sink != null) {
+            synchronized (sink) {
+                sink.tryEmitNext(update);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// What each player may see of a match: their own player in full, the others without their spells,
+// potions, defenses and glyphs, and never the word or potion dictionaries. Without a player (or
+// with one not in the match) it is the spectator view. Player ids are in every view, so the
+// controllers take the player from a PlayerTokens token, never from an id the client sends.
+//
+// Every saved state is projected once, when it is published: the public players are shared by
+// all views of that version, and each player's view is built on first request and kept until
+// the next version, so serving a view is a map lookup.
+@Service
+public class MatchViews {
+
+    private static final String SPECTATOR = "";
+
+    // One version of a match with its views by player id
+    private static final class Projection {
+        final GameMatch match;
+        final List<Player> publicPlayers;
+        final Map<String, GameMatch> views = new ConcurrentHashMap<>();
+
+        Projection(GameMatch match) {
+            this.match = match;
+            this.publicPlayers = new ArrayList<>(match.getPlayers().size());
+            for (Player player : match.getPlayers()) {
+                publicPlayers.add(publicPlayer(player));
+            }
+        }
+
+        GameMatch viewFor(String playerId) {
+            return views.computeIfAbsent(playerId != null ? playerId : SPECTATOR, this::project);
+        }
+
+        private GameMatch project(String playerId) {
+            GameMatch view = new GameMatch();
+            view.setMatchId(match.getMatchId());
+            view.setVersion(match.getVersion());
+            view.setArenaPhase(match.isArenaPhase());
+            view.setCurrentTurnPlayerIndex(match.getCurrentTurnPlayerIndex());
+            view.setArenaRound(match.getArenaRound());
+            view.setTournamentId(match.getTournamentId());
+            view.setGlifosUsadosNoTabuleiro(match.getGlifosUsadosNoTabuleiro());
+            view.setWordDictionary(null);
+            view.setPotionDictionary(null);
+            List<Player> players = new ArrayList<>(publicPlayers);
+            for (int i = 0; i < players.size(); i++) {
+                if (match.getPlayers().get(i).getId().equals(playerId)) {
+                    players.set(i, match.getPlayers().get(i));
+                }
+            }
+            view.setPlayers(players);
+            return view;
+        }
+    }
+
+    // Latest projection per match id
+    private final Map<String, Projection> latest = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        project(event.getMatch());
+    }
+
+    @EventListener
+    public void onMatchReset(MatchResetEvent event) {
+        latest.remove(event.getMatch().getMatchId());
+    }
+
+    // playerId's view of match (null for no match)
+    public GameMatch view(GameMatch match, String playerId) {
+        if (match == null) {
+            return null;
+        }
+        return project(match).viewFor(playerId);
+    }
+
+    // playerId's view of a state that is not, or no longer, the match's current one (the last
+    // state of a reset match, a replayed version); it is not cached
+    public GameMatch uncachedView(GameMatch match, String playerId) {
+        return new Projection(match).viewFor(playerId);
+    }
+
+    // The projection of this version of the match: the cached one if it is current, a new one
+    // (which becomes current) if match is newer, an uncached one if match is already outdated
+    private Projection project(GameMatch match) {
+        Projection current = latest.get(match.getMatchId());
+        if (current != null && current.match.getVersion() == match.getVersion()) {
+            return current;
+        }
+        if (current != null && current.match.getVersion() > match.getVersion()) {
+            return new Projection(match);
+        }
+        return latest.merge(match.getMatchId(), new Projection(match),
+                (old, created) -> old.match.getVersion() >= created.match.getVersion() ? old : created);
+    }
+
+    private static Player publicPlayer(Player player) {
+        Player view = new Player();
+        view.setId(player.getId());
+        view.setName(player.getName());
+        view.setLifeEnergy(player.getLifeEnergy());
+        view.setMagicShield(player.getMagicShield());
+        view.setMana(player.getMana());
+        view.setEliminated(player.isEliminated());
+        view.setBot(player.isBot());
+        view.setArenaPosition(player.getArenaPosition());
+        view.setActionsRemaining(player.getActionsRemaining());
+        view.setKnownSpells(List.of());
+        view.setPotions(List.of());
+        view.setActiveDefenses(List.of());
+        view.setGlifos(List.of());
+        return view;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ultma.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Player ids are public (every view lists them), so acting as a player or seeing their private
+// view takes that player's token instead: "<playerId>.<HMAC-SHA256 of the id>", handed out only
+// in the join response. Nothing is stored; a token checks against ultma.players.token-secret,
+// or against a random key when it is blank, in which case tokens end with the process.
+// Tournament entrants are seated as a new player every round, so they get an entrant token for
+// their place in the bracket, signed the same way over "entrant:<tournamentId>/<name>", and trade
+// it for the token of their current seat (TournamentController).
+@Service
+public class PlayerTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final String ENTRANT = "entrant:";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public PlayerTokens(@Value("${ultma.players.token-secret:}") String secret) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(String playerId) {
+        return playerId + "." + ENCODER.encodeToString(sign(playerId));
+    }
+
+    // The player a token was issued to, or null for no token, a forged one or an entrant token
+    public String playerId(String token) {
+        String playerId = verify(token);
+        return playerId != null && !playerId.startsWith(ENTRANT) ? playerId : null;
+    }
+
+    public String issueEntrant(String tournamentId, String name) {
+        return issue(ENTRANT + tournamentId + "/" + name);
+    }
+
+    // The entrant of tournamentId a token was issued to, or null
+    public String entrantName(String tournamentId, String token) {
+        String signed = verify(token);
+        String prefix = ENTRANT + tournamentId + "/";
+        return signed != null && signed.startsWith(prefix) ? signed.substring(prefix.length()) : null;
+    }
+
+    // What a token was issued for, or null for no token or a forged one
+    private String verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String signed = token.substring(0, dot);
+        byte[] signature = ENCODER.encodeToString(sign(signed)).getBytes(StandardCharsets.US_ASCII);
+        byte[] given = token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(signature, given) ? signed : null;
+    }
+
+    // Like playerId, for actions: acting without a valid token is refused
+    public String requirePlayerId(String token) {
+        String playerId = playerId(token);
+        if (playerId == null) {
+            throw new InvalidPlayerTokenException();
+        }
+        return playerId;
+    }
+
+    private byte[] sign(String signed) {
+        return macs.get().doFinal(signed.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.ReplicationAck;
+import com.ultma.backend.model.ReplicationBatch;
+import com.ultma.backend.model.ReplicationEntry;
+import com.ultma.backend.model.ReplicationStatus;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Hot standby. The primary marks every match that changes and a background thread ships the
+// current state of the marked matches to the standby, so a burst of actions on one match costs
+// one transfer. The standby keeps the replicas in its repository (read-only there) and promotes
+// itself when the primary has been silent for the failover timeout, or on request.
+//
+// Fencing: with automatic failover the primary only accepts actions while it holds a lease,
+// renewed by every acknowledged batch and shorter than the failover timeout, so it stops before
+// its standby can take over. A primary whose batch is refused because the standby was promoted
+// steps down for good and stays read-only.
+@Service
+public class ReplicationService {
+
+    public enum Role { NONE, PRIMARY, STANDBY }
+
+    public static final String SECRET_HEADER = "X-Replication-Secret";
+
+    private final GameRepository gameRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RestClient standby;
+    private final long heartbeatMillis;
+    private final long failoverTimeoutMillis;
+    private final byte[] secret;
+    private final ScheduledExecutorService shipper;
+    private final Counter stepDowns;
+    private volatile Role role;
+
+    // Primary: matches changed since they were last shipped, with the time of the first change.
+    // Marked without the lock, by the partition workers that save the matches.
+    private final String epoch = UUID.randomUUID().toString();
+    private final Map<String, Long> dirty = new ConcurrentHashMap<>();
+    private final Map<String, Long> inFlight = new LinkedHashMap<>();
+    private boolean snapshotNeeded = true;
+    private boolean standbyReachable = true;
+    private long lastShippedAt;
+    private long batches;
+    // Send time of the last acknowledged batch; the lease runs from there (0 = never held)
+    private long leaseStart;
+
+    // Standby: the primary epoch it is in sync with (null until the first snapshot)
+    private String primaryEpoch;
+    private volatile long lastContactAt;
+
+    public ReplicationService(GameRepository gameRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              RestClient.Builder restClientBuilder,
+                              MeterRegistry meterRegistry,
+                              @Value("${ultma.replication.role:none}") String role,
+                              @Value("${ultma.replication.standby-url:}") String standbyUrl,
+                              @Value("${ultma.replication.interval-ms:20}") long intervalMillis,
+                              @Value("${ultma.replication.heartbeat-ms:500}") long heartbeatMillis,
+                              @Value("${ultma.replication.failover-timeout-ms:3000}") long failoverTimeoutMillis,
+                              @Value("${ultma.replication.secret:}") String secret) {
+        this.gameRepository = gameRepository;
+        this.eventPublisher = eventPublisher;
+        this.role = Role.valueOf(role.toUpperCase());
+        this.standby = this.role == Role.PRIMARY && !standbyUrl.isBlank()
+                ? restClientBuilder.baseUrl(standbyUrl).build() : null;
+        this.heartbeatMillis = heartbeatMillis;
+        this.failoverTimeoutMillis = failoverTimeoutMillis;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        // A fenced primary waits for its first acknowledged batch: the standby may have been
+        // promoted while it was down
+        gameRepository.setReadOnly(this.role == Role.STANDBY || fenced());
+
+        Gauge.builder("ultma.replication.lag", this, ReplicationService::lagMillis)
+                .description("Age of the oldest match change not yet acknowledged by the standby")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("ultma.replication.last-contact.age", this, ReplicationService::lastContactAgeMillis)
+                .description("Time since the standby last heard from the primary")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.stepDowns = Counter.builder("ultma.replication.step-downs")
+                .description("Times this primary found its standby promoted and went read-only")
+                .register(meterRegistry);
+
+        this.shipper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (standby != null) {
+            shipper.scheduleWithFixedDelay(this::ship, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else if (this.role == Role.STANDBY && failoverTimeoutMillis > 0) {
+            shipper.scheduleWithFixedDelay(this::checkPrimary, 100, 100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        markDirty(event.getMatch().getMatchId());
+    }
+
+    @EventListener
+    public void onMatchReset(MatchResetEvent event) {
+        markDirty(event.getMatch().getMatchId());
+    }
+
+    private void markDirty(String matchId) {
+        if (standby != null) {
+            dirty.putIfAbsent(matchId, System.currentTimeMillis());
+        }
+    }
+
+    // Primary with automatic failover on the standby side
+    private boolean fenced() {
+        return role == Role.PRIMARY && standby != null && failoverTimeoutMillis > 0;
+    }
+
+    // Half the failover timeout: the standby only promotes itself a full timeout after the last
+    // batch it received, which was sent after the one that started the lease
+    private long leaseMillis() {
+        return failoverTimeoutMillis / 2;
+    }
+
+    // Primary: sends the marked matches (or everything, or a heartbeat) and waits for the ack
+    void ship() {
+        boolean snapshot;
+        long sentAt = System.currentTimeMillis();
+        synchronized (this) {
+            if (role != Role.PRIMARY) {
+                return;
+            }
+            if (fenced() && sentAt - leaseStart > leaseMillis()) {
+                gameRepository.setReadOnly(true);
+            }
+            if (dirty.isEmpty() && !snapshotNeeded
+                    && System.currentTimeMillis() - lastShippedAt < heartbeatMillis) {
+                return;
+            }
+            snapshot = snapshotNeeded;
+            // One mark at a time: a match marked meanwhile is either taken now or left for the next batch
+            for (String matchId : dirty.keySet()) {
+                Long since = dirty.remove(matchId);
+                if (since != null) {
+                    inFlight.merge(matchId, since, Math::min);
+                }
+            }
+        }
+        // Loaded after the marks were taken, so every shipped state is at least as new as its mark
+        List<ReplicationEntry> entries = new ArrayList<>();
+        for (String matchId : snapshot ? allMatchIds() : inFlight.keySet()) {
+            entries.add(new ReplicationEntry(matchId, gameRepository.isSideMatch(matchId),
+                    gameRepository.loadGame(matchId)));
+        }
+        try {
+            ReplicationAck ack = standby.post()
+                    .uri("/api/replication/batches")
+                    .headers(headers -> {
+                        if (secret.length > 0) {
+                            headers.set(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8));
+                        }
+                    })
+                    .body(new ReplicationBatch(epoch, snapshot, sentAt, entries))
+                    .retrieve()
+                    .body(ReplicationAck.class);
+            synchronized (this) {
+                standbyReachable = true;
+                lastShippedAt = System.currentTimeMillis();
+                batches++;
+                if (ack != null && ack.isApplied()) {
+                    inFlight.clear();
+                    snapshotNeeded = false;
+                    leaseStart = sentAt;
+                    if (role == Role.PRIMARY) {
+                        gameRepository.setReadOnly(false);
+                    }
+                } else {
+                    requeueInFlight();
+                    snapshotNeeded = true;
+                }
+            }
+        } catch (HttpClientErrorException.Conflict e) {
+            stepDown();
+        } catch (RestClientException e) {
+            synchronized (this) {
+                requeueInFlight();
+                if (standbyReachable) {
+                    standbyReachable = false;
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    // The standby was promoted: this node must not take another action. It stays read-only until
+    // an operator restarts it as the new standby; ultma.replication.step-downs is what to alert on.
+    private void stepDown() {
+        synchronized (this) {
+            if (role != Role.PRIMARY) {
+                return;
+            }
+            role = Role.STANDBY;
+            gameRepository.setReadOnly(true);
+            dirty.clear();
+            inFlight.clear();
+        }
+        stepDowns.increment();
+    }
+
+    private void requeueInFlight() {
+        inFlight.forEach((matchId, since) -> dirty.merge(matchId, since, Math::min));
+        inFlight.clear();
+    }
+
+    private List<String> allMatchIds() {
+        List<String> matchIds = new ArrayList<>(gameRepository.getSideMatchIds());
+        GameMatch main = gameRepository.loadGame();
+        if (main != null) {
+            matchIds.add(main.getMatchId());
+        }
+        return matchIds;
+    }
+
+    // Standby: applies a batch from the primary
+    public synchronized ReplicationAck apply(ReplicationBatch batch) {
+        if (role != Role.STANDBY) {
+            throw new IllegalStateException("Este servidor não é um standby");
+        }
+        lastContactAt = System.currentTimeMillis();
+        if (!batch.isSnapshot() && !batch.getEpoch().equals(primaryEpoch)) {
+            return new ReplicationAck(false, true);
+        }
+        Set<String> shipped = new HashSet<>();
+        for (ReplicationEntry entry : batch.getEntries()) {
+            shipped.add(entry.getMatchId());
+            if (entry.getMatch() != null) {
+                gameRepository.applyReplica(entry.getMatch(), entry.isSideMatch());
+            } else {
+                gameRepository.removeReplica(entry.getMatchId());
+            }
+        }
+        if (batch.isSnapshot()) {
+            for (String matchId : allMatchIds()) {
+                if (!shipped.contains(matchId)) {
+                    gameRepository.removeReplica(matchId);
+                }
+            }
+            primaryEpoch = batch.getEpoch();
+        }
+        return new ReplicationAck(true, false);
+    }
+
+    private void checkPrimary() {
+        if (role == Role.STANDBY && lastContactAt > 0
+                && System.currentTimeMillis() - lastContactAt > failoverTimeoutMillis) {
+            promote();
+        }
+    }
+
+    // Standby takes over: accepts actions and re-announces every match so turn timers and bots
+    // pick them up. The old primary must come back as a standby, never as a second primary.
+    public void promote() {
+        synchronized (this) {
+            if (role != Role.STANDBY) {
+                return;
+            }
+            role = Role.PRIMARY;
+            gameRepository.setReadOnly(false);
+        }
+        for (String matchId : allMatchIds()) {
+            GameMatch match = gameRepository.loadGame(matchId);
+            if (match != null) {
+                eventPublisher.publishEvent(new MatchUpdatedEvent(match));
+            }
+        }
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    // True when a secret is configured and header is that secret
+    public boolean acceptsSecret(String header) {
+        return secret.length > 0 && header != null
+                && MessageDigest.isEqual(secret, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public synchronized ReplicationStatus getStatus() {
+        return new ReplicationStatus(role.name().toLowerCase(), role == Role.STANDBY ? primaryEpoch : epoch,
+                dirty.size() + inFlight.size(), lagMillis(), lastContactAgeMillis(), batches);
+    }
+
+    private synchronized long lagMillis() {
+        long oldest = Long.MAX_VALUE;
+        for (long since : dirty.values()) {
+            oldest = Math.min(oldest, since);
+        }
+        for (long since : inFlight.values()) {
+            oldest = Math.min(oldest, since);
+        }
+        return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    private long lastContactAgeMillis() {
+        long last = lastContactAt;
+        return role == Role.STANDBY && last > 0 ? System.currentTimeMillis() - last : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shipper.shutdownNow();
+    }
+}
@@ -0,0 +1,211 @@
+package com.ultma.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.PlayerStats;
+import com.ultma.backend.service.event.DuelResolvedEvent;
+import com.ultma.backend.service.event.SpellCastEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Player statistics maintained incrementally from game events. Every update re-sorts only the
+// changed player (O(log n)) and rebuilds the top-K snapshot only when that player is, or
+// becomes, part of it; reads just return the snapshot.
+// Events arrive on the workers of the partitions that saved their matches; they are handed to one
+// background thread, in order, so those workers never wait on each other for the totals.
+@Service
+public class StatsService {
+
+    // Most eliminations first, then most damage, then name
+    private static final Comparator<PlayerStats> RANKING = Comparator
+            .comparingLong(PlayerStats::getEliminations).reversed()
+            .thenComparing(Comparator.comparingLong(PlayerStats::getDamageDealt).reversed())
+            .thenComparing(PlayerStats::getPlayerName);
+
+    private final String filePath;
+    private final int leaderboardSize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, PlayerStats> statsByName = new HashMap<>();
+    private final TreeSet<PlayerStats> ranking = new TreeSet<>(RANKING);
+    private volatile List<PlayerStats> leaderboard = List.of();
+    private boolean dirty;
+    private final Executor updates;
+
+    @Autowired
+    public StatsService(@Value("${ultma.stats.file:playerstats.json}") String filePath,
+                        @Value("${ultma.stats.leaderboard-size:10}") int leaderboardSize) {
+        this(filePath, leaderboardSize, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    // Events applied by updates, one at a time in order (tests pass Runnable::run)
+    StatsService(String filePath, int leaderboardSize, Executor updates) {
+        this.filePath = filePath;
+        this.leaderboardSize = leaderboardSize;
+        this.updates = updates;
+        load();
+    }
+
+    @EventListener
+    public void onDuelResolved(DuelResolvedEvent event) {
+        updates.execute(() -> applyDuel(event));
+    }
+
+    @EventListener
+    public void onSpellCast(SpellCastEvent event) {
+        updates.execute(() -> applyCast(event));
+    }
+
+    private synchronized void applyDuel(DuelResolvedEvent event) {
+        DuelResult duel = event.getResult();
+        update(event.getAttackerName(), stats -> {
+            stats.setAttacks(stats.getAttacks() + 1);
+            stats.setDamageDealt(stats.getDamageDealt() + duel.getDamageDealt());
+            if (event.isTargetEliminated()) {
+                stats.setEliminations(stats.getEliminations() + 1);
+            }
+        });
+        if (duel.isWasBlocked() || event.isTargetEliminated()) {
+            update(event.getTargetName(), stats -> {
+                if (duel.isWasBlocked()) {
+                    stats.setAttacksBlocked(stats.getAttacksBlocked() + 1);
+                }
+                if (event.isTargetEliminated()) {
+                    stats.setTimesEliminated(stats.getTimesEliminated() + 1);
+                }
+            });
+        }
+    }
+
+    private synchronized void applyCast(SpellCastEvent event) {
+        if (!event.getResult().isSuccess()) {
+            return;
+        }
+        update(event.getPlayerName(), stats -> {
+            stats.setSpellsCast(stats.getSpellsCast() + 1);
+            if (event.isDiscovered()) {
+                stats.setSpellsDiscovered(stats.getSpellsDiscovered() + 1);
+            }
+        });
+    }
+
+    private void update(String playerName, Consumer<PlayerStats> change) {
+        if (playerName == null) {
+            return;
+        }
+        PlayerStats stats = statsByName.computeIfAbsent(playerName, PlayerStats::new);
+        boolean wasInTop = ranking.remove(stats) && isInTop(stats);
+        change.accept(stats);
+        ranking.add(stats);
+        dirty = true;
+        if (wasInTop || isInTop(stats) || leaderboard.size() < leaderboardSize) {
+            rebuildLeaderboard();
+        }
+    }
+
+    // True when fewer than K players rank ahead of stats (stats itself need not be in the set)
+    private boolean isInTop(PlayerStats stats) {
+        if (leaderboard.size() < leaderboardSize) {
+            return true;
+        }
+        PlayerStats last = leaderboard.get(leaderboard.size() - 1);
+        return RANKING.compare(stats, last) <= 0;
+    }
+
+    private void rebuildLeaderboard() {
+        List<PlayerStats> top = new ArrayList<>(leaderboardSize);
+        Iterator<PlayerStats> it = ranking.iterator();
+        while (top.size() < leaderboardSize && it.hasNext()) {
+            top.add(new PlayerStats(it.next()));
+        }
+        leaderboard = Collections.unmodifiableList(top);
+    }
+
+    // Top players, best first; O(limit)
+    public List<PlayerStats> getLeaderboard(int limit) {
+        List<PlayerStats> top = leaderboard;
+        return limit >= top.size() ? top : top.subList(0, Math.max(0, limit));
+    }
+
+    public synchronized PlayerStats getPlayerStats(String playerName) {
+        PlayerStats stats = statsByName.get(playerName);
+        return stats != null ? new PlayerStats(stats) : null;
+    }
+
+    private void load() {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            List<PlayerStats> saved = objectMapper.readValue(file, new TypeReference<List<PlayerStats>>() {});
+            for (PlayerStats stats : saved) {
+                statsByName.put(stats.getPlayerName(), stats);
+                ranking.add(stats);
+            }
+            rebuildLeaderboard();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Events still queued are applied before the last flush
+    @PreDestroy
+    public void shutdown() {
+        if (updates instanceof ExecutorService service) {
+            service.shutdown();
+            try {
+                service.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    // Write-behind: totals reach the disk at most a few seconds after they change
+    @Scheduled(fixedDelayString = "${ultma.stats.flush-interval-ms:5000}")
+    public void flush() {
+        List<PlayerStats> snapshot;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            snapshot = new ArrayList<>();
+            for (PlayerStats stats : statsByName.values()) {
+                snapshot.add(new PlayerStats(stats));
+            }
+            dirty = false;
+        }
+        try {
+            objectMapper.writeValue(new File(filePath), snapshot);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.ultma.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.Tournament;
+import com.ultma.backend.model.TournamentEntrant;
+import com.ultma.backend.model.TournamentMatch;
+import com.ultma.backend.model.TournamentRequest;
+import com.ultma.backend.model.TournamentRound;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Runs tournament brackets. All matches of a round are side matches played at the same time;
+// when one ends its last player standing advances, and once the round is complete the next one
+// is created. Bracket changes run on one background thread driven by match events, so no
+// request thread ever waits for a match.
+// Brackets survive restarts with the side matches: they are written to tournaments.json in
+// ultma.matches.directory at shutdown and read back at the next start.
+@Service
+public class TournamentService {
+
+    private final GameService gameService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Tournament> tournaments = new ConcurrentHashMap<>();
+    private final Map<String, String> tournamentByMatch = new ConcurrentHashMap<>();
+    private final ExecutorService bracketExecutor;
+
+    private static final String BRACKETS_FILE = "tournaments.json";
+    // Null when brackets live in memory only
+    private final Path bracketsFile;
+    // Set while restored matches could not be settled because this server takes no actions yet
+    private volatile boolean recoveryPending;
+
+    // Brackets in memory only
+    public TournamentService(GameService gameService) {
+        this(gameService, null);
+    }
+
+    @Autowired
+    public TournamentService(GameService gameService, @Value("${ultma.matches.directory:matches}") String matchesDirectory) {
+        this.gameService = gameService;
+        this.bracketExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bracketsFile = matchesDirectory != null ? Path.of(matchesDirectory, BRACKETS_FILE) : null;
+        readBrackets();
+        bracketExecutor.execute(this::recover);
+    }
+
+    public Tournament createTournament(TournamentRequest request) {
+        List<TournamentEntrant> entrants = request.getEntrants();
+        if (entrants == null || entrants.size() < 2) {
+            throw new IllegalArgumentException("O torneio precisa de pelo menos 2 participantes");
+        }
+        if (request.getMatchSize() < 2 || request.getMatchSize() > 4) {
+            throw new IllegalArgumentException("Cada partida deve ter de 2 a 4 jogadores");
+        }
+        Set<String> names = new HashSet<>();
+        for (TournamentEntrant entrant : entrants) {
+            if (entrant.getName() == null || entrant.getName().isBlank() || !names.add(entrant.getName())) {
+                throw new IllegalArgumentException("Nome de participante vazio ou repetido: " + entrant.getName());
+            }
+        }
+
+        Tournament tournament = new Tournament();
+        tournament.setName(request.getName() != null ? request.getName() : "Torneio");
+        tournament.setMatchSize(request.getMatchSize());
+        for (TournamentEntrant entrant : entrants) {
+            tournament.getEntrants().add(new TournamentEntrant(entrant.getName(), entrant.isBot(), null));
+        }
+        tournament.setStatus("running");
+        tournament.setCreatedAt(System.currentTimeMillis());
+        tournaments.put(tournament.getId(), tournament);
+
+        List<TournamentEntrant> firstRound = new ArrayList<>(tournament.getEntrants());
+        bracketExecutor.execute(() -> startRound(tournament, firstRound));
+        return snapshot(tournament);
+    }
+
+    public Tournament getTournament(String tournamentId) {
+        Tournament tournament = tournaments.get(tournamentId);
+        return tournament != null ? snapshot(tournament) : null;
+    }
+
+    // Newest first
+    public List<Tournament> getTournaments() {
+        List<Tournament> list = new ArrayList<>();
+        for (Tournament tournament : tournaments.values()) {
+            list.add(snapshot(tournament));
+        }
+        list.sort(Comparator.comparingLong(Tournament::getCreatedAt).reversed());
+        return list;
+    }
+
+    // The entrant's seat in the match they are playing now, or null when they have none (a bye,
+    // knocked out, between rounds, or no such tournament)
+    public TournamentEntrant currentSeat(String tournamentId, String name) {
+        Tournament tournament = tournaments.get(tournamentId);
+        if (tournament == null) {
+            return null;
+        }
+        synchronized (tournament) {
+            if (tournament.getRounds().isEmpty()) {
+                return null;
+            }
+            for (TournamentMatch tournamentMatch : tournament.getRounds().get(tournament.getRounds().size() - 1).getMatches()) {
+                if (!"playing".equals(tournamentMatch.getStatus())) {
+                    continue;
+                }
+                for (TournamentEntrant entrant : tournamentMatch.getEntrants()) {
+                    if (entrant.getName().equals(name)) {
+                        return new TournamentEntrant(entrant.getName(), entrant.isBot(), entrant.getPlayerId());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Runs after the other listeners (archive, stats) have seen the final state
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        if (recoveryPending) {
+            recoveryPending = false;
+            bracketExecutor.execute(this::recover);
+        }
+        GameMatch match = event.getMatch();
+        if (!GameRules.isMatchOver(match) || !tournamentByMatch.containsKey(match.getMatchId())) {
+            return;
+        }
+        Player winner = GameRules.lastStanding(match);
+        String winnerId = winner != null ? winner.getId() : null;
+        bracketExecutor.execute(() -> finishMatch(match.getMatchId(), winnerId));
+    }
+
+    private void startRound(Tournament tournament, List<TournamentEntrant> entrants) {
+        TournamentRound round = new TournamentRound();
+        round.setNumber(tournament.getRounds().size() + 1);
+        for (int i = 0; i < entrants.size(); i += tournament.getMatchSize()) {
+            List<TournamentEntrant> group = entrants.subList(i, Math.min(entrants.size(), i + tournament.getMatchSize()));
+            TournamentMatch tournamentMatch = new TournamentMatch();
+            if (group.size() == 1) {
+                // Odd one out advances without playing
+                tournamentMatch.getEntrants().add(new TournamentEntrant(group.get(0).getName(), group.get(0).isBot(), null));
+                tournamentMatch.setStatus("bye");
+                tournamentMatch.setWinner(group.get(0).getName());
+            } else {
+                List<Player> players = new ArrayList<>();
+                for (TournamentEntrant entrant : group) {
+                    Player player = new Player(entrant.getName());
+                    player.setBot(entrant.isBot());
+                    players.add(player);
+                    tournamentMatch.getEntrants().add(new TournamentEntrant(entrant.getName(), entrant.isBot(), player.getId()));
+                }
+                tournamentMatch.setStatus("playing");
+                // Registered before the match exists, so even an instant finish is seen
+                String matchId = gameService.createMatch(players, match -> {
+                    match.setTournamentId(tournament.getId());
+                    tournamentByMatch.put(match.getMatchId(), tournament.getId());
+                }).getMatchId();
+                tournamentMatch.setMatchId(matchId);
+            }
+            round.getMatches().add(tournamentMatch);
+        }
+        synchronized (tournament) {
+            tournament.getRounds().add(round);
+        }
+        advanceIfComplete(tournament, round);
+    }
+
+    private void finishMatch(String matchId, String winnerId) {
+        String tournamentId = tournamentByMatch.remove(matchId);
+        Tournament tournament = tournamentId != null ? tournaments.get(tournamentId) : null;
+        if (tournament == null) {
+            return;
+        }
+        TournamentRound round;
+        synchronized (tournament) {
+            round = tournament.getRounds().get(tournament.getRounds().size() - 1);
+            for (TournamentMatch tournamentMatch : round.getMatches()) {
+                if (matchId.equals(tournamentMatch.getMatchId())) {
+                    // Nobody left standing (e.g. a Corrupção potion on the last turn): first seat advances
+                    TournamentEntrant winner = tournamentMatch.getEntrants().stream()
+                            .filter(entrant -> entrant.getPlayerId().equals(winnerId))
+                            .findFirst()
+                            .orElse(tournamentMatch.getEntrants().get(0));
+                    tournamentMatch.setStatus("finished");
+                    tournamentMatch.setWinner(winner.getName());
+                }
+            }
+        }
+        gameService.closeMatch(matchId);
+        advanceIfComplete(tournament, round);
+    }
+
+    private void advanceIfComplete(Tournament tournament, TournamentRound round) {
+        List<TournamentEntrant> winners = new ArrayList<>();
+        synchronized (tournament) {
+            for (TournamentMatch tournamentMatch : round.getMatches()) {
+                if ("playing".equals(tournamentMatch.getStatus())) {
+                    return;
+                }
+                tournamentMatch.getEntrants().stream()
+                        .filter(entrant -> entrant.getName().equals(tournamentMatch.getWinner()))
+                        .findFirst()
+                        .ifPresent(entrant -> winners.add(new TournamentEntrant(entrant.getName(), entrant.isBot(), null)));
+            }
+            if (winners.size() <= 1) {
+                tournament.setStatus("finished");
+                tournament.setChampion(winners.isEmpty() ? null : winners.get(0).getName());
+                return;
+            }
+        }
+        startRound(tournament, winners);
+    }
+
+    // Settles what changed while the server was down: a bracket match that ended (or was lost) is
+    // finished now, and a bracket match no bracket owns any more (brackets are written at shutdown,
+    // so a crash can lose the round that created it), which nothing would ever close, is closed.
+    // Side matches of no tournament, such as imported ones, are left alone.
+    // A server that takes no actions yet (a standby, or a primary before its first lease) retries
+    // after the next update.
+    private void recover() {
+        if (!gameService.acceptsActions()) {
+            recoveryPending = true;
+            return;
+        }
+        for (String matchId : new ArrayList<>(tournamentByMatch.keySet())) {
+            GameMatch match = gameService.getMatch(matchId);
+            if (match == null) {
+                finishMatch(matchId, null);
+            } else if (GameRules.isMatchOver(match)) {
+                Player winner = GameRules.lastStanding(match);
+                finishMatch(matchId, winner != null ? winner.getId() : null);
+            }
+        }
+        for (String matchId : gameService.getMatchIds()) {
+            if (tournamentByMatch.containsKey(matchId)) {
+                continue;
+            }
+            GameMatch match = gameService.getMatch(matchId);
+            if (match != null && match.getTournamentId() != null) {
+                gameService.closeMatch(matchId);
+            }
+        }
+    }
+
+    private void readBrackets() {
+        if (bracketsFile == null || !Files.exists(bracketsFile)) {
+            return;
+        }
+        try {
+            for (Tournament tournament : objectMapper.readValue(bracketsFile.toFile(), Tournament[].class)) {
+                tournaments.put(tournament.getId(), tournament);
+                if (tournament.getRounds().isEmpty()) {
+                    continue;
+                }
+                for (TournamentMatch tournamentMatch : tournament.getRounds().get(tournament.getRounds().size() - 1).getMatches()) {
+                    if ("playing".equals(tournamentMatch.getStatus())) {
+                        tournamentByMatch.put(tournamentMatch.getMatchId(), tournament.getId());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeBrackets() throws IOException {
+        List<Tournament> list = new ArrayList<>();
+        for (Tournament tournament : tournaments.values()) {
+            list.add(snapshot(tournament));
+        }
+        Files.createDirectories(bracketsFile.getParent());
+        Path temp = bracketsFile.resolveSibling(BRACKETS_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), list);
+        Files.move(temp, bracketsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Tournament snapshot(Tournament tournament) {
+        synchronized (tournament) {
+            return objectMapper.convertValue(tournament, Tournament.class);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bracketExecutor.shutdownNow();
+        if (bracketsFile == null) {
+            return;
+        }
+        try {
+            bracketExecutor.awaitTermination(1, TimeUnit.SECONDS);
+            writeBrackets();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
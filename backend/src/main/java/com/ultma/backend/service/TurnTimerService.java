@@ -0,0 +1,117 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import com.ultma.backend.service.timer.HierarchicalTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Enforces the arena turn deadline: one wheel timeout per match, re-armed whenever the turn moves
+@Service
+public class TurnTimerService {
+
+    private static final class TurnTimer {
+        final int turnIndex;
+        final int arenaRound;
+        final HierarchicalTimingWheel.Timeout timeout;
+
+        TurnTimer(int turnIndex, int arenaRound, HierarchicalTimingWheel.Timeout timeout) {
+            this.turnIndex = turnIndex;
+            this.arenaRound = arenaRound;
+            this.timeout = timeout;
+        }
+    }
+
+    private final GameService gameService;
+    private final boolean enabled;
+    private final long turnMillis;
+    private final ExecutorService expiryExecutor;
+    private final HierarchicalTimingWheel wheel;
+    private final Map<String, TurnTimer> timers = new ConcurrentHashMap<>();
+
+    public TurnTimerService(@Lazy GameService gameService,
+                            @Value("${ultma.turn-timer.enabled:true}") boolean enabled,
+                            @Value("${ultma.turn-timer.turn-seconds:60}") long turnSeconds,
+                            @Value("${ultma.turn-timer.tick-ms:100}") long tickMillis,
+                            @Value("${ultma.turn-timer.wheel-size:256}") int wheelSize,
+                            @Value("${ultma.turn-timer.levels:4}") int levels) {
+        this.gameService = gameService;
+        this.enabled = enabled;
+        this.turnMillis = turnSeconds * 1000L;
+        this.expiryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "turn-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new HierarchicalTimingWheel(tickMillis, wheelSize, levels, expiryExecutor);
+    }
+
+    @EventListener
+    public void onMatchUpdated(MatchUpdatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        GameMatch match = event.getMatch();
+        String matchId = match.getMatchId();
+        // A finished match has no turn left to time, though it stays in the arena until closed
+        if (!match.isArenaPhase() || match.getCurrentTurnPlayerIndex() == null || match.getArenaRound() == null
+                || GameRules.isMatchOver(match)) {
+            cancel(matchId);
+            return;
+        }
+
+        int turnIndex = match.getCurrentTurnPlayerIndex();
+        int arenaRound = match.getArenaRound();
+        timers.compute(matchId, (id, current) -> {
+            if (current != null && current.turnIndex == turnIndex && current.arenaRound == arenaRound) {
+                return current; // same turn, keep its deadline
+            }
+            if (current != null) {
+                current.timeout.cancel();
+            }
+            HierarchicalTimingWheel.Timeout timeout = wheel.schedule(turnMillis, () -> expire(id, turnIndex, arenaRound));
+            return new TurnTimer(turnIndex, arenaRound, timeout);
+        });
+    }
+
+    @EventListener
+    public void onMatchReset(MatchResetEvent event) {
+        cancel(event.getMatch().getMatchId());
+    }
+
+    private void expire(String matchId, int turnIndex, int arenaRound) {
+        timers.computeIfPresent(matchId, (id, current) ->
+                current.turnIndex == turnIndex && current.arenaRound == arenaRound ? null : current);
+        try {
+            gameService.expireTurn(matchId, turnIndex, arenaRound);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void cancel(String matchId) {
+        TurnTimer timer = timers.remove(matchId);
+        if (timer != null) {
+            timer.timeout.cancel();
+        }
+    }
+
+    public int activeTimers() {
+        return wheel.pendingCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        expiryExecutor.shutdownNow();
+    }
+}
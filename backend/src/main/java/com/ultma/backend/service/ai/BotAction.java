@@ -0,0 +1,39 @@
+package com.ultma.backend.service.ai;
+
+import com.ultma.backend.model.GameEnums;
+import lombok.Value;
+
+// One arena action a bot can take; target is a seat (index in GameMatch.players)
+@Value
+public class BotAction {
+
+    public enum Type {
+        CAST, ATTACK, DEFEND, POTION, MEDITATE, END_TURN
+    }
+
+    Type type;
+    String spellName;
+    int target;
+    GameEnums.PowerWord word1;
+    GameEnums.PowerWord word2;
+    GameEnums.PotionColor potion;
+
+    public static final BotAction MEDITATE = new BotAction(Type.MEDITATE, null, -1, null, null, null);
+    public static final BotAction END_TURN = new BotAction(Type.END_TURN, null, -1, null, null, null);
+
+    public static BotAction cast(GameEnums.PowerWord word1, GameEnums.PowerWord word2) {
+        return new BotAction(Type.CAST, null, -1, word1, word2, null);
+    }
+
+    public static BotAction attack(String spellName, int target) {
+        return new BotAction(Type.ATTACK, spellName, target, null, null, null);
+    }
+
+    public static BotAction defend(String spellName) {
+        return new BotAction(Type.DEFEND, spellName, -1, null, null, null);
+    }
+
+    public static BotAction potion(GameEnums.PotionColor potion) {
+        return new BotAction(Type.POTION, null, -1, null, null, potion);
+    }
+}
@@ -0,0 +1,130 @@
+package com.ultma.backend.service.ai;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.service.sim.CompactMatchState;
+import com.ultma.backend.service.sim.CompactRules;
+import com.ultma.backend.service.sim.SpellCatalog;
+
+import java.util.Random;
+
+// The arena as one bot may know it: its own spells and potions are real, the dictionaries are
+// blanked (sampled per search iteration), opponents know the starting spells plus the defenses
+// they have shown and hold no potions.
+final class BotView {
+
+    private static final int WORDS = GameEnums.PowerWord.values().length;
+    private static final int COLORS = GameEnums.PotionColor.values().length;
+
+    final CompactMatchState state;
+    final int botSeat;
+
+    private BotView(CompactMatchState state, int botSeat) {
+        this.state = state;
+        this.botSeat = botSeat;
+    }
+
+    // Returns null when the bot is not seated in an ongoing arena
+    static BotView of(GameMatch match, String botId) {
+        if (match == null || !match.isArenaPhase()) {
+            return null;
+        }
+        CompactMatchState state = CompactMatchState.fromMatch(match);
+        int botSeat = -1;
+        for (int seat = 0; seat < state.seats(); seat++) {
+            if (state.playerId(seat).equals(botId)) {
+                botSeat = seat;
+            }
+        }
+        if (botSeat == -1) {
+            return null;
+        }
+
+        for (int seat = 0; seat < state.seats(); seat++) {
+            if (seat == botSeat) {
+                continue;
+            }
+            state.setKnownSpells(seat, SpellCatalog.STARTING_MASK | state.get(CompactMatchState.DEFENSES, seat));
+            for (int color = 0; color < COLORS; color++) {
+                state.set(CompactMatchState.POTIONS + color, seat, 0);
+            }
+        }
+        for (int word = 0; word < WORDS; word++) {
+            state.setMeaning(word, CompactMatchState.NULL);
+        }
+        for (int color = 0; color < COLORS; color++) {
+            state.setPotionEffect(color, CompactMatchState.NULL);
+        }
+
+        // Same turn fix-up as GameService: an eliminated current player hands over to the first active one
+        int turn = state.currentTurn() != CompactMatchState.NULL ? state.currentTurn() : 0;
+        if (turn >= state.seats()) {
+            turn = 0;
+        }
+        if (state.isEliminated(turn)) {
+            for (int seat = 0; seat < state.seats(); seat++) {
+                if (!state.isEliminated(seat)) {
+                    turn = seat;
+                    break;
+                }
+            }
+        }
+        state.setCurrentTurn(turn);
+        if (state.arenaRound() == CompactMatchState.NULL) {
+            state.setArenaRound(1);
+        }
+        for (int seat = 0; seat < state.seats(); seat++) {
+            if (state.actions(seat) == CompactMatchState.NULL) {
+                state.set(CompactMatchState.ACTIONS, seat, 0);
+            }
+        }
+        return new BotView(state, botSeat);
+    }
+
+    boolean isBotTurn() {
+        return state.currentTurn() == botSeat && !CompactRules.isTerminal(state);
+    }
+
+    // Writes one guess of the hidden dictionaries into a working copy, reusing the scratch array
+    static void determinize(CompactMatchState target, Random random, int[] scratch) {
+        shuffle(scratch, WORDS, random);
+        for (int word = 0; word < WORDS; word++) {
+            target.setMeaning(word, scratch[word]);
+        }
+        shuffle(scratch, COLORS, random);
+        for (int color = 0; color < COLORS; color++) {
+            target.setPotionEffect(color, scratch[color]);
+        }
+    }
+
+    private static void shuffle(int[] values, int length, Random random) {
+        for (int i = 0; i < length; i++) {
+            values[i] = i;
+        }
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    BotAction toBotAction(int action) {
+        int a = CompactRules.argA(action);
+        int b = CompactRules.argB(action);
+        switch (CompactRules.type(action)) {
+            case CompactRules.MEDITATE:
+                return BotAction.MEDITATE;
+            case CompactRules.ATTACK:
+                return BotAction.attack(SpellCatalog.name(a), b);
+            case CompactRules.DEFEND:
+                return BotAction.defend(SpellCatalog.name(a));
+            case CompactRules.POTION:
+                return BotAction.potion(GameEnums.PotionColor.values()[a]);
+            case CompactRules.CAST:
+                return BotAction.cast(GameEnums.PowerWord.values()[a], GameEnums.PowerWord.values()[b]);
+            default:
+                return BotAction.END_TURN;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ultma.backend.service.ai;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.service.sim.CompactRules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Picks arena actions for a bot with root-parallel MCTS: one independent tree per worker,
+// each searching for the think time from when a worker picks it up (a search queued behind
+// other bots still gets its full time), merged by root visit counts.
+public class MctsBot implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final long thinkTimeNanos;
+    private final int maxIterations;
+
+    public MctsBot(int parallelism, long thinkTimeMillis, int maxIterations) {
+        this.parallelism = Math.max(1, parallelism);
+        this.thinkTimeNanos = thinkTimeMillis * 1_000_000L;
+        this.maxIterations = maxIterations;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Returns the action for the bot, or null when it is not the bot's turn in an arena
+    public BotAction decide(GameMatch match, String botId) {
+        BotView view = BotView.of(match, botId);
+        if (view == null || !view.isBotTurn()) {
+            return null;
+        }
+
+        int iterationsPerWorker = Math.max(1, maxIterations / parallelism);
+        List<Callable<Map<Integer, Integer>>> searches = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            long seed = ThreadLocalRandom.current().nextLong();
+            searches.add(() -> new MctsSearch(view, seed).run(System.nanoTime() + thinkTimeNanos, iterationsPerWorker));
+        }
+
+        Map<Integer, Integer> visits = new HashMap<>();
+        try {
+            for (Future<Map<Integer, Integer>> future : executor.invokeAll(searches)) {
+                future.get().forEach((action, count) -> visits.merge(action, count, Integer::sum));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BotAction.END_TURN;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro na busca do bot", e.getCause());
+        }
+
+        int best = CompactRules.END_TURN;
+        int bestVisits = -1;
+        for (Map.Entry<Integer, Integer> entry : visits.entrySet()) {
+            if (entry.getValue() > bestVisits) {
+                bestVisits = entry.getValue();
+                best = entry.getKey();
+            }
+        }
+        return view.toBotAction(best);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.ultma.backend.service.ai;
+
+import com.ultma.backend.service.sim.CompactMatchState;
+import com.ultma.backend.service.sim.CompactRules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Single-threaded information-set MCTS: every iteration samples the hidden dictionaries,
+// descends only through actions legal in that sample and backs up one reward per seat.
+// The working state is copied once; each iteration plays on it under a mark and undoes its moves,
+// and only the sampled dictionaries (which the journal does not cover) are rewritten.
+class MctsSearch {
+
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_ROLLOUT_ACTIONS = 40;
+
+    private static class Node {
+        final int action;
+        final Node parent;
+        final int seat; // seat that played action, -1 for the root
+        final List<Node> children = new ArrayList<>();
+        int visits;
+        int availability;
+        double totalReward;
+
+        Node(int action, Node parent, int seat) {
+            this.action = action;
+            this.parent = parent;
+            this.seat = seat;
+        }
+
+        Node child(int action) {
+            for (int i = 0; i < children.size(); i++) {
+                Node child = children.get(i);
+                if (child.action == action) {
+                    return child;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final BotView view;
+    private final Random random;
+    private final CompactMatchState sim;
+    private final int[] legal;
+    private final int[] untried;
+    private final int[] scratch = new int[8];
+    private final double[] rewards;
+    private int iterations;
+
+    MctsSearch(BotView view, long seed) {
+        this.view = view;
+        this.random = new Random(seed);
+        this.sim = view.state.copy();
+        this.legal = new int[CompactRules.maxActions(view.state.seats())];
+        this.untried = new int[legal.length];
+        this.rewards = new double[view.state.seats()];
+    }
+
+    // Searches until the deadline (System.nanoTime) and returns the visit count of each root action
+    Map<Integer, Integer> run(long deadline, int maxIterations) {
+        Node root = new Node(-1, null, -1);
+        while (iterations < maxIterations && System.nanoTime() < deadline) {
+            iterate(root);
+            iterations++;
+        }
+
+        Map<Integer, Integer> visits = new HashMap<>();
+        for (Node child : root.children) {
+            visits.put(child.action, child.visits);
+        }
+        return visits;
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    private void iterate(Node root) {
+        BotView.determinize(sim, random, scratch);
+        int mark = sim.mark();
+
+        // Selection and expansion
+        Node node = root;
+        while (!CompactRules.isTerminal(sim)) {
+            int seat = sim.currentTurn();
+            int count = CompactRules.legalActions(sim, seat == view.botSeat, legal);
+            int untriedCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (node.child(legal[i]) == null) {
+                    untried[untriedCount++] = legal[i];
+                }
+            }
+            if (untriedCount > 0) {
+                int action = untried[random.nextInt(untriedCount)];
+                Node child = new Node(action, node, seat);
+                child.availability = 1;
+                node.children.add(child);
+                CompactRules.apply(sim, action, random);
+                node = child;
+                break;
+            }
+
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                Node child = node.child(legal[i]);
+                child.availability++;
+                double score = child.totalReward / child.visits
+                        + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            CompactRules.apply(sim, best.action, random);
+            node = best;
+        }
+
+        // Random playout
+        for (int i = 0; i < MAX_ROLLOUT_ACTIONS && !CompactRules.isTerminal(sim); i++) {
+            int count = CompactRules.legalActions(sim, sim.currentTurn() == view.botSeat, legal);
+            CompactRules.apply(sim, legal[random.nextInt(count)], random);
+        }
+
+        // Backpropagation, each node scored from the point of view of the seat that chose it
+        CompactRules.rewards(sim, rewards);
+        for (Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            if (n.seat >= 0) {
+                n.totalReward += rewards[n.seat];
+            }
+        }
+        sim.undo(mark);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ultma.backend.service.analytics;
+
+import com.ultma.backend.model.AnalyticsGroup;
+
+// Count, sum, min and max of a value; mergeable, so groups can be built in parallel
+final class Aggregate {
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(Aggregate other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    AnalyticsGroup toGroup(String group) {
+        return new AnalyticsGroup(group, count, count > 0 ? sum / count : 0, count > 0 ? min : 0, count > 0 ? max : 0);
+    }
+}
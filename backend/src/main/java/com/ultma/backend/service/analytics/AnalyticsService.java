@@ -0,0 +1,145 @@
+package com.ultma.backend.service.analytics;
+
+import com.ultma.backend.model.AnalyticsGroup;
+import com.ultma.backend.model.AnalyticsProgress;
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.repository.MatchArchive;
+import com.ultma.backend.service.sim.SpellCatalog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+// Runs queries over the match archive without loading it: records are read and inflated in
+// batches, each batch in parallel, and the merged result so far is reported after every batch.
+@Service
+public class AnalyticsService {
+
+    private final MatchArchive matchArchive;
+    private final int batchSize;
+    private final ForkJoinPool pool;
+    private final Map<String, ArchiveQuery<?>> queries = new LinkedHashMap<>();
+
+    public AnalyticsService(MatchArchive matchArchive,
+                            @Value("${ultma.analytics.batch-size:256}") int batchSize,
+                            @Value("${ultma.analytics.threads:0}") int threads) {
+        this.matchArchive = matchArchive;
+        this.batchSize = Math.max(1, batchSize);
+        // Own pool: record reads block on disk and must not starve the common pool
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+
+        register(ArchiveQuery.overActions("blocked-rate-by-defense",
+                        "Fração dos ataques bloqueados, por magia de defesa que os bloqueia")
+                .filter(action -> action.getDuel() != null)
+                .filter(action -> blockingDefense(action.getDuel()) != null)
+                .groupBy(action -> blockingDefense(action.getDuel()))
+                .aggregate(action -> action.getDuel().isWasBlocked() ? 1 : 0)
+                .build());
+        register(ArchiveQuery.overMatches("rounds-to-first-elimination",
+                        "Rodadas da arena até a primeira eliminação, por número de jogadores")
+                .filter(match -> firstEliminationRound(match) >= 0)
+                .groupBy(match -> match.getMatch().getPlayers().size() + " jogadores")
+                .aggregate(AnalyticsService::firstEliminationRound)
+                .build());
+        register(ArchiveQuery.overActions("void-curse-starvation",
+                        "Fração das Maldições do Vazio que deixam o alvo sem mana")
+                .filter(action -> action.getDuel() != null && action.getTargetManaAfter() != null)
+                .filter(action -> SpellCatalog.indexOf(action.getDuel().getSpellName()) == SpellCatalog.MALDICAO_DO_VAZIO)
+                .aggregate(action -> action.getTargetManaAfter() == 0 ? 1 : 0)
+                .build());
+    }
+
+    public void register(ArchiveQuery<?> query) {
+        queries.put(query.getName(), query);
+    }
+
+    public ArchiveQuery<?> getQuery(String name) {
+        return queries.get(name);
+    }
+
+    public Collection<ArchiveQuery<?>> getQueries() {
+        return queries.values();
+    }
+
+    // Scans every archived match; listener gets one progress report per batch, the last one done
+    public void run(ArchiveQuery<?> query, Consumer<AnalyticsProgress> listener) {
+        List<MatchArchive.Location> locations = matchArchive.locations();
+        Map<String, Aggregate> total = new HashMap<>();
+        int scanned = 0;
+        do {
+            List<MatchArchive.Location> batch = locations.subList(scanned, Math.min(locations.size(), scanned + batchSize));
+            merge(total, scanBatch(query, batch));
+            scanned += batch.size();
+            listener.accept(new AnalyticsProgress(query.getName(), scanned, locations.size(),
+                    scanned == locations.size(), toGroups(total)));
+        } while (scanned < locations.size());
+    }
+
+    private Map<String, Aggregate> scanBatch(ArchiveQuery<?> query, List<MatchArchive.Location> batch) {
+        try {
+            return pool.submit(() -> batch.parallelStream()
+                    .map(matchArchive::read)
+                    .collect(HashMap<String, Aggregate>::new,
+                            (groups, match) -> query.accumulate(match, groups),
+                            AnalyticsService::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro ao executar a consulta", e.getCause());
+        }
+    }
+
+    private static void merge(Map<String, Aggregate> into, Map<String, Aggregate> from) {
+        from.forEach((group, aggregate) -> into.merge(group, aggregate, (a, b) -> {
+            a.merge(b);
+            return a;
+        }));
+    }
+
+    private static List<AnalyticsGroup> toGroups(Map<String, Aggregate> aggregates) {
+        List<AnalyticsGroup> groups = new ArrayList<>();
+        new TreeMap<>(aggregates).forEach((group, aggregate) -> groups.add(aggregate.toGroup(group)));
+        return groups;
+    }
+
+    // Defense that would block the duel's attack spell, if any
+    private static String blockingDefense(DuelResult duel) {
+        int spell = SpellCatalog.indexOf(duel.getSpellName());
+        if (spell == SpellCatalog.NONE || SpellCatalog.blockedBy(spell) == SpellCatalog.NONE) {
+            return null;
+        }
+        return SpellCatalog.name(SpellCatalog.blockedBy(spell));
+    }
+
+    // Arena round of the first attack that took a player from alive to zero life, or -1
+    private static int firstEliminationRound(ArchivedMatch match) {
+        if (match.getHistory() == null) {
+            return -1;
+        }
+        for (MatchAction action : match.getHistory()) {
+            DuelResult duel = action.getDuel();
+            if (duel != null && duel.getTargetLifeBefore() > 0 && duel.getTargetLifeAfter() <= 0) {
+                return action.getArenaRound();
+            }
+        }
+        return -1;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ultma.backend.service.analytics;
+
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.MatchAction;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+// A query over archived matches: rows -> filter -> group by -> aggregate.
+// Rows are either the matches themselves or every action of their history.
+public final class ArchiveQuery<T> {
+
+    private final String name;
+    private final String description;
+    private final Function<ArchivedMatch, Stream<T>> rows;
+    private final Predicate<T> filter;
+    private final Function<T, String> groupBy;
+    private final ToDoubleFunction<T> value;
+
+    private ArchiveQuery(Builder<T> builder) {
+        this.name = builder.name;
+        this.description = builder.description;
+        this.rows = builder.rows;
+        this.filter = builder.filter;
+        this.groupBy = builder.groupBy;
+        this.value = builder.value;
+    }
+
+    public static Builder<MatchAction> overActions(String name, String description) {
+        return new Builder<>(name, description, match -> match.getHistory() != null ? match.getHistory().stream() : Stream.empty());
+    }
+
+    public static Builder<ArchivedMatch> overMatches(String name, String description) {
+        return new Builder<>(name, description, Stream::of);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    // Adds the rows of one match to the per-group aggregates
+    void accumulate(ArchivedMatch match, Map<String, Aggregate> groups) {
+        rows.apply(match).filter(filter).forEach(row ->
+                groups.computeIfAbsent(groupBy.apply(row), key -> new Aggregate()).add(value.applyAsDouble(row)));
+    }
+
+    public static final class Builder<T> {
+        private final String name;
+        private final String description;
+        private final Function<ArchivedMatch, Stream<T>> rows;
+        private Predicate<T> filter = row -> true;
+        private Function<T, String> groupBy = row -> "all";
+        private ToDoubleFunction<T> value = row -> 1;
+
+        private Builder(String name, String description, Function<ArchivedMatch, Stream<T>> rows) {
+            this.name = name;
+            this.description = description;
+            this.rows = rows;
+        }
+
+        public Builder<T> filter(Predicate<T> filter) {
+            this.filter = this.filter.and(filter);
+            return this;
+        }
+
+        public Builder<T> groupBy(Function<T, String> groupBy) {
+            this.groupBy = groupBy;
+            return this;
+        }
+
+        public Builder<T> aggregate(ToDoubleFunction<T> value) {
+            this.value = value;
+            return this;
+        }
+
+        public ArchiveQuery<T> build() {
+            return new ArchiveQuery<>(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ultma.backend.service.command;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.service.GameRules;
+import com.ultma.backend.service.event.SpellCastEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+
+// Puts a known defense spell up for the rest of the duel
+public class ActivateDefenseCommand implements GameCommand<SpellResult> {
+
+    private final String playerId;
+    private final String spellName;
+    private int cost;
+
+    public ActivateDefenseCommand(String playerId, String spellName) {
+        this.playerId = playerId;
+        this.spellName = spellName;
+    }
+
+    @Override
+    public String name() {
+        return "defense";
+    }
+
+    @Override
+    public String playerId() {
+        return playerId;
+    }
+
+    @Override
+    public SpellResult validateRequest() {
+        if (!"Defesa".equals(GameRules.getSpellType(spellName))) {
+            return new SpellResult("Error", "N/A", 0, "esta magia não é de defesa", false);
+        }
+        return null;
+    }
+
+    @Override
+    public SpellResult rejected(GameMatch match, String message) {
+        return new SpellResult("Error", "N/A", 0, message, false);
+    }
+
+    @Override
+    public SpellResult validate(GameMatch match, Player player) {
+        if (!player.getKnownSpells().contains(spellName)) {
+            return new SpellResult("Error", "N/A", 0, "você não conhece esta magia", false);
+        }
+        // Defense spells cost 1, except Escudo de Vácuo which costs 3
+        cost = GameRules.getDefenseCost(spellName);
+        if (player.getMana() < cost) {
+            return new SpellResult("Fizzle", "Failure", 0, "mana insuficiente para ativar esta defesa", false);
+        }
+        return null;
+    }
+
+    @Override
+    public SpellResult apply(GameMatch match, Player player) {
+        player.setMana(player.getMana() - cost);
+        if (player.getActiveDefenses() == null) {
+            player.setActiveDefenses(new ArrayList<>());
+        }
+        player.getActiveDefenses().add(spellName);
+
+        // Escudo de Vácuo adds 1 temporary shield (only during the duel, cleared at its end)
+        if ("Escudo de Vácuo".equals(spellName)) {
+            player.setMagicShield(player.getMagicShield() + 1);
+        }
+        return new SpellResult(spellName, "Defesa", cost, "Defesa ativada!", true);
+    }
+
+    @Override
+    public void publish(ApplicationEventPublisher publisher, GameMatch match, Player player, SpellResult result) {
+        publisher.publishEvent(new SpellCastEvent(match.getMatchId(), GameCommand.arenaRound(match), "defense",
+                player.getId(), player.getName(), result, false));
+    }
+}
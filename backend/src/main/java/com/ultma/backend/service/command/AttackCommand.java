@@ -0,0 +1,124 @@
+package com.ultma.backend.service.command;
+
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.GameRules;
+import com.ultma.backend.service.event.DuelResolvedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Attacks another player with a known attack spell; defenses of the target may block it
+public class AttackCommand implements GameCommand<DuelResult> {
+
+    private final String attackerId;
+    private final String targetId;
+    private final String spellName;
+    private Player target;
+    private int spellCost;
+
+    public AttackCommand(String attackerId, String targetId, String spellName) {
+        this.attackerId = attackerId;
+        this.targetId = targetId;
+        this.spellName = spellName;
+    }
+
+    @Override
+    public String name() {
+        return "attack";
+    }
+
+    @Override
+    public String playerId() {
+        return attackerId;
+    }
+
+    private DuelResult failed(String message) {
+        return new DuelResult(false, attackerId, targetId, spellName, 0, 0, 0, 0, 0, false, message);
+    }
+
+    @Override
+    public DuelResult validateRequest() {
+        if (attackerId.equals(targetId)) {
+            return failed(null);
+        }
+        if (!"Ataque".equals(GameRules.getSpellType(spellName))) {
+            return failed("Esta magia não é de ataque");
+        }
+        return null;
+    }
+
+    @Override
+    public DuelResult rejected(GameMatch match, String message) {
+        return failed(message);
+    }
+
+    @Override
+    public DuelResult validate(GameMatch match, Player attacker) {
+        target = GameRules.findPlayer(match, targetId);
+        if (target == null) {
+            return failed(null);
+        }
+        if (!attacker.getKnownSpells().contains(spellName)) {
+            return failed("Você não conhece esta magia");
+        }
+        // Attack spells cost 1-2 mana
+        spellCost = GameRules.getSpellCost(spellName);
+        if (attacker.getMana() < spellCost) {
+            return failed("Mana insuficiente para esta magia");
+        }
+        return null;
+    }
+
+    @Override
+    public DuelResult apply(GameMatch match, Player attacker) {
+        attacker.setMana(attacker.getMana() - spellCost);
+
+        int shieldBefore = target.getMagicShield();
+        int lifeBefore = target.getLifeEnergy();
+
+        // Maldição do Vazio drains 3 mana and only hurts a target it leaves without mana
+        if ("Maldição do Vazio".equals(spellName)) {
+            int manaBefore = target.getMana();
+            target.setMana(Math.max(0, target.getMana() - 3));
+            int manaAfter = target.getMana();
+            int damage = (manaAfter == 0 && manaBefore > manaAfter) ? 1 : 0;
+            applyDamage(damage);
+            return new DuelResult(true, attackerId, targetId, spellName, damage,
+                    shieldBefore, target.getMagicShield(), lifeBefore, target.getLifeEnergy(), false, null);
+        }
+
+        String blockingSpell = GameRules.checkBlockingDefense(spellName, target.getActiveDefenses());
+        boolean wasBlocked = blockingSpell != null;
+        int damage = 1;
+        // A defense of the attacker matching the spell doubles the damage
+        if (!wasBlocked && attacker.getActiveDefenses() != null) {
+            damage = GameRules.calculateDamageWithAmplification(spellName, attacker.getActiveDefenses(), damage);
+        }
+        if (!wasBlocked) {
+            applyDamage(damage);
+        }
+        return new DuelResult(true, attackerId, targetId, spellName, wasBlocked ? 0 : damage,
+                shieldBefore, target.getMagicShield(), lifeBefore, target.getLifeEnergy(), wasBlocked, blockingSpell);
+    }
+
+    // Shield first, then life; a target without life is eliminated
+    private void applyDamage(int damage) {
+        if (damage > 0) {
+            if (target.getMagicShield() > 0) {
+                target.setMagicShield(Math.max(0, target.getMagicShield() - damage));
+            } else {
+                target.setLifeEnergy(Math.max(0, target.getLifeEnergy() - damage));
+            }
+        }
+        if (target.getLifeEnergy() <= 0) {
+            target.setEliminated(true);
+        }
+    }
+
+    @Override
+    public void publish(ApplicationEventPublisher publisher, GameMatch match, Player attacker, DuelResult duel) {
+        boolean eliminated = duel.getTargetLifeBefore() > 0 && duel.getTargetLifeAfter() <= 0;
+        publisher.publishEvent(new DuelResolvedEvent(match.getMatchId(), GameCommand.arenaRound(match),
+                attacker.getName(), target.getName(), duel, eliminated, target.getMana()));
+    }
+}
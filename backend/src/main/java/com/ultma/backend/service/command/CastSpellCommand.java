@@ -0,0 +1,88 @@
+package com.ultma.backend.service.command;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.service.GameRules;
+import com.ultma.backend.service.event.SpellCastEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Combines two power words; a new spell also earns a random potion
+public class CastSpellCommand implements GameCommand<SpellResult> {
+
+    private final String playerId;
+    private final String word1Str;
+    private final String word2Str;
+    private GameEnums.PowerWord word1;
+    private GameEnums.PowerWord word2;
+    private SpellResult result;
+    private boolean discovered;
+
+    public CastSpellCommand(String playerId, String word1Str, String word2Str) {
+        this.playerId = playerId;
+        this.word1Str = word1Str;
+        this.word2Str = word2Str;
+    }
+
+    @Override
+    public String name() {
+        return "cast";
+    }
+
+    @Override
+    public String playerId() {
+        return playerId;
+    }
+
+    @Override
+    public SpellResult validateRequest() {
+        try {
+            word1 = GameEnums.PowerWord.valueOf(word1Str.toUpperCase());
+            word2 = GameEnums.PowerWord.valueOf(word2Str.toUpperCase());
+            return null;
+        } catch (IllegalArgumentException e) {
+            return new SpellResult("Invalid Word", "Error", 0, "one of the words does not exist", false);
+        }
+    }
+
+    @Override
+    public SpellResult rejected(GameMatch match, String message) {
+        return new SpellResult("Error", "N/A", 0, message, false);
+    }
+
+    @Override
+    public SpellResult validate(GameMatch match, Player player) {
+        // translate words using the match dictionary
+        GameEnums.Meaning m1 = match.getWordDictionary().get(word1);
+        GameEnums.Meaning m2 = match.getWordDictionary().get(word2);
+        result = GameRules.resolveCombination(m1, m2);
+        if (player.getMana() < result.getManaCost()) {
+            return new SpellResult("Fizzle", "Failure", 0, "not enough mana to cast this spell", false);
+        }
+        return null;
+    }
+
+    @Override
+    public SpellResult apply(GameMatch match, Player player) {
+        player.setMana(player.getMana() - result.getManaCost());
+
+        discovered = result.isSuccess() && !player.getKnownSpells().contains(result.getSpellName());
+        if (discovered) {
+            player.getKnownSpells().add(result.getSpellName());
+
+            // Reward potions for discovering new spells (100% chance for testing - can be reduced later)
+            GameEnums.PotionColor[] colors = GameEnums.PotionColor.values();
+            GameEnums.PotionColor randomPotion = colors[(int)(Math.random() * colors.length)];
+            player.getPotions().add(randomPotion);
+            result.setDescription(result.getDescription() + " | +1 Poção (" + randomPotion.name() + ")");
+        }
+        return result;
+    }
+
+    @Override
+    public void publish(ApplicationEventPublisher publisher, GameMatch match, Player player, SpellResult result) {
+        publisher.publishEvent(new SpellCastEvent(match.getMatchId(), GameCommand.arenaRound(match), "cast",
+                player.getId(), player.getName(), result, discovered));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ultma.backend.service.command;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import org.springframework.context.ApplicationEventPublisher;
+
+// A player action in the arena, run by GameService through the shared stages:
+// validate request → dispatch to the match's partition → load → authorize turn → validate → apply → spend action → save → publish.
+// Each stage may end the action with a result; nothing is saved unless apply runs. A command
+// instance serves one request, so it may keep what validate found for apply.
+public interface GameCommand<R> {
+
+    // Action name for tracing and metrics
+    String name();
+
+    String playerId();
+
+    // Checks that need no game state, before the action is dispatched; a rejection or null
+    default R validateRequest() {
+        return null;
+    }
+
+    // Result for a rejection by the shared stages (no game, unknown player, not their turn, no
+    // actions left); match is null when there is no game
+    R rejected(GameMatch match, String message);
+
+    // Checks against the loaded state, once it is the player's turn; a rejection or null
+    default R validate(GameMatch match, Player player) {
+        return null;
+    }
+
+    // Changes the state; the arena action is spent and the match saved afterwards
+    R apply(GameMatch match, Player player);
+
+    // Action-specific events, once the match is saved
+    default void publish(ApplicationEventPublisher publisher, GameMatch match, Player player, R result) {
+    }
+
+    static int arenaRound(GameMatch match) {
+        return match.getArenaRound() != null ? match.getArenaRound() : 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ultma.backend.service.command;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+
+// Recovers 2 mana, capped at 5 (the starting amount); rejections return the unchanged match
+public class MeditateCommand implements GameCommand<GameMatch> {
+
+    private final String playerId;
+
+    public MeditateCommand(String playerId) {
+        this.playerId = playerId;
+    }
+
+    @Override
+    public String name() {
+        return "meditate";
+    }
+
+    @Override
+    public String playerId() {
+        return playerId;
+    }
+
+    @Override
+    public GameMatch rejected(GameMatch match, String message) {
+        return match;
+    }
+
+    @Override
+    public GameMatch apply(GameMatch match, Player player) {
+        player.setMana(Math.min(5, player.getMana() + 2));
+        return match;
+    }
+}
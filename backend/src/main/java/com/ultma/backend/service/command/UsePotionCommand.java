@@ -0,0 +1,82 @@
+package com.ultma.backend.service.command;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+
+// Drinks a potion from the inventory; its effect depends on the match's potion dictionary.
+// Rejections (including an unknown color) return the unchanged match.
+public class UsePotionCommand implements GameCommand<GameMatch> {
+
+    private final String playerId;
+    private final String potionColorStr;
+    private GameEnums.PotionColor potionColor;
+    private GameEnums.PotionEffect effect;
+
+    public UsePotionCommand(String playerId, String potionColorStr) {
+        this.playerId = playerId;
+        this.potionColorStr = potionColorStr;
+    }
+
+    @Override
+    public String name() {
+        return "use-potion";
+    }
+
+    @Override
+    public String playerId() {
+        return playerId;
+    }
+
+    @Override
+    public GameMatch rejected(GameMatch match, String message) {
+        return match;
+    }
+
+    @Override
+    public GameMatch validate(GameMatch match, Player player) {
+        try {
+            potionColor = GameEnums.PotionColor.valueOf(potionColorStr.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return match; // Invalid potion color
+        }
+        effect = match.getPotionDictionary().get(potionColor);
+        if (!player.getPotions().contains(potionColor) || effect == null) {
+            return match;
+        }
+        return null;
+    }
+
+    @Override
+    public GameMatch apply(GameMatch match, Player player) {
+        switch (effect) {
+            case CURA:
+                player.setLifeEnergy(Math.min(3, player.getLifeEnergy() + 1)); // Max life is 3
+                break;
+            case MANA:
+                player.setMana(player.getMana() + 3); // Recupera 3 pontos de Mana (sem teto na especificação)
+                break;
+            case ESCUDO:
+                player.setMagicShield(player.getMagicShield() + 3); // Aumenta 3 pontos de Escudo Mágico
+                break;
+            case DEBILITANTE:
+                // Remove 3 pontos de Mana do alvo (por enquanto só em si mesmo)
+                // Pode ser estendido para ter alvo no futuro
+                player.setMana(Math.max(0, player.getMana() - 3));
+                break;
+            case CORRUPCAO:
+                // Remove 1 ponto de Energia Vital do alvo (por enquanto só em si mesmo)
+                player.setLifeEnergy(Math.max(0, player.getLifeEnergy() - 1));
+                if (player.getLifeEnergy() <= 0) {
+                    player.setEliminated(true);
+                }
+                break;
+            case ANTI_MAGIA:
+                // Remove 3 pontos de Escudo Mágico do alvo (por enquanto só em si mesmo)
+                player.setMagicShield(Math.max(0, player.getMagicShield() - 3));
+                break;
+        }
+        player.getPotions().remove(potionColor);
+        return match;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ultma.backend.service.event;
+
+import com.ultma.backend.model.DuelResult;
+import lombok.Value;
+
+// Published by GameService after a successful attack has been saved
+@Value
+public class DuelResolvedEvent {
+    String matchId;
+    int arenaRound;
+    String attackerName;
+    String targetName;
+    DuelResult result;
+    boolean targetEliminated;
+    int targetManaAfter;
+}
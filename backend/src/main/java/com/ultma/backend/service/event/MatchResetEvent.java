@@ -0,0 +1,10 @@
+package com.ultma.backend.service.event;
+
+import com.ultma.backend.model.GameMatch;
+import lombok.Value;
+
+// Published by GameService after the saved match was deleted; carries its last state
+@Value
+public class MatchResetEvent {
+    GameMatch match;
+}
@@ -0,0 +1,19 @@
+package com.ultma.backend.service.event;
+
+import com.ultma.backend.model.GameMatch;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+// Published by GameService after every save; listeners must treat the match as read-only.
+// action and playerId name what changed it; both are null for imports, replicas and new side matches.
+@Value
+@AllArgsConstructor
+public class MatchUpdatedEvent {
+    GameMatch match;
+    String action;
+    String playerId;
+
+    public MatchUpdatedEvent(GameMatch match) {
+        this(match, null, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ultma.backend.service.event;
+
+import com.ultma.backend.model.SpellResult;
+import lombok.Value;
+
+// Published by GameService after a word combination or a defense activation has been saved
+@Value
+public class SpellCastEvent {
+    String matchId;
+    int arenaRound;
+    String action; // cast, defense
+    String playerId;
+    String playerName;
+    SpellResult result;
+    boolean discovered; // first time this player got the spell
+}
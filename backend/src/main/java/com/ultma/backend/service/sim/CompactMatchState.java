@@ -0,0 +1,445 @@
+package com.ultma.backend.service.sim;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Struct-of-arrays copy of a GameMatch for simulation and search.
+//
+// Every per-seat number lives in one int[] laid out field by field (data[field * seats + seat]),
+// spells, defenses and glyphs are bitmasks, potions are per-color counters and the secret
+// dictionaries are byte arrays indexed by enum ordinal. Strings (ids, names) are shared, never copied.
+//
+// Conversion is lossless for everything the rules read. Lists that are only ever tested for
+// membership (defenses, glyphs, potions) come back in enum/catalog order; known spells keep
+// their discovery order.
+public final class CompactMatchState {
+
+    // Per-seat fields
+    public static final int LIFE = 0;
+    public static final int SHIELD = 1;
+    public static final int MANA = 2;
+    public static final int ACTIONS = 3;
+    public static final int FLAGS = 4;
+    public static final int POSITION = 5;
+    public static final int SPELLS = 6;
+    public static final int DEFENSES = 7;
+    public static final int GLYPHS = 8;
+    public static final int POTIONS = 9; // one counter per PotionColor ordinal
+
+    public static final int FLAG_ELIMINATED = 1;
+    public static final int FLAG_BOT = 2;
+
+    // Stand-in for null Integer fields
+    public static final int NULL = -1;
+
+    private static final int POTION_COLORS = GameEnums.PotionColor.values().length;
+    private static final int SEAT_FIELDS = POTIONS + POTION_COLORS;
+
+    // Match-level slots, stored after the per-seat block
+    private static final int TURN = 0;
+    private static final int ROUND = 1;
+    private static final int ARENA = 2;
+    private static final int USED_GLYPHS = 3;
+    private static final int MATCH_FIELDS = 4;
+
+    private final int seats;
+    private final int matchBase;
+    private final int[] data;
+    private final byte[] spellOrder;
+    private final byte[] wordDictionary;
+    private final byte[] potionDictionary;
+    private String matchId;
+    private long version;
+    private final String[] playerIds;
+    private final String[] playerNames;
+
+    // Undo journal of (index, old value) pairs, recorded while a mark is open. Indexes of
+    // spellOrder slots are stored complemented (~slot) to tell them from data indexes.
+    private int[] journal = new int[64];
+    private int journalSize;
+    private int openMarks;
+
+    public CompactMatchState(int seats) {
+        this.seats = seats;
+        this.matchBase = SEAT_FIELDS * seats;
+        this.data = new int[matchBase + MATCH_FIELDS];
+        this.spellOrder = new byte[seats * SpellCatalog.count()];
+        this.wordDictionary = new byte[GameEnums.PowerWord.values().length];
+        this.potionDictionary = new byte[POTION_COLORS];
+        this.playerIds = new String[seats];
+        this.playerNames = new String[seats];
+    }
+
+    public static CompactMatchState fromMatch(GameMatch match) {
+        List<Player> players = match.getPlayers();
+        CompactMatchState state = new CompactMatchState(players.size());
+        state.matchId = match.getMatchId();
+        state.version = match.getVersion();
+
+        for (int seat = 0; seat < players.size(); seat++) {
+            Player p = players.get(seat);
+            state.playerIds[seat] = p.getId();
+            state.playerNames[seat] = p.getName();
+            state.put(LIFE, seat, p.getLifeEnergy());
+            state.put(SHIELD, seat, p.getMagicShield());
+            state.put(MANA, seat, p.getMana());
+            state.put(ACTIONS, seat, p.getActionsRemaining() != null ? p.getActionsRemaining() : NULL);
+            state.put(POSITION, seat, p.getArenaPosition() != null ? p.getArenaPosition() : NULL);
+            state.put(FLAGS, seat, (p.isEliminated() ? FLAG_ELIMINATED : 0) | (p.isBot() ? FLAG_BOT : 0));
+
+            if (p.getKnownSpells() != null) {
+                for (String spell : p.getKnownSpells()) {
+                    state.learnSpell(seat, spellIndex(spell));
+                }
+            }
+            int defenses = 0;
+            if (p.getActiveDefenses() != null) {
+                for (String defense : p.getActiveDefenses()) {
+                    defenses |= 1 << spellIndex(defense);
+                }
+            }
+            state.put(DEFENSES, seat, defenses);
+            int glyphs = 0;
+            if (p.getGlifos() != null) {
+                for (GameEnums.Glifo glifo : p.getGlifos()) {
+                    glyphs |= 1 << glifo.ordinal();
+                }
+            }
+            state.put(GLYPHS, seat, glyphs);
+            if (p.getPotions() != null) {
+                for (GameEnums.PotionColor color : p.getPotions()) {
+                    state.data[(POTIONS + color.ordinal()) * state.seats + seat]++;
+                }
+            }
+        }
+
+        state.data[state.matchBase + TURN] = match.getCurrentTurnPlayerIndex() != null ? match.getCurrentTurnPlayerIndex() : NULL;
+        state.data[state.matchBase + ROUND] = match.getArenaRound() != null ? match.getArenaRound() : NULL;
+        state.data[state.matchBase + ARENA] = match.isArenaPhase() ? 1 : 0;
+        int usedGlyphs = 0;
+        if (match.getGlifosUsadosNoTabuleiro() != null) {
+            for (GameEnums.Glifo glifo : match.getGlifosUsadosNoTabuleiro()) {
+                usedGlyphs |= 1 << glifo.ordinal();
+            }
+        }
+        state.data[state.matchBase + USED_GLYPHS] = usedGlyphs;
+
+        // NULL entries mark a missing dictionary (or missing keys)
+        Arrays.fill(state.wordDictionary, (byte) NULL);
+        if (match.getWordDictionary() != null) {
+            match.getWordDictionary().forEach((word, meaning) ->
+                    state.wordDictionary[word.ordinal()] = (byte) meaning.ordinal());
+        }
+        Arrays.fill(state.potionDictionary, (byte) NULL);
+        if (match.getPotionDictionary() != null) {
+            match.getPotionDictionary().forEach((color, effect) ->
+                    state.potionDictionary[color.ordinal()] = (byte) effect.ordinal());
+        }
+        return state;
+    }
+
+    public GameMatch toMatch() {
+        GameMatch match = new GameMatch();
+        match.setMatchId(matchId);
+        match.setVersion(version);
+        for (int seat = 0; seat < seats; seat++) {
+            Player p = new Player();
+            p.setId(playerIds[seat]);
+            p.setName(playerNames[seat]);
+            p.setLifeEnergy(life(seat));
+            p.setMagicShield(shield(seat));
+            p.setMana(mana(seat));
+            p.setEliminated(isEliminated(seat));
+            p.setBot((get(FLAGS, seat) & FLAG_BOT) != 0);
+            p.setActionsRemaining(get(ACTIONS, seat) != NULL ? get(ACTIONS, seat) : null);
+            p.setArenaPosition(get(POSITION, seat) != NULL ? get(POSITION, seat) : null);
+
+            List<String> spells = new ArrayList<>();
+            int known = Integer.bitCount(get(SPELLS, seat));
+            for (int k = 0; k < known; k++) {
+                spells.add(SpellCatalog.name(spellOrder[seat * SpellCatalog.count() + k]));
+            }
+            p.setKnownSpells(spells);
+
+            List<String> defenses = new ArrayList<>();
+            for (int spell = 0; spell < SpellCatalog.count(); spell++) {
+                if (hasDefense(seat, spell)) {
+                    defenses.add(SpellCatalog.name(spell));
+                }
+            }
+            p.setActiveDefenses(defenses);
+
+            List<GameEnums.Glifo> glyphs = new ArrayList<>();
+            for (GameEnums.Glifo glifo : GameEnums.Glifo.values()) {
+                if ((get(GLYPHS, seat) & (1 << glifo.ordinal())) != 0) {
+                    glyphs.add(glifo);
+                }
+            }
+            p.setGlifos(glyphs);
+
+            List<GameEnums.PotionColor> potions = new ArrayList<>();
+            for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+                for (int n = potions(seat, color.ordinal()); n > 0; n--) {
+                    potions.add(color);
+                }
+            }
+            p.setPotions(potions);
+            match.getPlayers().add(p);
+        }
+
+        match.setCurrentTurnPlayerIndex(data[matchBase + TURN] != NULL ? data[matchBase + TURN] : null);
+        match.setArenaRound(data[matchBase + ROUND] != NULL ? data[matchBase + ROUND] : null);
+        match.setArenaPhase(data[matchBase + ARENA] != 0);
+        List<GameEnums.Glifo> usedGlyphs = new ArrayList<>();
+        for (GameEnums.Glifo glifo : GameEnums.Glifo.values()) {
+            if ((data[matchBase + USED_GLYPHS] & (1 << glifo.ordinal())) != 0) {
+                usedGlyphs.add(glifo);
+            }
+        }
+        match.setGlifosUsadosNoTabuleiro(usedGlyphs);
+        match.setWordDictionary(toWordMap());
+        match.setPotionDictionary(toPotionMap());
+        return match;
+    }
+
+    private Map<GameEnums.PowerWord, GameEnums.Meaning> toWordMap() {
+        Map<GameEnums.PowerWord, GameEnums.Meaning> map = new EnumMap<>(GameEnums.PowerWord.class);
+        for (GameEnums.PowerWord word : GameEnums.PowerWord.values()) {
+            if (wordDictionary[word.ordinal()] != NULL) {
+                map.put(word, GameEnums.Meaning.values()[wordDictionary[word.ordinal()]]);
+            }
+        }
+        return map.isEmpty() ? null : map;
+    }
+
+    private Map<GameEnums.PotionColor, GameEnums.PotionEffect> toPotionMap() {
+        Map<GameEnums.PotionColor, GameEnums.PotionEffect> map = new EnumMap<>(GameEnums.PotionColor.class);
+        for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+            if (potionDictionary[color.ordinal()] != NULL) {
+                map.put(color, GameEnums.PotionEffect.values()[potionDictionary[color.ordinal()]]);
+            }
+        }
+        return map.isEmpty() ? null : map;
+    }
+
+    private static int spellIndex(String name) {
+        int spell = SpellCatalog.indexOf(name);
+        if (spell == SpellCatalog.NONE) {
+            throw new IllegalArgumentException("Magia desconhecida: " + name);
+        }
+        return spell;
+    }
+
+    // ---- copy and undo ----
+
+    public CompactMatchState copy() {
+        CompactMatchState copy = new CompactMatchState(seats);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    // Overwrites this state with another of the same size, without allocating
+    public void copyFrom(CompactMatchState other) {
+        if (other.seats != seats) {
+            throw new IllegalArgumentException("Número de jogadores diferente");
+        }
+        System.arraycopy(other.data, 0, data, 0, data.length);
+        System.arraycopy(other.spellOrder, 0, spellOrder, 0, spellOrder.length);
+        System.arraycopy(other.wordDictionary, 0, wordDictionary, 0, wordDictionary.length);
+        System.arraycopy(other.potionDictionary, 0, potionDictionary, 0, potionDictionary.length);
+        System.arraycopy(other.playerIds, 0, playerIds, 0, seats);
+        System.arraycopy(other.playerNames, 0, playerNames, 0, seats);
+        matchId = other.matchId;
+        version = other.version;
+        journalSize = 0;
+        openMarks = 0;
+    }
+
+    // Starts (or nests) recording changes; pass the returned mark to undo()
+    public int mark() {
+        openMarks++;
+        return journalSize;
+    }
+
+    // Rolls every field back to its value at the given mark and closes that mark; recording goes
+    // on while an outer mark is still open
+    public void undo(int mark) {
+        while (journalSize > mark) {
+            journalSize -= 2;
+            int index = journal[journalSize];
+            if (index >= 0) {
+                data[index] = journal[journalSize + 1];
+            } else {
+                spellOrder[~index] = (byte) journal[journalSize + 1];
+            }
+        }
+        openMarks--;
+    }
+
+    // Keeps all changes made since the first mark and stops recording
+    public void commit() {
+        journalSize = 0;
+        openMarks = 0;
+    }
+
+    private void put(int field, int seat, int value) {
+        data[field * seats + seat] = value;
+    }
+
+    private void write(int index, int value) {
+        if (openMarks > 0) {
+            record(index, data[index]);
+        }
+        data[index] = value;
+    }
+
+    private void writeOrder(int slot, int spell) {
+        if (openMarks > 0) {
+            record(~slot, spellOrder[slot]);
+        }
+        spellOrder[slot] = (byte) spell;
+    }
+
+    private void record(int index, int old) {
+        if (journalSize == journal.length) {
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        }
+        journal[journalSize++] = index;
+        journal[journalSize++] = old;
+    }
+
+    // ---- accessors ----
+
+    public int seats() {
+        return seats;
+    }
+
+    public String matchId() {
+        return matchId;
+    }
+
+    // Version of the match this state was taken from; simulated moves leave it unchanged
+    public long version() {
+        return version;
+    }
+
+    public String playerId(int seat) {
+        return playerIds[seat];
+    }
+
+    public int get(int field, int seat) {
+        return data[field * seats + seat];
+    }
+
+    public void set(int field, int seat, int value) {
+        write(field * seats + seat, value);
+    }
+
+    public int life(int seat) {
+        return data[LIFE * seats + seat];
+    }
+
+    public int shield(int seat) {
+        return data[SHIELD * seats + seat];
+    }
+
+    public int mana(int seat) {
+        return data[MANA * seats + seat];
+    }
+
+    // NULL when the player never entered an arena
+    public int actions(int seat) {
+        return data[ACTIONS * seats + seat];
+    }
+
+    public boolean isEliminated(int seat) {
+        return (data[FLAGS * seats + seat] & FLAG_ELIMINATED) != 0;
+    }
+
+    public void setEliminated(int seat) {
+        set(FLAGS, seat, get(FLAGS, seat) | FLAG_ELIMINATED);
+    }
+
+    public boolean knowsSpell(int seat, int spell) {
+        return (data[SPELLS * seats + seat] & (1 << spell)) != 0;
+    }
+
+    public int knownSpells(int seat) {
+        return data[SPELLS * seats + seat];
+    }
+
+    // Adds a spell to the bitmask and to the discovery order
+    public void learnSpell(int seat, int spell) {
+        int mask = get(SPELLS, seat);
+        if ((mask & (1 << spell)) != 0) {
+            return;
+        }
+        writeOrder(seat * SpellCatalog.count() + Integer.bitCount(mask), spell);
+        set(SPELLS, seat, mask | (1 << spell));
+    }
+
+    // Replaces the known spells with a mask (discovery order becomes catalog order)
+    public void setKnownSpells(int seat, int mask) {
+        int k = 0;
+        for (int spell = 0; spell < SpellCatalog.count(); spell++) {
+            if ((mask & (1 << spell)) != 0) {
+                writeOrder(seat * SpellCatalog.count() + k++, spell);
+            }
+        }
+        set(SPELLS, seat, mask);
+    }
+
+    public boolean hasDefense(int seat, int spell) {
+        return (data[DEFENSES * seats + seat] & (1 << spell)) != 0;
+    }
+
+    public int potions(int seat, int color) {
+        return data[(POTIONS + color) * seats + seat];
+    }
+
+    public int currentTurn() {
+        return data[matchBase + TURN];
+    }
+
+    public void setCurrentTurn(int seat) {
+        write(matchBase + TURN, seat);
+    }
+
+    public int arenaRound() {
+        return data[matchBase + ROUND];
+    }
+
+    public void setArenaRound(int round) {
+        write(matchBase + ROUND, round);
+    }
+
+    public boolean isArenaPhase() {
+        return data[matchBase + ARENA] != 0;
+    }
+
+    // Meaning ordinal for a power word ordinal, or NULL when unknown
+    public int meaning(int word) {
+        return wordDictionary[word];
+    }
+
+    // Effect ordinal for a potion color ordinal, or NULL when unknown
+    public int potionEffect(int color) {
+        return potionDictionary[color];
+    }
+
+    // Dictionaries are not journaled: they change only when a search samples hidden information
+    public void setMeaning(int word, int meaning) {
+        wordDictionary[word] = (byte) meaning;
+    }
+
+    public void setPotionEffect(int color, int effect) {
+        potionDictionary[color] = (byte) effect;
+    }
+}
@@ -0,0 +1,262 @@
+package com.ultma.backend.service.sim;
+
+import com.ultma.backend.model.GameEnums;
+
+import java.util.Random;
+
+import static com.ultma.backend.service.sim.CompactMatchState.*;
+
+// Arena rules of GameService applied to a CompactMatchState, allocation free.
+// Actions are ints: type in the low 4 bits, then two 8-bit arguments.
+public final class CompactRules {
+
+    public static final int MEDITATE = 0;
+    public static final int END_TURN = 1;
+    public static final int ATTACK = 2;  // a = spell, b = target seat
+    public static final int DEFEND = 3;  // a = spell
+    public static final int POTION = 4;  // a = potion color ordinal
+    public static final int CAST = 5;    // a, b = power word ordinals
+
+    private static final int WORDS = GameEnums.PowerWord.values().length;
+    private static final int COLORS = GameEnums.PotionColor.values().length;
+    private static final GameEnums.PotionEffect[] EFFECTS = GameEnums.PotionEffect.values();
+
+    private CompactRules() {
+    }
+
+    public static int action(int type, int a, int b) {
+        return type | (a << 4) | (b << 12);
+    }
+
+    public static int type(int action) {
+        return action & 0xF;
+    }
+
+    public static int argA(int action) {
+        return (action >>> 4) & 0xFF;
+    }
+
+    public static int argB(int action) {
+        return (action >>> 12) & 0xFF;
+    }
+
+    // Upper bound of legalActions() for a match of this size
+    public static int maxActions(int seats) {
+        return 2 + SpellCatalog.count() * seats + COLORS + WORDS * WORDS;
+    }
+
+    public static boolean isAlive(CompactMatchState s, int seat) {
+        return !s.isEliminated(seat) && s.life(seat) > 0;
+    }
+
+    public static boolean isTerminal(CompactMatchState s) {
+        int alive = 0;
+        for (int seat = 0; seat < s.seats(); seat++) {
+            if (isAlive(s, seat)) {
+                alive++;
+            }
+        }
+        return alive <= 1;
+    }
+
+    // Writes the legal actions of the player to move into out and returns how many there are.
+    // Word combinations are only offered when allowCast is set.
+    public static int legalActions(CompactMatchState s, boolean allowCast, int[] out) {
+        int seat = s.currentTurn();
+        int n = 0;
+        if (s.isEliminated(seat) || s.actions(seat) <= 0) {
+            out[n++] = END_TURN;
+            return n;
+        }
+
+        out[n++] = MEDITATE;
+        out[n++] = END_TURN;
+
+        int mana = s.mana(seat);
+        int known = s.knownSpells(seat);
+        while (known != 0) {
+            int spell = Integer.numberOfTrailingZeros(known);
+            known &= known - 1;
+            int type = SpellCatalog.type(spell);
+            if (type == SpellCatalog.TYPE_ATTACK) {
+                if (mana < SpellCatalog.cost(spell)) {
+                    continue;
+                }
+                for (int target = 0; target < s.seats(); target++) {
+                    if (target != seat && isAlive(s, target)) {
+                        out[n++] = action(ATTACK, spell, target);
+                    }
+                }
+            } else if (type == SpellCatalog.TYPE_DEFENSE) {
+                if (mana >= SpellCatalog.cost(spell) && !s.hasDefense(seat, spell)) {
+                    out[n++] = action(DEFEND, spell, 0);
+                }
+            }
+        }
+
+        for (int color = 0; color < COLORS; color++) {
+            if (s.potions(seat, color) > 0 && s.potionEffect(color) != NULL) {
+                out[n++] = action(POTION, color, 0);
+            }
+        }
+
+        if (allowCast) {
+            for (int w1 = 0; w1 < WORDS; w1++) {
+                for (int w2 = w1 + 1; w2 < WORDS; w2++) {
+                    if (mana >= castCost(s, w1, w2)) {
+                        out[n++] = action(CAST, w1, w2);
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    private static int castCost(CompactMatchState s, int w1, int w2) {
+        int m1 = s.meaning(w1);
+        int m2 = s.meaning(w2);
+        int spell = SpellCatalog.combination(m1, m2);
+        return spell != SpellCatalog.NONE ? SpellCatalog.castCost(spell) : SpellCatalog.failedCastCost(m1, m2);
+    }
+
+    // Applies a legal action for the player to move, mirroring GameService
+    public static void apply(CompactMatchState s, int action, Random random) {
+        int seat = s.currentTurn();
+        int a = argA(action);
+        int b = argB(action);
+        switch (type(action)) {
+            case MEDITATE:
+                s.set(MANA, seat, Math.min(5, s.mana(seat) + 2));
+                break;
+            case END_TURN:
+                s.set(ACTIONS, seat, 0);
+                advanceTurn(s);
+                return;
+            case DEFEND:
+                s.set(MANA, seat, s.mana(seat) - SpellCatalog.cost(a));
+                s.set(DEFENSES, seat, s.get(DEFENSES, seat) | (1 << a));
+                if (a == SpellCatalog.ESCUDO_DE_VACUO) {
+                    s.set(SHIELD, seat, s.shield(seat) + 1);
+                }
+                break;
+            case ATTACK:
+                s.set(MANA, seat, s.mana(seat) - SpellCatalog.cost(a));
+                resolveAttack(s, seat, b, a);
+                break;
+            case POTION:
+                s.set(POTIONS + a, seat, s.potions(seat, a) - 1);
+                applyPotion(s, seat, EFFECTS[s.potionEffect(a)]);
+                break;
+            case CAST:
+                int m1 = s.meaning(a);
+                int m2 = s.meaning(b);
+                int spell = SpellCatalog.combination(m1, m2);
+                if (spell == SpellCatalog.NONE) {
+                    s.set(MANA, seat, s.mana(seat) - SpellCatalog.failedCastCost(m1, m2));
+                } else {
+                    s.set(MANA, seat, s.mana(seat) - SpellCatalog.castCost(spell));
+                    if (!s.knowsSpell(seat, spell)) {
+                        s.learnSpell(seat, spell);
+                        int color = random.nextInt(COLORS);
+                        s.set(POTIONS + color, seat, s.potions(seat, color) + 1);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Ação inválida: " + action);
+        }
+
+        s.set(ACTIONS, seat, s.actions(seat) - 1);
+        if (s.actions(seat) <= 0) {
+            advanceTurn(s);
+        }
+    }
+
+    private static void resolveAttack(CompactMatchState s, int attacker, int target, int spell) {
+        if (spell == SpellCatalog.MALDICAO_DO_VAZIO) {
+            int manaBefore = s.mana(target);
+            s.set(MANA, target, Math.max(0, manaBefore - 3));
+            if (s.mana(target) == 0 && manaBefore > 0) {
+                if (s.shield(target) > 0) {
+                    s.set(SHIELD, target, s.shield(target) - 1);
+                } else {
+                    s.set(LIFE, target, Math.max(0, s.life(target) - 1));
+                }
+            }
+            return;
+        }
+
+        int blocker = SpellCatalog.blockedBy(spell);
+        if (blocker != SpellCatalog.NONE && s.hasDefense(target, blocker)) {
+            return;
+        }
+        // Same as GameService: the amplifying defense is looked up on the attacker
+        int amplifier = SpellCatalog.amplifiedBy(spell);
+        int damage = amplifier != SpellCatalog.NONE && s.hasDefense(attacker, amplifier) ? 2 : 1;
+        if (s.shield(target) > 0) {
+            s.set(SHIELD, target, Math.max(0, s.shield(target) - damage));
+        } else {
+            s.set(LIFE, target, Math.max(0, s.life(target) - damage));
+        }
+        if (s.life(target) <= 0) {
+            s.setEliminated(target);
+        }
+    }
+
+    private static void applyPotion(CompactMatchState s, int seat, GameEnums.PotionEffect effect) {
+        switch (effect) {
+            case CURA:
+                s.set(LIFE, seat, Math.min(3, s.life(seat) + 1));
+                break;
+            case MANA:
+                s.set(MANA, seat, s.mana(seat) + 3);
+                break;
+            case ESCUDO:
+                s.set(SHIELD, seat, s.shield(seat) + 3);
+                break;
+            case DEBILITANTE:
+                s.set(MANA, seat, Math.max(0, s.mana(seat) - 3));
+                break;
+            case CORRUPCAO:
+                s.set(LIFE, seat, Math.max(0, s.life(seat) - 1));
+                if (s.life(seat) <= 0) {
+                    s.setEliminated(seat);
+                }
+                break;
+            case ANTI_MAGIA:
+                s.set(SHIELD, seat, Math.max(0, s.shield(seat) - 3));
+                break;
+        }
+    }
+
+    // Next non-eliminated seat gets 3 actions; wrapping around starts a new round
+    public static void advanceTurn(CompactMatchState s) {
+        int seats = s.seats();
+        int current = s.currentTurn();
+        for (int step = 1; step <= seats; step++) {
+            int seat = (current + step) % seats;
+            if (!s.isEliminated(seat)) {
+                if (seat <= current) {
+                    s.setArenaRound(s.arenaRound() + 1);
+                }
+                s.setCurrentTurn(seat);
+                s.set(ACTIONS, seat, 3);
+                return;
+            }
+        }
+    }
+
+    // Reward in [0, 1] per seat: 1 for the last player standing, otherwise share of remaining health
+    public static void rewards(CompactMatchState s, double[] out) {
+        double total = 0;
+        for (int seat = 0; seat < s.seats(); seat++) {
+            out[seat] = isAlive(s, seat) ? s.life(seat) * 3 + s.shield(seat) + s.mana(seat) * 0.25 : 0;
+            total += out[seat];
+        }
+        if (total > 0) {
+            for (int seat = 0; seat < s.seats(); seat++) {
+                out[seat] /= total;
+            }
+        }
+    }
+}
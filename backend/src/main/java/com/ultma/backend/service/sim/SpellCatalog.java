@@ -0,0 +1,158 @@
+package com.ultma.backend.service.sim;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.service.GameRules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Integer-indexed view of GameRules, built once from the string rules so both stay in sync.
+// Spell indexes fit in an int bitmask (bit i = spell i).
+public final class SpellCatalog {
+
+    public static final int NONE = -1;
+
+    public static final int TYPE_ATTACK = 0;
+    public static final int TYPE_DEFENSE = 1;
+    public static final int TYPE_UTILITY = 2;
+
+    private static final int MEANINGS = GameEnums.Meaning.values().length;
+
+    private static final String[] NAMES;
+    private static final Map<String, Integer> INDEX = new HashMap<>();
+    private static final int[] TYPES;
+    private static final int[] COSTS;
+    private static final int[] CAST_COSTS;
+    private static final int[] BLOCKED_BY;
+    private static final int[] AMPLIFIED_BY;
+    private static final int[] COMBINATIONS = new int[MEANINGS * MEANINGS];
+    private static final int[] FAILED_CAST_COSTS = new int[MEANINGS * MEANINGS];
+
+    public static final int STARTING_MASK;
+    public static final int MALDICAO_DO_VAZIO;
+    public static final int ESCUDO_DE_VACUO;
+
+    static {
+        GameEnums.Meaning[] meanings = GameEnums.Meaning.values();
+        List<String> names = new ArrayList<>(GameRules.STARTING_SPELLS);
+        Map<String, Integer> castCosts = new HashMap<>();
+        for (GameEnums.Meaning m1 : meanings) {
+            for (GameEnums.Meaning m2 : meanings) {
+                SpellResult result = GameRules.resolveCombination(m1, m2);
+                if (result.isSuccess()) {
+                    if (!names.contains(result.getSpellName())) {
+                        names.add(result.getSpellName());
+                    }
+                    castCosts.put(result.getSpellName(), result.getManaCost());
+                } else {
+                    FAILED_CAST_COSTS[m1.ordinal() * MEANINGS + m2.ordinal()] = result.getManaCost();
+                }
+            }
+        }
+
+        NAMES = names.toArray(new String[0]);
+        TYPES = new int[NAMES.length];
+        COSTS = new int[NAMES.length];
+        CAST_COSTS = new int[NAMES.length];
+        BLOCKED_BY = new int[NAMES.length];
+        AMPLIFIED_BY = new int[NAMES.length];
+        for (int i = 0; i < NAMES.length; i++) {
+            INDEX.put(NAMES[i], i);
+        }
+
+        for (int i = 0; i < NAMES.length; i++) {
+            String type = GameRules.getSpellType(NAMES[i]);
+            TYPES[i] = "Ataque".equals(type) ? TYPE_ATTACK : "Defesa".equals(type) ? TYPE_DEFENSE : TYPE_UTILITY;
+            COSTS[i] = TYPES[i] == TYPE_DEFENSE ? GameRules.getDefenseCost(NAMES[i]) : GameRules.getSpellCost(NAMES[i]);
+            CAST_COSTS[i] = castCosts.getOrDefault(NAMES[i], 0);
+            BLOCKED_BY[i] = NONE;
+            AMPLIFIED_BY[i] = NONE;
+        }
+
+        // Probe the defense rules one defense at a time
+        for (int attack = 0; attack < NAMES.length; attack++) {
+            if (TYPES[attack] != TYPE_ATTACK) {
+                continue;
+            }
+            for (int defense = 0; defense < NAMES.length; defense++) {
+                if (TYPES[defense] != TYPE_DEFENSE) {
+                    continue;
+                }
+                List<String> single = List.of(NAMES[defense]);
+                if (GameRules.checkBlockingDefense(NAMES[attack], single) != null) {
+                    BLOCKED_BY[attack] = defense;
+                }
+                if (GameRules.calculateDamageWithAmplification(NAMES[attack], single, 1) > 1) {
+                    AMPLIFIED_BY[attack] = defense;
+                }
+            }
+        }
+
+        for (GameEnums.Meaning m1 : meanings) {
+            for (GameEnums.Meaning m2 : meanings) {
+                SpellResult result = GameRules.resolveCombination(m1, m2);
+                COMBINATIONS[m1.ordinal() * MEANINGS + m2.ordinal()] =
+                        result.isSuccess() ? INDEX.get(result.getSpellName()) : NONE;
+            }
+        }
+
+        int startingMask = 0;
+        for (String spell : GameRules.STARTING_SPELLS) {
+            startingMask |= 1 << INDEX.get(spell);
+        }
+        STARTING_MASK = startingMask;
+        MALDICAO_DO_VAZIO = INDEX.get("Maldição do Vazio");
+        ESCUDO_DE_VACUO = INDEX.get("Escudo de Vácuo");
+    }
+
+    private SpellCatalog() {
+    }
+
+    public static int count() {
+        return NAMES.length;
+    }
+
+    public static String name(int spell) {
+        return NAMES[spell];
+    }
+
+    // Spell index for a display name, or NONE when the name is not a spell
+    public static int indexOf(String name) {
+        Integer index = INDEX.get(name);
+        return index != null ? index : NONE;
+    }
+
+    public static int type(int spell) {
+        return TYPES[spell];
+    }
+
+    // Mana to use a known spell (attack or defense activation)
+    public static int cost(int spell) {
+        return COSTS[spell];
+    }
+
+    // Mana to discover the spell by combining two words
+    public static int castCost(int spell) {
+        return CAST_COSTS[spell];
+    }
+
+    public static int blockedBy(int attack) {
+        return BLOCKED_BY[attack];
+    }
+
+    public static int amplifiedBy(int attack) {
+        return AMPLIFIED_BY[attack];
+    }
+
+    // Spell produced by two meanings (ordinals), or NONE when the combination fails
+    public static int combination(int meaning1, int meaning2) {
+        return COMBINATIONS[meaning1 * MEANINGS + meaning2];
+    }
+
+    public static int failedCastCost(int meaning1, int meaning2) {
+        return FAILED_CAST_COSTS[meaning1 * MEANINGS + meaning2];
+    }
+}
@@ -0,0 +1,201 @@
+package com.ultma.backend.service.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Hierarchical timing wheel (Varghese & Lauck): level 0 has one bucket per tick, each higher
+// level covers a whole revolution of the level below per bucket. Scheduling and cancelling are
+// O(1); a tick only touches one bucket per level that wraps, so the cost does not grow with the
+// number of pending timeouts. Timeouts fire at tick granularity, never early.
+//
+// One daemon thread drives the clock; expired tasks run on the given executor.
+public class HierarchicalTimingWheel implements AutoCloseable {
+
+    public final class Timeout {
+        private final long expiryTick;
+        private final Runnable task;
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(long expiryTick, Runnable task) {
+            this.expiryTick = expiryTick;
+            this.task = task;
+        }
+
+        // Returns false when the timeout already fired or was cancelled
+        public boolean cancel() {
+            synchronized (HierarchicalTimingWheel.this) {
+                if (bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                pending--;
+                return true;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        // Detaches and returns the whole list
+        Timeout drain() {
+            Timeout first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Bucket[][] levels;
+    private final long startNanos;
+    private final Executor executor;
+    private final Thread ticker;
+    private long currentTick;
+    private int pending;
+    private volatile boolean running = true;
+
+    // wheelSize is rounded up to a power of two; levels * log2(wheelSize) must stay below 63
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, Executor executor) {
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(2, wheelSize) - 1);
+        this.mask = (1 << bits) - 1;
+        this.levels = new Bucket[levelCount][1 << bits];
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::run, "timing-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    public Timeout schedule(long delayMillis, Runnable task) {
+        // Round the wall-clock deadline up to a tick boundary; the clock may lag, never lead
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delayMillis) * 1_000_000L;
+        long expiryTick = (deadline + tickNanos - 1) / tickNanos;
+        synchronized (this) {
+            Timeout timeout = new Timeout(Math.max(expiryTick, currentTick + 1), task);
+            place(timeout);
+            pending++;
+            return timeout;
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending;
+    }
+
+    // Puts the timeout in the lowest level whose span covers its delay; false when already due
+    private boolean place(Timeout timeout) {
+        long delta = timeout.expiryTick - currentTick;
+        if (delta <= 0) {
+            return false;
+        }
+        int level = 0;
+        while (level < levels.length - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((timeout.expiryTick >>> (bits * level)) & mask);
+        levels[level][index].add(timeout);
+        return true;
+    }
+
+    private synchronized List<Runnable> tick() {
+        currentTick++;
+
+        // Cascade from the highest wrapping level down so re-placed timeouts land in the right bucket
+        int wrapped = 0;
+        while (wrapped < levels.length - 1 && (currentTick & ((1L << (bits * (wrapped + 1))) - 1)) == 0) {
+            wrapped++;
+        }
+        for (int level = wrapped; level >= 1; level--) {
+            int index = (int) ((currentTick >>> (bits * level)) & mask);
+            Timeout timeout = levels[level][index].drain();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.bucket = null;
+                if (!place(timeout)) {
+                    levels[0][(int) (currentTick & mask)].add(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+        List<Runnable> expired = new ArrayList<>();
+        Timeout timeout = levels[0][(int) (currentTick & mask)].drain();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            expired.add(timeout.task);
+            pending--;
+            timeout = next;
+        }
+        return expired;
+    }
+
+    private void run() {
+        while (running) {
+            long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+            long behind;
+            synchronized (this) {
+                behind = targetTick - currentTick;
+            }
+            for (long i = 0; i < behind; i++) {
+                for (Runnable task : tick()) {
+                    executor.execute(task);
+                }
+            }
+            long sleepNanos = startNanos + (targetTick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+    }
+}
@@ -1,11 +1,28 @@
 package com.ultma.backend;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class UltMaBackendApplicationTests {
 
+	@TempDir
+	static Path directory;
+
+	// Everything the server writes goes to a scratch directory, not the working directory
+	@DynamicPropertySource
+	static void files(DynamicPropertyRegistry registry) {
+		registry.add("ultma.game.file", () -> directory.resolve("gamestate.json").toString());
+		registry.add("ultma.stats.file", () -> directory.resolve("playerstats.json").toString());
+		registry.add("ultma.archive.directory", () -> directory.resolve("archive").toString());
+		registry.add("ultma.matches.directory", () -> directory.resolve("matches").toString());
+	}
+
 	@Test
 	void contextLoads() {
 	}
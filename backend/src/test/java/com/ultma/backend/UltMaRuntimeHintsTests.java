@@ -0,0 +1,30 @@
+package com.ultma.backend;
+
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.SpellResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UltMaRuntimeHintsTests {
+
+	@Test
+	void jsonModelsAreRegisteredForReflection() throws Exception {
+		RuntimeHints hints = new RuntimeHints();
+		new UltMaRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		for (Class<?> type : new Class<?>[] { GameMatch.class, Player.class, SpellResult.class, DuelResult.class }) {
+			assertThat(RuntimeHintsPredicates.reflection().onType(type)).accepts(hints);
+		}
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(GameMatch.class.getMethod("setWordDictionary", Map.class))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(GameEnums.PotionEffect.class)).accepts(hints);
+	}
+
+}
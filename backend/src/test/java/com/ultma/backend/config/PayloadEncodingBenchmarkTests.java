@@ -0,0 +1,128 @@
+package com.ultma.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bytes per poll and encode/decode cost of the GameMatch representations; mvn -Pbenchmark test
+@Tag("benchmark")
+class PayloadEncodingBenchmarkTests {
+
+	private static final int WARMUP = 2_000;
+	private static final int ITERATIONS = 10_000;
+
+	private GameMatch arenaMatch() {
+		GameMatch match = new GameMatch();
+		Map<GameEnums.PowerWord, GameEnums.Meaning> words = new EnumMap<>(GameEnums.PowerWord.class);
+		for (GameEnums.PowerWord word : GameEnums.PowerWord.values()) {
+			words.put(word, GameEnums.Meaning.values()[word.ordinal()]);
+		}
+		match.setWordDictionary(words);
+		Map<GameEnums.PotionColor, GameEnums.PotionEffect> potions = new EnumMap<>(GameEnums.PotionColor.class);
+		for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+			potions.put(color, GameEnums.PotionEffect.values()[color.ordinal()]);
+		}
+		match.setPotionDictionary(potions);
+		for (String name : List.of("Ana", "Bruno", "Carla", "Diego")) {
+			Player player = new Player(name);
+			player.getKnownSpells().addAll(List.of("Bola de Fogo", "Muro de Água", "Lança de Gelo", "Maldição do Vazio"));
+			player.getActiveDefenses().addAll(List.of("Proteção Arcana", "Muro de Água"));
+			player.getPotions().addAll(List.of(GameEnums.PotionColor.AZUL, GameEnums.PotionColor.ROSA));
+			player.getGlifos().add(GameEnums.Glifo.values()[0]);
+			player.setArenaPosition(match.getPlayers().size());
+			player.setActionsRemaining(3);
+			match.getPlayers().add(player);
+		}
+		match.setArenaPhase(true);
+		match.setArenaRound(3);
+		return match;
+	}
+
+	private interface Codec {
+		byte[] encode(GameMatch match) throws IOException;
+
+		GameMatch decode(byte[] bytes) throws IOException;
+	}
+
+	private static Codec jackson(ObjectMapper mapper) {
+		return new Codec() {
+			public byte[] encode(GameMatch match) throws IOException {
+				return mapper.writeValueAsBytes(match);
+			}
+
+			public GameMatch decode(byte[] bytes) throws IOException {
+				return mapper.readValue(bytes, GameMatch.class);
+			}
+		};
+	}
+
+	private static Codec gzip(Codec codec) {
+		return new Codec() {
+			public byte[] encode(GameMatch match) throws IOException {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+					gzip.write(codec.encode(match));
+				}
+				return out.toByteArray();
+			}
+
+			public GameMatch decode(byte[] bytes) throws IOException {
+				try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+					return codec.decode(gzip.readAllBytes());
+				}
+			}
+		};
+	}
+
+	private long nanosPerOp(Codec codec, GameMatch match, int iterations) throws IOException {
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			codec.decode(codec.encode(match));
+		}
+		return (System.nanoTime() - start) / iterations;
+	}
+
+	@Test
+	void binaryEncodingsShrinkThePoll() throws IOException {
+		GameMatch match = arenaMatch();
+		Map<String, Codec> codecs = new LinkedHashMap<>();
+		codecs.put("json", jackson(new ObjectMapper()));
+		codecs.put("json+gzip", gzip(jackson(new ObjectMapper())));
+		codecs.put("cbor", jackson(new CBORMapper()));
+		codecs.put("cbor+gzip", gzip(jackson(new CBORMapper())));
+		codecs.put("smile", jackson(ContentNegotiationConfig.smileObjectMapper()));
+		codecs.put("smile+gzip", gzip(jackson(ContentNegotiationConfig.smileObjectMapper())));
+
+		Map<String, Integer> sizes = new LinkedHashMap<>();
+		for (Map.Entry<String, Codec> entry : codecs.entrySet()) {
+			Codec codec = entry.getValue();
+			byte[] bytes = codec.encode(match);
+			assertThat(codec.decode(bytes)).isEqualTo(match);
+			nanosPerOp(codec, match, WARMUP);
+			long nanos = nanosPerOp(codec, match, ITERATIONS);
+			sizes.put(entry.getKey(), bytes.length);
+			System.out.printf("%-11s %6d bytes %5.1f%%  encode+decode %7d ns%n", entry.getKey(), bytes.length,
+					100.0 * bytes.length / sizes.get("json"), nanos);
+		}
+
+		assertThat(sizes.get("smile")).isLessThan(sizes.get("cbor")).isLessThan(sizes.get("json"));
+		assertThat(sizes.get("json+gzip")).isLessThan(sizes.get("json") / 2);
+	}
+
+}
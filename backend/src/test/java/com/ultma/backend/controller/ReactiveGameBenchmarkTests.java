@@ -0,0 +1,275 @@
+package com.ultma.backend.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// MVC polling against the reactive event stream under the same load: WATCHERS clients follow the
+// main game while one player passes the turn ROUNDS times. Measures how long a watcher takes to
+// see each new state, the round trip of the action itself and how many requests the watchers
+// cost, with far fewer servlet threads than streams. mvn -Pbenchmark test
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ultma.bot.enabled=false",
+		"ultma.turn-timer.enabled=false",
+		"server.tomcat.threads.max=" + ReactiveGameBenchmarkTests.SERVER_THREADS
+})
+class ReactiveGameBenchmarkTests {
+
+	static final int SERVER_THREADS = 16;
+	private static final int WATCHERS = 200;
+	private static final int ROUNDS = 40;
+	private static final long ACTION_PAUSE_MS = 100;
+	private static final long POLL_INTERVAL_MS = 250; // what a polling client does today
+
+	private static final Pattern VERSION = Pattern.compile("\"version\":(\\d+)");
+	private static final Pattern CURRENT_PLAYER = Pattern.compile("\"currentTurnPlayerIndex\":(\\d+)");
+	private static final Pattern PLAYER_TOKEN = Pattern.compile("\"playerToken\":\"([^\"]+)\"");
+
+	@TempDir
+	static Path directory;
+
+	@DynamicPropertySource
+	static void files(DynamicPropertyRegistry registry) {
+		registry.add("ultma.game.file", () -> directory.resolve("gamestate.json").toString());
+		registry.add("ultma.stats.file", () -> directory.resolve("playerstats.json").toString());
+		registry.add("ultma.archive.directory", () -> directory.resolve("archive").toString());
+		registry.add("ultma.matches.directory", () -> directory.resolve("matches").toString());
+	}
+
+	@LocalServerPort
+	private int port;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private final AtomicLong pollRequests = new AtomicLong();
+	private final AtomicLong streamRequests = new AtomicLong();
+
+	// Increasing versions a watcher has seen, with the time it first saw each
+	private static final class Watcher {
+		final long[] versions = new long[4096];
+		final long[] seenAt = new long[4096];
+		int count;
+		long highest = -1;
+
+		synchronized void saw(long version) {
+			if (version > highest && count < versions.length) {
+				highest = version;
+				versions[count] = version;
+				seenAt[count] = System.nanoTime();
+				count++;
+			}
+		}
+
+		synchronized long firstSeen(long version) {
+			for (int i = 0; i < count; i++) {
+				if (versions[i] >= version) {
+					return seenAt[i];
+				}
+			}
+			return -1;
+		}
+	}
+
+	private static final class Result {
+		final long[] updateMillis;
+		final long[] actionMillis;
+		final long watcherRequests;
+
+		Result(long[] updateMillis, long[] actionMillis, long watcherRequests) {
+			this.updateMillis = updateMillis;
+			this.actionMillis = actionMillis;
+			this.watcherRequests = watcherRequests;
+		}
+	}
+
+	@AfterEach
+	void resetGame() throws Exception {
+		send("DELETE", "/api/game/reset");
+	}
+
+	@Test
+	void pollingAgainstStreaming() throws Exception {
+		Result polling = run("/api/game", this::poll);
+		Result streaming = run("/api/reactive/game", this::stream);
+
+		System.out.printf("%d watchers, %d actions, %d servlet threads%n", WATCHERS, ROUNDS, SERVER_THREADS);
+		report("mvc polling", polling);
+		report("reactive stream", streaming);
+
+		assertThat(polling.updateMillis).doesNotContain(-1L);
+		assertThat(streaming.updateMillis).doesNotContain(-1L);
+		assertThat(streaming.watcherRequests).isEqualTo(WATCHERS);
+	}
+
+	private interface WatcherStarter {
+		AutoCloseable start(List<Watcher> watchers) throws Exception;
+	}
+
+	private Result run(String api, WatcherStarter starter) throws Exception {
+		send("DELETE", "/api/game/reset");
+		// Seats follow the join order, and only a join hands out the seat's token
+		List<String> playerTokens = new ArrayList<>();
+		playerTokens.add(find(PLAYER_TOKEN, send("POST", "/api/game/join?playerName=Ana")));
+		playerTokens.add(find(PLAYER_TOKEN, send("POST", "/api/game/join?playerName=Bia")));
+		String state = send("GET", "/api/game");
+
+		List<Watcher> watchers = new ArrayList<>();
+		for (int i = 0; i < WATCHERS; i++) {
+			watchers.add(new Watcher());
+		}
+		long[] actedVersion = new long[ROUNDS];
+		long[] actedAt = new long[ROUNDS];
+		long[] actionMillis = new long[ROUNDS];
+		try (AutoCloseable running = starter.start(watchers)) {
+			for (int round = 0; round < ROUNDS; round++) {
+				Thread.sleep(ACTION_PAUSE_MS);
+				int current = Integer.parseInt(find(CURRENT_PLAYER, state));
+				long start = System.nanoTime();
+				state = send("POST", api + "/end-turn?playerToken=" + playerTokens.get(current));
+				actedAt[round] = System.nanoTime();
+				actionMillis[round] = (actedAt[round] - start) / 1_000_000;
+				actedVersion[round] = Long.parseLong(find(VERSION, state));
+			}
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (System.nanoTime() < deadline
+					&& watchers.stream().anyMatch(watcher -> watcher.firstSeen(actedVersion[ROUNDS - 1]) < 0)) {
+				Thread.sleep(POLL_INTERVAL_MS);
+			}
+		}
+
+		long[] updateMillis = new long[ROUNDS * WATCHERS];
+		int n = 0;
+		for (Watcher watcher : watchers) {
+			for (int round = 0; round < ROUNDS; round++) {
+				long seen = watcher.firstSeen(actedVersion[round]);
+				updateMillis[n++] = seen < 0 ? -1 : Math.max(0, (seen - actedAt[round]) / 1_000_000);
+			}
+		}
+		return new Result(updateMillis, actionMillis, pollRequests.getAndSet(0) + streamRequests.getAndSet(0));
+	}
+
+	// Every watcher polls GET /api/game at a fixed rate, skipping a tick while a poll is in flight
+	private AutoCloseable poll(List<Watcher> watchers) {
+		ScheduledExecutorService timer = Executors.newScheduledThreadPool(4);
+		HttpRequest request = HttpRequest.newBuilder(uri("/api/game")).build();
+		for (Watcher watcher : watchers) {
+			AtomicBoolean inFlight = new AtomicBoolean();
+			timer.scheduleAtFixedRate(() -> {
+				if (!inFlight.compareAndSet(false, true)) {
+					return;
+				}
+				pollRequests.incrementAndGet();
+				client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+					try {
+						if (response != null && response.statusCode() == 200) {
+							watcher.saw(Long.parseLong(find(VERSION, response.body())));
+						}
+					} finally {
+						inFlight.set(false);
+					}
+				});
+			}, ThreadLocalRandom.current().nextLong(POLL_INTERVAL_MS), POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+		}
+		return timer::shutdownNow;
+	}
+
+	// Every watcher holds one event stream open; returns once all of them got the current state
+	private AutoCloseable stream(List<Watcher> watchers) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(uri("/api/reactive/game/stream")).build();
+		CountDownLatch connected = new CountDownLatch(watchers.size());
+		List<Flow.Subscription> subscriptions = new ArrayList<>();
+		for (Watcher watcher : watchers) {
+			streamRequests.incrementAndGet();
+			client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new Flow.Subscriber<String>() {
+				@Override
+				public void onSubscribe(Flow.Subscription subscription) {
+					synchronized (subscriptions) {
+						subscriptions.add(subscription);
+					}
+					subscription.request(Long.MAX_VALUE);
+				}
+
+				@Override
+				public void onNext(String line) {
+					if (line.startsWith("data:")) {
+						if (watcher.highest < 0) {
+							connected.countDown();
+						}
+						watcher.saw(Long.parseLong(find(VERSION, line)));
+					}
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+				}
+
+				@Override
+				public void onComplete() {
+				}
+			}));
+		}
+		assertThat(connected.await(30, TimeUnit.SECONDS)).as("all streams connected").isTrue();
+		return () -> {
+			synchronized (subscriptions) {
+				subscriptions.forEach(Flow.Subscription::cancel);
+			}
+		};
+	}
+
+	private void report(String label, Result result) {
+		long[] updates = result.updateMillis.clone();
+		long[] actions = result.actionMillis.clone();
+		Arrays.sort(updates);
+		Arrays.sort(actions);
+		System.out.printf("%-16s update seen p50 %4d ms  p99 %4d ms   action p50 %3d ms  p99 %3d ms   watcher requests %d%n",
+				label, percentile(updates, 0.50), percentile(updates, 0.99),
+				percentile(actions, 0.50), percentile(actions, 0.99), result.watcherRequests);
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+	}
+
+	private static String find(Pattern pattern, String text) {
+		Matcher matcher = pattern.matcher(text);
+		if (!matcher.find()) {
+			throw new IllegalStateException("no " + pattern + " in " + text);
+		}
+		return matcher.group(1);
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private String send(String method, String path) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(uri(path)).method(method, HttpRequest.BodyPublishers.noBody()).build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+	}
+}
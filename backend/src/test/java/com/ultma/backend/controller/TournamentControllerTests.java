@@ -0,0 +1,151 @@
+package com.ultma.backend.controller;
+
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.JoinResult;
+import com.ultma.backend.model.NewTournament;
+import com.ultma.backend.model.Tournament;
+import com.ultma.backend.model.TournamentEntrant;
+import com.ultma.backend.model.TournamentRequest;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.ActionProfiler;
+import com.ultma.backend.service.ActionTracing;
+import com.ultma.backend.service.AdmissionControl;
+import com.ultma.backend.service.GameService;
+import com.ultma.backend.service.IdempotencyService;
+import com.ultma.backend.service.InvalidPlayerTokenException;
+import com.ultma.backend.service.MatchPartitions;
+import com.ultma.backend.service.MatchViews;
+import com.ultma.backend.service.PlayerTokens;
+import com.ultma.backend.service.TournamentService;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Human entrants play their seats through the same endpoints as the main game, with the token
+// the seat endpoint trades for their entrant token
+class TournamentControllerTests {
+
+	@TempDir
+	Path directory;
+
+	private final PlayerTokens tokens = new PlayerTokens("s3cret");
+	private final MatchViews views = new MatchViews();
+	private TournamentService tournaments;
+	private TournamentController tournamentController;
+	private GameController gameController;
+
+	@BeforeEach
+	void setUp() {
+		GameService gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+			if (event instanceof MatchUpdatedEvent updated) {
+				views.onMatchUpdated(updated);
+				if (tournaments != null) {
+					tournaments.onMatchUpdated(updated);
+				}
+			} else if (event instanceof MatchResetEvent reset) {
+				views.onMatchReset(reset);
+			}
+		}, new ActionTracing(ObservationRegistry.NOOP), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+		tournaments = new TournamentService(gameService);
+		tournamentController = new TournamentController(tournaments, gameService, views, tokens);
+		gameController = new GameController(gameService, new IdempotencyService(new SimpleMeterRegistry(), 100, 300), views, tokens);
+	}
+
+	@AfterEach
+	void shutdown() {
+		tournaments.shutdown();
+	}
+
+	private NewTournament create(String... names) {
+		TournamentRequest request = new TournamentRequest();
+		request.setName("Copa");
+		request.setMatchSize(2);
+		for (String name : names) {
+			request.getEntrants().add(new TournamentEntrant(name, false, null));
+		}
+		return (NewTournament) tournamentController.createTournament(request).getBody();
+	}
+
+	// Polls the seat endpoint until the entrant's match exists; rounds are created in the background
+	private JoinResult awaitSeat(String tournamentId, String entrantToken) throws InterruptedException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		ResponseEntity<JoinResult> seat = tournamentController.seat(tournamentId, entrantToken);
+		while (seat.getStatusCode() != HttpStatus.OK) {
+			assertThat(System.nanoTime()).as("waiting on a seat").isLessThan(deadline);
+			Thread.sleep(5);
+			seat = tournamentController.seat(tournamentId, entrantToken);
+		}
+		return seat.getBody();
+	}
+
+	private String playerId(JoinResult seat) {
+		return tokens.playerId(seat.getPlayerToken());
+	}
+
+	@Test
+	void humanEntrantsPlayTheirSeatsThroughARound() throws InterruptedException {
+		NewTournament created = create("Ana", "Bia");
+		String tournamentId = created.getTournament().getId();
+		Map<String, String> entrantTokens = created.getEntrantTokens();
+		assertThat(entrantTokens).containsOnlyKeys("Ana", "Bia");
+		// An entrant token is not a player token, and only works for its own tournament
+		assertThat(tokens.playerId(entrantTokens.get("Ana"))).isNull();
+		assertThatThrownBy(() -> tournamentController.seat("other", entrantTokens.get("Ana")))
+				.isInstanceOf(InvalidPlayerTokenException.class);
+
+		JoinResult ana = awaitSeat(tournamentId, entrantTokens.get("Ana"));
+		JoinResult bia = awaitSeat(tournamentId, entrantTokens.get("Bia"));
+		assertThat(ana.getMatch().getMatchId()).isEqualTo(bia.getMatch().getMatchId());
+		// Each seat sees its own spells only
+		assertThat(ana.getMatch().getPlayers()).filteredOn(player -> player.getId().equals(playerId(ana)))
+				.singleElement().satisfies(player -> assertThat(player.getKnownSpells()).isNotEmpty());
+		assertThat(ana.getMatch().getPlayers()).filteredOn(player -> player.getId().equals(playerId(bia)))
+				.singleElement().satisfies(player -> assertThat(player.getKnownSpells()).isEmpty());
+
+		// The player to move attacks the other until one is left standing, meditating when short of
+		// mana and passing the turn when out of actions; the finished match is closed
+		GameMatch match = ana.getMatch();
+		for (int action = 0; action < 10_000 && match != null; action++) {
+			JoinResult toMove = match.getPlayers().get(match.getCurrentTurnPlayerIndex()).getId().equals(playerId(ana)) ? ana : bia;
+			JoinResult other = toMove == ana ? bia : ana;
+			DuelResult attack = gameController.attackPlayer(toMove.getPlayerToken(), playerId(other), "Disparo Arcano", null).getResult();
+			if (!attack.isSuccess()) {
+				// No state once the match is over and closed
+				GameMatch meditated = gameController.meditate(toMove.getPlayerToken(), null);
+				if (meditated != null && meditated.getVersion() == match.getVersion()) {
+					gameController.endArenaTurn(toMove.getPlayerToken(), null);
+				}
+			}
+			match = gameController.getMatch(match.getMatchId(), toMove.getPlayerToken()).getBody();
+		}
+		assertThat(match).as("match still running").isNull();
+
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		Tournament finished = tournamentController.getTournament(tournamentId).getBody();
+		while (!"finished".equals(finished.getStatus())) {
+			assertThat(System.nanoTime()).as("waiting on the bracket").isLessThan(deadline);
+			Thread.sleep(5);
+			finished = tournamentController.getTournament(tournamentId).getBody();
+		}
+		String winner = finished.getChampion();
+		assertThat(winner).isIn("Ana", "Bia");
+		assertThat(finished.getRounds().get(0).getMatches().get(0).getWinner()).isEqualTo(winner);
+		// With the match over there is no seat left to claim
+		assertThat(tournamentController.seat(tournamentId, entrantTokens.get(winner)).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+}
@@ -0,0 +1,37 @@
+package com.ultma.backend.model;
+
+import com.ultma.backend.service.sim.SpellCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerTests {
+
+	@Test
+	void loadedSpellNamesShareTheCatalogsInstances() {
+		String loaded = new String("Bola de Fogo");
+		List<String> names = new ArrayList<>(List.of(loaded, "Feitiço Desconhecido"));
+		Player player = new Player();
+
+		player.setKnownSpells(names);
+
+		assertThat(player.getKnownSpells().get(0)).isSameAs(SpellCatalog.name(SpellCatalog.indexOf("Bola de Fogo")));
+		assertThat(player.getKnownSpells().get(1)).isEqualTo("Feitiço Desconhecido");
+		// The caller's list is left alone
+		assertThat(names.get(0)).isSameAs(loaded);
+		player.getKnownSpells().add("Portal");
+		assertThat(names).hasSize(2);
+	}
+
+	@Test
+	void missingListsStayMissing() {
+		Player player = new Player();
+
+		player.setActiveDefenses(null);
+
+		assertThat(player.getActiveDefenses()).isNull();
+	}
+}
@@ -0,0 +1,61 @@
+package com.ultma.backend.repository;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameRepositoryRecoveryTests {
+
+	@TempDir
+	Path directory;
+
+	private GameMatch sideMatch(GameRepository repository) {
+		GameMatch match = new GameMatch();
+		match.getPlayers().add(new Player("Ana"));
+		match.getPlayers().add(new Player("Bia"));
+		repository.createSideMatch(match);
+		return match;
+	}
+
+	@Test
+	void flushedMatchesAreServedAfterRestartAndLoadedOnFirstUse() throws Exception {
+		GameRepository before = new GameRepository(new SimpleMeterRegistry(), directory.toString());
+		GameMatch played = sideMatch(before);
+		GameMatch closed = sideMatch(before);
+		GameMatch untouched = sideMatch(before);
+		played.setArenaRound(3);
+		before.saveGame(played);
+		before.closeSideMatch(closed.getMatchId());
+
+		before.stopWrites();
+		assertThatThrownBy(() -> before.saveGame(played)).isInstanceOf(IllegalStateException.class);
+		assertThat(before.flush()).isEqualTo(2);
+
+		GameRepository after = new GameRepository(new SimpleMeterRegistry(), directory.toString());
+		assertThat(after.getSideMatchIds()).containsExactlyInAnyOrder(played.getMatchId(), untouched.getMatchId());
+		assertThat(after.findSideMatchId(played.getPlayers().get(1).getId())).isEqualTo(played.getMatchId());
+		assertThat(after.findSideMatchId(closed.getPlayers().get(0).getId())).isNull();
+		assertThat(Files.exists(directory.resolve(closed.getMatchId() + ".smile"))).isFalse();
+
+		// Nothing but the index is read until a match is used
+		Files.delete(directory.resolve(untouched.getMatchId() + ".smile"));
+		GameMatch loaded = after.loadGame(played.getMatchId());
+		assertThat(loaded.getVersion()).isEqualTo(played.getVersion());
+		assertThat(loaded.getArenaRound()).isEqualTo(3);
+
+		// Unchanged since the start: neither rewritten nor dropped from the index
+		after.saveGame(loaded);
+		after.stopWrites();
+		assertThat(after.flush()).isEqualTo(1);
+		assertThat(new GameRepository(new SimpleMeterRegistry(), directory.toString()).getSideMatchIds())
+				.containsExactlyInAnyOrder(played.getMatchId(), untouched.getMatchId());
+	}
+}
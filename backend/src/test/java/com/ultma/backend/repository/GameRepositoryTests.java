@@ -0,0 +1,167 @@
+package com.ultma.backend.repository;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameRepositoryTests {
+
+	@TempDir
+	Path directory;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private GameRepository repository(String gameFile) {
+		return new GameRepository(registry, null, directory.resolve(gameFile).toString());
+	}
+
+	private static GameMatch match() {
+		GameMatch match = new GameMatch();
+		match.getPlayers().add(new Player("Ana"));
+		return match;
+	}
+
+	@Test
+	void sharedLoadsNeverReturnAVersionOlderThanTheLastSave() throws InterruptedException {
+		GameRepository repository = repository("gamestate.json");
+		GameMatch match = match();
+		repository.saveGame(match);
+
+		// Readers keep shared loads in flight while the game is saved over and over
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Thread reader = new Thread(() -> {
+				while (running.get()) {
+					repository.loadGameShared();
+				}
+			});
+			readers.add(reader);
+			reader.start();
+		}
+		try {
+			for (int save = 0; save < 200; save++) {
+				repository.saveGame(match);
+				assertThat(repository.loadGameShared().getVersion()).isEqualTo(match.getVersion());
+			}
+		} finally {
+			running.set(false);
+			for (Thread reader : readers) {
+				reader.join();
+			}
+		}
+
+		double loads = registry.get("ultma.game.loads").functionCounter().count();
+		double coalesced = registry.get("ultma.game.loads.coalesced").functionCounter().count();
+		assertThat(loads).isGreaterThan(0);
+		assertThat(coalesced).isEqualTo(repository.coalescedLoads());
+	}
+
+	@Test
+	void concurrentSharedLoadsOfOneVersionAreCoalesced() throws InterruptedException {
+		GameRepository repository = repository("gamestate.json");
+		repository.saveGame(match());
+
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Thread reader = new Thread(() -> {
+				for (int load = 0; load < 500; load++) {
+					repository.loadGameShared();
+				}
+			});
+			readers.add(reader);
+			reader.start();
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		// Every call either read the file or shared a read
+		double loads = registry.get("ultma.game.loads").functionCounter().count();
+		assertThat(loads + repository.coalescedLoads()).isEqualTo(4 * 500);
+	}
+
+	@Test
+	void aFailedSaveKeepsTheCallersVersion() {
+		GameRepository repository = repository("missing/gamestate.json");
+		GameMatch match = match();
+		match.setVersion(4);
+
+		assertThatThrownBy(() -> repository.saveGame(match)).isInstanceOf(UncheckedIOException.class);
+
+		assertThat(match.getVersion()).isEqualTo(4);
+		assertThat(repository.loadGame()).isNull();
+	}
+
+	@Test
+	void aClosedMatchDropsLateSavesUntilItsGracePeriodEnds() {
+		GameRepository repository = repository("gamestate.json");
+		GameMatch main = match();
+		repository.saveGame(main);
+		GameMatch side = match();
+		repository.createSideMatch(side);
+
+		repository.closeSideMatch(side.getMatchId());
+		repository.saveGame(side);
+
+		assertThat(repository.isSideMatch(side.getMatchId())).isTrue();
+		assertThat(repository.loadGame(side.getMatchId())).isNull();
+		assertThat(repository.loadGame().getMatchId()).isEqualTo(main.getMatchId());
+		assertThat(repository.getSideMatchIds()).isEmpty();
+	}
+
+	@Test
+	void expiredTombstonesAreForgotten() {
+		GameRepository repository = new GameRepository(registry, null, directory.resolve("gamestate.json").toString(), 0);
+		List<String> closed = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			GameMatch side = match();
+			repository.createSideMatch(side);
+			repository.closeSideMatch(side.getMatchId());
+			closed.add(side.getMatchId());
+		}
+
+		assertThat(closed).noneMatch(repository::isSideMatch);
+	}
+
+	@Test
+	void everySaveAdvancesTheVersion() {
+		GameRepository repository = repository("gamestate.json");
+		GameMatch main = match();
+		GameMatch side = match();
+		repository.createSideMatch(side);
+
+		repository.saveGame(main);
+		repository.saveGame(main);
+		repository.saveGame(side);
+
+		assertThat(repository.loadGame().getVersion()).isEqualTo(2);
+		assertThat(repository.loadGame(side.getMatchId()).getVersion()).isEqualTo(1);
+	}
+
+	@Test
+	void aSaveFromAnOlderCopyStillGetsANewVersion() {
+		GameRepository repository = repository("gamestate.json");
+		repository.saveGame(match());
+		GameMatch stale = repository.loadGame();
+		GameMatch current = repository.loadGame();
+
+		repository.saveGame(current);
+		repository.saveGame(stale);
+
+		assertThat(current.getVersion()).isEqualTo(2);
+		assertThat(stale.getVersion()).isEqualTo(3);
+		assertThat(repository.loadGame().getVersion()).isEqualTo(3);
+	}
+}
@@ -0,0 +1,178 @@
+package com.ultma.backend.repository;
+
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.model.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchArchiveTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<MatchArchive> opened = new ArrayList<>();
+
+	@AfterEach
+	void closeArchives() throws IOException {
+		for (MatchArchive archive : opened) {
+			archive.close();
+		}
+	}
+
+	private MatchArchive open(long segmentSizeMb) {
+		MatchArchive archive = new MatchArchive(directory.toString(), segmentSizeMb);
+		opened.add(archive);
+		return archive;
+	}
+
+	// Closes archive as a shutdown (or crash after the last write) would, and opens it again
+	private MatchArchive reopen(MatchArchive archive, long segmentSizeMb) throws IOException {
+		opened.remove(archive);
+		archive.close();
+		return open(segmentSizeMb);
+	}
+
+	private static ArchivedMatch archived(Player... players) {
+		GameMatch match = new GameMatch();
+		match.getPlayers().addAll(List.of(players));
+		match.setVersion(12);
+		MatchAction action = new MatchAction(1, 10, 1, "meditate", players[0].getId(), players[0].getName(), null, null,
+				null, null);
+		return new ArchivedMatch(match, List.of(action), 42, "finished");
+	}
+
+	private List<Path> segments() throws IOException {
+		try (var files = Files.list(directory)) {
+			return files.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+		}
+	}
+
+	@Test
+	void appendedMatchesReadBackBeforeAndAfterARestart() throws IOException {
+		MatchArchive archive = open(64);
+		ArchivedMatch first = archived(new Player("Ana"), new Player("Bia"));
+		ArchivedMatch second = archived(new Player("Caio"), new Player("Davi"));
+		archive.append(first);
+		archive.append(second);
+
+		assertThat(archive.find(first.getMatch().getMatchId())).isEqualTo(first);
+		assertThat(archive.contains(second.getMatch().getMatchId())).isTrue();
+		assertThat(archive.find("missing")).isNull();
+
+		MatchArchive restarted = reopen(archive, 64);
+		assertThat(restarted.size()).isEqualTo(2);
+		assertThat(restarted.find(first.getMatch().getMatchId())).isEqualTo(first);
+		assertThat(restarted.find(second.getMatch().getMatchId())).isEqualTo(second);
+		assertThat(restarted.locations()).extracting(restarted::read).containsExactly(first, second);
+	}
+
+	@Test
+	void aFullSegmentIsSealedAndTheNextOneOpened() throws IOException {
+		// A zero limit seals every segment after its first record
+		MatchArchive archive = open(0);
+		List<ArchivedMatch> matches = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			matches.add(archived(new Player("Ana" + i), new Player("Bia" + i)));
+		}
+		archive.append(matches);
+
+		assertThat(segments()).extracting(path -> path.getFileName().toString())
+				.containsExactly("segment-000001.seg", "segment-000002.seg", "segment-000003.seg");
+		assertThat(archive.locations()).extracting(MatchArchive.Location::getSegment).containsExactly(1, 2, 3);
+
+		MatchArchive restarted = reopen(archive, 0);
+		ArchivedMatch later = archived(new Player("Caio"));
+		restarted.append(later);
+		assertThat(restarted.locations()).extracting(MatchArchive.Location::getSegment).containsExactly(1, 2, 3, 4);
+		for (ArchivedMatch match : matches) {
+			assertThat(restarted.find(match.getMatch().getMatchId())).isEqualTo(match);
+		}
+		assertThat(restarted.find(later.getMatch().getMatchId())).isEqualTo(later);
+	}
+
+	@Test
+	void aTornRecordAtTheTailIsDropped() throws IOException {
+		MatchArchive archive = open(64);
+		ArchivedMatch kept = archived(new Player("Ana"), new Player("Bia"));
+		archive.append(kept);
+		opened.remove(archive);
+		archive.close();
+
+		// A crash in the middle of the next record: its length promises more than was written
+		Path segment = segments().get(0);
+		long intact = Files.size(segment);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.allocate(8).putInt(500).putShort((short) 3).put((byte) 'a').put((byte) 'b').flip());
+		}
+
+		MatchArchive restarted = open(64);
+		assertThat(Files.size(segment)).isEqualTo(intact);
+		assertThat(restarted.size()).isEqualTo(1);
+		ArchivedMatch next = archived(new Player("Caio"));
+		restarted.append(next);
+		assertThat(reopen(restarted, 64).find(next.getMatch().getMatchId())).isEqualTo(next);
+	}
+
+	@Test
+	void recordsMissingFromTheIndexAreRecoveredFromTheSegment() throws IOException {
+		MatchArchive archive = open(64);
+		List<ArchivedMatch> matches = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			matches.add(archived(new Player("Ana" + i), new Player("Bia" + i)));
+		}
+		archive.append(matches);
+		opened.remove(archive);
+		archive.close();
+
+		// Lost the end of the index: the second line is cut inside its length field, the third is gone
+		Path index = directory.resolve("index.log");
+		List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+		String second = lines.get(1);
+		String[] fields = second.split(" ");
+		String cut = String.join(" ", fields[0], fields[1], fields[2], fields[3].substring(0, 1));
+		Files.writeString(index, lines.get(0) + "\n" + cut, StandardCharsets.UTF_8);
+
+		MatchArchive restarted = open(64);
+		assertThat(restarted.size()).isEqualTo(3);
+		for (ArchivedMatch match : matches) {
+			assertThat(restarted.find(match.getMatch().getMatchId())).isEqualTo(match);
+		}
+		String player = matches.get(2).getMatch().getPlayers().get(1).getId();
+		assertThat(restarted.findMatchIdsByPlayer(player)).containsExactly(matches.get(2).getMatch().getMatchId());
+
+		// The repaired index is enough for the next start
+		MatchArchive again = reopen(restarted, 64);
+		assertThat(again.locations()).hasSize(3);
+		assertThat(again.locations()).extracting(again::read).containsExactlyElementsOf(matches);
+	}
+
+	@Test
+	void matchesAreFoundByPlayer() throws IOException {
+		MatchArchive archive = open(64);
+		Player ana = new Player("Ana");
+		ArchivedMatch first = archived(ana, new Player("Bia"));
+		ArchivedMatch second = archived(new Player("Caio"), ana);
+		ArchivedMatch other = archived(new Player("Davi"), new Player("Eva"));
+		archive.append(List.of(first, second, other));
+
+		List<String> expected = List.of(first.getMatch().getMatchId(), second.getMatch().getMatchId());
+		assertThat(archive.findMatchIdsByPlayer(ana.getId())).isEqualTo(expected);
+		assertThat(archive.findMatchIdsByPlayer("nobody")).isEmpty();
+		assertThat(reopen(archive, 64).findMatchIdsByPlayer(ana.getId())).isEqualTo(expected);
+	}
+}
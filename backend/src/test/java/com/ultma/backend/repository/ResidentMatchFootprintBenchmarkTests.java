@@ -0,0 +1,126 @@
+package com.ultma.backend.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Retained heap of resident matches: side matches as the repository keeps them, and the same
+// matches as loaded object graphs. Runs 2- and 4-player matches so the per-player and per-match
+// parts can be told apart. mvn -Pbenchmark test
+@Tag("benchmark")
+class ResidentMatchFootprintBenchmarkTests {
+
+	private static final int[] RESIDENT_MATCHES = { 10_000, 100_000 };
+	private static final String[] SPELLS = { "Bola de Fogo", "Muro de Água", "Lança de Gelo", "Maldição do Vazio" };
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	// An arena match as it comes back from storage, so no string is shared with the code
+	private byte[] arenaMatch(int players) throws IOException {
+		GameMatch match = new GameMatch();
+		Map<GameEnums.PowerWord, GameEnums.Meaning> words = new EnumMap<>(GameEnums.PowerWord.class);
+		for (GameEnums.PowerWord word : GameEnums.PowerWord.values()) {
+			words.put(word, GameEnums.Meaning.values()[word.ordinal()]);
+		}
+		match.setWordDictionary(words);
+		Map<GameEnums.PotionColor, GameEnums.PotionEffect> potions = new EnumMap<>(GameEnums.PotionColor.class);
+		for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+			potions.put(color, GameEnums.PotionEffect.values()[color.ordinal()]);
+		}
+		match.setPotionDictionary(potions);
+		for (int i = 0; i < players; i++) {
+			Player player = new Player("Jogador " + i);
+			player.getKnownSpells().add(SPELLS[i % SPELLS.length]);
+			player.getKnownSpells().add(SPELLS[(i + 1) % SPELLS.length]);
+			player.getActiveDefenses().add("Proteção Arcana");
+			player.getPotions().add(GameEnums.PotionColor.values()[i % GameEnums.PotionColor.values().length]);
+			player.getGlifos().add(GameEnums.Glifo.values()[i % GameEnums.Glifo.values().length]);
+			player.setArenaPosition(i);
+			player.setActionsRemaining(3);
+			match.getPlayers().add(player);
+		}
+		match.setArenaPhase(true);
+		match.setArenaRound(2);
+		return objectMapper.writeValueAsBytes(match);
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private interface Resident {
+		Object hold(int count, int players) throws IOException;
+	}
+
+	// Bytes retained per match
+	private long bytesPerMatch(Resident resident, int count, int players) throws Exception {
+		long before = usedHeap();
+		Object held = resident.hold(count, players);
+		long after = usedHeap();
+		assertThat(held).isNotNull();
+		return (after - before) / count;
+	}
+
+	private Object repository(int count, int players) throws IOException {
+		GameRepository repository = new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString());
+		byte[] json = arenaMatch(players);
+		for (int i = 0; i < count; i++) {
+			GameMatch match = objectMapper.readValue(json, GameMatch.class);
+			match.setMatchId(UUID.randomUUID().toString());
+			for (Player player : match.getPlayers()) {
+				player.setId(UUID.randomUUID().toString());
+			}
+			repository.createSideMatch(match);
+		}
+		return repository;
+	}
+
+	private Object loaded(int count, int players) throws IOException {
+		byte[] json = arenaMatch(players);
+		List<GameMatch> matches = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			matches.add(objectMapper.readValue(json, GameMatch.class));
+		}
+		return matches;
+	}
+
+	private void report(String label, Resident resident) throws Exception {
+		for (int count : RESIDENT_MATCHES) {
+			long two = bytesPerMatch(resident, count, 2);
+			long four = bytesPerMatch(resident, count, 4);
+			long perPlayer = (four - two) / 2;
+			System.out.printf("%-18s %,7d matches   %,6d B per 4-player match   %,5d B per player   %,5d B match overhead%n",
+					label, count, four, perPlayer, two - 2 * perPlayer);
+		}
+	}
+
+	@Test
+	void bytesPerResidentMatch() throws Exception {
+		report("repository", this::repository);
+		report("loaded GameMatch", this::loaded);
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.ultma.backend.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+	private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+	// Starts callers threads on key, all inside one blocked execution, and returns what each got
+	private List<Object> concurrentCalls(int callers, String key, Object result) throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Object> results = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			Thread thread = new Thread(() -> results.add(singleFlight.execute(key, () -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return result;
+			})));
+			threads.add(thread);
+			thread.start();
+		}
+		while (singleFlight.coalescedCount() < callers - 1) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return results;
+	}
+
+	@Test
+	void concurrentCallsShareOneExecution() throws InterruptedException {
+		Object result = new Object();
+
+		List<Object> results = concurrentCalls(8, "v1", result);
+
+		assertThat(results).hasSize(8).allSatisfy(value -> assertThat(value).isSameAs(result));
+		assertThat(singleFlight.executionCount()).isEqualTo(1);
+		assertThat(singleFlight.coalescedCount()).isEqualTo(7);
+	}
+
+	@Test
+	void nothingIsCachedOnceTheCallCompletes() {
+		AtomicInteger loads = new AtomicInteger();
+
+		singleFlight.execute("v1", loads::incrementAndGet);
+		Object second = singleFlight.execute("v1", loads::incrementAndGet);
+
+		assertThat(second).isEqualTo(2);
+		assertThat(singleFlight.executionCount()).isEqualTo(2);
+		assertThat(singleFlight.coalescedCount()).isZero();
+	}
+
+	@Test
+	void differentKeysDoNotShare() {
+		assertThat(singleFlight.execute("v1", () -> "one")).isEqualTo("one");
+		assertThat(singleFlight.execute("v2", () -> "two")).isEqualTo("two");
+		assertThat(singleFlight.executionCount()).isEqualTo(2);
+	}
+
+	@Test
+	void aFailureReachesTheCallerAndIsNotRemembered() {
+		assertThatThrownBy(() -> singleFlight.execute("v1", () -> {
+			throw new IllegalStateException("falhou");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("falhou");
+
+		assertThat(singleFlight.execute("v1", () -> "ok")).isEqualTo("ok");
+	}
+}
@@ -0,0 +1,74 @@
+package com.ultma.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		release.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	// Admits an action on the match that runs until release, and waits until it is inside
+	private void hold(AdmissionControl admission, String matchKey) throws InterruptedException {
+		CountDownLatch inside = new CountDownLatch(1);
+		executor.submit(() -> admission.admit(matchKey, () -> {
+			inside.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}));
+		assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void busyMatchRejectsWithoutTouchingOthers() throws InterruptedException {
+		AdmissionControl admission = new AdmissionControl(meterRegistry, 10, 1, 2);
+		hold(admission, "hot");
+
+		assertThatThrownBy(() -> admission.admit("hot", () -> "jogada"))
+				.isInstanceOfSatisfying(AdmissionRejectedException.class, e -> {
+					assertThat(e.isMatchBusy()).isTrue();
+					assertThat(e.getRetryAfterSeconds()).isEqualTo(2);
+				});
+		assertThat(admission.admit("other", () -> "jogada")).isEqualTo("jogada");
+		assertThat(meterRegistry.get("ultma.admission.rejections").tag("reason", "match-busy").counter().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("ultma.admission.queue.depth").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrencyLimitRejectsEveryMatch() throws InterruptedException {
+		AdmissionControl admission = new AdmissionControl(meterRegistry, 1, 8, 1);
+		hold(admission, "hot");
+
+		assertThatThrownBy(() -> admission.admit("other", () -> "jogada"))
+				.isInstanceOfSatisfying(AdmissionRejectedException.class, e -> assertThat(e.isMatchBusy()).isFalse());
+		assertThat(meterRegistry.get("ultma.admission.in-flight").gauge().value()).isEqualTo(1);
+
+		release.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(admission.admit("other", () -> "jogada")).isEqualTo("jogada");
+		assertThat(meterRegistry.get("ultma.admission.in-flight").gauge().value()).isZero();
+	}
+}
@@ -0,0 +1,130 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.command.AttackCommand;
+import com.ultma.backend.service.command.CastSpellCommand;
+import com.ultma.backend.service.command.GameCommand;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bytes allocated per spell lookup and by the rules of a cast and an attack (the command's own
+// stages, which GameService runs between load and save), against the budgets in
+// allocation-budgets.properties. Load and save are left out: they allocate inside Jackson, which
+// moves with its version and the JVM flags, not with our code.
+class AllocationBudgetTests {
+
+	private static final int WARMUP = 2_000;
+	private static final int MEASURED = 2_000;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	private static final Properties BUDGETS = new Properties();
+
+	@TempDir
+	Path directory;
+
+	private GameMatch match;
+
+	@BeforeAll
+	static void loadBudgets() throws IOException {
+		try (InputStream in = AllocationBudgetTests.class.getResourceAsStream("/allocation-budgets.properties")) {
+			BUDGETS.load(in);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		GameService gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+		}, new ActionTracing(ObservationRegistry.NOOP),
+				new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1), new MatchPartitions(new SimpleMeterRegistry(), 1),
+				new ActionProfiler(false, 0));
+		// Nobody runs out of mana or life, so every action is a full one
+		GameMatch created = gameService.createMatch(List.of(new Player("Ana"), new Player("Bia")), started -> {
+			for (Player player : started.getPlayers()) {
+				player.setMana(1_000_000);
+				player.setLifeEnergy(1_000_000);
+			}
+		});
+		match = gameService.getMatch(created.getMatchId());
+	}
+
+	// Mean bytes per run of the commands made by command (given the acting player and the other
+	// one) through the stages GameService runs them through, on one loaded match
+	private long bytesPerCommand(Function<Player[], GameCommand<?>> command) {
+		Player[] players = { match.getPlayers().get(0), match.getPlayers().get(1) };
+		long measured = 0;
+		for (int i = 0; i < WARMUP + MEASURED; i++) {
+			long before = THREADS.getCurrentThreadAllocatedBytes();
+			GameCommand<?> next = command.apply(players);
+			boolean rejected = next.validateRequest() != null || next.validate(match, players[0]) != null;
+			if (!rejected) {
+				next.apply(match, players[0]);
+			}
+			long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+			assertThat(rejected).as("rejected " + next.name()).isFalse();
+			if (i >= WARMUP) {
+				measured += allocated;
+			}
+		}
+		return measured / MEASURED;
+	}
+
+	private static long budget(String name) {
+		return Long.parseLong(BUDGETS.getProperty(name));
+	}
+
+	@Test
+	void spellLookupStaysWithinBudget() {
+		GameEnums.Meaning[] meanings = GameEnums.Meaning.values();
+		long measured = 0;
+		int calls = 0;
+		for (int round = 0; round < 2; round++) {
+			long before = THREADS.getCurrentThreadAllocatedBytes();
+			for (int i = 0; i < 10_000; i++) {
+				for (GameEnums.Meaning m1 : meanings) {
+					for (GameEnums.Meaning m2 : meanings) {
+						GameRules.resolveCombination(m1, m2);
+					}
+				}
+			}
+			measured = THREADS.getCurrentThreadAllocatedBytes() - before;
+			calls = 10_000 * meanings.length * meanings.length;
+		}
+
+		assertThat(measured / calls).as("bytes per resolveCombination").isLessThanOrEqualTo(budget("resolve-combination"));
+	}
+
+	@Test
+	void castStaysWithinBudget() {
+		String[] words = { GameEnums.PowerWord.YNGVY.name(), GameEnums.PowerWord.VORLAG.name() };
+
+		long perCast = bytesPerCommand(players -> new CastSpellCommand(players[0].getId(), words[0], words[1]));
+
+		assertThat(perCast).as("bytes per cast").isLessThanOrEqualTo(budget("cast"));
+	}
+
+	@Test
+	void attackStaysWithinBudget() {
+		long perAttack = bytesPerCommand(players ->
+				new AttackCommand(players[0].getId(), players[1].getId(), "Disparo Arcano"));
+
+		assertThat(perAttack).as("bytes per attack").isLessThanOrEqualTo(budget("attack"));
+	}
+}
@@ -0,0 +1,140 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.ActionResult;
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.repository.GameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The stages a player action goes through, and where each kind of rejection stops it
+class GameServicePipelineTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<String> stages = new ArrayList<>();
+	private GameService gameService;
+	private GameMatch match;
+
+	@BeforeEach
+	void setUp() {
+		ObservationRegistry registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new ObservationHandler<>() {
+			@Override
+			public boolean supportsContext(Observation.Context context) {
+				return true;
+			}
+
+			@Override
+			public void onStart(Observation.Context context) {
+				if ("ultma.action.stage".equals(context.getName())) {
+					stages.add(context.getContextualName());
+				}
+			}
+		});
+		gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+		}, new ActionTracing(registry), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+		match = gameService.createMatch(List.of(new Player("Ana"), new Player("Bia")), created -> {
+		});
+	}
+
+	private Player toMove() {
+		return match.getPlayers().get(match.getCurrentTurnPlayerIndex());
+	}
+
+	private Player waiting() {
+		return match.getPlayers().get(1 - match.getCurrentTurnPlayerIndex());
+	}
+
+	@Test
+	void validActionRunsEveryStage() {
+		gameService.meditate(toMove().getId());
+
+		assertThat(stages).containsExactly("validate-request", "dispatch", "load", "authorize", "validate", "apply",
+				"save", "publish", "publish");
+		assertThat(gameService.getMatch(match.getMatchId()).getVersion()).isEqualTo(match.getVersion() + 1);
+	}
+
+	@Test
+	void malformedRequestIsRejectedBeforeLoading() {
+		SpellResult cast = gameService.castSpell(toMove().getId(), "NOPE", "NADA");
+		assertThat(cast.getSpellName()).isEqualTo("Invalid Word");
+
+		DuelResult attack = gameService.attackPlayer(toMove().getId(), waiting().getId(), "Proteção Arcana");
+		assertThat(attack.isSuccess()).isFalse();
+		assertThat(attack.getBlockingSpell()).isEqualTo("Esta magia não é de ataque");
+
+		assertThat(stages).containsExactly("validate-request", "validate-request");
+	}
+
+	@Test
+	void actionOutOfTurnStopsAtAuthorization() {
+		SpellResult defense = gameService.activateDefense(waiting().getId(), "Proteção Arcana");
+
+		assertThat(defense.isSuccess()).isFalse();
+		assertThat(defense.getDescription()).startsWith("Não é seu turno");
+		assertThat(stages).containsExactly("validate-request", "dispatch", "load", "authorize");
+		assertThat(gameService.getMatch(match.getMatchId()).getVersion()).isEqualTo(match.getVersion());
+	}
+
+	@Test
+	void anActionAnswersWithTheStateItSavedWithoutAnotherLoad() {
+		ActionResult<DuelResult> attack = gameService.attackPlayerWithMatch(toMove().getId(), waiting().getId(), "Disparo Arcano");
+
+		assertThat(attack.getResult().isSuccess()).isTrue();
+		assertThat(attack.getMatch().getVersion()).isEqualTo(match.getVersion() + 1)
+				.isEqualTo(gameService.getMatch(match.getMatchId()).getVersion());
+		assertThat(stages).containsOnlyOnce("load");
+
+		// A rejection answers with the state it loaded, at the same version
+		stages.clear();
+		ActionResult<SpellResult> defense = gameService.activateDefenseWithMatch(waiting().getId(), "Proteção Arcana");
+		assertThat(defense.getResult().isSuccess()).isFalse();
+		assertThat(defense.getMatch().getVersion()).isEqualTo(attack.getMatch().getVersion());
+		assertThat(stages).containsOnlyOnce("load");
+	}
+
+	@Test
+	void lastActionPassesTheTurnWithOneSave() {
+		Player first = toMove();
+		for (int i = 0; i < 3; i++) {
+			gameService.meditate(first.getId());
+		}
+
+		GameMatch after = gameService.getMatch(match.getMatchId());
+		assertThat(after.getPlayers().get(after.getCurrentTurnPlayerIndex()).getId()).isNotEqualTo(first.getId());
+		assertThat(after.getVersion()).isEqualTo(match.getVersion() + 3);
+		assertThat(stages).containsOnlyOnce("advanceTurn");
+	}
+
+	@Test
+	void endingTheArenaSavesTheGlyphsWithOneNewVersion() {
+		gameService.addPlayer("Caio");
+		GameMatch arena = gameService.addPlayer("Davi");
+		assertThat(arena.isArenaPhase()).isTrue();
+		stages.clear();
+
+		GameMatch ended = gameService.endArenaPhase();
+
+		assertThat(stages).filteredOn("save"::equals).hasSize(1);
+		assertThat(ended.getVersion()).isEqualTo(arena.getVersion() + 1);
+		GameMatch stored = gameService.getMatch(ended.getMatchId());
+		assertThat(stored.getVersion()).isEqualTo(ended.getVersion());
+		assertThat(stored.getPlayers()).allSatisfy(player -> assertThat(player.getGlifos()).hasSize(4));
+	}
+}
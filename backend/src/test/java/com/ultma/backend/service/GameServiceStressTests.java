@@ -0,0 +1,222 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many threads playing random (legal and illegal) actions on many side matches at once
+class GameServiceStressTests {
+
+	private static final String[] SPELLS = { "Disparo Arcano", "Proteção Arcana", "Bola de Fogo", "Muro de Água",
+			"Lança de Gelo", "Maldição do Vazio", "Escudo de Vácuo", "Teletransporte" };
+	private static final GameEnums.PowerWord[] WORDS = GameEnums.PowerWord.values();
+	private static final GameEnums.PotionColor[] COLORS = GameEnums.PotionColor.values();
+
+	// Last state seen per match, to check that no elimination is ever undone
+	private static final class Observed {
+		long version = -1;
+		Set<String> eliminated = new HashSet<>();
+	}
+
+	@TempDir
+	Path directory;
+
+	private final Map<String, LongAdder> updates = new ConcurrentHashMap<>();
+	private final Map<String, Observed> observed = new ConcurrentHashMap<>();
+	private final List<String> violations = new ArrayList<>();
+
+	private GameService newGameService() {
+		return newGameService(4);
+	}
+
+	private GameService newGameService(int partitions) {
+		return new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+			if (event instanceof MatchUpdatedEvent updated) {
+				updates.computeIfAbsent(updated.getMatch().getMatchId(), id -> new LongAdder()).increment();
+			}
+		}, new ActionTracing(ObservationRegistry.NOOP),
+				new AdmissionControl(new SimpleMeterRegistry(), Integer.MAX_VALUE, Integer.MAX_VALUE, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), partitions), new ActionProfiler(false, 0));
+	}
+
+	private List<String> createMatches(GameService gameService, int count) {
+		List<String> matchIds = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			List<Player> players = new ArrayList<>();
+			for (int seat = 0; seat < 4; seat++) {
+				players.add(new Player("P" + i + "-" + seat));
+			}
+			GameMatch match = gameService.createMatch(players, created -> {
+			});
+			for (Player player : players) {
+				for (GameEnums.PotionColor color : COLORS) {
+					gameService.givePotion(player.getId(), color.name());
+				}
+			}
+			matchIds.add(match.getMatchId());
+		}
+		return matchIds;
+	}
+
+	private void randomAction(GameService gameService, String matchId) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		GameMatch match = gameService.getMatch(matchId);
+		List<Player> players = match.getPlayers();
+		// Mostly the player to move, sometimes anyone (those calls must be rejected)
+		int seat = random.nextInt(10) < 7 && match.getCurrentTurnPlayerIndex() != null
+				? match.getCurrentTurnPlayerIndex() % players.size()
+				: random.nextInt(players.size());
+		String playerId = players.get(seat).getId();
+		switch (random.nextInt(5)) {
+			case 0 -> gameService.castSpell(playerId, WORDS[random.nextInt(WORDS.length)].name(),
+					WORDS[random.nextInt(WORDS.length)].name());
+			case 1 -> gameService.attackPlayer(playerId, players.get(random.nextInt(players.size())).getId(),
+					SPELLS[random.nextInt(SPELLS.length)]);
+			case 2 -> gameService.meditate(playerId);
+			case 3 -> gameService.usePotion(playerId, COLORS[random.nextInt(COLORS.length)].name());
+			default -> gameService.endArenaTurn(playerId);
+		}
+	}
+
+	private void checkInvariants(GameMatch match) {
+		List<String> problems = new ArrayList<>();
+		boolean anyStanding = false;
+		for (Player player : match.getPlayers()) {
+			if (player.getMana() < 0) {
+				problems.add(player.getName() + " com mana " + player.getMana());
+			}
+			int actions = player.getActionsRemaining() != null ? player.getActionsRemaining() : 0;
+			if (actions < 0 || actions > 3) {
+				problems.add(player.getName() + " com " + actions + " ações");
+			}
+			if (player.getLifeEnergy() <= 0 && !player.isEliminated()) {
+				problems.add(player.getName() + " sem vida e não eliminado");
+			}
+			anyStanding |= !player.isEliminated();
+		}
+		Integer turn = match.getCurrentTurnPlayerIndex();
+		if (anyStanding && (turn == null || turn < 0 || turn >= match.getPlayers().size()
+				|| match.getPlayers().get(turn).isEliminated())) {
+			problems.add("turno " + turn + " não aponta para um jogador ativo");
+		}
+
+		Observed last = observed.computeIfAbsent(match.getMatchId(), id -> new Observed());
+		synchronized (last) {
+			if (match.getVersion() >= last.version) {
+				Set<String> eliminated = new HashSet<>();
+				for (Player player : match.getPlayers()) {
+					if (player.isEliminated()) {
+						eliminated.add(player.getId());
+					}
+				}
+				if (!eliminated.containsAll(last.eliminated)) {
+					problems.add("eliminação perdida na versão " + match.getVersion());
+				}
+				last.version = match.getVersion();
+				last.eliminated = eliminated;
+			}
+		}
+		if (!problems.isEmpty()) {
+			synchronized (violations) {
+				violations.add(match.getMatchId() + ": " + problems);
+			}
+		}
+	}
+
+	// Runs threads x opsPerThread random actions, each thread on random matches; returns ops/s
+	private double hammer(GameService gameService, List<String> matchIds, int threads, int opsPerThread,
+			boolean checkInvariants) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		AtomicLong failures = new AtomicLong();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < opsPerThread; i++) {
+						String matchId = matchIds.get(random.nextInt(matchIds.size()));
+						randomAction(gameService, matchId);
+						if (checkInvariants) {
+							checkInvariants(gameService.getMatch(matchId));
+						}
+					}
+				} catch (Throwable e) {
+					failures.incrementAndGet();
+					e.printStackTrace();
+				}
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		assertThat(failures.get()).as("worker exceptions").isZero();
+		return threads * (double) opsPerThread / (elapsed / 1e9);
+	}
+
+	@Test
+	void invariantsHoldUnderConcurrentPlay() throws InterruptedException {
+		GameService gameService = newGameService();
+		List<String> matchIds = createMatches(gameService, 16);
+
+		hammer(gameService, matchIds, 8, 2_000, true);
+
+		assertThat(violations).isEmpty();
+		for (String matchId : matchIds) {
+			// One update event per save plus the one for creation: a lost update would skip a version
+			GameMatch match = gameService.getMatch(matchId);
+			assertThat(match.getVersion()).as("saves of " + matchId).isEqualTo(updates.get(matchId).sum() - 1);
+		}
+	}
+
+	// mvn -Pbenchmark test; compare runs to catch scaling regressions
+	@Test
+	@Tag("benchmark")
+	void throughputUnderContention() throws InterruptedException {
+		int cores = Runtime.getRuntime().availableProcessors();
+		for (int matches : new int[] { 1, 64 }) {
+			for (int threads = 1; threads <= Math.max(8, cores); threads *= 2) {
+				GameService gameService = newGameService(cores);
+				List<String> matchIds = createMatches(gameService, matches);
+				hammer(gameService, matchIds, threads, 2_000, false);
+				double opsPerSecond = hammer(gameService, matchIds, threads, 10_000, false);
+				System.out.printf("%3d matches %3d threads %10.0f ops/s%n", matches, threads, opsPerSecond);
+			}
+		}
+		// Scaling with the partition count, with enough callers to keep every partition busy
+		for (int partitions = 1; partitions <= cores; partitions *= 2) {
+			GameService gameService = newGameService(partitions);
+			List<String> matchIds = createMatches(gameService, 64);
+			hammer(gameService, matchIds, 2 * cores, 2_000, false);
+			double opsPerSecond = hammer(gameService, matchIds, 2 * cores, 10_000, false);
+			System.out.printf("%3d partitions %10.0f ops/s%n", partitions, opsPerSecond);
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.ultma.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@Test
+	void repeatedKeyReturnsTheFirstResultWithoutRunningAgain() {
+		IdempotencyService idempotency = new IdempotencyService(meterRegistry, 100, 300);
+
+		int first = idempotency.execute("k1", "cast", "ana", List.of(), runs::incrementAndGet);
+		int replay = idempotency.execute("k1", "cast", "ana", List.of(), runs::incrementAndGet);
+		int otherAction = idempotency.execute("k1", "meditate", "ana", List.of(), runs::incrementAndGet);
+		int noKey = idempotency.execute(null, "cast", "ana", List.of(), runs::incrementAndGet);
+
+		assertThat(replay).isEqualTo(first).isEqualTo(1);
+		assertThat(otherAction).isEqualTo(2);
+		assertThat(noKey).isEqualTo(3);
+		assertThat(meterRegistry.counter("ultma.idempotency.replays").count()).isEqualTo(1);
+	}
+
+	@Test
+	void failedRequestCanBeRetried() {
+		IdempotencyService idempotency = new IdempotencyService(meterRegistry, 100, 300);
+
+		assertThatThrownBy(() -> idempotency.execute("k1", "join", "ana", List.of(), () -> {
+			throw new IllegalStateException("Jogo cheio");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(idempotency.execute("k1", "join", "ana", List.of(), runs::incrementAndGet)).isEqualTo(1);
+	}
+
+	@Test
+	void oldestKeysAreDroppedAtTheLimit() {
+		IdempotencyService idempotency = new IdempotencyService(meterRegistry, 2, 300);
+
+		idempotency.execute("k1", "cast", "ana", List.of(), runs::incrementAndGet);
+		idempotency.execute("k2", "cast", "ana", List.of(), runs::incrementAndGet);
+		idempotency.execute("k3", "cast", "ana", List.of(), runs::incrementAndGet);
+
+		assertThat(idempotency.size()).isEqualTo(2);
+		assertThat(idempotency.execute("k1", "cast", "ana", List.of(), runs::incrementAndGet)).isEqualTo(4);
+	}
+
+	@Test
+	void keysAreScopedToTheCaller() {
+		IdempotencyService idempotency = new IdempotencyService(meterRegistry, 100, 300);
+
+		int ana = idempotency.execute("k1", "cast", "ana", List.of("YNGVY", "VORLAG"), runs::incrementAndGet);
+		int bia = idempotency.execute("k1", "cast", "bia", List.of("YNGVY", "VORLAG"), runs::incrementAndGet);
+		int anonymous = idempotency.execute("k1", "cast", null, List.of("YNGVY", "VORLAG"), runs::incrementAndGet);
+
+		assertThat(ana).isEqualTo(1);
+		assertThat(bia).isEqualTo(2);
+		assertThat(anonymous).isEqualTo(3);
+		assertThat(meterRegistry.counter("ultma.idempotency.replays").count()).isZero();
+	}
+
+	@Test
+	void aKeyReusedWithOtherParametersIsRefused() {
+		IdempotencyService idempotency = new IdempotencyService(meterRegistry, 100, 300);
+		idempotency.execute("k1", "cast", "ana", List.of("YNGVY", "VORLAG"), runs::incrementAndGet);
+
+		assertThatThrownBy(() -> idempotency.execute("k1", "cast", "ana", List.of("YNGVY", "ZAFIR"), runs::incrementAndGet))
+				.isInstanceOf(IdempotencyKeyReusedException.class);
+
+		assertThat(runs.get()).isEqualTo(1);
+		assertThat(idempotency.execute("k1", "cast", "ana", List.of("YNGVY", "VORLAG"), runs::incrementAndGet)).isEqualTo(1);
+	}
+}
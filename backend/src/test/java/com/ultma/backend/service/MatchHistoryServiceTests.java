@@ -0,0 +1,71 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.DuelResolvedEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import com.ultma.backend.service.event.SpellCastEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchHistoryServiceTests {
+
+	private final MatchHistoryService history = new MatchHistoryService();
+
+	@TempDir
+	Path directory;
+
+	private GameService gameService;
+
+	@BeforeEach
+	void setUp() {
+		gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+			if (event instanceof MatchUpdatedEvent updated) {
+				history.onMatchUpdated(updated);
+			} else if (event instanceof SpellCastEvent cast) {
+				history.onSpellCast(cast);
+			} else if (event instanceof DuelResolvedEvent duel) {
+				history.onDuelResolved(duel);
+			}
+		}, new ActionTracing(ObservationRegistry.NOOP), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+	}
+
+	@Test
+	void everyActionThatChangesTheMatchIsRecorded() {
+		GameMatch match = gameService.createMatch(List.of(new Player("Ana"), new Player("Bia")), created -> {
+		});
+		Player first = match.getPlayers().get(match.getCurrentTurnPlayerIndex());
+		Player second = match.getPlayers().get(1 - match.getCurrentTurnPlayerIndex());
+
+		gameService.meditate(first.getId());
+		gameService.activateDefense(first.getId(), "Proteção Arcana");
+		gameService.givePotion(first.getId(), "AZUL");
+		gameService.endArenaTurn(first.getId());
+		gameService.attackPlayer(second.getId(), first.getId(), "Disparo Arcano");
+		GameMatch current = gameService.getMatch(match.getMatchId());
+		gameService.expireTurn(match.getMatchId(), current.getCurrentTurnPlayerIndex(), current.getArenaRound());
+		// Rejected: not her turn any more, nothing changes and nothing is recorded
+		gameService.meditate(second.getId());
+
+		List<MatchAction> actions = history.getHistory(match.getMatchId());
+		assertThat(actions).extracting(MatchAction::getType)
+				.containsExactly("meditate", "defense", "give-potion", "end-turn", "attack", "expire-turn");
+		assertThat(actions).extracting(MatchAction::getSequence).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+		assertThat(actions.get(0).getPlayerId()).isEqualTo(first.getId());
+		assertThat(actions.get(0).getPlayerName()).isEqualTo(first.getName());
+		assertThat(actions.get(1).getSpell().getSpellName()).isEqualTo("Proteção Arcana");
+		assertThat(actions.get(4).getDuel().getTargetId()).isEqualTo(first.getId());
+		assertThat(actions.get(5).getPlayerId()).isNull();
+	}
+}
@@ -0,0 +1,108 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchTimelineTests {
+
+	@TempDir
+	Path directory;
+
+	private final MatchTimeline timeline = new MatchTimeline(4, 1);
+	private GameService gameService;
+	private GameMatch match;
+
+	@BeforeEach
+	void setUp() {
+		gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+			if (event instanceof MatchUpdatedEvent updated) {
+				timeline.onMatchUpdated(updated);
+			} else if (event instanceof MatchResetEvent reset) {
+				timeline.onMatchReset(reset);
+			}
+		}, new ActionTracing(ObservationRegistry.NOOP), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 1), new ActionProfiler(false, 0));
+		match = gameService.createMatch(List.of(new Player("Ana"), new Player("Bia")), created -> {
+			for (Player player : created.getPlayers()) {
+				player.setMana(100);
+			}
+		});
+	}
+
+	// Plays turns of casts, potions and attacks, returning every saved state in order
+	private List<GameMatch> play(int actions) {
+		List<GameMatch> states = new ArrayList<>();
+		states.add(gameService.getMatch(match.getMatchId()));
+		GameEnums.PowerWord[] words = GameEnums.PowerWord.values();
+		for (int i = 0; i < actions; i++) {
+			GameMatch current = gameService.getMatch(match.getMatchId());
+			Player toMove = current.getPlayers().get(current.getCurrentTurnPlayerIndex());
+			Player other = current.getPlayers().get(1 - current.getCurrentTurnPlayerIndex());
+			switch (i % 3) {
+				case 0 -> gameService.castSpell(toMove.getId(), words[i % words.length].name(), words[(i + 1) % words.length].name());
+				case 1 -> gameService.givePotion(toMove.getId(), GameEnums.PotionColor.AZUL.name());
+				default -> gameService.attackPlayer(toMove.getId(), other.getId(), "Disparo Arcano");
+			}
+			states.add(gameService.getMatch(match.getMatchId()));
+		}
+		return states;
+	}
+
+	@Test
+	void everyVersionIsRebuiltAsItWasSaved() {
+		List<GameMatch> states = play(30);
+
+		for (GameMatch saved : states) {
+			assertThat(timeline.stateAt(match.getMatchId(), saved.getVersion())).isEqualTo(saved);
+		}
+		GameMatch last = states.get(states.size() - 1);
+		assertThat(timeline.getInfo(match.getMatchId()).getLastVersion()).isEqualTo(last.getVersion());
+		assertThat(timeline.stateAt(match.getMatchId(), last.getVersion() + 1)).isNull();
+	}
+
+	@Test
+	void replayRunsThroughTheRequestedVersions() {
+		List<GameMatch> states = play(20);
+		long from = states.get(5).getVersion();
+		long to = states.get(15).getVersion();
+
+		List<GameMatch> replayed = new ArrayList<>();
+		Iterator<MatchTimeline.Frame> frames = timeline.replay(match.getMatchId(), from, to);
+		frames.forEachRemaining(frame -> replayed.add(frame.getMatch()));
+
+		assertThat(replayed).containsExactlyElementsOf(states.subList(5, 16));
+		List<GameMatch> rest = new ArrayList<>();
+		timeline.replay(match.getMatchId(), to, Long.MAX_VALUE).forEachRemaining(frame -> rest.add(frame.getMatch()));
+		assertThat(rest).containsExactlyElementsOf(states.subList(15, states.size()));
+	}
+
+	@Test
+	void finishedMatchesAreForgottenOnceEnoughOthersFinish() {
+		play(3);
+		gameService.closeMatch(match.getMatchId());
+		assertThat(timeline.getInfo(match.getMatchId()).isFinished()).isTrue();
+
+		GameMatch next = gameService.createMatch(List.of(new Player("Caio"), new Player("Duda")), created -> {
+		});
+		gameService.closeMatch(next.getMatchId());
+
+		assertThat(timeline.getInfo(match.getMatchId())).isNull();
+		assertThat(timeline.getInfo(next.getMatchId())).isNotNull();
+	}
+}
@@ -0,0 +1,104 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.ImportSummary;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.repository.MatchArchive;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchTransferServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<MatchArchive> archives = new ArrayList<>();
+
+	// A server's worth of services over its own game file and archive directory
+	private final class Server {
+		final GameRepository repository;
+		final MatchHistoryService history = new MatchHistoryService();
+		final MatchArchive archive;
+		final GameService gameService;
+		final MatchTransferService transfer;
+
+		Server(String name) {
+			repository = new GameRepository(new SimpleMeterRegistry(), null, directory.resolve(name + ".json").toString());
+			archive = new MatchArchive(directory.resolve(name).toString(), 64);
+			archives.add(archive);
+			gameService = new GameService(repository, event -> {
+			}, new ActionTracing(ObservationRegistry.NOOP), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+					new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+			transfer = new MatchTransferService(gameService, repository, archive, history);
+		}
+	}
+
+	@AfterEach
+	void closeArchives() throws Exception {
+		for (MatchArchive archive : archives) {
+			archive.close();
+		}
+	}
+
+	private static List<GameMatch> sideMatches(Server server, int count) {
+		List<GameMatch> matches = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			matches.add(server.gameService.createMatch(List.of(new Player("Ana" + i), new Player("Bia" + i)), created -> {
+			}));
+		}
+		return matches;
+	}
+
+	@Test
+	void everyMatchSurvivesTheRoundTrip() throws Exception {
+		Server source = new Server("source");
+		List<GameMatch> side = sideMatches(source, 3);
+		Player attacker = side.get(0).getPlayers().get(side.get(0).getCurrentTurnPlayerIndex());
+		source.gameService.meditate(attacker.getId());
+		source.history.restore(side.get(0).getMatchId(),
+				List.of(new MatchAction(1, 10, 0, "cast", attacker.getId(), attacker.getName(), null, null, null, null)));
+		List<GameMatch> finished = sideMatches(new Server("scratch"), 2500);
+		for (GameMatch match : finished) {
+			source.archive.append(new ArchivedMatch(match, List.of(), 42, "finished"));
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThat(source.transfer.exportTo(out)).isEqualTo(3 + 2500);
+		String ndjson = out.toString(StandardCharsets.UTF_8);
+		assertThat(ndjson.split("\n")).hasSize(3 + 2500);
+
+		Server target = new Server("target");
+		ImportSummary summary = target.transfer.importFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertThat(summary).isEqualTo(new ImportSummary(0, 3, 2500, 0));
+
+		for (GameMatch match : side) {
+			assertThat(target.gameService.getMatch(match.getMatchId()))
+					.isEqualTo(source.gameService.getMatch(match.getMatchId()));
+		}
+		assertThat(target.gameService.readMatchForPlayer(attacker.getId()).getMatchId()).isEqualTo(side.get(0).getMatchId());
+		assertThat(target.history.getHistory(side.get(0).getMatchId())).hasSize(1);
+		ArchivedMatch archived = target.archive.find(finished.get(2499).getMatchId());
+		assertThat(archived.getMatch()).isEqualTo(finished.get(2499));
+		assertThat(archived.getArchivedAt()).isEqualTo(42);
+		assertThat(archived.getReason()).isEqualTo("finished");
+
+		// Importing again replaces the open matches and skips what is already archived
+		assertThat(target.transfer.importFrom(new ByteArrayInputStream(out.toByteArray())))
+				.isEqualTo(new ImportSummary(0, 3, 0, 2500));
+	}
+}
@@ -0,0 +1,75 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchViewsTests {
+
+	private final MatchViews views = new MatchViews();
+	private GameMatch match;
+	private Player ana;
+	private Player bia;
+
+	@BeforeEach
+	void setUp() {
+		match = new GameMatch();
+		match.setVersion(3);
+		match.setWordDictionary(new EnumMap<>(GameEnums.PowerWord.class));
+		ana = new Player("Ana");
+		ana.setKnownSpells(List.of("Bola de Fogo"));
+		ana.setPotions(List.of(GameEnums.PotionColor.values()[0]));
+		bia = new Player("Bia");
+		bia.setKnownSpells(List.of("Proteção Arcana"));
+		match.setPlayers(List.of(ana, bia));
+	}
+
+	@Test
+	void playerSeesOnlyTheirOwnHiddenInformation() {
+		GameMatch view = views.view(match, ana.getId());
+
+		assertThat(view.getWordDictionary()).isNull();
+		assertThat(view.getPlayers().get(0).getKnownSpells()).containsExactly("Bola de Fogo");
+		assertThat(view.getPlayers().get(0).getPotions()).hasSize(1);
+		assertThat(view.getPlayers().get(1).getKnownSpells()).isEmpty();
+		assertThat(view.getPlayers().get(1).getName()).isEqualTo("Bia");
+		assertThat(view.getVersion()).isEqualTo(3);
+	}
+
+	@Test
+	void spectatorSeesNoHiddenInformation() {
+		for (GameMatch view : List.of(views.view(match, null), views.view(match, "someone-else"))) {
+			assertThat(view.getWordDictionary()).isNull();
+			assertThat(view.getPlayers()).allSatisfy(player -> {
+				assertThat(player.getKnownSpells()).isEmpty();
+				assertThat(player.getPotions()).isEmpty();
+			});
+		}
+	}
+
+	@Test
+	void viewsAreBuiltOncePerVersion() {
+		views.onMatchUpdated(new MatchUpdatedEvent(match));
+		GameMatch first = views.view(match, bia.getId());
+		assertThat(views.view(match, bia.getId())).isSameAs(first);
+
+		GameMatch newer = new GameMatch();
+		newer.setMatchId(match.getMatchId());
+		newer.setVersion(4);
+		newer.setPlayers(List.of(ana, bia));
+		views.onMatchUpdated(new MatchUpdatedEvent(newer));
+
+		assertThat(views.view(newer, bia.getId())).isNotSameAs(first);
+		// An outdated state is still projected, without replacing the current one
+		assertThat(views.view(match, bia.getId()).getVersion()).isEqualTo(3);
+		assertThat(views.view(newer, bia.getId())).isSameAs(views.view(newer, bia.getId()));
+	}
+}
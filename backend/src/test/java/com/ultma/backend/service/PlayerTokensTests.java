@@ -0,0 +1,50 @@
+package com.ultma.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlayerTokensTests {
+
+	private final PlayerTokens tokens = new PlayerTokens("s3cret");
+
+	@Test
+	void anIssuedTokenNamesItsPlayer() {
+		String token = tokens.issue("player-1");
+
+		assertThat(token).startsWith("player-1.");
+		assertThat(tokens.playerId(token)).isEqualTo("player-1");
+		assertThat(tokens.requirePlayerId(token)).isEqualTo("player-1");
+		// The same secret on another node accepts it too
+		assertThat(new PlayerTokens("s3cret").playerId(token)).isEqualTo("player-1");
+	}
+
+	@Test
+	void aTokenForAnotherPlayerIsRejected() {
+		String token = tokens.issue("player-1");
+		String signature = token.substring(token.lastIndexOf('.'));
+
+		assertThat(tokens.playerId("player-2" + signature)).isNull();
+		assertThat(tokens.playerId(token + "x")).isNull();
+	}
+
+	@Test
+	void aTokenFromAnotherSecretIsRejected() {
+		String token = new PlayerTokens("other").issue("player-1");
+
+		assertThat(tokens.playerId(token)).isNull();
+		// A blank secret is a random key, never an empty one
+		assertThat(new PlayerTokens("").playerId(new PlayerTokens("").issue("player-1"))).isNull();
+	}
+
+	@Test
+	void malformedTokensAreRejected() {
+		assertThat(tokens.playerId(null)).isNull();
+		assertThat(tokens.playerId("")).isNull();
+		assertThat(tokens.playerId("player-1")).isNull();
+		assertThat(tokens.playerId("player-1.")).isNull();
+		assertThat(tokens.playerId(".abc")).isNull();
+		assertThatThrownBy(() -> tokens.requirePlayerId("player-1")).isInstanceOf(InvalidPlayerTokenException.class);
+	}
+}
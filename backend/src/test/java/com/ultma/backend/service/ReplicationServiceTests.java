@@ -0,0 +1,209 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.ReplicationAck;
+import com.ultma.backend.model.ReplicationBatch;
+import com.ultma.backend.model.ReplicationEntry;
+import com.ultma.backend.repository.GameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ReplicationServiceTests {
+
+	private static final String BATCHES = "http://standby/api/replication/batches";
+	private static final String APPLIED = "{\"applied\":true,\"snapshotNeeded\":false}";
+	// Shipping is driven by the tests; the scheduled one never comes around
+	private static final long NEVER = 3_600_000;
+
+	@TempDir
+	Path directory;
+
+	private final List<ReplicationService> services = new ArrayList<>();
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+	@AfterEach
+	void shutdown() {
+		services.forEach(ReplicationService::shutdown);
+	}
+
+	private GameRepository repository() {
+		return new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString());
+	}
+
+	private ReplicationService standby(GameRepository repository) {
+		ReplicationService service = new ReplicationService(repository, event -> {
+		}, RestClient.builder(), new SimpleMeterRegistry(), "standby", "", NEVER, 500, 0, "");
+		services.add(service);
+		return service;
+	}
+
+	private ReplicationService primary(GameRepository repository, RestClient.Builder builder, long failoverTimeoutMillis) {
+		ReplicationService service = new ReplicationService(repository, event -> {
+		}, builder, meters, "primary", "http://standby", NEVER, 0, failoverTimeoutMillis, "s3cret");
+		services.add(service);
+		return service;
+	}
+
+	private static GameMatch match(String... names) {
+		GameMatch match = new GameMatch();
+		for (String name : names) {
+			match.getPlayers().add(new Player(name));
+		}
+		return match;
+	}
+
+	private static ReplicationEntry side(GameMatch match) {
+		return new ReplicationEntry(match.getMatchId(), true, match);
+	}
+
+	private static ReplicationBatch batch(String epoch, boolean snapshot, ReplicationEntry... entries) {
+		return new ReplicationBatch(epoch, snapshot, System.currentTimeMillis(), List.of(entries));
+	}
+
+	@Test
+	void aSnapshotReplacesEverythingTheStandbyHeld() {
+		GameRepository repository = repository();
+		ReplicationService service = standby(repository);
+		GameMatch main = match("Ana");
+		GameMatch kept = match("Bia", "Caio");
+		GameMatch dropped = match("Davi", "Eva");
+		service.apply(batch("first", true, new ReplicationEntry(main.getMatchId(), false, main), side(kept), side(dropped)));
+		assertThat(repository.loadGame().getMatchId()).isEqualTo(main.getMatchId());
+		assertThat(repository.getSideMatchIds()).containsExactlyInAnyOrder(kept.getMatchId(), dropped.getMatchId());
+
+		// A new primary: its snapshot holds only one match, the rest is gone
+		ReplicationAck ack = service.apply(batch("second", true, side(kept)));
+
+		assertThat(ack).isEqualTo(new ReplicationAck(true, false));
+		assertThat(repository.getSideMatchIds()).containsExactly(kept.getMatchId());
+		assertThat(repository.loadGame()).isNull();
+		assertThat(repository.findSideMatchId(dropped.getPlayers().get(0).getId())).isNull();
+		assertThat(service.getStatus().getEpoch()).isEqualTo("second");
+	}
+
+	@Test
+	void deltasOfTheSameEpochApplyAndRemove() {
+		GameRepository repository = repository();
+		ReplicationService service = standby(repository);
+		GameMatch first = match("Ana", "Bia");
+		GameMatch second = match("Caio", "Davi");
+		service.apply(batch("epoch", true, side(first), side(second)));
+
+		first.setVersion(7);
+		ReplicationAck ack = service.apply(batch("epoch", false, side(first),
+				new ReplicationEntry(second.getMatchId(), true, null)));
+
+		assertThat(ack.isApplied()).isTrue();
+		assertThat(repository.loadGame(first.getMatchId()).getVersion()).isEqualTo(7);
+		assertThat(repository.getSideMatchIds()).containsExactly(first.getMatchId());
+		// A heartbeat changes nothing
+		assertThat(service.apply(batch("epoch", false)).isApplied()).isTrue();
+		assertThat(repository.getSideMatchIds()).containsExactly(first.getMatchId());
+	}
+
+	@Test
+	void aDeltaFromAnotherEpochAsksForASnapshot() {
+		GameRepository repository = repository();
+		ReplicationService service = standby(repository);
+		GameMatch match = match("Ana", "Bia");
+
+		// Nothing received yet, then a delta from a primary it never synced with
+		assertThat(service.apply(batch("unknown", false, side(match)))).isEqualTo(new ReplicationAck(false, true));
+		service.apply(batch("old", true));
+		assertThat(service.apply(batch("new", false, side(match)))).isEqualTo(new ReplicationAck(false, true));
+
+		assertThat(repository.getSideMatchIds()).isEmpty();
+	}
+
+	@Test
+	void onlyAStandbyAppliesBatches() {
+		ReplicationService service = standby(repository());
+		service.promote();
+
+		assertThat(service.getRole()).isEqualTo(ReplicationService.Role.PRIMARY);
+		assertThatThrownBy(() -> service.apply(batch("epoch", true))).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void aPrimaryTakesActionsOnlyWhileItHoldsTheLease() throws InterruptedException {
+		GameRepository repository = repository();
+		RestClient.Builder builder = RestClient.builder();
+		MockRestServiceServer standby = MockRestServiceServer.bindTo(builder).build();
+		ReplicationService primary = primary(repository, builder, 200);
+		assertThat(repository.isReadOnly()).as("no lease before the first ack").isTrue();
+		// Acknowledged, then unanswered, then acknowledged again
+		standby.expect(requestTo(BATCHES)).andExpect(method(HttpMethod.POST))
+				.andExpect(header(ReplicationService.SECRET_HEADER, "s3cret"))
+				.andExpect(jsonPath("$.snapshot").value(true))
+				.andRespond(withSuccess(APPLIED, MediaType.APPLICATION_JSON));
+		standby.expect(requestTo(BATCHES)).andRespond(withServerError());
+		standby.expect(requestTo(BATCHES)).andRespond(withSuccess(APPLIED, MediaType.APPLICATION_JSON));
+
+		primary.ship();
+		assertThat(repository.isReadOnly()).isFalse();
+
+		// Once the lease (half the failover timeout) is over, no more actions
+		Thread.sleep(150);
+		primary.ship();
+		assertThat(repository.isReadOnly()).isTrue();
+		assertThat(primary.getRole()).isEqualTo(ReplicationService.Role.PRIMARY);
+
+		// Back in contact: the lease is renewed
+		primary.ship();
+		assertThat(repository.isReadOnly()).isFalse();
+		standby.verify();
+	}
+
+	@Test
+	void aPrimaryRefusedByAPromotedStandbyStepsDown() {
+		GameRepository repository = repository();
+		RestClient.Builder builder = RestClient.builder();
+		MockRestServiceServer standby = MockRestServiceServer.bindTo(builder).build();
+		ReplicationService primary = primary(repository, builder, 0);
+		assertThat(repository.isReadOnly()).as("manual failover holds no lease").isFalse();
+
+		standby.expect(requestTo(BATCHES)).andRespond(withStatus(HttpStatus.CONFLICT));
+		primary.ship();
+
+		assertThat(primary.getRole()).isEqualTo(ReplicationService.Role.STANDBY);
+		assertThat(repository.isReadOnly()).isTrue();
+		assertThat(meters.counter("ultma.replication.step-downs").count()).isEqualTo(1);
+		// Nothing more is shipped
+		primary.ship();
+		standby.verify();
+	}
+
+	@Test
+	void theSecretMustMatch() {
+		GameRepository repository = repository();
+		ReplicationService withSecret = primary(repository, RestClient.builder(), 0);
+		ReplicationService without = standby(repository());
+
+		assertThat(withSecret.acceptsSecret("s3cret")).isTrue();
+		assertThat(withSecret.acceptsSecret("s3cre")).isFalse();
+		assertThat(withSecret.acceptsSecret(null)).isFalse();
+		assertThat(without.acceptsSecret("")).isFalse();
+	}
+}
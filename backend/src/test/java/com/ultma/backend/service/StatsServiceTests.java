@@ -0,0 +1,173 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.PlayerStats;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.service.event.DuelResolvedEvent;
+import com.ultma.backend.service.event.SpellCastEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private StatsService stats(int leaderboardSize) {
+		return new StatsService(directory.resolve("playerstats.json").toString(), leaderboardSize, Runnable::run);
+	}
+
+	private static DuelResolvedEvent duel(String attacker, String target, int damage, boolean blocked, boolean eliminated) {
+		DuelResult result = new DuelResult();
+		result.setSuccess(true);
+		result.setDamageDealt(damage);
+		result.setWasBlocked(blocked);
+		return new DuelResolvedEvent("match", 1, attacker, target, result, eliminated, 0);
+	}
+
+	private static SpellCastEvent cast(String player, boolean success, boolean discovered) {
+		SpellResult result = new SpellResult();
+		result.setSuccess(success);
+		return new SpellCastEvent("match", 1, "cast", "id-" + player, player, result, discovered);
+	}
+
+	private static List<String> names(List<PlayerStats> leaderboard) {
+		return leaderboard.stream().map(PlayerStats::getPlayerName).toList();
+	}
+
+	@Test
+	void duelsAddUpForAttackerAndTarget() {
+		StatsService service = stats(10);
+
+		service.onDuelResolved(duel("Ana", "Bia", 3, false, false));
+		service.onDuelResolved(duel("Ana", "Bia", 0, true, false));
+		service.onDuelResolved(duel("Ana", "Bia", 4, false, true));
+
+		PlayerStats ana = service.getPlayerStats("Ana");
+		assertThat(ana.getAttacks()).isEqualTo(3);
+		assertThat(ana.getDamageDealt()).isEqualTo(7);
+		assertThat(ana.getEliminations()).isEqualTo(1);
+		PlayerStats bia = service.getPlayerStats("Bia");
+		assertThat(bia.getAttacksBlocked()).isEqualTo(1);
+		assertThat(bia.getTimesEliminated()).isEqualTo(1);
+		assertThat(bia.getAttacks()).isZero();
+	}
+
+	@Test
+	void aTargetThatNeitherBlocksNorFallsGetsNoEntry() {
+		StatsService service = stats(10);
+
+		service.onDuelResolved(duel("Ana", "Bia", 2, false, false));
+
+		assertThat(service.getPlayerStats("Bia")).isNull();
+		assertThat(names(service.getLeaderboard(10))).containsExactly("Ana");
+	}
+
+	@Test
+	void onlySuccessfulCastsCount() {
+		StatsService service = stats(10);
+
+		service.onSpellCast(cast("Ana", true, true));
+		service.onSpellCast(cast("Ana", true, false));
+		service.onSpellCast(cast("Ana", false, false));
+		service.onSpellCast(cast("Bia", false, false));
+
+		PlayerStats ana = service.getPlayerStats("Ana");
+		assertThat(ana.getSpellsCast()).isEqualTo(2);
+		assertThat(ana.getSpellsDiscovered()).isEqualTo(1);
+		assertThat(service.getPlayerStats("Bia")).isNull();
+	}
+
+	@Test
+	void leaderboardRanksEliminationsThenDamageThenName() {
+		StatsService service = stats(10);
+
+		service.onDuelResolved(duel("Caio", "Zed", 1, false, true));
+		service.onDuelResolved(duel("Bia", "Zed", 9, false, false));
+		service.onDuelResolved(duel("Ana", "Zed", 9, false, false));
+		service.onDuelResolved(duel("Davi", "Zed", 2, false, false));
+
+		// Ana and Bia tie on eliminations and damage: by name
+		assertThat(names(service.getLeaderboard(10))).containsExactly("Caio", "Ana", "Bia", "Davi", "Zed");
+		assertThat(names(service.getLeaderboard(2))).containsExactly("Caio", "Ana");
+	}
+
+	@Test
+	void aPlayerClimbingIntoTheTopPushesTheLastOneOut() {
+		StatsService service = stats(2);
+		service.onDuelResolved(duel("Ana", "Zed", 5, false, false));
+		service.onDuelResolved(duel("Bia", "Zed", 3, false, false));
+		service.onDuelResolved(duel("Caio", "Zed", 1, false, false));
+		assertThat(names(service.getLeaderboard(10))).containsExactly("Ana", "Bia");
+
+		service.onDuelResolved(duel("Caio", "Zed", 3, false, false));
+
+		assertThat(names(service.getLeaderboard(10))).containsExactly("Ana", "Caio");
+	}
+
+	@Test
+	void theLeaderboardIsASnapshot() {
+		StatsService service = stats(3);
+		service.onDuelResolved(duel("Ana", "Zed", 5, false, false));
+		List<PlayerStats> before = service.getLeaderboard(3);
+
+		service.onDuelResolved(duel("Ana", "Zed", 5, false, false));
+
+		assertThat(before.get(0).getDamageDealt()).isEqualTo(5);
+		assertThat(service.getLeaderboard(3).get(0).getDamageDealt()).isEqualTo(10);
+	}
+
+	@Test
+	void incrementalTopKMatchesAFullSort() {
+		StatsService service = stats(5);
+		Random random = new Random(7);
+		List<String> players = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			players.add("Jogador " + i);
+		}
+
+		for (int event = 0; event < 5_000; event++) {
+			String attacker = players.get(random.nextInt(players.size()));
+			String target = players.get(random.nextInt(players.size()));
+			if (random.nextInt(4) == 0) {
+				service.onSpellCast(cast(attacker, random.nextBoolean(), random.nextBoolean()));
+			} else {
+				service.onDuelResolved(duel(attacker, target, random.nextInt(4), random.nextInt(5) == 0,
+						random.nextInt(20) == 0));
+			}
+		}
+
+		List<PlayerStats> all = new ArrayList<>();
+		for (String player : players) {
+			PlayerStats stats = service.getPlayerStats(player);
+			if (stats != null) {
+				all.add(stats);
+			}
+		}
+		all.sort(Comparator.comparingLong(PlayerStats::getEliminations).reversed()
+				.thenComparing(Comparator.comparingLong(PlayerStats::getDamageDealt).reversed())
+				.thenComparing(PlayerStats::getPlayerName));
+		assertThat(service.getLeaderboard(5)).isEqualTo(all.subList(0, 5));
+	}
+
+	@Test
+	void flushedTotalsAreLoadedOnTheNextStart() {
+		StatsService service = stats(10);
+		service.onDuelResolved(duel("Ana", "Bia", 4, true, true));
+		service.onSpellCast(cast("Ana", true, true));
+		service.flush();
+
+		StatsService restarted = stats(10);
+
+		assertThat(restarted.getPlayerStats("Ana")).isEqualTo(service.getPlayerStats("Ana"));
+		assertThat(restarted.getLeaderboard(10)).isEqualTo(service.getLeaderboard(10));
+	}
+}
@@ -0,0 +1,233 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.Tournament;
+import com.ultma.backend.model.TournamentEntrant;
+import com.ultma.backend.model.TournamentMatch;
+import com.ultma.backend.model.TournamentRequest;
+import com.ultma.backend.model.TournamentRound;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Matches are ended by storing them with every seat but the chosen winner eliminated, which
+// publishes the update the bracket listens for
+class TournamentServiceTests {
+
+	private TournamentService tournaments;
+
+	@TempDir
+	Path directory;
+
+	private GameService gameService;
+
+	@BeforeEach
+	void setUp() {
+		gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+			// Nobody listens while the server is down
+			if (event instanceof MatchUpdatedEvent updated && tournaments != null) {
+				tournaments.onMatchUpdated(updated);
+			}
+		}, new ActionTracing(ObservationRegistry.NOOP), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+		tournaments = new TournamentService(gameService);
+	}
+
+	@AfterEach
+	void shutdown() {
+		if (tournaments != null) {
+			tournaments.shutdown();
+		}
+	}
+
+	private Tournament create(int matchSize, String... names) {
+		TournamentRequest request = new TournamentRequest();
+		request.setName("Copa");
+		request.setMatchSize(matchSize);
+		for (String name : names) {
+			request.getEntrants().add(new TournamentEntrant(name, false, null));
+		}
+		return tournaments.createTournament(request);
+	}
+
+	// Polls until the tournament satisfies condition; rounds are created in the background
+	private Tournament await(String tournamentId, Predicate<Tournament> condition) throws InterruptedException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		Tournament tournament = tournaments.getTournament(tournamentId);
+		while (!condition.test(tournament)) {
+			assertThat(System.nanoTime()).as("waiting on " + tournamentId).isLessThan(deadline);
+			Thread.sleep(5);
+			tournament = tournaments.getTournament(tournamentId);
+		}
+		return tournament;
+	}
+
+	private Tournament awaitRound(String tournamentId, int number) throws InterruptedException {
+		return await(tournamentId, tournament -> tournament.getRounds().size() >= number);
+	}
+
+	private static TournamentRound lastRound(Tournament tournament) {
+		return tournament.getRounds().get(tournament.getRounds().size() - 1);
+	}
+
+	private static TournamentMatch matchOf(TournamentRound round, String entrant) {
+		return round.getMatches().stream()
+				.filter(match -> match.getEntrants().stream().anyMatch(e -> e.getName().equals(entrant)))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	// Ends a match with winner (a name) as the last one standing, or with nobody left if null
+	private void finish(TournamentMatch tournamentMatch, String winner) {
+		GameMatch match = gameService.getMatch(tournamentMatch.getMatchId());
+		for (Player player : match.getPlayers()) {
+			if (!player.getName().equals(winner)) {
+				player.setEliminated(true);
+				player.setLifeEnergy(0);
+			}
+		}
+		gameService.importMatch(match, true);
+	}
+
+	@Test
+	void winnersAdvanceUntilThereIsAChampion() throws InterruptedException {
+		Tournament tournament = create(2, "Ana", "Bia", "Caio", "Davi");
+		Tournament first = awaitRound(tournament.getId(), 1);
+		assertThat(lastRound(first).getMatches()).hasSize(2)
+				.allSatisfy(match -> assertThat(match.getStatus()).isEqualTo("playing"));
+
+		finish(matchOf(lastRound(first), "Ana"), "Ana");
+		finish(matchOf(lastRound(first), "Davi"), "Davi");
+		Tournament second = awaitRound(tournament.getId(), 2);
+		assertThat(lastRound(second).getMatches()).singleElement()
+				.satisfies(final_ -> assertThat(final_.getEntrants()).extracting(TournamentEntrant::getName)
+						.containsExactly("Ana", "Davi"));
+		assertThat(second.getRounds().get(0).getMatches()).extracting(TournamentMatch::getWinner)
+				.containsExactly("Ana", "Davi");
+
+		finish(lastRound(second).getMatches().get(0), "Davi");
+		Tournament finished = await(tournament.getId(), t -> "finished".equals(t.getStatus()));
+		assertThat(finished.getChampion()).isEqualTo("Davi");
+		assertThat(finished.getRounds()).hasSize(2);
+		// Finished matches are closed
+		assertThat(gameService.getMatchIds()).isEmpty();
+	}
+
+	@Test
+	void theOddOneOutGetsAByeAndPlaysTheNextRound() throws InterruptedException {
+		Tournament tournament = create(2, "Ana", "Bia", "Caio");
+		TournamentRound first = lastRound(awaitRound(tournament.getId(), 1));
+		TournamentMatch bye = matchOf(first, "Caio");
+		assertThat(bye.getStatus()).isEqualTo("bye");
+		assertThat(bye.getWinner()).isEqualTo("Caio");
+		assertThat(bye.getMatchId()).isNull();
+
+		finish(matchOf(first, "Bia"), "Bia");
+
+		TournamentRound second = lastRound(awaitRound(tournament.getId(), 2));
+		assertThat(second.getMatches()).singleElement()
+				.satisfies(final_ -> assertThat(final_.getEntrants()).extracting(TournamentEntrant::getName)
+						.containsExactly("Bia", "Caio"));
+	}
+
+	@Test
+	void withNobodyLeftStandingTheFirstSeatAdvances() throws InterruptedException {
+		Tournament tournament = create(3, "Ana", "Bia", "Caio");
+		TournamentMatch match = lastRound(awaitRound(tournament.getId(), 1)).getMatches().get(0);
+
+		finish(match, null);
+
+		Tournament finished = await(tournament.getId(), t -> "finished".equals(t.getStatus()));
+		assertThat(finished.getChampion()).isEqualTo("Ana");
+		assertThat(lastRound(finished).getMatches().get(0).getWinner()).isEqualTo("Ana");
+	}
+
+	@Test
+	void manyBracketsRunTheirRoundsAtTheSameTime() throws InterruptedException {
+		List<String> ids = new ArrayList<>();
+		for (int t = 0; t < 6; t++) {
+			List<String> names = new ArrayList<>();
+			for (int e = 0; e < 8; e++) {
+				names.add("T" + t + "-" + e);
+			}
+			ids.add(create(2, names.toArray(String[]::new)).getId());
+		}
+
+		// Every round of every bracket is open at once and finished from several threads; the
+		// entrant seated last always wins
+		for (int round = 1; round <= 3; round++) {
+			List<Thread> finishers = new ArrayList<>();
+			for (String id : ids) {
+				TournamentRound open = lastRound(awaitRound(id, round));
+				for (TournamentMatch match : open.getMatches()) {
+					String winner = match.getEntrants().get(match.getEntrants().size() - 1).getName();
+					Thread finisher = new Thread(() -> finish(match, winner));
+					finishers.add(finisher);
+					finisher.start();
+				}
+			}
+			for (Thread finisher : finishers) {
+				finisher.join();
+			}
+		}
+
+		for (int t = 0; t < ids.size(); t++) {
+			Tournament finished = await(ids.get(t), tournament -> "finished".equals(tournament.getStatus()));
+			assertThat(finished.getRounds()).extracting(round -> round.getMatches().size()).containsExactly(4, 2, 1);
+			assertThat(finished.getChampion()).isEqualTo("T" + t + "-7");
+		}
+		assertThat(gameService.getMatchIds()).isEmpty();
+	}
+
+	@Test
+	void bracketsSurviveARestartAndOrphanedBracketMatchesAreClosed() throws InterruptedException {
+		tournaments.shutdown();
+		tournaments = new TournamentService(gameService, directory.toString());
+		Tournament tournament = create(2, "Ana", "Bia", "Caio", "Davi");
+		TournamentRound first = lastRound(awaitRound(tournament.getId(), 1));
+		finish(matchOf(first, "Ana"), "Ana");
+		await(tournament.getId(), t -> "finished".equals(matchOf(lastRound(t), "Ana").getStatus()));
+		// A bracket match whose round was lost in a crash, and a side match of no tournament
+		GameMatch orphan = gameService.createMatch(List.of(new Player("Eva"), new Player("Fabi")),
+				created -> created.setTournamentId(tournament.getId()));
+		GameMatch imported = new GameMatch();
+		imported.getPlayers().addAll(List.of(new Player("Gil"), new Player("Hugo")));
+		gameService.importMatch(imported, true);
+
+		// The other match ends while the server is down
+		tournaments.shutdown();
+		tournaments = null;
+		finish(matchOf(first, "Davi"), "Davi");
+		tournaments = new TournamentService(gameService, directory.toString());
+
+		Tournament restored = awaitRound(tournament.getId(), 2);
+		assertThat(lastRound(restored).getMatches()).singleElement()
+				.satisfies(final_ -> assertThat(final_.getEntrants()).extracting(TournamentEntrant::getName)
+						.containsExactly("Ana", "Davi"));
+		String finalMatchId = lastRound(restored).getMatches().get(0).getMatchId();
+		await(tournament.getId(), t -> !gameService.getMatchIds().contains(orphan.getMatchId()));
+		assertThat(gameService.getMatchIds()).containsExactlyInAnyOrder(finalMatchId, imported.getMatchId());
+		assertThat(gameService.getMatch(finalMatchId).getTournamentId()).isEqualTo(tournament.getId());
+	}
+
+	@Test
+	void invalidBracketsAreRejected() {
+		assertThatThrownBy(() -> create(2, "Ana")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> create(5, "Ana", "Bia")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> create(2, "Ana", "Ana")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,143 @@
+package com.ultma.backend.service;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.event.MatchResetEvent;
+import com.ultma.backend.service.event.MatchUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// One-second turns on a 10 ms wheel, wired to a real GameService the way Spring delivers the events
+class TurnTimerServiceTests {
+
+	private static final long TURN_MILLIS = 1_000;
+
+	private TurnTimerService timer;
+
+	@TempDir
+	Path directory;
+
+	private GameService gameService;
+
+	@BeforeEach
+	void setUp() {
+		gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+			if (event instanceof MatchUpdatedEvent updated) {
+				timer.onMatchUpdated(updated);
+			} else if (event instanceof MatchResetEvent reset) {
+				timer.onMatchReset(reset);
+			}
+		}, new ActionTracing(ObservationRegistry.NOOP), new AdmissionControl(new SimpleMeterRegistry(), 64, 8, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+		timer = new TurnTimerService(gameService, true, TURN_MILLIS / 1000, 10, 16, 3);
+	}
+
+	@AfterEach
+	void shutdown() {
+		timer.shutdown();
+	}
+
+	private GameMatch arenaMatch() {
+		return gameService.createMatch(List.of(new Player("Ana"), new Player("Bia")), created -> {
+		});
+	}
+
+	// Polls the stored match until it satisfies condition, failing after timeoutMillis
+	private GameMatch awaitMatch(String matchId, Predicate<GameMatch> condition, long timeoutMillis)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+		GameMatch match = gameService.getMatch(matchId);
+		while (!condition.test(match)) {
+			assertThat(System.nanoTime()).as("waiting on " + matchId).isLessThan(deadline);
+			Thread.sleep(10);
+			match = gameService.getMatch(matchId);
+		}
+		return match;
+	}
+
+	@Test
+	void anIdleTurnIsSkippedAtTheDeadline() throws InterruptedException {
+		long start = System.nanoTime();
+		GameMatch match = arenaMatch();
+		int first = match.getCurrentTurnPlayerIndex();
+		assertThat(timer.activeTimers()).isEqualTo(1);
+
+		GameMatch advanced = awaitMatch(match.getMatchId(), m -> m.getCurrentTurnPlayerIndex() != first, 5_000);
+
+		assertThat((System.nanoTime() - start) / 1_000_000).isGreaterThanOrEqualTo(TURN_MILLIS);
+		assertThat(advanced.getVersion()).isGreaterThan(match.getVersion());
+		// The next turn has its own deadline
+		assertThat(timer.activeTimers()).isEqualTo(1);
+	}
+
+	@Test
+	void endingTheTurnReArmsTheDeadline() throws InterruptedException {
+		GameMatch match = arenaMatch();
+		Player first = match.getPlayers().get(match.getCurrentTurnPlayerIndex());
+		Thread.sleep(TURN_MILLIS / 2);
+
+		long endedAt = System.nanoTime();
+		GameMatch ended = gameService.endArenaTurn(first.getId());
+		int second = ended.getCurrentTurnPlayerIndex();
+		assertThat(timer.activeTimers()).as("the first deadline is cancelled").isEqualTo(1);
+
+		// The first turn's deadline passes halfway through; only the second's ends it
+		awaitMatch(match.getMatchId(), m -> m.getCurrentTurnPlayerIndex() != second, 5_000);
+		assertThat((System.nanoTime() - endedAt) / 1_000_000).isGreaterThanOrEqualTo(TURN_MILLIS);
+	}
+
+	@Test
+	void staleExpiriesAreIgnored() {
+		GameMatch match = arenaMatch();
+		int turn = match.getCurrentTurnPlayerIndex();
+		int round = match.getArenaRound();
+		gameService.endArenaTurn(match.getPlayers().get(turn).getId());
+		GameMatch current = gameService.getMatch(match.getMatchId());
+
+		GameMatch afterStale = gameService.expireTurn(match.getMatchId(), turn, round);
+
+		assertThat(afterStale.getVersion()).isEqualTo(current.getVersion());
+		assertThat(afterStale.getCurrentTurnPlayerIndex()).isEqualTo(current.getCurrentTurnPlayerIndex());
+		assertThat(gameService.expireTurn("no-such-match", 0, 1)).isNull();
+	}
+
+	@Test
+	void aFinishedMatchIsNoLongerTimed() {
+		GameMatch match = arenaMatch();
+		assertThat(timer.activeTimers()).isEqualTo(1);
+		int turn = match.getCurrentTurnPlayerIndex();
+		int round = match.getArenaRound();
+
+		// Bia falls and the match is over, though nobody has closed it yet
+		Player bia = match.getPlayers().get(1);
+		bia.setEliminated(true);
+		bia.setLifeEnergy(0);
+		gameService.importMatch(match, true);
+		assertThat(timer.activeTimers()).isZero();
+
+		GameMatch afterExpiry = gameService.expireTurn(match.getMatchId(), turn, round);
+		assertThat(afterExpiry.getVersion()).isEqualTo(match.getVersion());
+		assertThat(afterExpiry.getCurrentTurnPlayerIndex()).isEqualTo(turn);
+	}
+
+	@Test
+	void closingTheMatchCancelsItsTimer() {
+		GameMatch match = arenaMatch();
+		assertThat(timer.activeTimers()).isEqualTo(1);
+
+		gameService.closeMatch(match.getMatchId());
+
+		assertThat(timer.activeTimers()).isZero();
+	}
+}
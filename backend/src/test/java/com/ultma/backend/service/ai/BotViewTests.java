@@ -0,0 +1,96 @@
+package com.ultma.backend.service.ai;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.service.sim.CompactMatchState;
+import com.ultma.backend.service.sim.SpellCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BotViewTests {
+
+	private GameMatch match;
+	private Player bot;
+	private Player rival;
+
+	@BeforeEach
+	void setUp() {
+		match = new GameMatch();
+		Map<GameEnums.PowerWord, GameEnums.Meaning> words = new EnumMap<>(GameEnums.PowerWord.class);
+		for (GameEnums.PowerWord word : GameEnums.PowerWord.values()) {
+			words.put(word, GameEnums.Meaning.values()[word.ordinal()]);
+		}
+		match.setWordDictionary(words);
+		Map<GameEnums.PotionColor, GameEnums.PotionEffect> potions = new EnumMap<>(GameEnums.PotionColor.class);
+		for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+			potions.put(color, GameEnums.PotionEffect.values()[color.ordinal()]);
+		}
+		match.setPotionDictionary(potions);
+
+		bot = new Player("Bot 1");
+		bot.setBot(true);
+		bot.getKnownSpells().add("Bola de Fogo");
+		bot.getPotions().add(GameEnums.PotionColor.AZUL);
+		bot.setActionsRemaining(3);
+		rival = new Player("Ana");
+		rival.getKnownSpells().add("Maldição do Vazio");
+		rival.getKnownSpells().add("Escudo de Vácuo");
+		rival.getActiveDefenses().add("Escudo de Vácuo");
+		rival.getPotions().addAll(List.of(GameEnums.PotionColor.ROXA, GameEnums.PotionColor.ROSA));
+		match.getPlayers().addAll(List.of(bot, rival));
+		match.setArenaPhase(true);
+		match.setCurrentTurnPlayerIndex(0);
+		match.setArenaRound(1);
+	}
+
+	@Test
+	void dictionariesAreHidden() {
+		CompactMatchState state = BotView.of(match, bot.getId()).state;
+
+		for (GameEnums.PowerWord word : GameEnums.PowerWord.values()) {
+			assertThat(state.meaning(word.ordinal())).isEqualTo(CompactMatchState.NULL);
+		}
+		for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+			assertThat(state.potionEffect(color.ordinal())).isEqualTo(CompactMatchState.NULL);
+		}
+	}
+
+	@Test
+	void opponentsShowOnlyStartingSpellsAndActiveDefenses() {
+		BotView view = BotView.of(match, bot.getId());
+		CompactMatchState state = view.state;
+
+		assertThat(view.botSeat).isEqualTo(0);
+		int escudo = SpellCatalog.indexOf("Escudo de Vácuo");
+		assertThat(state.knownSpells(1)).isEqualTo(SpellCatalog.STARTING_MASK | 1 << escudo);
+		assertThat(state.knowsSpell(1, SpellCatalog.indexOf("Maldição do Vazio"))).isFalse();
+		for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+			assertThat(state.potions(1, color.ordinal())).isZero();
+		}
+	}
+
+	@Test
+	void botKeepsItsOwnSpellsAndPotions() {
+		CompactMatchState state = BotView.of(match, bot.getId()).state;
+
+		assertThat(state.knowsSpell(0, SpellCatalog.indexOf("Bola de Fogo"))).isTrue();
+		assertThat(state.potions(0, GameEnums.PotionColor.AZUL.ordinal())).isEqualTo(1);
+		// The match itself is left untouched
+		assertThat(match.getWordDictionary()).hasSize(GameEnums.PowerWord.values().length);
+		assertThat(rival.getPotions()).hasSize(2);
+	}
+
+	@Test
+	void noViewOutsideAnArena() {
+		assertThat(BotView.of(match, "someone-else")).isNull();
+		match.setArenaPhase(false);
+		assertThat(BotView.of(match, bot.getId())).isNull();
+	}
+}
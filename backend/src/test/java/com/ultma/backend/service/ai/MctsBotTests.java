@@ -0,0 +1,203 @@
+package com.ultma.backend.service.ai;
+
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.model.SpellResult;
+import com.ultma.backend.repository.GameRepository;
+import com.ultma.backend.service.ActionProfiler;
+import com.ultma.backend.service.ActionTracing;
+import com.ultma.backend.service.AdmissionControl;
+import com.ultma.backend.service.GameRules;
+import com.ultma.backend.service.GameService;
+import com.ultma.backend.service.MatchPartitions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MctsBotTests {
+
+	private final List<MctsBot> bots = new ArrayList<>();
+
+	@TempDir
+	Path directory;
+
+	private GameService gameService;
+
+	@BeforeEach
+	void setUp() {
+		gameService = new GameService(new GameRepository(new SimpleMeterRegistry(), null, directory.resolve("gamestate.json").toString()), event -> {
+		}, new ActionTracing(ObservationRegistry.NOOP),
+				new AdmissionControl(new SimpleMeterRegistry(), Integer.MAX_VALUE, Integer.MAX_VALUE, 1),
+				new MatchPartitions(new SimpleMeterRegistry(), 2), new ActionProfiler(false, 0));
+	}
+
+	@AfterEach
+	void closeBots() {
+		bots.forEach(MctsBot::close);
+	}
+
+	private MctsBot bot(int parallelism, long thinkTimeMillis, int maxIterations) {
+		MctsBot bot = new MctsBot(parallelism, thinkTimeMillis, maxIterations);
+		bots.add(bot);
+		return bot;
+	}
+
+	private GameMatch botMatch(int seats) {
+		List<Player> players = new ArrayList<>();
+		for (int seat = 0; seat < seats; seat++) {
+			Player player = new Player("Bot " + (seat + 1));
+			player.setBot(true);
+			players.add(player);
+		}
+		return gameService.createMatch(players, created -> {
+		});
+	}
+
+	private static Player playerToMove(GameMatch match) {
+		return match.getPlayers().get(match.getCurrentTurnPlayerIndex());
+	}
+
+	// Runs the action the way BotService does; returns the cast result, null for other actions
+	private SpellResult play(GameMatch match, Player player, BotAction action) {
+		switch (action.getType()) {
+			case CAST:
+				return gameService.castSpell(player.getId(), action.getWord1().name(), action.getWord2().name());
+			case ATTACK:
+				gameService.attackPlayer(player.getId(), match.getPlayers().get(action.getTarget()).getId(), action.getSpellName());
+				break;
+			case DEFEND:
+				gameService.activateDefense(player.getId(), action.getSpellName());
+				break;
+			case POTION:
+				gameService.usePotion(player.getId(), action.getPotion().name());
+				break;
+			case MEDITATE:
+				gameService.meditate(player.getId());
+				break;
+			case END_TURN:
+				gameService.endArenaTurn(player.getId());
+				break;
+		}
+		return null;
+	}
+
+	@Test
+	void everyChosenActionIsAcceptedByTheGame() {
+		MctsBot bot = bot(2, 5, 2_000);
+		GameMatch match = botMatch(3);
+		int actions = 0;
+		while (!GameRules.isMatchOver(match) && actions < 300) {
+			Player player = playerToMove(match);
+			BotAction action = bot.decide(match, player.getId());
+			assertThat(action).as("action of the player to move").isNotNull();
+			if (action.getType() == BotAction.Type.ATTACK) {
+				assertThat(action.getTarget()).isNotEqualTo(match.getCurrentTurnPlayerIndex());
+				assertThat(match.getPlayers().get(action.getTarget()).isEliminated()).isFalse();
+			}
+
+			SpellResult cast = play(match, player, action);
+			GameMatch after = gameService.getMatch(match.getMatchId());
+			if (after.getVersion() == match.getVersion()) {
+				// Only a cast may be turned away: its real cost depends on the dictionary the bot cannot see
+				assertThat(cast).as(action + " was rejected").isNotNull();
+				assertThat(cast.getDescription()).isEqualTo("not enough mana to cast this spell");
+			}
+			match = after;
+			actions++;
+		}
+		assertThat(actions).isGreaterThan(10);
+	}
+
+	@Test
+	void decidesOnlyOnItsOwnTurn() {
+		GameMatch match = botMatch(2);
+		Player waiting = match.getPlayers().get(1 - match.getCurrentTurnPlayerIndex());
+
+		assertThat(bot(1, 5, 100).decide(match, waiting.getId())).isNull();
+		assertThat(bot(1, 5, 100).decide(match, "not-seated")).isNull();
+	}
+
+	@Test
+	void searchStopsAtTheThinkTime() {
+		GameMatch match = botMatch(4);
+		String botId = playerToMove(match).getId();
+
+		long start = System.nanoTime();
+		bot(2, 40, Integer.MAX_VALUE).decide(match, botId);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		assertThat(elapsedMillis).isBetween(35L, 40L + 400L);
+
+		// The iteration cap ends it sooner
+		start = System.nanoTime();
+		bot(2, 60_000, 200).decide(match, botId);
+		assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000L);
+	}
+
+	// Whole bot turns (up to 4 decisions each) played for 3 s on concurrentMatches matches at once
+	private double turnsPerSecond(MctsBot bot, int concurrentMatches) throws InterruptedException {
+		AtomicInteger turns = new AtomicInteger();
+		AtomicInteger decisions = new AtomicInteger();
+		long deadline = System.nanoTime() + 3_000_000_000L;
+		CountDownLatch done = new CountDownLatch(concurrentMatches);
+		long start = System.nanoTime();
+		for (int i = 0; i < concurrentMatches; i++) {
+			new Thread(() -> {
+				GameMatch match = botMatch(4);
+				while (System.nanoTime() < deadline) {
+					if (GameRules.isMatchOver(match)) {
+						match = botMatch(4);
+					}
+					int turn = match.getCurrentTurnPlayerIndex();
+					int round = match.getArenaRound();
+					while (System.nanoTime() < deadline && !GameRules.isMatchOver(match)
+							&& match.getCurrentTurnPlayerIndex() == turn && match.getArenaRound() == round) {
+						Player player = playerToMove(match);
+						play(match, player, bot.decide(match, player.getId()));
+						decisions.incrementAndGet();
+						match = gameService.getMatch(match.getMatchId());
+					}
+					turns.incrementAndGet();
+				}
+				done.countDown();
+			}).start();
+		}
+		done.await();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%3d matches %8.0f turns/s %8.0f decisions/s%n",
+				concurrentMatches, turns.get() / seconds, decisions.get() / seconds);
+		return turns.get() / seconds;
+	}
+
+	// Every decision searches for its whole think time on one worker per core, so a node plays
+	// about cores * 1000 / think-time decisions per second, three or four per turn. The default
+	// 25 ms favours play strength; 2 ms is enough for hundreds of turns per second even on one
+	// core. mvn -Pbenchmark test
+	@Test
+	@Tag("benchmark")
+	void botTurnsPerSecond() throws InterruptedException {
+		int cores = Runtime.getRuntime().availableProcessors();
+		for (long thinkTimeMillis : new long[] { 25, 2 }) {
+			System.out.printf("think time %d ms, %d cores%n", thinkTimeMillis, cores);
+			MctsBot bot = bot(cores, thinkTimeMillis, 20_000);
+			double turnsPerSecond = 0;
+			for (int concurrentMatches : new int[] { 1, 4, 16 }) {
+				turnsPerSecond = turnsPerSecond(bot, concurrentMatches);
+			}
+			if (thinkTimeMillis == 2) {
+				assertThat(turnsPerSecond).isGreaterThanOrEqualTo(100);
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.ultma.backend.service.analytics;
+
+import com.ultma.backend.model.AnalyticsGroup;
+import com.ultma.backend.model.AnalyticsProgress;
+import com.ultma.backend.model.ArchivedMatch;
+import com.ultma.backend.model.DuelResult;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.MatchAction;
+import com.ultma.backend.model.Player;
+import com.ultma.backend.repository.MatchArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private ArchivedMatch archivedMatch(int index) {
+		GameMatch match = new GameMatch();
+		Player alice = new Player("Alice");
+		Player bob = new Player("Bob");
+		match.getPlayers().add(alice);
+		match.getPlayers().add(bob);
+
+		List<MatchAction> history = new ArrayList<>();
+		// Bola de Fogo is blocked by Muro de Água in every other match
+		boolean blocked = index % 2 == 0;
+		history.add(new MatchAction(1, 0, 1, "attack", alice.getId(), "Alice", bob.getId(), 4, null,
+				new DuelResult(true, alice.getId(), bob.getId(), "Bola de Fogo", blocked ? 0 : 1, 0, 0, 3, blocked ? 3 : 2,
+						blocked, blocked ? "Muro de Água" : null)));
+		history.add(new MatchAction(2, 0, 2, "attack", alice.getId(), "Alice", bob.getId(), index % 4 == 0 ? 0 : 1, null,
+				new DuelResult(true, alice.getId(), bob.getId(), "Maldição do Vazio", 0, 0, 0, 2, 2, false, null)));
+		history.add(new MatchAction(3, 0, 3 + index % 3, "attack", alice.getId(), "Alice", bob.getId(), 0, null,
+				new DuelResult(true, alice.getId(), bob.getId(), "Disparo Arcano", 2, 0, 0, 2, 0, false, null)));
+		return new ArchivedMatch(match, history, index, "finished");
+	}
+
+	@Test
+	void queriesStreamOverEveryArchivedMatch() throws Exception {
+		MatchArchive archive = new MatchArchive(directory.toString(), 64);
+		for (int i = 0; i < 100; i++) {
+			archive.append(archivedMatch(i));
+		}
+		AnalyticsService analytics = new AnalyticsService(archive, 16, 4);
+		try {
+			List<AnalyticsProgress> progress = new ArrayList<>();
+			analytics.run(analytics.getQuery("blocked-rate-by-defense"), progress::add);
+			assertThat(progress).hasSize(7);
+			assertThat(progress.get(0).isDone()).isFalse();
+			AnalyticsProgress last = progress.get(progress.size() - 1);
+			assertThat(last.isDone()).isTrue();
+			assertThat(last.getMatchesScanned()).isEqualTo(100);
+			AnalyticsGroup water = last.getGroups().stream()
+					.filter(group -> group.getGroup().equals("Muro de Água")).findFirst().orElseThrow();
+			assertThat(water.getCount()).isEqualTo(100);
+			assertThat(water.getMean()).isEqualTo(0.5);
+
+			progress.clear();
+			analytics.run(analytics.getQuery("void-curse-starvation"), progress::add);
+			assertThat(progress.get(progress.size() - 1).getGroups().get(0).getMean()).isEqualTo(0.25);
+
+			progress.clear();
+			analytics.run(analytics.getQuery("rounds-to-first-elimination"), progress::add);
+			AnalyticsGroup rounds = progress.get(progress.size() - 1).getGroups().get(0);
+			assertThat(rounds.getCount()).isEqualTo(100);
+			assertThat(rounds.getMin()).isEqualTo(3);
+			assertThat(rounds.getMax()).isEqualTo(5);
+		} finally {
+			analytics.close();
+			archive.close();
+		}
+	}
+
+}
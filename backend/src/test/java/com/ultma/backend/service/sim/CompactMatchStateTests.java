@@ -0,0 +1,110 @@
+package com.ultma.backend.service.sim;
+
+import com.ultma.backend.model.GameEnums;
+import com.ultma.backend.model.GameMatch;
+import com.ultma.backend.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactMatchStateTests {
+
+	private GameMatch sampleMatch() {
+		GameMatch match = new GameMatch();
+		Map<GameEnums.PowerWord, GameEnums.Meaning> words = new EnumMap<>(GameEnums.PowerWord.class);
+		for (GameEnums.PowerWord word : GameEnums.PowerWord.values()) {
+			words.put(word, GameEnums.Meaning.values()[word.ordinal()]);
+		}
+		match.setWordDictionary(words);
+		Map<GameEnums.PotionColor, GameEnums.PotionEffect> potions = new EnumMap<>(GameEnums.PotionColor.class);
+		for (GameEnums.PotionColor color : GameEnums.PotionColor.values()) {
+			potions.put(color, GameEnums.PotionEffect.values()[color.ordinal()]);
+		}
+		match.setPotionDictionary(potions);
+
+		Player alice = new Player("Alice");
+		alice.getKnownSpells().add("Maldição do Vazio");
+		alice.getKnownSpells().add("Bola de Fogo");
+		alice.getPotions().addAll(List.of(GameEnums.PotionColor.AZUL, GameEnums.PotionColor.ROSA, GameEnums.PotionColor.AZUL));
+		alice.getActiveDefenses().add("Proteção Arcana");
+		alice.setArenaPosition(1);
+		alice.setActionsRemaining(2);
+		Player bob = new Player("Bob");
+		bob.setBot(true);
+		bob.setLifeEnergy(2);
+		bob.setActionsRemaining(0);
+		bob.getGlifos().add(GameEnums.Glifo.GLIFO_3);
+		match.getPlayers().add(alice);
+		match.getPlayers().add(bob);
+		match.setArenaPhase(true);
+		match.setCurrentTurnPlayerIndex(0);
+		match.setArenaRound(4);
+		match.getGlifosUsadosNoTabuleiro().add(GameEnums.Glifo.GLIFO_1);
+		match.setVersion(17);
+		return match;
+	}
+
+	@Test
+	void roundTripKeepsState() {
+		GameMatch match = sampleMatch();
+		match.getPlayers().get(0).getPotions().sort(null);
+
+		GameMatch copy = CompactMatchState.fromMatch(match).toMatch();
+
+		assertThat(copy).isEqualTo(match);
+	}
+
+	@Test
+	void undoRestoresStateAfterRandomPlay() {
+		CompactMatchState state = CompactMatchState.fromMatch(sampleMatch());
+		GameMatch before = state.toMatch();
+		int[] actions = new int[CompactRules.maxActions(state.seats())];
+		Random random = new Random(7);
+
+		int mark = state.mark();
+		for (int i = 0; i < 20 && !CompactRules.isTerminal(state); i++) {
+			int count = CompactRules.legalActions(state, true, actions);
+			CompactRules.apply(state, actions[random.nextInt(count)], random);
+		}
+		state.undo(mark);
+
+		assertThat(state.toMatch()).isEqualTo(before);
+	}
+
+	@Test
+	void anOuterMarkKeepsRecordingAfterAnInnerUndo() {
+		CompactMatchState state = CompactMatchState.fromMatch(sampleMatch());
+		GameMatch before = state.toMatch();
+
+		// Both marks sit at the start of the journal, as on a search's first descent
+		int outer = state.mark();
+		int inner = state.mark();
+		state.undo(inner);
+		state.set(CompactMatchState.LIFE, 1, 9);
+		state.setCurrentTurn(1);
+		state.undo(outer);
+
+		assertThat(state.toMatch()).isEqualTo(before);
+	}
+
+	@Test
+	void undoRestoresTheOrderSpellsWereLearnedIn() {
+		CompactMatchState state = CompactMatchState.fromMatch(sampleMatch());
+		GameMatch before = state.toMatch();
+
+		// Alice learned her spells out of catalog order, which setKnownSpells rewrites
+		int mark = state.mark();
+		state.setKnownSpells(0, state.knownSpells(0) | SpellCatalog.STARTING_MASK);
+		state.setKnownSpells(1, 0);
+		state.learnSpell(1, SpellCatalog.indexOf("Bola de Fogo"));
+		state.undo(mark);
+
+		assertThat(state.toMatch()).isEqualTo(before);
+	}
+
+}
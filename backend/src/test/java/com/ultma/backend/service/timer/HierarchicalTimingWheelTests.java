@@ -0,0 +1,93 @@
+package com.ultma.backend.service.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A small wheel (4 buckets of 2 ms, 3 levels) so that short delays already cross levels: level 0
+// spans 8 ms, level 1 32 ms and level 2 128 ms, and anything later wraps around the top level
+class HierarchicalTimingWheelTests {
+
+	private static final long TICK_MILLIS = 2;
+	// Firing may lag on a busy machine, never lead
+	private static final long MAX_LATENESS_MILLIS = 1_000;
+
+	private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, 4, 3, Runnable::run);
+
+	@AfterEach
+	void closeWheel() {
+		wheel.close();
+	}
+
+	// Schedules every delay and returns how long after scheduling each one fired
+	private Map<Long, Long> fire(long... delays) throws InterruptedException {
+		Map<Long, Long> firedAfter = new ConcurrentHashMap<>();
+		CountDownLatch fired = new CountDownLatch(delays.length);
+		long start = System.nanoTime();
+		for (long delay : delays) {
+			wheel.schedule(delay, () -> {
+				firedAfter.put(delay, (System.nanoTime() - start) / 1_000_000);
+				fired.countDown();
+			});
+		}
+		long longest = 0;
+		for (long delay : delays) {
+			longest = Math.max(longest, delay);
+		}
+		assertThat(fired.await(longest + MAX_LATENESS_MILLIS, TimeUnit.MILLISECONDS)).as("all fired").isTrue();
+		return firedAfter;
+	}
+
+	@Test
+	void timeoutsOnEveryLevelFireOnTime() throws InterruptedException {
+		// 5 ms stays on level 0, 20 ms cascades once, 100 ms twice
+		Map<Long, Long> firedAfter = fire(5, 20, 100, 0);
+
+		firedAfter.forEach((delay, elapsed) ->
+				assertThat(elapsed).as("delay " + delay).isBetween(delay, delay + MAX_LATENESS_MILLIS));
+		assertThat(wheel.pendingCount()).isZero();
+	}
+
+	@Test
+	void deadlinesBeyondTheTopLevelWrapAroundAndStillFireOnTime() throws InterruptedException {
+		Map<Long, Long> firedAfter = fire(300, 450);
+
+		assertThat(firedAfter.get(300L)).isBetween(300L, 300 + MAX_LATENESS_MILLIS);
+		assertThat(firedAfter.get(450L)).isBetween(450L, 450 + MAX_LATENESS_MILLIS);
+	}
+
+	@Test
+	void cancelledTimeoutsNeverFire() throws InterruptedException {
+		CountDownLatch cancelledFired = new CountDownLatch(1);
+		HierarchicalTimingWheel.Timeout near = wheel.schedule(10, cancelledFired::countDown);
+		HierarchicalTimingWheel.Timeout far = wheel.schedule(60, cancelledFired::countDown);
+		assertThat(wheel.pendingCount()).isEqualTo(2);
+
+		assertThat(near.cancel()).isTrue();
+		assertThat(far.cancel()).isTrue();
+		assertThat(near.cancel()).as("second cancel").isFalse();
+		assertThat(wheel.pendingCount()).isZero();
+
+		// Re-arming is a new timeout; the cancelled ones stay silent past their deadlines
+		CountDownLatch rearmed = new CountDownLatch(1);
+		wheel.schedule(80, rearmed::countDown);
+		assertThat(rearmed.await(80 + MAX_LATENESS_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+		assertThat(cancelledFired.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void aFiredTimeoutCannotBeCancelled() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		HierarchicalTimingWheel.Timeout timeout = wheel.schedule(5, fired::countDown);
+
+		assertThat(fired.await(5 + MAX_LATENESS_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+		assertThat(timeout.cancel()).isFalse();
+		assertThat(wheel.pendingCount()).isZero();
+	}
+}
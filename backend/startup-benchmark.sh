@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Compares startup time and resident memory of the JVM, AOT-on-JVM and native builds.
+#
+#   ./mvnw -DskipTests package && cp target/backend-0.0.1-SNAPSHOT.jar target/backend-jvm.jar
+#   ./mvnw -Pnative -DskipTests package native:compile
+#   ./startup-benchmark.sh [runs]
+#
+# Each run starts the server on a free port in a scratch directory, polls /actuator/health until it
+# answers UP and then reads VmRSS of the process. Builds that are missing are skipped.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+cd "$(dirname "$0")"
+JVM_JAR=${JVM_JAR:-target/backend-jvm.jar}
+AOT_JAR=${AOT_JAR:-target/backend-0.0.1-SNAPSHOT.jar}
+NATIVE=${NATIVE:-target/backend}
+
+now_ms() { date +%s%3N; }
+
+measure() {
+    local label=$1; shift
+    local total_ms=0 total_rss=0
+    for ((run = 1; run <= RUNS; run++)); do
+        local work
+        work=$(mktemp -d)
+        local start
+        start=$(now_ms)
+        (cd "$work" && exec "$@" --server.port="$PORT" --ultma.bot.enabled=false >/dev/null 2>&1) &
+        local pid=$!
+        until curl -sf "http://localhost:$PORT/actuator/health" 2>/dev/null | grep -q UP; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$label: process exited before becoming healthy" >&2
+                return 1
+            fi
+            sleep 0.02
+        done
+        local elapsed=$(( $(now_ms) - start ))
+        local rss
+        rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        rm -rf "$work"
+        total_ms=$((total_ms + elapsed))
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-12s startup %6d ms   rss %7d KB   (mean of %d runs)\n' \
+        "$label" $((total_ms / RUNS)) $((total_rss / RUNS)) "$RUNS"
+}
+
+[[ -f $JVM_JAR ]] && measure jvm java -jar "$(realpath "$JVM_JAR")"
+[[ -f $AOT_JAR ]] && measure jvm-aot java -Dspring.aot.enabled=true -jar "$(realpath "$AOT_JAR")"
+[[ -x $NATIVE ]] && measure native "$(realpath "$NATIVE")"
+exit 0
@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { 
   CssBaseline, Container, Typography, Box, Paper, Button, 
   TextField, Alert, Chip, Card, CardContent, Tabs, Tab,
@@ -183,6 +183,10 @@ function App() {
   // Track previous resource values for visual feedback
   const [resourceChange, setResourceChange] = useState<{lifeEnergy: number; magicShield: number; mana: number} | null>(null);
 
+  // Match and version of the last state applied. Responses can arrive out of order, so an older
+  // state of the same match is dropped instead of undoing a newer one.
+  const shownVersion = useRef<{ matchId: string; version: number } | null>(null);
+
   // helper to update local player state from game state
   const refreshPlayer = (gameData: GameMatch, playerId?: string) => {
     if (!gameData || !gameData.players) return;
@@ -235,15 +239,62 @@ function App() {
     }
   };
 
-  const selectPlayer = (playerId: string) => {
-    if (game) {
-      const player = game.players.find(p => p.id === playerId);
-      if (player) {
-        setCurrentPlayer(player);
-        setWord1('');
-        setWord2('');
-        setSpellResult(null);
-        setDuelResult(null);
+  // Applies a state returned by the server, unless a newer state of the same match is shown.
+  // Returns the version that was shown before, or null when the state was dropped.
+  const applyState = (gameData: GameMatch, playerId?: string): number | null => {
+    const version = gameData.version ?? 0;
+    const shown = shownVersion.current;
+    const previous = shown && shown.matchId === gameData.matchId ? shown.version : null;
+    if (previous !== null && version < previous) return null;
+    shownVersion.current = { matchId: gameData.matchId, version };
+    refreshPlayer(gameData, playerId);
+    return previous ?? version - 1;
+  };
+
+  const refetchState = async (playerId?: string) => {
+    try {
+      const refreshed = await GameService.getGame(playerId ?? currentPlayer?.id);
+      if (refreshed) {
+        applyState(refreshed, playerId);
+      }
+    } catch (err) {
+      console.error('Error refreshing game state:', err);
+    }
+  };
+
+  // Every action answers with the state it left: one version after the one shown, or the same
+  // version when it was rejected. The answer is applied as is; the match is refetched only when
+  // there is no answer or it skips versions, saves this client never saw in between. A stale
+  // answer is dropped, a newer state is already shown.
+  const applyActionState = async (gameData: GameMatch | null | undefined, playerId?: string) => {
+    if (!gameData) {
+      await refetchState(playerId);
+      return;
+    }
+    const previous = applyState(gameData, playerId);
+    if (previous !== null && (gameData.version ?? 0) > previous + 1) {
+      await refetchState(playerId);
+    }
+  };
+
+  // The server only sends a player's spells, potions and glyphs in that player's own view, so
+  // switching players fetches the match as the new player sees it
+  const selectPlayer = async (playerId: string) => {
+    if (game && game.players.some(p => p.id === playerId)) {
+      setWord1('');
+      setWord2('');
+      setSpellResult(null);
+      setDuelResult(null);
+      try {
+        const view = await GameService.getGame(playerId);
+        const player = view?.players.find(p => p.id === playerId);
+        if (player) {
+          shownVersion.current = { matchId: view.matchId, version: view.version ?? 0 };
+          setGame(view);
+          setCurrentPlayer(player);
+        }
+      } catch (err) {
+        console.error('Error loading player view:', err);
       }
     }
   };
@@ -252,13 +303,13 @@ function App() {
   useEffect(() => {
     const loadGameState = async () => {
       try {
-        const gameState = await GameService.getGame();
-        if (gameState && gameState.players && gameState.players.length > 0) {
+        const spectatorView = await GameService.getGame();
+        if (spectatorView && spectatorView.players && spectatorView.players.length > 0) {
+          // Select the first player, loading the match as that player sees it
+          const gameState = await GameService.getGame(spectatorView.players[0].id);
+          shownVersion.current = { matchId: gameState.matchId, version: gameState.version ?? 0 };
           setGame(gameState);
-          // Select the first player if available
-          if (gameState.players.length > 0) {
-            setCurrentPlayer(gameState.players[0]);
-          }
+          setCurrentPlayer(gameState.players[0]);
         }
       } catch (err) {
         console.error('Error loading game state:', err);
@@ -273,6 +324,7 @@ function App() {
   const handleStartGame = async () => {
     try {
       const newGame = await GameService.startNewGame();
+      shownVersion.current = { matchId: newGame.matchId, version: newGame.version ?? 0 };
       setGame(newGame);
       setCurrentPlayer(null);
       setSpellResult(null);
@@ -287,6 +339,7 @@ function App() {
     if (window.confirm('Tem certeza que deseja sair e resetar a partida? Todos os dados serão perdidos.')) {
       try {
         await GameService.resetGame();
+        shownVersion.current = null;
         setGame(null);
         setCurrentPlayer(null);
         setSpellResult(null);
@@ -320,7 +373,7 @@ function App() {
         return;
       }
       const newPlayerId = updatedGame.players[updatedGame.players.length - 1].id;
-      refreshPlayer(updatedGame, newPlayerId);
+      applyState(updatedGame, newPlayerId);
       setPlayerName('');
       setError('');
     } catch (err) {
@@ -335,29 +388,7 @@ function App() {
       setError('');
       const result = await GameService.castSpell(currentPlayer.id, word1, word2);
       setSpellResult(result);
-
-      // refresh data immediately and after a delay to ensure backend saved
-      try {
-        const updatedGame = await GameService.getGame();
-        if (updatedGame) {
-          refreshPlayer(updatedGame, currentPlayer.id);
-        }
-      } catch (err) {
-        console.error('Error refreshing after cast:', err);
-      }
-      
-      // Also refresh after delay as backup
-      setTimeout(async () => {
-        try {
-          const updatedGame = await GameService.getGame();
-          if (updatedGame) {
-            refreshPlayer(updatedGame, currentPlayer.id);
-          }
-        } catch (err) {
-          console.error('Error refreshing after cast (delayed):', err);
-        }
-      }, 500);
-
+      await applyActionState(result.match, currentPlayer.id);
     } catch (err) {
       console.error(err);
       setError("Erro ao conjurar magia.");
@@ -369,21 +400,7 @@ function App() {
     try {
       setError('');
       const updatedGame = await GameService.meditate(currentPlayer.id);
-      if (updatedGame) {
-        refreshPlayer(updatedGame, currentPlayer.id);
-      } else {
-        // If no game returned, refresh from server
-        setTimeout(async () => {
-          try {
-            const refreshedGame = await GameService.getGame();
-            if (refreshedGame) {
-              refreshPlayer(refreshedGame, currentPlayer.id);
-            }
-          } catch (err) {
-            console.error('Error refreshing after meditate:', err);
-          }
-        }, 300);
-      }
+      await applyActionState(updatedGame, currentPlayer.id);
       setSpellResult(null);
       setDuelResult(null);
     } catch (err) {
@@ -423,28 +440,8 @@ function App() {
       if (!result.success) {
         setError(result.blockingSpell || "Ataque falhou.");
       }
-      
-      // Refresh game state immediately and after delay
-      try {
-        const updatedGame = await GameService.getGame();
-        console.log('Game state after attack:', updatedGame);
-        if (updatedGame) {
-          refreshPlayer(updatedGame, currentPlayer.id);
-        }
-      } catch (err) {
-        console.error('Error refreshing after attack:', err);
-      }
-      
-      setTimeout(async () => {
-        try {
-          const updatedGame = await GameService.getGame();
-          if (updatedGame) {
-            refreshPlayer(updatedGame, currentPlayer.id);
-          }
-        } catch (err) {
-          console.error('Error refreshing after attack (delayed):', err);
-        }
-      }, 500);
+
+      await applyActionState(result.match, currentPlayer.id);
     } catch (err: any) {
       console.error('Attack error:', err);
       const errorMessage = err.response?.data?.message || err.message || "Erro ao atacar.";
@@ -459,18 +456,7 @@ function App() {
       setError('');
       const result = await GameService.activateDefense(currentPlayer.id, spellName);
       setSpellResult(result);
-      
-      // Refresh game state - use setTimeout to ensure backend saved
-      setTimeout(async () => {
-        try {
-          const updatedGame = await GameService.getGame();
-          if (updatedGame) {
-            refreshPlayer(updatedGame, currentPlayer.id);
-          }
-        } catch (err) {
-          console.error('Error refreshing after defense:', err);
-        }
-      }, 300);
+      await applyActionState(result.match, currentPlayer.id);
     } catch (err) {
       console.error(err);
       setError("Erro ao ativar defesa.");
@@ -480,10 +466,8 @@ function App() {
   const handleStartArena = async () => {
     try {
       setError('');
-      const updatedGame = await GameService.startArenaPhase();
-      if (updatedGame) {
-        refreshPlayer(updatedGame);
-      }
+      const updatedGame = await GameService.startArenaPhase(currentPlayer?.id);
+      await applyActionState(updatedGame);
     } catch (err) {
       console.error(err);
       setError("Erro ao iniciar arena.");
@@ -495,9 +479,7 @@ function App() {
     try {
       setError('');
       const updatedGame = await GameService.endArenaTurn(currentPlayer.id);
-      if (updatedGame) {
-        refreshPlayer(updatedGame);
-      }
+      await applyActionState(updatedGame);
     } catch (err) {
       console.error(err);
       setError("Erro ao terminar turno.");
@@ -507,10 +489,8 @@ function App() {
   const handleEndArena = async () => {
     try {
       setError('');
-      const updatedGame = await GameService.endArenaPhase();
-      if (updatedGame) {
-        refreshPlayer(updatedGame);
-      }
+      const updatedGame = await GameService.endArenaPhase(currentPlayer?.id);
+      await applyActionState(updatedGame);
     } catch (err) {
       console.error(err);
       setError("Erro ao finalizar arena.");
@@ -522,9 +502,7 @@ function App() {
     try {
       setError('');
       const updatedGame = await GameService.usePotion(currentPlayer.id, potionColor);
-      if (updatedGame) {
-        refreshPlayer(updatedGame, currentPlayer.id);
-      }
+      await applyActionState(updatedGame, currentPlayer.id);
     } catch (err) {
       console.error(err);
       setError("Erro ao usar poção.");
@@ -544,9 +522,7 @@ function App() {
     try {
       setError('');
       const updatedGame = await GameService.givePotion(currentPlayer.id, potionColor);
-      if (updatedGame) {
-        refreshPlayer(updatedGame, currentPlayer.id);
-      }
+      await applyActionState(updatedGame, currentPlayer.id);
       closePotionDialog();
     } catch (err) {
       console.error(err);
@@ -1,43 +1,92 @@
 // frontend/src/api.ts
 import axios from 'axios';
-import { GameMatch, SpellResult, DuelResult } from './types';
+import { GameMatch, JoinResult, SpellResult, DuelResult } from './types';
 
 const apiBaseURL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api/game';
 const api = axios.create({
     baseURL: apiBaseURL,
 });
 
+// Every action gets an Idempotency-Key, and one that got no response (dropped connection,
+// timeout) is resent with the same key: the server answers a repeat with the first result
+// instead of acting twice. Actions turned away because the match or the server is busy (429,
+// 503) are resent after the Retry-After delay.
+const MAX_RETRIES = 2;
+
+api.interceptors.request.use((config) => {
+    if (config.method === 'post' && !config.headers['Idempotency-Key']) {
+        config.headers['Idempotency-Key'] = crypto.randomUUID();
+    }
+    return config;
+});
+
+api.interceptors.response.use(undefined, (error) => {
+    const config = error.config;
+    const status = error.response?.status;
+    const busy = status === 429 || status === 503;
+    if (!config || (error.response && !busy) || config.method !== 'post') {
+        return Promise.reject(error);
+    }
+    config.retries = (config.retries ?? 0) + 1;
+    if (config.retries > MAX_RETRIES) {
+        return Promise.reject(error);
+    }
+    const delaySeconds = busy ? Number(error.response.headers['retry-after']) || 1 : 0;
+    return new Promise((resolve) => setTimeout(resolve, delaySeconds * 1000))
+        .then(() => api.request(config));
+});
+
+// Player ids are in every view, so the server takes the acting player (and the private view to
+// return) from the token only the join response carries. Tokens are kept per player id, in
+// localStorage so a reload keeps its seat, and sent in place of the id.
+const TOKENS_KEY = 'ultma.playerTokens';
+const playerTokens = new Map<string, string>(JSON.parse(localStorage.getItem(TOKENS_KEY) ?? '[]'));
+
+const rememberToken = (playerId: string, playerToken: string) => {
+    playerTokens.set(playerId, playerToken);
+    localStorage.setItem(TOKENS_KEY, JSON.stringify([...playerTokens]));
+};
+
+const tokenFor = (playerId?: string): string | undefined =>
+    playerId === undefined ? undefined : playerTokens.get(playerId);
+
 export const GameService = {
     startNewGame: async (): Promise<GameMatch> => {
         const response = await api.post<GameMatch>('/new');
         return response.data;
     },
 
+    // the joined player is the last seat; its token is kept for the calls below
     joinGame: async (playerName: string): Promise<GameMatch> => {
-        const response = await api.post<GameMatch>('/join', null, {
+        const response = await api.post<JoinResult>('/join', null, {
             params: { playerName }
         });
-        return response.data;
+        const { playerToken, ...match } = response.data;
+        const joined = match.players[match.players.length - 1];
+        if (playerToken && joined) {
+            rememberToken(joined.id, playerToken);
+        }
+        return match;
     },
 
-    // cast a spell sending player id for mana deduction
+    // cast a spell sending the player's token for mana deduction
     castSpell: async (playerId: string, word1: string, word2: string): Promise<SpellResult> => {
         const response = await api.post<SpellResult>('/cast', null, {
-            params: { playerId: playerId, w1: word1, w2: word2 } // sending player idS
+            params: { playerToken: tokenFor(playerId), w1: word1, w2: word2 }
         });
         return response.data;
     },
 
-    // get current game state without resetting
-    getGame: async (): Promise<GameMatch> => {
-        const response = await api.get<GameMatch>(''); // calls GET /api/game
+    // get current game state without resetting, as seen by playerId (spectator view without one)
+    getGame: async (playerId?: string): Promise<GameMatch> => {
+        const response = await api.get<GameMatch>('', { params: { playerToken: tokenFor(playerId) } }); // calls GET /api/game
         return response.data;
     },
 
     // recover mana
     meditate: async (playerId: string): Promise<GameMatch> => {
         const response = await api.post<GameMatch>('/meditate', null, {
-            params: { playerId }
+            params: { playerToken: tokenFor(playerId) }
         });
         return response.data;
     },
@@ -45,7 +94,7 @@ export const GameService = {
     // attack another player
     attackPlayer: async (attackerId: string, targetId: string, spellName: string): Promise<DuelResult> => {
         const response = await api.post<DuelResult>('/attack', null, {
-            params: { attackerId, targetId, spellName }
+            params: { playerToken: tokenFor(attackerId), targetId, spellName }
         });
         return response.data;
     },
@@ -53,35 +102,31 @@ export const GameService = {
     // activate a defense spell
     activateDefense: async (playerId: string, spellName: string): Promise<SpellResult> => {
         const response = await api.post<SpellResult>('/activate-defense', null, {
-            params: { playerId, spellName }
+            params: { playerToken: tokenFor(playerId), spellName }
         });
         return response.data;
     },
 
     // start arena phase
-    startArenaPhase: async (): Promise<GameMatch> => {
-        const response = await api.post<GameMatch>('/start-arena');
+    startArenaPhase: async (playerId?: string): Promise<GameMatch> => {
+        const response = await api.post<GameMatch>('/start-arena', null, {
+            params: { playerToken: tokenFor(playerId) }
+        });
         return response.data;
     },
 
     // end turn in arena
     endArenaTurn: async (playerId: string): Promise<GameMatch> => {
         const response = await api.post<GameMatch>('/end-turn', null, {
-            params: { playerId }
+            params: { playerToken: tokenFor(playerId) }
         });
         return response.data;
     },
 
     // end arena phase and return to exploration
-    endArenaPhase: async (): Promise<GameMatch> => {
-        const response = await api.post<GameMatch>('/end-arena');
-        return response.data;
-    },
-
-    // check if positions are adjacent
-    areAdjacent: async (pos1: number, pos2: number, totalPlayers: number): Promise<boolean> => {
-        const response = await api.get<boolean>('/adjacent', {
-            params: { pos1, pos2, totalPlayers }
+    endArenaPhase: async (playerId?: string): Promise<GameMatch> => {
+        const response = await api.post<GameMatch>('/end-arena', null, {
+            params: { playerToken: tokenFor(playerId) }
         });
         return response.data;
     },
@@ -94,7 +139,7 @@ export const GameService = {
     // use a potion from player's inventory
     usePotion: async (playerId: string, potionColor: string): Promise<GameMatch> => {
         const response = await api.post<GameMatch>('/use-potion', null, {
-            params: { playerId, potionColor }
+            params: { playerToken: tokenFor(playerId), potionColor }
         });
         return response.data;
     },
@@ -102,7 +147,7 @@ export const GameService = {
     // give a specific potion to a player
     givePotion: async (playerId: string, potionColor: string): Promise<GameMatch> => {
         const response = await api.post<GameMatch>('/give-potion', null, {
-            params: { playerId, potionColor }
+            params: { playerToken: tokenFor(playerId), potionColor }
         });
         return response.data;
     },
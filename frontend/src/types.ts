@@ -6,6 +6,7 @@ export interface SpellResult {
     manaCost: number;
     description: string;
     success: boolean;
+    match?: GameMatch; // state after the action (cast, defense)
 }
 
 export interface Player {
@@ -15,6 +16,7 @@ export interface Player {
     magicShield: number; // 5
     mana: number;       // 5
     isEliminated: boolean;
+    bot?: boolean;
     knownSpells: string[];
     potions: string[];
     activeDefenses?: string[];
@@ -24,6 +26,7 @@ export interface Player {
 
 export interface GameMatch {
     matchId: string;
+    version?: number;
     players: Player[];
     wordDictionary?: Record<string, string>;
     isArenaPhase?: boolean;
@@ -31,6 +34,11 @@ export interface GameMatch {
     arenaRound?: number;
 }
 
+// the join response: the match plus the token that acts as the joined player
+export interface JoinResult extends GameMatch {
+    playerToken: string;
+}
+
 export interface DuelResult {
     success: boolean;
     attackerId: string;
@@ -43,4 +51,5 @@ export interface DuelResult {
     targetLifeAfter: number;
     wasBlocked: boolean;
     blockingSpell?: string;
+    match?: GameMatch; // state after the attack
 }
\ No newline at end of file